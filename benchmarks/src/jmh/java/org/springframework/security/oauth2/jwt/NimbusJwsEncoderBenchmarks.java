@@ -0,0 +1,69 @@
+/*
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.security.oauth2.jwt;
+
+import java.time.Instant;
+import java.util.Collections;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
+import org.springframework.security.oauth2.server.authorization.BenchmarkFixtures;
+
+/**
+ * Benchmarks for JWS signing with {@link NimbusJwsEncoder}.
+ */
+@State(Scope.Benchmark)
+public class NimbusJwsEncoderBenchmarks {
+
+	@Param({"RS256", "ES256", "HS256"})
+	public String algorithm;
+
+	private NimbusJwsEncoder jwsEncoder;
+
+	private JoseHeader headers;
+
+	private JwtClaimsSet claims;
+
+	@Setup
+	public void setup() {
+		this.jwsEncoder = new NimbusJwsEncoder(BenchmarkFixtures.jwkSource(this.algorithm));
+		this.headers = "HS256".equals(this.algorithm) ?
+				JoseHeader.withAlgorithm(MacAlgorithm.HS256).build() :
+				JoseHeader.withAlgorithm(SignatureAlgorithm.from(this.algorithm)).build();
+		Instant issuedAt = Instant.now();
+		this.claims = JwtClaimsSet.builder()
+				.issuer("https://provider.com")
+				.subject("subject")
+				.audience(Collections.singletonList("client-1"))
+				.issuedAt(issuedAt)
+				.notBefore(issuedAt)
+				.expiresAt(issuedAt.plusSeconds(300))
+				.claim("scope", Collections.singleton("scope1"))
+				.build();
+	}
+
+	@Benchmark
+	public Jwt encode() {
+		return this.jwsEncoder.encode(this.headers, this.claims);
+	}
+
+}
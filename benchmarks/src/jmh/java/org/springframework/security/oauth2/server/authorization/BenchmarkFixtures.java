@@ -0,0 +1,128 @@
+/*
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.security.oauth2.server.authorization;
+
+import java.security.Principal;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.gen.ECKeyGenerator;
+import com.nimbusds.jose.jwk.gen.OctetSequenceKeyGenerator;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.SecurityContext;
+
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.ClientAuthenticationMethod;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.core.OAuth2AuthorizationCode;
+import org.springframework.security.oauth2.core.OAuth2RefreshToken;
+import org.springframework.security.oauth2.core.endpoint.OAuth2AuthorizationRequest;
+import org.springframework.security.oauth2.core.endpoint.OAuth2ParameterNames;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+
+/**
+ * Shared fixtures for the benchmarks.
+ */
+public final class BenchmarkFixtures {
+
+	private BenchmarkFixtures() {
+	}
+
+	public static RegisteredClient registeredClient() {
+		return RegisteredClient.withId("registration-1")
+				.clientId("client-1")
+				.clientIdIssuedAt(Instant.now().truncatedTo(ChronoUnit.SECONDS))
+				.clientSecret("secret")
+				.authorizationGrantType(AuthorizationGrantType.AUTHORIZATION_CODE)
+				.authorizationGrantType(AuthorizationGrantType.REFRESH_TOKEN)
+				.authorizationGrantType(AuthorizationGrantType.CLIENT_CREDENTIALS)
+				.clientAuthenticationMethod(ClientAuthenticationMethod.CLIENT_SECRET_BASIC)
+				.redirectUri("https://example.com")
+				.scope("scope1")
+				.scope("scope2")
+				.build();
+	}
+
+	/**
+	 * Returns a complete (access token issued) authorization, whose identifier
+	 * and token values are derived from the provided {@code index}.
+	 */
+	public static OAuth2Authorization authorization(RegisteredClient registeredClient, int index) {
+		Instant issuedAt = Instant.now();
+		OAuth2AuthorizationCode authorizationCode = new OAuth2AuthorizationCode(
+				"code-" + index, issuedAt, issuedAt.plusSeconds(120));
+		OAuth2AccessToken accessToken = new OAuth2AccessToken(OAuth2AccessToken.TokenType.BEARER,
+				"access-token-" + index, issuedAt, issuedAt.plusSeconds(300), registeredClient.getScopes());
+		OAuth2RefreshToken refreshToken = new OAuth2RefreshToken(
+				"refresh-token-" + index, issuedAt, issuedAt.plus(1, ChronoUnit.HOURS));
+		OAuth2AuthorizationRequest authorizationRequest = OAuth2AuthorizationRequest.authorizationCode()
+				.authorizationUri("https://provider.com/oauth2/authorize")
+				.clientId(registeredClient.getClientId())
+				.redirectUri(registeredClient.getRedirectUris().iterator().next())
+				.scopes(registeredClient.getScopes())
+				.state("state-" + index)
+				.build();
+		Map<String, Object> accessTokenClaims = new HashMap<>();
+		accessTokenClaims.put("sub", "principal-" + index);
+		accessTokenClaims.put("aud", Collections.singletonList(registeredClient.getClientId()));
+		return OAuth2Authorization.withRegisteredClient(registeredClient)
+				.id("id-" + index)
+				.principalName("principal-" + index)
+				.authorizationGrantType(AuthorizationGrantType.AUTHORIZATION_CODE)
+				.token(authorizationCode, (metadata) -> metadata.put(OAuth2Authorization.Token.INVALIDATED_METADATA_NAME, true))
+				.token(accessToken, (metadata) -> metadata.put(OAuth2Authorization.Token.CLAIMS_METADATA_NAME, accessTokenClaims))
+				.refreshToken(refreshToken)
+				.attribute(OAuth2AuthorizationRequest.class.getName(), authorizationRequest)
+				.attribute(Principal.class.getName(), new UsernamePasswordAuthenticationToken(
+						"principal-" + index, null, AuthorityUtils.createAuthorityList("ROLE_USER")))
+				.attribute(OAuth2Authorization.AUTHORIZED_SCOPE_ATTRIBUTE_NAME, registeredClient.getScopes())
+				.attribute(OAuth2ParameterNames.STATE, "state-" + index)
+				.build();
+	}
+
+	public static JWKSource<SecurityContext> jwkSource(String algorithm) {
+		return new ImmutableJWKSet<>(new JWKSet(jwk(algorithm)));
+	}
+
+	private static JWK jwk(String algorithm) {
+		try {
+			switch (algorithm) {
+				case "RS256":
+					return new RSAKeyGenerator(2048).keyID("rsa-jwk").generate();
+				case "ES256":
+					return new ECKeyGenerator(Curve.P_256).keyID("ec-jwk").generate();
+				case "HS256":
+					return new OctetSequenceKeyGenerator(256).keyID("secret-jwk").generate();
+				default:
+					throw new IllegalArgumentException("Unsupported algorithm " + algorithm);
+			}
+		} catch (JOSEException ex) {
+			throw new IllegalStateException(ex);
+		}
+	}
+
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.security.oauth2.server.authorization;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.security.oauth2.core.OAuth2TokenType;
+import org.springframework.security.oauth2.server.authorization.client.InMemoryRegisteredClientRepository;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+
+/**
+ * Benchmarks for {@link JdbcOAuth2AuthorizationService}, covering the persistence round trip
+ * (including the row mapping and JSON (de)serialization of the attributes and token metadata)
+ * against an embedded HSQLDB, at varying store sizes.
+ */
+@State(Scope.Benchmark)
+public class JdbcOAuth2AuthorizationServiceBenchmarks {
+	private static final String OAUTH2_AUTHORIZATION_SCHEMA_SQL_RESOURCE = "org/springframework/security/oauth2/server/authorization/oauth2-authorization-schema.sql";
+	private static final String OAUTH2_AUTHORIZATION_TOKEN_LOOKUP_SCHEMA_SQL_RESOURCE = "org/springframework/security/oauth2/server/authorization/oauth2-authorization-token-lookup-schema.sql";
+
+	@Param({"1000", "10000", "100000"})
+	public int storeSize;
+
+	@Param({"false", "true"})
+	public boolean tokenLookupEnabled;
+
+	private EmbeddedDatabase db;
+
+	private JdbcOAuth2AuthorizationService authorizationService;
+
+	private OAuth2Authorization[] authorizations;
+
+	@Setup
+	public void setup() {
+		this.db = new EmbeddedDatabaseBuilder()
+				.generateUniqueName(true)
+				.setType(EmbeddedDatabaseType.HSQL)
+				.setScriptEncoding("UTF-8")
+				.addScripts(OAUTH2_AUTHORIZATION_SCHEMA_SQL_RESOURCE, OAUTH2_AUTHORIZATION_TOKEN_LOOKUP_SCHEMA_SQL_RESOURCE)
+				.build();
+		RegisteredClient registeredClient = BenchmarkFixtures.registeredClient();
+		this.authorizationService = new JdbcOAuth2AuthorizationService(
+				new JdbcTemplate(this.db), new InMemoryRegisteredClientRepository(registeredClient));
+		this.authorizationService.setTokenLookupEnabled(this.tokenLookupEnabled);
+		this.authorizations = new OAuth2Authorization[this.storeSize];
+		for (int i = 0; i < this.storeSize; i++) {
+			this.authorizations[i] = BenchmarkFixtures.authorization(registeredClient, i);
+			this.authorizationService.save(this.authorizations[i]);
+		}
+	}
+
+	@TearDown
+	public void tearDown() {
+		this.db.shutdown();
+	}
+
+	@Benchmark
+	public OAuth2Authorization findById() {
+		return this.authorizationService.findById("id-" + nextIndex());
+	}
+
+	@Benchmark
+	public OAuth2Authorization findByAccessToken() {
+		return this.authorizationService.findByToken(
+				"access-token-" + nextIndex(), OAuth2TokenType.ACCESS_TOKEN);
+	}
+
+	@Benchmark
+	public OAuth2Authorization findByTokenWithoutTokenType() {
+		return this.authorizationService.findByToken("refresh-token-" + nextIndex(), null);
+	}
+
+	@Benchmark
+	public OAuth2Authorization saveAndFindById() {
+		OAuth2Authorization authorization = this.authorizations[nextIndex()];
+		this.authorizationService.save(authorization);
+		return this.authorizationService.findById(authorization.getId());
+	}
+
+	private int nextIndex() {
+		return ThreadLocalRandom.current().nextInt(this.storeSize);
+	}
+
+}
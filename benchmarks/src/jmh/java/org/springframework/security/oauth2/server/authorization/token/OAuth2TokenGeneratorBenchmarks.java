@@ -0,0 +1,97 @@
+/*
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.security.oauth2.server.authorization.token;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.core.OAuth2RefreshToken;
+import org.springframework.security.oauth2.core.OAuth2TokenFormat;
+import org.springframework.security.oauth2.core.OAuth2TokenType;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.NimbusJwsEncoder;
+import org.springframework.security.oauth2.server.authorization.BenchmarkFixtures;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+import org.springframework.security.oauth2.server.authorization.config.ProviderSettings;
+import org.springframework.security.oauth2.server.authorization.config.TokenSettings;
+import org.springframework.security.oauth2.server.authorization.context.ProviderContext;
+
+/**
+ * Benchmarks for the {@link OAuth2TokenGenerator}(s) used by the token endpoint.
+ */
+@State(Scope.Benchmark)
+public class OAuth2TokenGeneratorBenchmarks {
+
+	private JwtGenerator jwtGenerator;
+
+	private OAuth2AccessTokenGenerator accessTokenGenerator;
+
+	private OAuth2RefreshTokenGenerator refreshTokenGenerator;
+
+	private OAuth2TokenContext accessTokenContext;
+
+	private OAuth2TokenContext opaqueAccessTokenContext;
+
+	private OAuth2TokenContext refreshTokenContext;
+
+	@Setup
+	public void setup() {
+		this.jwtGenerator = new JwtGenerator(new NimbusJwsEncoder(BenchmarkFixtures.jwkSource("RS256")));
+		this.accessTokenGenerator = new OAuth2AccessTokenGenerator();
+		this.refreshTokenGenerator = new OAuth2RefreshTokenGenerator();
+
+		RegisteredClient registeredClient = BenchmarkFixtures.registeredClient();
+		ProviderSettings providerSettings = ProviderSettings.builder().issuer("https://provider.com").build();
+		DefaultOAuth2TokenContext.Builder tokenContextBuilder = DefaultOAuth2TokenContext.builder()
+				.registeredClient(registeredClient)
+				.principal(new UsernamePasswordAuthenticationToken(
+						"principal", null, AuthorityUtils.createAuthorityList("ROLE_USER")))
+				.providerContext(new ProviderContext(providerSettings, null))
+				.authorizedScopes(registeredClient.getScopes())
+				.authorizationGrantType(AuthorizationGrantType.CLIENT_CREDENTIALS);
+		this.accessTokenContext = tokenContextBuilder.tokenType(OAuth2TokenType.ACCESS_TOKEN).build();
+		this.refreshTokenContext = tokenContextBuilder.tokenType(OAuth2TokenType.REFRESH_TOKEN).build();
+		RegisteredClient opaqueRegisteredClient = RegisteredClient.from(registeredClient)
+				.tokenSettings(TokenSettings.builder().accessTokenFormat(OAuth2TokenFormat.REFERENCE).build())
+				.build();
+		this.opaqueAccessTokenContext = tokenContextBuilder
+				.registeredClient(opaqueRegisteredClient)
+				.tokenType(OAuth2TokenType.ACCESS_TOKEN)
+				.build();
+	}
+
+	@Benchmark
+	public Jwt generateJwtAccessToken() {
+		return this.jwtGenerator.generate(this.accessTokenContext);
+	}
+
+	@Benchmark
+	public OAuth2AccessToken generateOpaqueAccessToken() {
+		return this.accessTokenGenerator.generate(this.opaqueAccessTokenContext);
+	}
+
+	@Benchmark
+	public OAuth2RefreshToken generateRefreshToken() {
+		return this.refreshTokenGenerator.generate(this.refreshTokenContext);
+	}
+
+}
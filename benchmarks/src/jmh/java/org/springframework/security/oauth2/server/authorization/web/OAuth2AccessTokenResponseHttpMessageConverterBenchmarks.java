@@ -0,0 +1,102 @@
+/*
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.security.oauth2.server.authorization.web;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.core.endpoint.OAuth2AccessTokenResponse;
+
+/**
+ * Benchmarks for writing the OAuth 2.0 Access Token Response, using the (generic)
+ * {@link OAuth2AccessTokenResponseHttpMessageConverter} and the {@link OAuth2AccessTokenResponseWriter}.
+ */
+@State(Scope.Thread)
+public class OAuth2AccessTokenResponseHttpMessageConverterBenchmarks {
+
+	private final OAuth2AccessTokenResponseHttpMessageConverter accessTokenResponseHttpMessageConverter =
+			new OAuth2AccessTokenResponseHttpMessageConverter();
+
+	private final OAuth2AccessTokenResponseWriter accessTokenResponseWriter = new OAuth2AccessTokenResponseWriter();
+
+	private final ByteArrayHttpOutputMessage httpOutputMessage = new ByteArrayHttpOutputMessage();
+
+	private OAuth2AccessTokenResponse accessTokenResponse;
+
+	@Setup
+	public void setup() {
+		this.accessTokenResponse = OAuth2AccessTokenResponse.withToken("eyJraWQiOiJyc2EtandrIiwiYWxnIjoiUlMyNTYifQ.access-token")
+				.tokenType(OAuth2AccessToken.TokenType.BEARER)
+				.expiresIn(300)
+				.refreshToken("refresh-token")
+				.scopes(new HashSet<>(Arrays.asList("scope1", "scope2")))
+				.additionalParameters(Collections.singletonMap("id_token", "eyJraWQiOiJyc2EtandrIiwiYWxnIjoiUlMyNTYifQ.id-token"))
+				.build();
+	}
+
+	@Benchmark
+	public int write() throws IOException {
+		this.httpOutputMessage.reset();
+		this.accessTokenResponseHttpMessageConverter.write(
+				this.accessTokenResponse, MediaType.APPLICATION_JSON, this.httpOutputMessage);
+		return this.httpOutputMessage.body.size();
+	}
+
+	@Benchmark
+	public int writeStreaming() throws IOException {
+		this.httpOutputMessage.reset();
+		OAuth2AccessToken accessToken = this.accessTokenResponse.getAccessToken();
+		this.accessTokenResponseWriter.write(accessToken,
+				this.accessTokenResponse.getRefreshToken(), this.accessTokenResponse.getAdditionalParameters(),
+				this.httpOutputMessage.body);
+		return this.httpOutputMessage.body.size();
+	}
+
+	private static final class ByteArrayHttpOutputMessage implements HttpOutputMessage {
+		private final ByteArrayOutputStream body = new ByteArrayOutputStream(1024);
+		private HttpHeaders headers = new HttpHeaders();
+
+		private void reset() {
+			this.body.reset();
+			this.headers = new HttpHeaders();
+		}
+
+		@Override
+		public OutputStream getBody() {
+			return this.body;
+		}
+
+		@Override
+		public HttpHeaders getHeaders() {
+			return this.headers;
+		}
+
+	}
+
+}
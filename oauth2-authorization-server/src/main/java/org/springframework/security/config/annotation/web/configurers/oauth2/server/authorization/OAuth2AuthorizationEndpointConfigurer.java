@@ -31,6 +31,7 @@ import org.springframework.security.oauth2.server.authorization.authentication.O
 import org.springframework.security.oauth2.server.authorization.authentication.OAuth2AuthorizationCodeRequestAuthenticationProvider;
 import org.springframework.security.oauth2.server.authorization.authentication.OAuth2AuthorizationCodeRequestAuthenticationToken;
 import org.springframework.security.oauth2.server.authorization.config.ProviderSettings;
+import org.springframework.security.oauth2.server.authorization.token.StatelessAuthorizationCodeGenerator;
 import org.springframework.security.oauth2.server.authorization.web.OAuth2AuthorizationEndpointFilter;
 import org.springframework.security.web.authentication.AuthenticationConverter;
 import org.springframework.security.web.authentication.AuthenticationFailureHandler;
@@ -203,6 +204,11 @@ public final class OAuth2AuthorizationEndpointConfigurer extends AbstractOAuth2C
 						OAuth2ConfigurerUtils.getRegisteredClientRepository(builder),
 						OAuth2ConfigurerUtils.getAuthorizationService(builder),
 						OAuth2ConfigurerUtils.getAuthorizationConsentService(builder));
+		StatelessAuthorizationCodeGenerator authorizationCodeGenerator =
+				builder.getSharedObject(StatelessAuthorizationCodeGenerator.class);
+		if (authorizationCodeGenerator != null) {
+			authorizationCodeRequestAuthenticationProvider.setAuthorizationCodeGenerator(authorizationCodeGenerator);
+		}
 		authenticationProviders.add(authorizationCodeRequestAuthenticationProvider);
 
 		return authenticationProviders;
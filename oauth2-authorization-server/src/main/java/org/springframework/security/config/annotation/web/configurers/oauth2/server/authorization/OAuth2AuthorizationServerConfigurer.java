@@ -16,10 +16,12 @@
 package org.springframework.security.config.annotation.web.configurers.oauth2.server.authorization;
 
 import java.net.URI;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
 
 import javax.servlet.AsyncContext;
 import javax.servlet.ServletRequest;
@@ -43,9 +45,14 @@ import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.oauth2.core.OAuth2Token;
 import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationConsentService;
 import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationService;
+import org.springframework.security.oauth2.server.authorization.OAuth2TokenRevocationList;
+import org.springframework.security.oauth2.server.authorization.StatelessAccessTokenOAuth2AuthorizationService;
+import org.springframework.security.oauth2.server.authorization.StatelessAuthorizationCodeOAuth2AuthorizationService;
 import org.springframework.security.oauth2.server.authorization.client.RegisteredClientRepository;
 import org.springframework.security.oauth2.server.authorization.config.ProviderSettings;
 import org.springframework.security.oauth2.server.authorization.token.OAuth2TokenGenerator;
+import org.springframework.security.oauth2.server.authorization.token.StatelessAuthorizationCodeGenerator;
+import org.springframework.security.oauth2.server.authorization.web.AsyncEndpointExecutionFilter;
 import org.springframework.security.oauth2.server.authorization.web.NimbusJwkSetEndpointFilter;
 import org.springframework.security.oauth2.server.authorization.web.OAuth2AuthorizationServerMetadataEndpointFilter;
 import org.springframework.security.oauth2.server.authorization.web.ProviderContextFilter;
@@ -82,6 +89,7 @@ import org.springframework.util.Assert;
  * @see OAuth2AuthorizationConsentService
  * @see NimbusJwkSetEndpointFilter
  * @see OAuth2AuthorizationServerMetadataEndpointFilter
+ * @see AsyncEndpointExecutionFilter
  */
 public final class OAuth2AuthorizationServerConfigurer<B extends HttpSecurityBuilder<B>>
 		extends AbstractHttpConfigurer<OAuth2AuthorizationServerConfigurer<B>, B> {
@@ -89,6 +97,8 @@ public final class OAuth2AuthorizationServerConfigurer<B extends HttpSecurityBui
 	private final Map<Class<? extends AbstractOAuth2Configurer>, AbstractOAuth2Configurer> configurers = createConfigurers();
 	private RequestMatcher jwkSetEndpointMatcher;
 	private RequestMatcher authorizationServerMetadataEndpointMatcher;
+	private Executor endpointExecutor;
+	private Duration endpointExecutionTimeout;
 	private final RequestMatcher endpointsMatcher = (request) ->
 			getRequestMatcher(OAuth2AuthorizationEndpointConfigurer.class).matches(request) ||
 			getRequestMatcher(OAuth2TokenEndpointConfigurer.class).matches(request) ||
@@ -159,6 +169,83 @@ public final class OAuth2AuthorizationServerConfigurer<B extends HttpSecurityBui
 		return this;
 	}
 
+	/**
+	 * Sets the {@link StatelessAuthorizationCodeGenerator} used for generating self-contained authorization codes,
+	 * which are not stored by the {@link OAuth2AuthorizationService} when the authorization consent is not required.
+	 *
+	 * @param authorizationCodeGenerator the {@link StatelessAuthorizationCodeGenerator}
+	 * @return the {@link OAuth2AuthorizationServerConfigurer} for further configuration
+	 * @since 0.3.0
+	 * @see StatelessAuthorizationCodeOAuth2AuthorizationService
+	 */
+	public OAuth2AuthorizationServerConfigurer<B> statelessAuthorizationCodes(StatelessAuthorizationCodeGenerator authorizationCodeGenerator) {
+		Assert.notNull(authorizationCodeGenerator, "authorizationCodeGenerator cannot be null");
+		getBuilder().setSharedObject(StatelessAuthorizationCodeGenerator.class, authorizationCodeGenerator);
+		return this;
+	}
+
+	/**
+	 * Sets the {@link OAuth2TokenRevocationList} consulted by the OAuth 2.0 Token Introspection endpoint,
+	 * and updated by the OAuth 2.0 Token Revocation endpoint. By default, no list is used.
+	 *
+	 * <p>
+	 * When a {@code JWKSource} is configured, setting the list also enables the resolution of the self-contained access tokens
+	 * issued to the clients that do not store their {@code client_credentials} authorizations
+	 * (see {@link org.springframework.security.oauth2.server.authorization.config.TokenSettings#isStoreClientCredentialsAuthorizations()}),
+	 * which are revoked by adding them to the list.
+	 *
+	 * <p>
+	 * <b>NOTE:</b> The {@link OAuth2TokenRevocationList} is held in-memory, therefore a token revoked on a node of a cluster
+	 * is only known as revoked by that node.
+	 *
+	 * @param tokenRevocationList the {@link OAuth2TokenRevocationList}
+	 * @return the {@link OAuth2AuthorizationServerConfigurer} for further configuration
+	 * @since 0.3.0
+	 * @see StatelessAccessTokenOAuth2AuthorizationService
+	 */
+	public OAuth2AuthorizationServerConfigurer<B> tokenRevocationList(OAuth2TokenRevocationList tokenRevocationList) {
+		Assert.notNull(tokenRevocationList, "tokenRevocationList cannot be null");
+		getBuilder().setSharedObject(OAuth2TokenRevocationList.class, tokenRevocationList);
+		return this;
+	}
+
+	/**
+	 * Sets the {@link Executor} used for processing the requests to the
+	 * OAuth 2.0 Token, Token Introspection and Token Revocation endpoints,
+	 * and the OpenID Connect 1.0 UserInfo and Client Registration endpoints,
+	 * which releases the servlet container thread while the request is processed.
+	 * By default, the requests are processed on the servlet container thread.
+	 *
+	 * <p>
+	 * <b>NOTE:</b> On a JDK that supports virtual threads, a virtual thread per task {@link Executor} may be used.
+	 * Otherwise, a bounded thread pool is recommended.
+	 *
+	 * @param endpointExecutor the {@link Executor} used for processing the endpoint requests
+	 * @return the {@link OAuth2AuthorizationServerConfigurer} for further configuration
+	 * @since 0.3.0
+	 * @see AsyncEndpointExecutionFilter
+	 */
+	public OAuth2AuthorizationServerConfigurer<B> endpointExecutor(Executor endpointExecutor) {
+		Assert.notNull(endpointExecutor, "endpointExecutor cannot be null");
+		this.endpointExecutor = endpointExecutor;
+		return this;
+	}
+
+	/**
+	 * Sets the maximum time allowed for processing a request submitted to the {@link #endpointExecutor(Executor) endpoint executor},
+	 * after which the request is completed with a {@code 503 Service Unavailable}. The default is 30 seconds.
+	 *
+	 * @param endpointExecutionTimeout the maximum time allowed for processing an endpoint request
+	 * @return the {@link OAuth2AuthorizationServerConfigurer} for further configuration
+	 * @since 0.3.0
+	 * @see AsyncEndpointExecutionFilter#setTimeout(Duration)
+	 */
+	public OAuth2AuthorizationServerConfigurer<B> endpointExecutionTimeout(Duration endpointExecutionTimeout) {
+		Assert.notNull(endpointExecutionTimeout, "endpointExecutionTimeout cannot be null");
+		this.endpointExecutionTimeout = endpointExecutionTimeout;
+		return this;
+	}
+
 	/**
 	 * Configures OAuth 2.0 Client Authentication.
 	 *
@@ -386,6 +473,16 @@ public final class OAuth2AuthorizationServerConfigurer<B extends HttpSecurityBui
 		ProviderContextFilter providerContextFilter = new ProviderContextFilter(providerSettings);
 		builder.addFilterAfter(postProcess(providerContextFilter), SecurityContextPersistenceFilter.class);
 
+		if (this.endpointExecutor != null) {
+			// Added after ProviderContextFilter, so the ProviderContext is propagated to the executor thread
+			AsyncEndpointExecutionFilter asyncEndpointExecutionFilter = new AsyncEndpointExecutionFilter(
+					this.endpointExecutor, initAsyncEndpointsMatcher());
+			if (this.endpointExecutionTimeout != null) {
+				asyncEndpointExecutionFilter.setTimeout(this.endpointExecutionTimeout);
+			}
+			builder.addFilterAfter(postProcess(asyncEndpointExecutionFilter), SecurityContextPersistenceFilter.class);
+		}
+
 		JWKSource<com.nimbusds.jose.proc.SecurityContext> jwkSource = OAuth2ConfigurerUtils.getJwkSource(builder);
 		if (jwkSource != null) {
 			NimbusJwkSetEndpointFilter jwkSetEndpointFilter = new NimbusJwkSetEndpointFilter(
@@ -425,6 +522,24 @@ public final class OAuth2AuthorizationServerConfigurer<B extends HttpSecurityBui
 				"/.well-known/oauth-authorization-server", HttpMethod.GET.name());
 	}
 
+	private RequestMatcher initAsyncEndpointsMatcher() {
+		List<RequestMatcher> requestMatchers = new ArrayList<>();
+		requestMatchers.add(getRequestMatcher(OAuth2TokenEndpointConfigurer.class));
+		requestMatchers.add(getRequestMatcher(OAuth2TokenIntrospectionEndpointConfigurer.class));
+		requestMatchers.add(getRequestMatcher(OAuth2TokenRevocationEndpointConfigurer.class));
+		requestMatchers.add(
+				getConfigurer(OidcConfigurer.class)
+						.getConfigurer(OidcUserInfoEndpointConfigurer.class).getRequestMatcher()
+		);
+		OidcClientRegistrationEndpointConfigurer clientRegistrationEndpointConfigurer =
+				getConfigurer(OidcConfigurer.class)
+						.getConfigurer(OidcClientRegistrationEndpointConfigurer.class);
+		if (clientRegistrationEndpointConfigurer != null) {
+			requestMatchers.add(clientRegistrationEndpointConfigurer.getRequestMatcher());
+		}
+		return new OrRequestMatcher(requestMatchers);
+	}
+
 	private static void validateProviderSettings(ProviderSettings providerSettings) {
 		if (providerSettings.getIssuer() != null) {
 			try {
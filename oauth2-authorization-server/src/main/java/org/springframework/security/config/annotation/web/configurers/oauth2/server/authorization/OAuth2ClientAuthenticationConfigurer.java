@@ -118,16 +118,22 @@ public final class OAuth2ClientAuthenticationConfigurer extends AbstractOAuth2Co
 	@Override
 	<B extends HttpSecurityBuilder<B>> void init(B builder) {
 		ProviderSettings providerSettings = OAuth2ConfigurerUtils.getProviderSettings(builder);
-		this.requestMatcher = new OrRequestMatcher(
-				new AntPathRequestMatcher(
-						providerSettings.getTokenEndpoint(),
-						HttpMethod.POST.name()),
-				new AntPathRequestMatcher(
-						providerSettings.getTokenIntrospectionEndpoint(),
-						HttpMethod.POST.name()),
-				new AntPathRequestMatcher(
-						providerSettings.getTokenRevocationEndpoint(),
-						HttpMethod.POST.name()));
+		List<RequestMatcher> requestMatchers = new ArrayList<>();
+		requestMatchers.add(new AntPathRequestMatcher(
+				providerSettings.getTokenEndpoint(),
+				HttpMethod.POST.name()));
+		requestMatchers.add(new AntPathRequestMatcher(
+				providerSettings.getTokenIntrospectionEndpoint(),
+				HttpMethod.POST.name()));
+		requestMatchers.add(new AntPathRequestMatcher(
+				providerSettings.getTokenRevocationEndpoint(),
+				HttpMethod.POST.name()));
+		if (providerSettings.getBatchTokenIntrospectionEndpoint() != null) {
+			requestMatchers.add(new AntPathRequestMatcher(
+					providerSettings.getBatchTokenIntrospectionEndpoint(),
+					HttpMethod.POST.name()));
+		}
+		this.requestMatcher = new OrRequestMatcher(requestMatchers);
 
 		List<AuthenticationProvider> authenticationProviders =
 				!this.authenticationProviders.isEmpty() ?
@@ -15,6 +15,8 @@
  */
 package org.springframework.security.config.annotation.web.configurers.oauth2.server.authorization;
 
+import java.time.Duration;
+import java.util.Collection;
 import java.util.Map;
 
 import com.nimbusds.jose.jwk.source.JWKSource;
@@ -25,8 +27,11 @@ import org.springframework.beans.factory.NoSuchBeanDefinitionException;
 import org.springframework.beans.factory.NoUniqueBeanDefinitionException;
 import org.springframework.context.ApplicationContext;
 import org.springframework.core.ResolvableType;
+import org.springframework.lang.Nullable;
 import org.springframework.security.config.annotation.web.HttpSecurityBuilder;
+import org.springframework.security.config.annotation.web.configuration.OAuth2AuthorizationServerConfiguration;
 import org.springframework.security.oauth2.core.OAuth2Token;
+import org.springframework.security.oauth2.core.OAuth2TokenType;
 import org.springframework.security.oauth2.jwt.JwtEncoder;
 import org.springframework.security.oauth2.jwt.NimbusJwsEncoder;
 import org.springframework.security.oauth2.server.authorization.token.DelegatingOAuth2TokenGenerator;
@@ -35,13 +40,22 @@ import org.springframework.security.oauth2.server.authorization.InMemoryOAuth2Au
 import org.springframework.security.oauth2.server.authorization.JwtEncodingContext;
 import org.springframework.security.oauth2.server.authorization.token.JwtGenerator;
 import org.springframework.security.oauth2.server.authorization.token.OAuth2AccessTokenGenerator;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
 import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationConsentService;
 import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationService;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizedToken;
+import org.springframework.security.oauth2.server.authorization.OAuth2TokenRevocationList;
+import org.springframework.security.oauth2.server.authorization.StatelessAccessTokenOAuth2AuthorizationService;
+import org.springframework.security.oauth2.server.authorization.StatelessAuthorizationCodeOAuth2AuthorizationService;
 import org.springframework.security.oauth2.server.authorization.token.OAuth2RefreshTokenGenerator;
 import org.springframework.security.oauth2.server.authorization.token.OAuth2TokenClaimsContext;
 import org.springframework.security.oauth2.server.authorization.OAuth2TokenCustomizer;
 import org.springframework.security.oauth2.server.authorization.token.OAuth2TokenGenerator;
+import org.springframework.security.oauth2.server.authorization.token.StatelessAuthorizationCodeGenerator;
+import org.springframework.security.oauth2.server.authorization.authentication.OAuth2TokenIntrospectionCache;
+import org.springframework.security.oauth2.server.authorization.client.CachingRegisteredClientRepository;
 import org.springframework.security.oauth2.server.authorization.client.RegisteredClientRepository;
+import org.springframework.security.oauth2.server.authorization.client.RequestScopedRegisteredClientRepository;
 import org.springframework.security.oauth2.server.authorization.config.ProviderSettings;
 import org.springframework.util.StringUtils;
 
@@ -62,9 +76,38 @@ final class OAuth2ConfigurerUtils {
 			registeredClientRepository = getBean(builder, RegisteredClientRepository.class);
 			builder.setSharedObject(RegisteredClientRepository.class, registeredClientRepository);
 		}
+		if (!(registeredClientRepository instanceof RequestScopedRegisteredClientRepository)) {
+			if (!(registeredClientRepository instanceof CachingRegisteredClientRepository)) {
+				Duration registeredClientCacheTimeToLive = getProviderSettings(builder).getRegisteredClientCacheTimeToLive();
+				if (registeredClientCacheTimeToLive != null) {
+					CachingRegisteredClientRepository cachingRegisteredClientRepository =
+							new CachingRegisteredClientRepository(registeredClientRepository);
+					cachingRegisteredClientRepository.setTimeToLive(registeredClientCacheTimeToLive);
+					registeredClientRepository = cachingRegisteredClientRepository;
+				}
+			}
+			// Memoize the lookups made by the filters and providers processing the same request
+			registeredClientRepository = new RequestScopedRegisteredClientRepository(registeredClientRepository);
+			builder.setSharedObject(RegisteredClientRepository.class, registeredClientRepository);
+		}
 		return registeredClientRepository;
 	}
 
+	@Nullable
+	static <B extends HttpSecurityBuilder<B>> OAuth2TokenIntrospectionCache getTokenIntrospectionCache(B builder) {
+		OAuth2TokenIntrospectionCache tokenIntrospectionCache = builder.getSharedObject(OAuth2TokenIntrospectionCache.class);
+		if (tokenIntrospectionCache == null) {
+			Duration tokenIntrospectionCacheTimeToLive = getProviderSettings(builder).getTokenIntrospectionCacheTimeToLive();
+			if (tokenIntrospectionCacheTimeToLive != null) {
+				// Shared by the introspection and revocation endpoints, so a revoked token is evicted
+				tokenIntrospectionCache = new OAuth2TokenIntrospectionCache();
+				tokenIntrospectionCache.setTimeToLive(tokenIntrospectionCacheTimeToLive);
+				builder.setSharedObject(OAuth2TokenIntrospectionCache.class, tokenIntrospectionCache);
+			}
+		}
+		return tokenIntrospectionCache;
+	}
+
 	static <B extends HttpSecurityBuilder<B>> OAuth2AuthorizationService getAuthorizationService(B builder) {
 		OAuth2AuthorizationService authorizationService = builder.getSharedObject(OAuth2AuthorizationService.class);
 		if (authorizationService == null) {
@@ -74,9 +117,43 @@ final class OAuth2ConfigurerUtils {
 			}
 			builder.setSharedObject(OAuth2AuthorizationService.class, authorizationService);
 		}
+		if (!(authorizationService instanceof StatelessAuthorizationCodeOAuth2AuthorizationService) &&
+				!(authorizationService instanceof StatelessAccessTokenOAuth2AuthorizationService) &&
+				!(authorizationService instanceof TokenIntrospectionCacheEvictingAuthorizationService)) {
+			OAuth2AuthorizationService decoratedAuthorizationService = authorizationService;
+			JWKSource<SecurityContext> jwkSource = getJwkSource(builder);
+			OAuth2TokenRevocationList tokenRevocationList = getTokenRevocationList(builder);
+			if (jwkSource != null && tokenRevocationList != null) {
+				// Resolves the self-contained access tokens of the clients that do not store the authorization
+				decoratedAuthorizationService = new StatelessAccessTokenOAuth2AuthorizationService(
+						decoratedAuthorizationService, getRegisteredClientRepository(builder),
+						OAuth2AuthorizationServerConfiguration.jwtDecoder(jwkSource), tokenRevocationList);
+			}
+			StatelessAuthorizationCodeGenerator authorizationCodeGenerator =
+					builder.getSharedObject(StatelessAuthorizationCodeGenerator.class);
+			if (authorizationCodeGenerator != null) {
+				decoratedAuthorizationService = new StatelessAuthorizationCodeOAuth2AuthorizationService(
+						decoratedAuthorizationService, authorizationCodeGenerator);
+			}
+			OAuth2TokenIntrospectionCache tokenIntrospectionCache = getTokenIntrospectionCache(builder);
+			if (tokenIntrospectionCache != null) {
+				decoratedAuthorizationService = new TokenIntrospectionCacheEvictingAuthorizationService(
+						decoratedAuthorizationService, tokenIntrospectionCache);
+			}
+			if (decoratedAuthorizationService != authorizationService) {
+				authorizationService = decoratedAuthorizationService;
+				builder.setSharedObject(OAuth2AuthorizationService.class, authorizationService);
+			}
+		}
 		return authorizationService;
 	}
 
+	@Nullable
+	static <B extends HttpSecurityBuilder<B>> OAuth2TokenRevocationList getTokenRevocationList(B builder) {
+		// Not used unless configured
+		return builder.getSharedObject(OAuth2TokenRevocationList.class);
+	}
+
 	static <B extends HttpSecurityBuilder<B>> OAuth2AuthorizationConsentService getAuthorizationConsentService(B builder) {
 		OAuth2AuthorizationConsentService authorizationConsentService = builder.getSharedObject(OAuth2AuthorizationConsentService.class);
 		if (authorizationConsentService == null) {
@@ -218,4 +295,62 @@ final class OAuth2ConfigurerUtils {
 		return names.length == 1 ? (T) context.getBean(names[0]) : null;
 	}
 
+	/*
+	 * Evicts the cached introspection of the tokens of a removed authorization,
+	 * which would otherwise be reported as active until the cached entry expires.
+	 */
+	private static final class TokenIntrospectionCacheEvictingAuthorizationService implements OAuth2AuthorizationService {
+		private final OAuth2AuthorizationService delegate;
+		private final OAuth2TokenIntrospectionCache tokenIntrospectionCache;
+
+		private TokenIntrospectionCacheEvictingAuthorizationService(OAuth2AuthorizationService delegate,
+				OAuth2TokenIntrospectionCache tokenIntrospectionCache) {
+			this.delegate = delegate;
+			this.tokenIntrospectionCache = tokenIntrospectionCache;
+		}
+
+		@Override
+		public void save(OAuth2Authorization authorization) {
+			this.delegate.save(authorization);
+		}
+
+		@Override
+		public void remove(OAuth2Authorization authorization) {
+			this.delegate.remove(authorization);
+			evict(authorization.getAccessToken());
+			evict(authorization.getRefreshToken());
+		}
+
+		@Nullable
+		@Override
+		public OAuth2Authorization findById(String id) {
+			return this.delegate.findById(id);
+		}
+
+		@Nullable
+		@Override
+		public OAuth2Authorization findByToken(String token, @Nullable OAuth2TokenType tokenType) {
+			return this.delegate.findByToken(token, tokenType);
+		}
+
+		@Nullable
+		@Override
+		public OAuth2AuthorizedToken findAuthorizedToken(String token, @Nullable OAuth2TokenType tokenType) {
+			return this.delegate.findAuthorizedToken(token, tokenType);
+		}
+
+		@Override
+		public Map<String, OAuth2AuthorizedToken> findAuthorizedTokens(Collection<String> tokens,
+				@Nullable OAuth2TokenType tokenType) {
+			return this.delegate.findAuthorizedTokens(tokens, tokenType);
+		}
+
+		private void evict(@Nullable OAuth2Authorization.Token<? extends OAuth2Token> token) {
+			if (token != null) {
+				this.tokenIntrospectionCache.evict(token.getToken().getTokenValue());
+			}
+		}
+
+	}
+
 }
@@ -29,15 +29,21 @@ import org.springframework.security.config.annotation.ObjectPostProcessor;
 import org.springframework.security.config.annotation.web.HttpSecurityBuilder;
 import org.springframework.security.oauth2.core.OAuth2AuthenticationException;
 import org.springframework.security.oauth2.core.OAuth2Error;
+import org.springframework.security.oauth2.server.authorization.OAuth2TokenRevocationList;
+import org.springframework.security.oauth2.server.authorization.authentication.OAuth2BatchTokenIntrospectionAuthenticationProvider;
+import org.springframework.security.oauth2.server.authorization.authentication.OAuth2BatchTokenIntrospectionAuthenticationToken;
 import org.springframework.security.oauth2.server.authorization.authentication.OAuth2TokenIntrospectionAuthenticationProvider;
 import org.springframework.security.oauth2.server.authorization.authentication.OAuth2TokenIntrospectionAuthenticationToken;
+import org.springframework.security.oauth2.server.authorization.authentication.OAuth2TokenIntrospectionCache;
 import org.springframework.security.oauth2.server.authorization.config.ProviderSettings;
+import org.springframework.security.oauth2.server.authorization.web.OAuth2BatchTokenIntrospectionEndpointFilter;
 import org.springframework.security.oauth2.server.authorization.web.OAuth2TokenIntrospectionEndpointFilter;
 import org.springframework.security.web.access.intercept.FilterSecurityInterceptor;
 import org.springframework.security.web.authentication.AuthenticationConverter;
 import org.springframework.security.web.authentication.AuthenticationFailureHandler;
 import org.springframework.security.web.authentication.AuthenticationSuccessHandler;
 import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.OrRequestMatcher;
 import org.springframework.security.web.util.matcher.RequestMatcher;
 import org.springframework.util.Assert;
 
@@ -48,6 +54,7 @@ import org.springframework.util.Assert;
  * @since 0.2.3
  * @see OAuth2AuthorizationServerConfigurer#tokenIntrospectionEndpoint(Customizer)
  * @see OAuth2TokenIntrospectionEndpointFilter
+ * @see OAuth2BatchTokenIntrospectionEndpointFilter
  */
 public final class OAuth2TokenIntrospectionEndpointConfigurer extends AbstractOAuth2Configurer {
 	private RequestMatcher requestMatcher;
@@ -55,6 +62,9 @@ public final class OAuth2TokenIntrospectionEndpointConfigurer extends AbstractOA
 	private final List<AuthenticationProvider> authenticationProviders = new LinkedList<>();
 	private AuthenticationSuccessHandler introspectionResponseHandler;
 	private AuthenticationFailureHandler errorResponseHandler;
+	private AuthenticationConverter batchIntrospectionRequestConverter;
+	private AuthenticationSuccessHandler batchIntrospectionResponseHandler;
+	private Integer maxBatchSize;
 
 	/**
 	 * Restrict for internal use only.
@@ -110,11 +120,58 @@ public final class OAuth2TokenIntrospectionEndpointConfigurer extends AbstractOA
 		return this;
 	}
 
+	/**
+	 * Sets the {@link AuthenticationConverter} used when attempting to extract a Batch Introspection Request from {@link HttpServletRequest}
+	 * to an instance of {@link OAuth2BatchTokenIntrospectionAuthenticationToken} used for authenticating the request.
+	 * Applies only when the {@link ProviderSettings#getBatchTokenIntrospectionEndpoint() Batch Token Introspection endpoint} is set.
+	 *
+	 * @param batchIntrospectionRequestConverter the {@link AuthenticationConverter} used when attempting to extract a Batch Introspection Request from {@link HttpServletRequest}
+	 * @return the {@link OAuth2TokenIntrospectionEndpointConfigurer} for further configuration
+	 * @since 0.3.0
+	 */
+	public OAuth2TokenIntrospectionEndpointConfigurer batchIntrospectionRequestConverter(AuthenticationConverter batchIntrospectionRequestConverter) {
+		this.batchIntrospectionRequestConverter = batchIntrospectionRequestConverter;
+		return this;
+	}
+
+	/**
+	 * Sets the {@link AuthenticationSuccessHandler} used for handling an {@link OAuth2BatchTokenIntrospectionAuthenticationToken}.
+	 * Applies only when the {@link ProviderSettings#getBatchTokenIntrospectionEndpoint() Batch Token Introspection endpoint} is set.
+	 *
+	 * @param batchIntrospectionResponseHandler the {@link AuthenticationSuccessHandler} used for handling an {@link OAuth2BatchTokenIntrospectionAuthenticationToken}
+	 * @return the {@link OAuth2TokenIntrospectionEndpointConfigurer} for further configuration
+	 * @since 0.3.0
+	 */
+	public OAuth2TokenIntrospectionEndpointConfigurer batchIntrospectionResponseHandler(AuthenticationSuccessHandler batchIntrospectionResponseHandler) {
+		this.batchIntrospectionResponseHandler = batchIntrospectionResponseHandler;
+		return this;
+	}
+
+	/**
+	 * Sets the maximum number of tokens that may be introspected in a single Batch Introspection Request.
+	 * Applies only when the {@link ProviderSettings#getBatchTokenIntrospectionEndpoint() Batch Token Introspection endpoint} is set.
+	 *
+	 * @param maxBatchSize the maximum number of tokens that may be introspected in a single request
+	 * @return the {@link OAuth2TokenIntrospectionEndpointConfigurer} for further configuration
+	 * @since 0.3.0
+	 */
+	public OAuth2TokenIntrospectionEndpointConfigurer maxBatchSize(int maxBatchSize) {
+		Assert.isTrue(maxBatchSize > 0, "maxBatchSize must be greater than 0");
+		this.maxBatchSize = maxBatchSize;
+		return this;
+	}
+
 	@Override
 	<B extends HttpSecurityBuilder<B>> void init(B builder) {
 		ProviderSettings providerSettings = OAuth2ConfigurerUtils.getProviderSettings(builder);
-		this.requestMatcher = new AntPathRequestMatcher(
+		RequestMatcher tokenIntrospectionEndpointMatcher = new AntPathRequestMatcher(
 				providerSettings.getTokenIntrospectionEndpoint(), HttpMethod.POST.name());
+		this.requestMatcher = providerSettings.getBatchTokenIntrospectionEndpoint() != null ?
+				new OrRequestMatcher(
+						tokenIntrospectionEndpointMatcher,
+						new AntPathRequestMatcher(
+								providerSettings.getBatchTokenIntrospectionEndpoint(), HttpMethod.POST.name())) :
+				tokenIntrospectionEndpointMatcher;
 
 		List<AuthenticationProvider> authenticationProviders =
 				!this.authenticationProviders.isEmpty() ?
@@ -141,7 +198,32 @@ public final class OAuth2TokenIntrospectionEndpointConfigurer extends AbstractOA
 		if (this.errorResponseHandler != null) {
 			introspectionEndpointFilter.setAuthenticationFailureHandler(this.errorResponseHandler);
 		}
+		if (providerSettings.getTokenIntrospectionCacheTimeToLive() != null) {
+			introspectionEndpointFilter.setCacheControlMaxAge(providerSettings.getTokenIntrospectionCacheTimeToLive());
+		}
 		builder.addFilterAfter(postProcess(introspectionEndpointFilter), FilterSecurityInterceptor.class);
+
+		if (providerSettings.getBatchTokenIntrospectionEndpoint() != null) {
+			OAuth2BatchTokenIntrospectionEndpointFilter batchIntrospectionEndpointFilter =
+					new OAuth2BatchTokenIntrospectionEndpointFilter(
+							authenticationManager, providerSettings.getBatchTokenIntrospectionEndpoint());
+			if (this.batchIntrospectionRequestConverter != null) {
+				batchIntrospectionEndpointFilter.setAuthenticationConverter(this.batchIntrospectionRequestConverter);
+			}
+			if (this.batchIntrospectionResponseHandler != null) {
+				batchIntrospectionEndpointFilter.setAuthenticationSuccessHandler(this.batchIntrospectionResponseHandler);
+			}
+			if (this.errorResponseHandler != null) {
+				batchIntrospectionEndpointFilter.setAuthenticationFailureHandler(this.errorResponseHandler);
+			}
+			if (this.maxBatchSize != null) {
+				batchIntrospectionEndpointFilter.setMaxBatchSize(this.maxBatchSize);
+			}
+			if (providerSettings.getTokenIntrospectionCacheTimeToLive() != null) {
+				batchIntrospectionEndpointFilter.setCacheControlMaxAge(providerSettings.getTokenIntrospectionCacheTimeToLive());
+			}
+			builder.addFilterAfter(postProcess(batchIntrospectionEndpointFilter), FilterSecurityInterceptor.class);
+		}
 	}
 
 	@Override
@@ -152,12 +234,36 @@ public final class OAuth2TokenIntrospectionEndpointConfigurer extends AbstractOA
 	private <B extends HttpSecurityBuilder<B>> List<AuthenticationProvider> createDefaultAuthenticationProviders(B builder) {
 		List<AuthenticationProvider> authenticationProviders = new ArrayList<>();
 
+		OAuth2TokenIntrospectionCache tokenIntrospectionCache = OAuth2ConfigurerUtils.getTokenIntrospectionCache(builder);
+		OAuth2TokenRevocationList tokenRevocationList = OAuth2ConfigurerUtils.getTokenRevocationList(builder);
+
 		OAuth2TokenIntrospectionAuthenticationProvider tokenIntrospectionAuthenticationProvider =
 				new OAuth2TokenIntrospectionAuthenticationProvider(
 						OAuth2ConfigurerUtils.getRegisteredClientRepository(builder),
 						OAuth2ConfigurerUtils.getAuthorizationService(builder));
+		if (tokenIntrospectionCache != null) {
+			tokenIntrospectionAuthenticationProvider.setTokenIntrospectionCache(tokenIntrospectionCache);
+		}
+		if (tokenRevocationList != null) {
+			tokenIntrospectionAuthenticationProvider.setTokenRevocationList(tokenRevocationList);
+		}
 		authenticationProviders.add(tokenIntrospectionAuthenticationProvider);
 
+		ProviderSettings providerSettings = OAuth2ConfigurerUtils.getProviderSettings(builder);
+		if (providerSettings.getBatchTokenIntrospectionEndpoint() != null) {
+			OAuth2BatchTokenIntrospectionAuthenticationProvider batchTokenIntrospectionAuthenticationProvider =
+					new OAuth2BatchTokenIntrospectionAuthenticationProvider(
+							OAuth2ConfigurerUtils.getRegisteredClientRepository(builder),
+							OAuth2ConfigurerUtils.getAuthorizationService(builder));
+			if (tokenIntrospectionCache != null) {
+				batchTokenIntrospectionAuthenticationProvider.setTokenIntrospectionCache(tokenIntrospectionCache);
+			}
+			if (tokenRevocationList != null) {
+				batchTokenIntrospectionAuthenticationProvider.setTokenRevocationList(tokenRevocationList);
+			}
+			authenticationProviders.add(batchTokenIntrospectionAuthenticationProvider);
+		}
+
 		return authenticationProviders;
 	}
 
@@ -28,6 +28,8 @@ import org.springframework.security.config.annotation.ObjectPostProcessor;
 import org.springframework.security.config.annotation.web.HttpSecurityBuilder;
 import org.springframework.security.oauth2.core.OAuth2AuthenticationException;
 import org.springframework.security.oauth2.core.OAuth2Error;
+import org.springframework.security.oauth2.server.authorization.OAuth2TokenRevocationList;
+import org.springframework.security.oauth2.server.authorization.authentication.OAuth2TokenIntrospectionCache;
 import org.springframework.security.oauth2.server.authorization.authentication.OAuth2TokenRevocationAuthenticationProvider;
 import org.springframework.security.oauth2.server.authorization.authentication.OAuth2TokenRevocationAuthenticationToken;
 import org.springframework.security.oauth2.server.authorization.config.ProviderSettings;
@@ -153,6 +155,14 @@ public final class OAuth2TokenRevocationEndpointConfigurer extends AbstractOAuth
 
 		OAuth2TokenRevocationAuthenticationProvider tokenRevocationAuthenticationProvider =
 				new OAuth2TokenRevocationAuthenticationProvider(OAuth2ConfigurerUtils.getAuthorizationService(builder));
+		OAuth2TokenIntrospectionCache tokenIntrospectionCache = OAuth2ConfigurerUtils.getTokenIntrospectionCache(builder);
+		if (tokenIntrospectionCache != null) {
+			tokenRevocationAuthenticationProvider.setTokenIntrospectionCache(tokenIntrospectionCache);
+		}
+		OAuth2TokenRevocationList tokenRevocationList = OAuth2ConfigurerUtils.getTokenRevocationList(builder);
+		if (tokenRevocationList != null) {
+			tokenRevocationAuthenticationProvider.setTokenRevocationList(tokenRevocationList);
+		}
 		authenticationProviders.add(tokenRevocationAuthenticationProvider);
 
 		return authenticationProviders;
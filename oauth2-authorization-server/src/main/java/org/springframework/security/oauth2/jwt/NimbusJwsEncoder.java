@@ -17,12 +17,14 @@ package org.springframework.security.oauth2.jwt;
 
 import java.net.URI;
 import java.net.URL;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -37,6 +39,7 @@ import com.nimbusds.jose.jwk.JWKMatcher;
 import com.nimbusds.jose.jwk.JWKSelector;
 import com.nimbusds.jose.jwk.KeyType;
 import com.nimbusds.jose.jwk.KeyUse;
+import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
 import com.nimbusds.jose.jwk.source.JWKSource;
 import com.nimbusds.jose.proc.SecurityContext;
 import com.nimbusds.jose.produce.JWSSignerFactory;
@@ -57,6 +60,12 @@ import org.springframework.util.StringUtils;
  * provided via the constructor.
  *
  * <p>
+ * The {@link JWK} selected for a combination of the {@code alg}, {@code kid} and {@code x5t#S256} headers
+ * is cached when the {@code JWKSource} is an {@code ImmutableJWKSet}, or otherwise for the duration
+ * configured via {@link #setJwkSelectionCacheTimeToLive(Duration)}. The {@code JWSSigner}(s) created
+ * for the selected {@link JWK}(s) are cached as well, and released when the {@link JWK} is no longer selected.
+ *
+ * <p>
  * <b>NOTE:</b> This implementation uses the Nimbus JOSE + JWT SDK.
  *
  * @author Joe Grandja
@@ -76,8 +85,12 @@ public final class NimbusJwsEncoder implements JwtEncoder {
 	private static final Converter<JoseHeader, JWSHeader> JWS_HEADER_CONVERTER = new JwsHeaderConverter();
 	private static final Converter<JwtClaimsSet, JWTClaimsSet> JWT_CLAIMS_SET_CONVERTER = new JwtClaimsSetConverter();
 	private static final JWSSignerFactory JWS_SIGNER_FACTORY = new DefaultJWSSignerFactory();
+	private static final int MAX_CACHED_ENTRIES = 32;
+	private final Map<JwkSelectionKey, SelectedJwk> selectedJwks = new ConcurrentHashMap<>();
 	private final Map<JWK, JWSSigner> jwsSigners = new ConcurrentHashMap<>();
 	private final JWKSource<SecurityContext> jwkSource;
+	private final boolean immutableJwkSource;
+	private Duration jwkSelectionCacheTimeToLive = Duration.ZERO;
 
 	/**
 	 * Constructs a {@code NimbusJwsEncoder} using the provided parameters.
@@ -86,6 +99,31 @@ public final class NimbusJwsEncoder implements JwtEncoder {
 	public NimbusJwsEncoder(JWKSource<SecurityContext> jwkSource) {
 		Assert.notNull(jwkSource, "jwkSource cannot be null");
 		this.jwkSource = jwkSource;
+		this.immutableJwkSource = jwkSource instanceof ImmutableJWKSet;
+	}
+
+	/**
+	 * Sets the time-to-live of a selected {@link JWK} signing key, during which the {@code JWKSource}
+	 * is not queried again for the same {@code alg}, {@code kid} and {@code x5t#S256} headers.
+	 * The default is {@code Duration.ZERO}, which queries the {@code JWKSource} on every call to
+	 * {@link #encode(JoseHeader, JwtClaimsSet)}, so that rotated keys are used immediately.
+	 * This setting does not apply to an {@code ImmutableJWKSet}, for which the selection is always cached.
+	 *
+	 * <p>
+	 * <b>NOTE:</b> With the default, the {@code JWKSource} selects the {@link JWK} on every call,
+	 * which is a scan of its {@link JWK}(s) (only the {@code JWSSigner} is reused). The selection is left
+	 * to the {@code JWKSource}, as it may return {@link JWK}(s) not matching the selector, therefore
+	 * the selection is not compared to (and reused from) a previously fetched JWK Set.
+	 * A {@code JWKSource} whose keys do not rotate should be provided as an {@code ImmutableJWKSet}.
+	 *
+	 * @param jwkSelectionCacheTimeToLive the time-to-live of a selected {@link JWK} signing key
+	 * @since 0.3.0
+	 */
+	public void setJwkSelectionCacheTimeToLive(Duration jwkSelectionCacheTimeToLive) {
+		Assert.notNull(jwkSelectionCacheTimeToLive, "jwkSelectionCacheTimeToLive cannot be null");
+		Assert.isTrue(!jwkSelectionCacheTimeToLive.isNegative(), "jwkSelectionCacheTimeToLive cannot be negative");
+		this.jwkSelectionCacheTimeToLive = jwkSelectionCacheTimeToLive;
+		this.selectedJwks.clear();
 	}
 
 	@Override
@@ -102,10 +140,40 @@ public final class NimbusJwsEncoder implements JwtEncoder {
 	}
 
 	private JWK selectJwk(JoseHeader headers) {
+		if (!this.immutableJwkSource && this.jwkSelectionCacheTimeToLive.isZero()) {
+			// The selection is not cached, so the JWKSource is queried directly
+			return selectJwk(headers, this.jwkSource);
+		}
+
+		JwkSelectionKey jwkSelectionKey = new JwkSelectionKey(headers);
+		SelectedJwk selectedJwk = this.selectedJwks.get(jwkSelectionKey);
+		Instant now = Instant.now();
+		if (selectedJwk != null && (this.immutableJwkSource || now.isBefore(selectedJwk.expiresAt))) {
+			return selectedJwk.jwk;
+		}
+
+		JWK jwk = selectJwk(headers, this.jwkSource);
+
+		if (selectedJwk != null && !selectedJwk.jwk.equals(jwk)) {
+			// The previously selected JWK may have been retired
+			this.selectedJwks.remove(jwkSelectionKey);
+			if (this.selectedJwks.values().stream().noneMatch((selected) -> selected.jwk.equals(selectedJwk.jwk))) {
+				this.jwsSigners.remove(selectedJwk.jwk);
+			}
+		}
+		if (this.selectedJwks.size() >= MAX_CACHED_ENTRIES) {
+			this.selectedJwks.clear();
+		}
+		this.selectedJwks.put(jwkSelectionKey, new SelectedJwk(jwk, now.plus(this.jwkSelectionCacheTimeToLive)));
+
+		return jwk;
+	}
+
+	private static JWK selectJwk(JoseHeader headers, JWKSource<SecurityContext> jwkSource) {
 		List<JWK> jwks;
 		try {
 			JWKSelector jwkSelector = new JWKSelector(createJwkMatcher(headers));
-			jwks = this.jwkSource.get(jwkSelector, null);
+			jwks = jwkSource.get(jwkSelector, null);
 		} catch (Exception ex) {
 			throw new JwtEncodingException(String.format(ENCODING_ERROR_MESSAGE_TEMPLATE,
 					"Failed to select a JWK signing key -> " + ex.getMessage()), ex);
@@ -128,6 +196,9 @@ public final class NimbusJwsEncoder implements JwtEncoder {
 		JWSHeader jwsHeader = JWS_HEADER_CONVERTER.convert(headers);
 		JWTClaimsSet jwtClaimsSet = JWT_CLAIMS_SET_CONVERTER.convert(claims);
 
+		if (this.jwsSigners.size() >= MAX_CACHED_ENTRIES && !this.jwsSigners.containsKey(jwk)) {
+			this.jwsSigners.clear();
+		}
 		JWSSigner jwsSigner = this.jwsSigners.computeIfAbsent(jwk, NimbusJwsEncoder::createSigner);
 
 		SignedJWT signedJwt = new SignedJWT(jwsHeader, jwtClaimsSet);
@@ -197,6 +268,49 @@ public final class NimbusJwsEncoder implements JwtEncoder {
 		}
 	}
 
+	private static final class JwkSelectionKey {
+		private final String algorithm;
+		private final String keyId;
+		private final String x509SHA256Thumbprint;
+
+		private JwkSelectionKey(JoseHeader headers) {
+			this.algorithm = headers.getAlgorithm().getName();
+			this.keyId = headers.getKeyId();
+			this.x509SHA256Thumbprint = headers.getX509SHA256Thumbprint();
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (obj == null || getClass() != obj.getClass()) {
+				return false;
+			}
+			JwkSelectionKey that = (JwkSelectionKey) obj;
+			return this.algorithm.equals(that.algorithm) &&
+					Objects.equals(this.keyId, that.keyId) &&
+					Objects.equals(this.x509SHA256Thumbprint, that.x509SHA256Thumbprint);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(this.algorithm, this.keyId, this.x509SHA256Thumbprint);
+		}
+
+	}
+
+	private static final class SelectedJwk {
+		private final JWK jwk;
+		private final Instant expiresAt;
+
+		private SelectedJwk(JWK jwk, Instant expiresAt) {
+			this.jwk = jwk;
+			this.expiresAt = expiresAt;
+		}
+
+	}
+
 	private static class JwsHeaderConverter implements Converter<JoseHeader, JWSHeader> {
 
 		@Override
@@ -15,25 +15,54 @@
  */
 package org.springframework.security.oauth2.server.authorization;
 
+import java.time.Clock;
+import java.time.Instant;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.LinkedHashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.springframework.lang.Nullable;
 import org.springframework.security.oauth2.core.OAuth2AccessToken;
 import org.springframework.security.oauth2.core.OAuth2AuthorizationCode;
 import org.springframework.security.oauth2.core.OAuth2RefreshToken;
+import org.springframework.security.oauth2.core.OAuth2Token;
 import org.springframework.security.oauth2.core.OAuth2TokenType;
 import org.springframework.security.oauth2.core.endpoint.OAuth2ParameterNames;
+import org.springframework.security.oauth2.core.oidc.OidcIdToken;
 import org.springframework.util.Assert;
 
 /**
  * An {@link OAuth2AuthorizationService} that stores {@link OAuth2Authorization}'s in-memory.
  *
  * <p>
+ * Each stored {@link OAuth2Authorization} is indexed by its {@code state}, authorization code,
+ * access token and refresh token values, allowing {@link #findByToken(String, OAuth2TokenType)}
+ * to resolve the authorization with a constant-time lookup, instead of iterating over
+ * all stored authorizations. The indexes are kept consistent when tokens are rotated via
+ * {@link #save(OAuth2Authorization)} and when authorizations are {@link #remove(OAuth2Authorization) removed}.
+ *
+ * <p>
+ * A completed authorization (where an access token has been granted) may be removed once all of its tokens
+ * have expired, on demand via {@link #purgeExpiredAuthorizations()}. Expired authorizations may also be removed
+ * incrementally by {@link #save(OAuth2Authorization)}, in order of expiry,
+ * if enabled via {@link #setRemoveExpiredAuthorizationsOnSave(boolean)}.
+ * The number of completed authorizations may additionally be bounded via {@link #setMaxAuthorizations(int)},
+ * in which case the authorization closest to expiring is evicted first.
+ *
+ * <p>
+ * The number of "initialized" (uncompleted) authorizations is bounded, and the least recently saved
+ * authorization is evicted first. The bounded store does not rely on a global lock,
+ * so concurrent authorization requests do not contend with each other.
+ *
+ * <p>
  * <b>NOTE:</b> This implementation should ONLY be used during development/testing.
  *
  * @author Krisztian Toth
@@ -42,6 +71,8 @@ import org.springframework.util.Assert;
  * @see OAuth2AuthorizationService
  */
 public final class InMemoryOAuth2AuthorizationService implements OAuth2AuthorizationService {
+	private static final int MAX_EXPIRED_AUTHORIZATIONS_REMOVED_PER_SAVE = 16;
+
 	private int maxInitializedAuthorizations = 100;
 
 	/*
@@ -49,20 +80,44 @@ public final class InMemoryOAuth2AuthorizationService implements OAuth2Authoriza
 	 * This state occurs with the authorization_code grant flow during the user consent step OR
 	 * when the code is returned in the authorization response but the access token request is not yet initiated.
 	 */
-	private Map<String, OAuth2Authorization> initializedAuthorizations =
-			Collections.synchronizedMap(new MaxSizeHashMap<>(this.maxInitializedAuthorizations));
+	private final Map<String, InitializedAuthorization> initializedAuthorizations = new ConcurrentHashMap<>();
+
+	/*
+	 * The "initialized" authorizations, in the order they were last saved. An entry is retired
+	 * (and lazily unlinked) when the authorization is updated, completed or removed.
+	 */
+	private final Queue<InitializedAuthorization> initializedAuthorizationsQueue = new ConcurrentLinkedQueue<>();
+	private final AtomicInteger retiredInitializedAuthorizationsCount = new AtomicInteger();
 
 	/*
 	 * Stores "completed" authorizations, where an access token has been granted.
 	 */
 	private final Map<String, OAuth2Authorization> authorizations = new ConcurrentHashMap<>();
 
+	/*
+	 * Secondary indexes mapping a token value to the identifier of the authorization containing it.
+	 */
+	private final Map<String, String> stateIndex = new ConcurrentHashMap<>();
+	private final Map<String, String> authorizationCodeIndex = new ConcurrentHashMap<>();
+	private final Map<String, String> accessTokenIndex = new ConcurrentHashMap<>();
+	private final Map<String, String> refreshTokenIndex = new ConcurrentHashMap<>();
+
+	/*
+	 * The "completed" authorizations, ordered by the expiry of their latest expiring token.
+	 */
+	private final ConcurrentSkipListSet<ExpiryEntry> expiryQueue = new ConcurrentSkipListSet<>();
+
+	private final AtomicLong expiredAuthorizationsCount = new AtomicLong();
+	private final AtomicLong evictedAuthorizationsCount = new AtomicLong();
+	private int maxAuthorizations = Integer.MAX_VALUE;
+	private boolean removeExpiredAuthorizationsOnSave;
+	private Clock clock = Clock.systemUTC();
+
 	/*
 	 * Constructor used for testing only.
 	 */
 	InMemoryOAuth2AuthorizationService(int maxInitializedAuthorizations) {
 		this.maxInitializedAuthorizations = maxInitializedAuthorizations;
-		this.initializedAuthorizations = Collections.synchronizedMap(new MaxSizeHashMap<>(this.maxInitializedAuthorizations));
 	}
 
 	/**
@@ -93,26 +148,69 @@ public final class InMemoryOAuth2AuthorizationService implements OAuth2Authoriza
 			Assert.isTrue(!this.authorizations.containsKey(authorization.getId()),
 					"The authorization must be unique. Found duplicate identifier: " + authorization.getId());
 			this.authorizations.put(authorization.getId(), authorization);
+			if (isComplete(authorization)) {
+				updateExpiryQueue(null, authorization);
+			}
+			updateIndexes(null, authorization);
 		});
 	}
 
 	@Override
 	public void save(OAuth2Authorization authorization) {
 		Assert.notNull(authorization, "authorization cannot be null");
+		OAuth2Authorization previousAuthorization;
 		if (isComplete(authorization)) {
-			this.authorizations.put(authorization.getId(), authorization);
+			if (this.removeExpiredAuthorizationsOnSave) {
+				// Amortize the removal of expired authorizations over the saves
+				removeExpiredAuthorizations(this.clock.instant(), MAX_EXPIRED_AUTHORIZATIONS_REMOVED_PER_SAVE);
+			}
+			previousAuthorization = this.authorizations.put(authorization.getId(), authorization);
+			updateExpiryQueue(previousAuthorization, authorization);
+			// The authorization is no longer "initialized", so release the uncompleted instance (if any)
+			InitializedAuthorization initializedAuthorization = this.initializedAuthorizations.remove(authorization.getId());
+			if (initializedAuthorization != null) {
+				retire(initializedAuthorization);
+				if (previousAuthorization == null) {
+					previousAuthorization = initializedAuthorization.authorization;
+				}
+			}
+			updateIndexes(previousAuthorization, authorization);
+			evictIfNecessary();
 		} else {
-			this.initializedAuthorizations.put(authorization.getId(), authorization);
+			InitializedAuthorization initializedAuthorization = new InitializedAuthorization(authorization);
+			InitializedAuthorization previousInitializedAuthorization =
+					this.initializedAuthorizations.put(authorization.getId(), initializedAuthorization);
+			this.initializedAuthorizationsQueue.offer(initializedAuthorization);
+			previousAuthorization = null;
+			if (previousInitializedAuthorization != null) {
+				retire(previousInitializedAuthorization);
+				previousAuthorization = previousInitializedAuthorization.authorization;
+			}
+			updateIndexes(previousAuthorization, authorization);
+			evictInitializedAuthorizations();
 		}
 	}
 
 	@Override
 	public void remove(OAuth2Authorization authorization) {
 		Assert.notNull(authorization, "authorization cannot be null");
+		boolean removed;
 		if (isComplete(authorization)) {
-			this.authorizations.remove(authorization.getId(), authorization);
+			removed = this.authorizations.remove(authorization.getId(), authorization);
+			if (removed) {
+				this.expiryQueue.remove(new ExpiryEntry(getExpiresAt(authorization), authorization.getId()));
+			}
 		} else {
-			this.initializedAuthorizations.remove(authorization.getId(), authorization);
+			InitializedAuthorization initializedAuthorization = this.initializedAuthorizations.get(authorization.getId());
+			removed = initializedAuthorization != null &&
+					initializedAuthorization.authorization.equals(authorization) &&
+					this.initializedAuthorizations.remove(authorization.getId(), initializedAuthorization);
+			if (removed) {
+				retire(initializedAuthorization);
+			}
+		}
+		if (removed) {
+			updateIndexes(authorization, null);
 		}
 	}
 
@@ -121,28 +219,277 @@ public final class InMemoryOAuth2AuthorizationService implements OAuth2Authoriza
 	public OAuth2Authorization findById(String id) {
 		Assert.hasText(id, "id cannot be empty");
 		OAuth2Authorization authorization = this.authorizations.get(id);
-		return authorization != null ?
-				authorization :
-				this.initializedAuthorizations.get(id);
+		if (authorization != null) {
+			return authorization;
+		}
+		InitializedAuthorization initializedAuthorization = this.initializedAuthorizations.get(id);
+		return initializedAuthorization != null ? initializedAuthorization.authorization : null;
 	}
 
 	@Nullable
 	@Override
 	public OAuth2Authorization findByToken(String token, @Nullable OAuth2TokenType tokenType) {
 		Assert.hasText(token, "token cannot be empty");
-		for (OAuth2Authorization authorization : this.authorizations.values()) {
-			if (hasToken(authorization, token, tokenType)) {
-				return authorization;
+		if (tokenType == null) {
+			OAuth2Authorization authorization = findByIndex(this.stateIndex, token, null);
+			if (authorization == null) {
+				authorization = findByIndex(this.authorizationCodeIndex, token, null);
 			}
-		}
-		for (OAuth2Authorization authorization : this.initializedAuthorizations.values()) {
-			if (hasToken(authorization, token, tokenType)) {
-				return authorization;
+			if (authorization == null) {
+				authorization = findByIndex(this.accessTokenIndex, token, null);
 			}
+			if (authorization == null) {
+				authorization = findByIndex(this.refreshTokenIndex, token, null);
+			}
+			return authorization;
+		} else if (OAuth2ParameterNames.STATE.equals(tokenType.getValue())) {
+			return findByIndex(this.stateIndex, token, tokenType);
+		} else if (OAuth2ParameterNames.CODE.equals(tokenType.getValue())) {
+			return findByIndex(this.authorizationCodeIndex, token, tokenType);
+		} else if (OAuth2TokenType.ACCESS_TOKEN.equals(tokenType)) {
+			return findByIndex(this.accessTokenIndex, token, tokenType);
+		} else if (OAuth2TokenType.REFRESH_TOKEN.equals(tokenType)) {
+			return findByIndex(this.refreshTokenIndex, token, tokenType);
 		}
 		return null;
 	}
 
+	/**
+	 * Removes the completed authorizations where all tokens have expired.
+	 *
+	 * @return the number of removed authorizations
+	 * @since 0.3.0
+	 */
+	public int purgeExpiredAuthorizations() {
+		return removeExpiredAuthorizations(this.clock.instant(), Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Returns the number of stored authorizations, including the "initialized" (uncompleted) authorizations.
+	 *
+	 * @return the number of stored authorizations
+	 * @since 0.3.0
+	 */
+	public int getAuthorizationsCount() {
+		return this.authorizations.size() + this.initializedAuthorizations.size();
+	}
+
+	/**
+	 * Returns the total number of authorizations removed since all of their tokens had expired.
+	 *
+	 * @return the total number of expired authorizations removed
+	 * @since 0.3.0
+	 */
+	public long getExpiredAuthorizationsCount() {
+		return this.expiredAuthorizationsCount.get();
+	}
+
+	/**
+	 * Returns the total number of authorizations evicted, before expiring, to bound the number of
+	 * stored completed or "initialized" (uncompleted) authorizations.
+	 *
+	 * @return the total number of evicted authorizations
+	 * @since 0.3.0
+	 */
+	public long getEvictedAuthorizationsCount() {
+		return this.evictedAuthorizationsCount.get();
+	}
+
+	/**
+	 * Sets the maximum number of completed authorizations (where an access token has been granted).
+	 * When exceeded, the authorization closest to expiring is evicted. The default is unbounded.
+	 *
+	 * @param maxAuthorizations the maximum number of completed authorizations
+	 * @since 0.3.0
+	 */
+	public void setMaxAuthorizations(int maxAuthorizations) {
+		Assert.isTrue(maxAuthorizations > 0, "maxAuthorizations must be greater than 0");
+		this.maxAuthorizations = maxAuthorizations;
+	}
+
+	/**
+	 * Sets whether {@link #save(OAuth2Authorization)} removes (a few of) the completed authorizations
+	 * where all tokens have expired, which bounds the memory used under sustained traffic without
+	 * having to call {@link #purgeExpiredAuthorizations()}. The default is {@code false}.
+	 *
+	 * @param removeExpiredAuthorizationsOnSave {@code true} to remove expired authorizations on save
+	 * @since 0.3.0
+	 */
+	public void setRemoveExpiredAuthorizationsOnSave(boolean removeExpiredAuthorizationsOnSave) {
+		this.removeExpiredAuthorizationsOnSave = removeExpiredAuthorizationsOnSave;
+	}
+
+	/**
+	 * Sets the {@link Clock} used when determining whether an authorization has expired.
+	 *
+	 * @param clock the {@link Clock}
+	 * @since 0.3.0
+	 */
+	public void setClock(Clock clock) {
+		Assert.notNull(clock, "clock cannot be null");
+		this.clock = clock;
+	}
+
+	private int removeExpiredAuthorizations(Instant now, int maxRemoved) {
+		int removed = 0;
+		for (Iterator<ExpiryEntry> it = this.expiryQueue.iterator(); it.hasNext() && removed < maxRemoved; ) {
+			ExpiryEntry expiryEntry = it.next();
+			if (!expiryEntry.expiresAt.isBefore(now)) {
+				break;
+			}
+			if (this.expiryQueue.remove(expiryEntry) && removeCompleted(expiryEntry)) {
+				this.expiredAuthorizationsCount.incrementAndGet();
+				removed++;
+			}
+		}
+		return removed;
+	}
+
+	private void evictIfNecessary() {
+		while (this.authorizations.size() > this.maxAuthorizations) {
+			ExpiryEntry expiryEntry = this.expiryQueue.pollFirst();
+			if (expiryEntry == null) {
+				return;
+			}
+			if (removeCompleted(expiryEntry)) {
+				this.evictedAuthorizationsCount.incrementAndGet();
+			}
+		}
+	}
+
+	private void evictInitializedAuthorizations() {
+		while (this.initializedAuthorizations.size() > this.maxInitializedAuthorizations) {
+			InitializedAuthorization eldest = this.initializedAuthorizationsQueue.poll();
+			if (eldest == null) {
+				return;
+			}
+			if (eldest.retired) {
+				// The count may have been reset when the retired entries were unlinked
+				this.retiredInitializedAuthorizationsCount.updateAndGet((count) -> count > 0 ? count - 1 : 0);
+			} else if (this.initializedAuthorizations.remove(eldest.authorization.getId(), eldest)) {
+				eldest.retired = true;
+				evicted(eldest.authorization);
+			}
+		}
+	}
+
+	private void retire(InitializedAuthorization initializedAuthorization) {
+		initializedAuthorization.retired = true;
+		// Unlink the retired entries once they outnumber the bound, so the queue stays proportional to it.
+		// Only the thread that atomically resets the count unlinks them, and no concurrent increment is lost.
+		int retiredCount = this.retiredInitializedAuthorizationsCount.incrementAndGet();
+		if (retiredCount > this.maxInitializedAuthorizations &&
+				this.retiredInitializedAuthorizationsCount.compareAndSet(retiredCount, 0)) {
+			this.initializedAuthorizationsQueue.removeIf((entry) -> entry.retired);
+		}
+	}
+
+	private boolean removeCompleted(ExpiryEntry expiryEntry) {
+		OAuth2Authorization authorization = this.authorizations.get(expiryEntry.id);
+		// Skip a stale entry, where the authorization has since been updated or removed
+		if (authorization == null || !expiryEntry.expiresAt.equals(getExpiresAt(authorization)) ||
+				!this.authorizations.remove(expiryEntry.id, authorization)) {
+			return false;
+		}
+		updateIndexes(authorization, null);
+		return true;
+	}
+
+	private void updateExpiryQueue(@Nullable OAuth2Authorization previousAuthorization,
+			OAuth2Authorization authorization) {
+		ExpiryEntry expiryEntry = new ExpiryEntry(getExpiresAt(authorization), authorization.getId());
+		this.expiryQueue.add(expiryEntry);
+		if (previousAuthorization != null) {
+			ExpiryEntry previousExpiryEntry = new ExpiryEntry(getExpiresAt(previousAuthorization),
+					previousAuthorization.getId());
+			if (!previousExpiryEntry.equals(expiryEntry)) {
+				this.expiryQueue.remove(previousExpiryEntry);
+			}
+		}
+	}
+
+	@Nullable
+	private OAuth2Authorization findByIndex(Map<String, String> index, String token, @Nullable OAuth2TokenType tokenType) {
+		String id = index.get(token);
+		if (id == null) {
+			return null;
+		}
+		OAuth2Authorization authorization = findById(id);
+		// Guard against a concurrent update that has not yet been reflected in the index
+		return authorization != null && hasToken(authorization, token, tokenType) ?
+				authorization :
+				null;
+	}
+
+	private void evicted(OAuth2Authorization authorization) {
+		this.evictedAuthorizationsCount.incrementAndGet();
+		// Retain the index entries if the authorization has since been completed
+		if (!this.authorizations.containsKey(authorization.getId())) {
+			updateIndexes(authorization, null);
+		}
+	}
+
+	private void updateIndexes(@Nullable OAuth2Authorization previousAuthorization,
+			@Nullable OAuth2Authorization authorization) {
+		String id = authorization != null ? authorization.getId() : previousAuthorization.getId();
+		updateIndex(this.stateIndex, id,
+				getState(previousAuthorization), getState(authorization));
+		updateIndex(this.authorizationCodeIndex, id,
+				getTokenValue(previousAuthorization, OAuth2AuthorizationCode.class),
+				getTokenValue(authorization, OAuth2AuthorizationCode.class));
+		updateIndex(this.accessTokenIndex, id,
+				getTokenValue(previousAuthorization, OAuth2AccessToken.class),
+				getTokenValue(authorization, OAuth2AccessToken.class));
+		updateIndex(this.refreshTokenIndex, id,
+				getTokenValue(previousAuthorization, OAuth2RefreshToken.class),
+				getTokenValue(authorization, OAuth2RefreshToken.class));
+	}
+
+	private static void updateIndex(Map<String, String> index, String id,
+			@Nullable String previousValue, @Nullable String value) {
+		// Add the new entry before removing the previous one, so the token is always resolvable
+		if (value != null) {
+			index.put(value, id);
+		}
+		if (previousValue != null && !previousValue.equals(value)) {
+			index.remove(previousValue, id);
+		}
+	}
+
+	@Nullable
+	private static String getState(@Nullable OAuth2Authorization authorization) {
+		return authorization != null ? authorization.getAttribute(OAuth2ParameterNames.STATE) : null;
+	}
+
+	@Nullable
+	private static String getTokenValue(@Nullable OAuth2Authorization authorization,
+			Class<? extends OAuth2Token> tokenType) {
+		if (authorization == null) {
+			return null;
+		}
+		OAuth2Authorization.Token<?> token = authorization.getToken(tokenType);
+		return token != null ? token.getToken().getTokenValue() : null;
+	}
+
+	private static Instant getExpiresAt(OAuth2Authorization authorization) {
+		Instant expiresAt = Instant.MIN;
+		for (Class<? extends OAuth2Token> tokenType : Arrays.asList(OAuth2AuthorizationCode.class,
+				OAuth2AccessToken.class, OAuth2RefreshToken.class, OidcIdToken.class)) {
+			OAuth2Authorization.Token<? extends OAuth2Token> token = authorization.getToken(tokenType);
+			if (token != null) {
+				Instant tokenExpiresAt = token.getToken().getExpiresAt();
+				if (tokenExpiresAt == null) {
+					// The token does not expire
+					return Instant.MAX;
+				}
+				if (tokenExpiresAt.isAfter(expiresAt)) {
+					expiresAt = tokenExpiresAt;
+				}
+			}
+		}
+		return expiresAt;
+	}
+
 	private static boolean isComplete(OAuth2Authorization authorization) {
 		return authorization.getAccessToken() != null;
 	}
@@ -187,16 +534,46 @@ public final class InMemoryOAuth2AuthorizationService implements OAuth2Authoriza
 		return refreshToken != null && refreshToken.getToken().getTokenValue().equals(token);
 	}
 
-	private static final class MaxSizeHashMap<K, V> extends LinkedHashMap<K, V> {
-		private final int maxSize;
+	private static final class ExpiryEntry implements Comparable<ExpiryEntry> {
+		private final Instant expiresAt;
+		private final String id;
+
+		private ExpiryEntry(Instant expiresAt, String id) {
+			this.expiresAt = expiresAt;
+			this.id = id;
+		}
+
+		@Override
+		public int compareTo(ExpiryEntry other) {
+			int result = this.expiresAt.compareTo(other.expiresAt);
+			return result != 0 ? result : this.id.compareTo(other.id);
+		}
 
-		private MaxSizeHashMap(int maxSize) {
-			this.maxSize = maxSize;
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (obj == null || getClass() != obj.getClass()) {
+				return false;
+			}
+			ExpiryEntry that = (ExpiryEntry) obj;
+			return this.expiresAt.equals(that.expiresAt) && this.id.equals(that.id);
 		}
 
 		@Override
-		protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
-			return size() > this.maxSize;
+		public int hashCode() {
+			return 31 * this.expiresAt.hashCode() + this.id.hashCode();
+		}
+
+	}
+
+	private static final class InitializedAuthorization {
+		private final OAuth2Authorization authorization;
+		private volatile boolean retired;
+
+		private InitializedAuthorization(OAuth2Authorization authorization) {
+			this.authorization = authorization;
 		}
 
 	}
@@ -15,33 +15,55 @@
  */
 package org.springframework.security.oauth2.server.authorization;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
 import java.sql.DatabaseMetaData;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Savepoint;
 import java.sql.Timestamp;
 import java.sql.Types;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Function;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.Module;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import org.springframework.dao.DataRetrievalFailureException;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
 import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.SqlParameterValue;
+import org.springframework.jdbc.support.SQLExceptionTranslator;
+import org.springframework.jdbc.support.SQLStateSQLExceptionTranslator;
 import org.springframework.jdbc.support.lob.DefaultLobHandler;
 import org.springframework.jdbc.support.lob.LobCreator;
 import org.springframework.jdbc.support.lob.LobHandler;
@@ -52,13 +74,16 @@ import org.springframework.security.oauth2.core.AuthorizationGrantType;
 import org.springframework.security.oauth2.core.OAuth2AccessToken;
 import org.springframework.security.oauth2.core.OAuth2AuthorizationCode;
 import org.springframework.security.oauth2.core.OAuth2RefreshToken;
+import org.springframework.security.oauth2.core.OAuth2Token;
 import org.springframework.security.oauth2.core.OAuth2TokenType;
 import org.springframework.security.oauth2.core.endpoint.OAuth2ParameterNames;
 import org.springframework.security.oauth2.core.oidc.OidcIdToken;
 import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
 import org.springframework.security.oauth2.server.authorization.client.RegisteredClientRepository;
 import org.springframework.security.oauth2.server.authorization.jackson2.OAuth2AuthorizationServerJackson2Module;
+import org.springframework.transaction.support.TransactionOperations;
 import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
 import org.springframework.util.CollectionUtils;
 import org.springframework.util.StringUtils;
 
@@ -72,6 +97,27 @@ import org.springframework.util.StringUtils;
  * "classpath:org/springframework/security/oauth2/server/authorization/oauth2-authorization-schema.sql" and
  * therefore MUST be defined in the database schema.
  *
+ * <p>
+ * By default, {@link #findByToken(String, OAuth2TokenType)} compares the token against the token value columns,
+ * which typically cannot be indexed efficiently. When {@link #setTokenLookupEnabled(boolean) token lookup} is enabled,
+ * a digest of each token is also stored in a separate lookup table, allowing tokens to be resolved
+ * with an indexed equality probe. The lookup table definition is described in
+ * "classpath:org/springframework/security/oauth2/server/authorization/oauth2-authorization-token-lookup-schema.sql".
+ * The lookup entries are written in addition to the authorization, therefore {@link #save(OAuth2Authorization)}
+ * and {@link #remove(OAuth2Authorization)} should either be invoked within a surrounding transaction,
+ * or be provided with {@link #setTransactionOperations(TransactionOperations) transaction operations},
+ * so both tables are updated atomically.
+ *
+ * <p>
+ * The attributes and token metadata are stored as JSON by default. When
+ * {@link OAuth2AuthorizationParametersMapper#setBinaryEncodingEnabled(boolean) binary encoding} is enabled,
+ * they are stored in the more compact (binary) Smile format instead, provided the columns are of type {@code BLOB}.
+ * Both formats are identified by their content when read, so rows written in either format may coexist.
+ *
+ * <p>
+ * Authorizations are not removed when their tokens expire. {@link #purgeExpiredAuthorizations()} may be invoked
+ * periodically (for example, using a {@code TaskScheduler}) to remove the expired authorizations in bounded batches.
+ *
  * @author Ovidiu Popa
  * @author Joe Grandja
  * @since 0.1.2
@@ -120,6 +166,32 @@ public class JdbcOAuth2AuthorizationService implements OAuth2AuthorizationServic
 	private static final String ACCESS_TOKEN_FILTER = "access_token_value = ?";
 	private static final String REFRESH_TOKEN_FILTER = "refresh_token_value = ?";
 
+	// @formatter:off
+	private static final String AUTHORIZED_TOKEN_COLUMN_NAMES = "id, "
+			+ "registered_client_id, "
+			+ "principal_name, "
+			+ "authorization_code_value, "
+			+ "authorization_code_issued_at, "
+			+ "authorization_code_expires_at,"
+			+ "authorization_code_metadata,"
+			+ "access_token_value,"
+			+ "access_token_issued_at,"
+			+ "access_token_expires_at,"
+			+ "access_token_metadata,"
+			+ "access_token_type,"
+			+ "access_token_scopes,"
+			+ "refresh_token_value,"
+			+ "refresh_token_issued_at,"
+			+ "refresh_token_expires_at,"
+			+ "refresh_token_metadata";
+	// @formatter:on
+
+	// @formatter:off
+	private static final String LOAD_AUTHORIZED_TOKEN_SQL = "SELECT " + AUTHORIZED_TOKEN_COLUMN_NAMES
+			+ " FROM " + TABLE_NAME
+			+ " WHERE ";
+	// @formatter:on
+
 	// @formatter:off
 	private static final String LOAD_AUTHORIZATION_SQL = "SELECT " + COLUMN_NAMES
 			+ " FROM " + TABLE_NAME
@@ -131,24 +203,81 @@ public class JdbcOAuth2AuthorizationService implements OAuth2AuthorizationServic
 			+ " (" + COLUMN_NAMES + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
 	// @formatter:on
 
+	private static final String UPDATE_ATTRIBUTES_COLUMNS = "registered_client_id = ?, principal_name = ?, authorization_grant_type = ?, attributes = ?, state = ?";
+	private static final String UPDATE_AUTHORIZATION_CODE_COLUMNS = "authorization_code_value = ?, authorization_code_issued_at = ?, authorization_code_expires_at = ?, authorization_code_metadata = ?";
+	private static final String UPDATE_ACCESS_TOKEN_COLUMNS = "access_token_value = ?, access_token_issued_at = ?, access_token_expires_at = ?, access_token_metadata = ?, access_token_type = ?, access_token_scopes = ?";
+	private static final String UPDATE_OIDC_ID_TOKEN_COLUMNS = "oidc_id_token_value = ?, oidc_id_token_issued_at = ?, oidc_id_token_expires_at = ?, oidc_id_token_metadata = ?";
+	private static final String UPDATE_REFRESH_TOKEN_COLUMNS = "refresh_token_value = ?, refresh_token_issued_at = ?, refresh_token_expires_at = ?, refresh_token_metadata = ?";
+
 	// @formatter:off
 	private static final String UPDATE_AUTHORIZATION_SQL = "UPDATE " + TABLE_NAME
-			+ " SET registered_client_id = ?, principal_name = ?, authorization_grant_type = ?, attributes = ?, state = ?,"
-			+ " authorization_code_value = ?, authorization_code_issued_at = ?, authorization_code_expires_at = ?, authorization_code_metadata = ?,"
-			+ " access_token_value = ?, access_token_issued_at = ?, access_token_expires_at = ?, access_token_metadata = ?, access_token_type = ?, access_token_scopes = ?,"
-			+ " oidc_id_token_value = ?, oidc_id_token_issued_at = ?, oidc_id_token_expires_at = ?, oidc_id_token_metadata = ?,"
-			+ " refresh_token_value = ?, refresh_token_issued_at = ?, refresh_token_expires_at = ?, refresh_token_metadata = ?"
+			+ " SET " + UPDATE_ATTRIBUTES_COLUMNS + ", "
+			+ UPDATE_AUTHORIZATION_CODE_COLUMNS + ", "
+			+ UPDATE_ACCESS_TOKEN_COLUMNS + ", "
+			+ UPDATE_OIDC_ID_TOKEN_COLUMNS + ", "
+			+ UPDATE_REFRESH_TOKEN_COLUMNS
 			+ " WHERE " + PK_FILTER;
 	// @formatter:on
 
 	private static final String REMOVE_AUTHORIZATION_SQL = "DELETE FROM " + TABLE_NAME + " WHERE " + PK_FILTER;
 
+	// An absent token is ignored, while a token without expiry never expires (as in InMemoryOAuth2AuthorizationService)
+	// @formatter:off
+	private static final String EXPIRED_FILTER = "(authorization_code_value IS NOT NULL OR access_token_value IS NOT NULL OR refresh_token_value IS NOT NULL)"
+			+ " AND (authorization_code_value IS NULL OR authorization_code_expires_at < ?)"
+			+ " AND (access_token_value IS NULL OR access_token_expires_at < ?)"
+			+ " AND (oidc_id_token_value IS NULL OR oidc_id_token_expires_at < ?)"
+			+ " AND (refresh_token_value IS NULL OR refresh_token_expires_at < ?)";
+	// @formatter:on
+
+	private static final int EXPIRED_FILTER_PARAMETERS_COUNT = 4;
+
+	private static final String LOAD_EXPIRED_AUTHORIZATION_IDS_SQL = "SELECT id FROM " + TABLE_NAME + " WHERE " + EXPIRED_FILTER;
+
+	// The expiry is checked again, as the authorization may have been updated since it was loaded
+	private static final String REMOVE_EXPIRED_AUTHORIZATION_SQL = REMOVE_AUTHORIZATION_SQL + " AND " + EXPIRED_FILTER;
+
+	private static final String TOKEN_LOOKUP_TABLE_NAME = "oauth2_authorization_token_lookup";
+
+	// @formatter:off
+	private static final String TOKEN_LOOKUP_FILTER = "id IN (SELECT authorization_id FROM " + TOKEN_LOOKUP_TABLE_NAME
+			+ " WHERE token_digest = ?)";
+	// @formatter:on
+
+	// @formatter:off
+	private static final String TOKEN_LOOKUP_TOKEN_TYPE_FILTER = "id IN (SELECT authorization_id FROM " + TOKEN_LOOKUP_TABLE_NAME
+			+ " WHERE token_digest = ? AND token_type = ?)";
+	// @formatter:on
+
+	/*
+	 * The maximum number of tokens resolved by a single query of findAuthorizedTokens().
+	 */
+	private static final int MAX_AUTHORIZED_TOKENS_PER_QUERY = 100;
+
+	// @formatter:off
+	private static final String UPDATE_TOKEN_LOOKUP_SQL = "UPDATE " + TOKEN_LOOKUP_TABLE_NAME
+			+ " SET token_digest = ? WHERE authorization_id = ? AND token_type = ?";
+	// @formatter:on
+
+	// @formatter:off
+	private static final String SAVE_TOKEN_LOOKUP_SQL = "INSERT INTO " + TOKEN_LOOKUP_TABLE_NAME
+			+ " (authorization_id, token_type, token_digest) VALUES (?, ?, ?)";
+	// @formatter:on
+
+	private static final String REMOVE_TOKEN_LOOKUP_SQL = "DELETE FROM " + TOKEN_LOOKUP_TABLE_NAME + " WHERE authorization_id = ?";
+
 	private static Map<String, ColumnMetadata> columnMetadataMap;
 
 	private final JdbcOperations jdbcOperations;
 	private final LobHandler lobHandler;
 	private RowMapper<OAuth2Authorization> authorizationRowMapper;
 	private Function<OAuth2Authorization, List<SqlParameterValue>> authorizationParametersMapper;
+	private boolean tokenLookupEnabled;
+	private TransactionOperations transactionOperations = TransactionOperations.withoutTransaction();
+	private int purgeBatchSize = 100;
+	private Duration purgeBatchInterval = Duration.ZERO;
+	private Duration purgeQueryTimeout = Duration.ZERO;
+	private final AtomicLong purgedAuthorizationsCount = new AtomicLong();
 
 	/**
 	 * Constructs a {@code JdbcOAuth2AuthorizationService} using the provided parameters.
@@ -185,31 +314,156 @@ public class JdbcOAuth2AuthorizationService implements OAuth2AuthorizationServic
 	@Override
 	public void save(OAuth2Authorization authorization) {
 		Assert.notNull(authorization, "authorization cannot be null");
-		OAuth2Authorization existingAuthorization = findById(authorization.getId());
-		if (existingAuthorization == null) {
-			insertAuthorization(authorization);
-		} else {
-			updateAuthorization(authorization);
+		this.transactionOperations.executeWithoutResult((status) -> saveAuthorization(authorization));
+	}
+
+	private void saveAuthorization(OAuth2Authorization authorization) {
+		// Attempt the update first, which avoids reading (and mapping) the existing authorization
+		boolean inserted = false;
+		if (!updateModifiedColumns(authorization)) {
+			List<SqlParameterValue> parameters = this.authorizationParametersMapper.apply(authorization);
+			if (updateAuthorization(parameters) == 0) {
+				inserted = insertOrUpdateAuthorization(parameters);
+			}
+		}
+		if (this.tokenLookupEnabled) {
+			saveTokenLookup(authorization, inserted);
 		}
 	}
 
-	private void updateAuthorization(OAuth2Authorization authorization) {
-		List<SqlParameterValue> parameters = this.authorizationParametersMapper.apply(authorization);
-		SqlParameterValue id = parameters.remove(0);
-		parameters.add(id);
+	/*
+	 * Maps and updates only the columns of the attributes and tokens modified since the authorization was loaded.
+	 * Returns false if the authorization must be saved with all its columns instead.
+	 */
+	private boolean updateModifiedColumns(OAuth2Authorization authorization) {
+		if (this.authorizationParametersMapper.getClass() != OAuth2AuthorizationParametersMapper.class) {
+			// A custom Function may map the columns differently
+			return false;
+		}
+		boolean attributesModified = authorization.isAttributesModified();
+		boolean authorizationCodeModified = authorization.isTokenModified(OAuth2AuthorizationCode.class);
+		boolean accessTokenModified = authorization.isTokenModified(OAuth2AccessToken.class);
+		boolean oidcIdTokenModified = authorization.isTokenModified(OidcIdToken.class);
+		boolean refreshTokenModified = authorization.isTokenModified(OAuth2RefreshToken.class);
+		if (!attributesModified && !authorizationCodeModified && !accessTokenModified &&
+				!oidcIdTokenModified && !refreshTokenModified) {
+			// Nothing was modified, the row may not exist yet
+			return false;
+		}
+		if (attributesModified && authorizationCodeModified && accessTokenModified &&
+				oidcIdTokenModified && refreshTokenModified) {
+			// Everything was modified (e.g. a new authorization)
+			return false;
+		}
+
+		OAuth2AuthorizationParametersMapper authorizationParametersMapper =
+				(OAuth2AuthorizationParametersMapper) this.authorizationParametersMapper;
+		StringBuilder columns = new StringBuilder();
+		List<SqlParameterValue> updateParameters = new ArrayList<>();
+		if (attributesModified) {
+			addUpdateColumns(columns, UPDATE_ATTRIBUTES_COLUMNS, updateParameters,
+					authorizationParametersMapper.mapAttributes(authorization));
+		}
+		if (authorizationCodeModified) {
+			addUpdateColumns(columns, UPDATE_AUTHORIZATION_CODE_COLUMNS, updateParameters,
+					authorizationParametersMapper.mapAuthorizationCode(authorization));
+		}
+		if (accessTokenModified) {
+			addUpdateColumns(columns, UPDATE_ACCESS_TOKEN_COLUMNS, updateParameters,
+					authorizationParametersMapper.mapAccessToken(authorization));
+		}
+		if (oidcIdTokenModified) {
+			addUpdateColumns(columns, UPDATE_OIDC_ID_TOKEN_COLUMNS, updateParameters,
+					authorizationParametersMapper.mapOidcIdToken(authorization));
+		}
+		if (refreshTokenModified) {
+			addUpdateColumns(columns, UPDATE_REFRESH_TOKEN_COLUMNS, updateParameters,
+					authorizationParametersMapper.mapRefreshToken(authorization));
+		}
+		updateParameters.add(new SqlParameterValue(Types.VARCHAR, authorization.getId()));
+		String sql = "UPDATE " + TABLE_NAME + " SET " + columns + " WHERE " + PK_FILTER;
 		try (LobCreator lobCreator = this.lobHandler.getLobCreator()) {
 			PreparedStatementSetter pss = new LobCreatorArgumentPreparedStatementSetter(lobCreator,
-					parameters.toArray());
-			this.jdbcOperations.update(UPDATE_AUTHORIZATION_SQL, pss);
+					updateParameters.toArray());
+			// The row may have been removed since the authorization was loaded
+			return this.jdbcOperations.update(sql, pss) > 0;
+		}
+	}
+
+	private static void addUpdateColumns(StringBuilder columns, String groupColumns,
+			List<SqlParameterValue> updateParameters, List<SqlParameterValue> groupParameters) {
+		if (columns.length() > 0) {
+			columns.append(", ");
 		}
+		columns.append(groupColumns);
+		updateParameters.addAll(groupParameters);
 	}
 
-	private void insertAuthorization(OAuth2Authorization authorization) {
-		List<SqlParameterValue> parameters = this.authorizationParametersMapper.apply(authorization);
+	private int updateAuthorization(List<SqlParameterValue> parameters) {
 		try (LobCreator lobCreator = this.lobHandler.getLobCreator()) {
 			PreparedStatementSetter pss = new LobCreatorArgumentPreparedStatementSetter(lobCreator,
-					parameters.toArray());
-			this.jdbcOperations.update(SAVE_AUTHORIZATION_SQL, pss);
+					toUpdateParameters(parameters).toArray());
+			return this.jdbcOperations.update(UPDATE_AUTHORIZATION_SQL, pss);
+		}
+	}
+
+	private static List<SqlParameterValue> toUpdateParameters(List<SqlParameterValue> parameters) {
+		List<SqlParameterValue> updateParameters = new ArrayList<>(parameters.subList(1, parameters.size()));
+		updateParameters.add(parameters.get(0));
+		return updateParameters;
+	}
+
+	/*
+	 * Returns true if the authorization was inserted, or false if it was concurrently inserted and updated instead.
+	 */
+	private boolean insertOrUpdateAuthorization(List<SqlParameterValue> parameters) {
+		// Both statements are executed on the connection of the callback, so a single connection is held,
+		// and the savepoint applies to the insert
+		Boolean inserted = this.jdbcOperations.execute((ConnectionCallback<Boolean>) (connection) -> {
+			// Within a transaction, the failed insert is rolled back to a savepoint before updating,
+			// as some databases (e.g. PostgreSQL) abort the whole transaction when a statement fails
+			Savepoint savepoint = !connection.getAutoCommit() ? connection.setSavepoint() : null;
+			try {
+				executeUpdate(connection, SAVE_AUTHORIZATION_SQL, parameters);
+			} catch (SQLException ex) {
+				if (!isDuplicateKey(ex)) {
+					throw ex;
+				}
+				// The authorization was concurrently inserted
+				if (savepoint != null) {
+					connection.rollback(savepoint);
+				}
+				executeUpdate(connection, UPDATE_AUTHORIZATION_SQL, toUpdateParameters(parameters));
+				return false;
+			}
+			if (savepoint != null) {
+				releaseSavepoint(connection, savepoint);
+			}
+			return true;
+		});
+		return Boolean.TRUE.equals(inserted);
+	}
+
+	private int executeUpdate(Connection connection, String sql, List<SqlParameterValue> parameters) throws SQLException {
+		try (LobCreator lobCreator = this.lobHandler.getLobCreator();
+				PreparedStatement ps = connection.prepareStatement(sql)) {
+			new LobCreatorArgumentPreparedStatementSetter(lobCreator, parameters.toArray()).setValues(ps);
+			return ps.executeUpdate();
+		}
+	}
+
+	private boolean isDuplicateKey(SQLException ex) {
+		SQLExceptionTranslator exceptionTranslator = this.jdbcOperations instanceof JdbcTemplate ?
+				((JdbcTemplate) this.jdbcOperations).getExceptionTranslator() :
+				new SQLStateSQLExceptionTranslator();
+		return exceptionTranslator.translate("insertAuthorization", SAVE_AUTHORIZATION_SQL, ex) instanceof DuplicateKeyException;
+	}
+
+	private static void releaseSavepoint(Connection connection, Savepoint savepoint) {
+		try {
+			connection.releaseSavepoint(savepoint);
+		} catch (SQLException ex) {
+			// Not supported by all JDBC drivers, the savepoint is released when the transaction completes
 		}
 	}
 
@@ -220,7 +474,173 @@ public class JdbcOAuth2AuthorizationService implements OAuth2AuthorizationServic
 				new SqlParameterValue(Types.VARCHAR, authorization.getId())
 		};
 		PreparedStatementSetter pss = new ArgumentPreparedStatementSetter(parameters);
-		this.jdbcOperations.update(REMOVE_AUTHORIZATION_SQL, pss);
+		this.transactionOperations.executeWithoutResult((status) -> {
+			if (this.tokenLookupEnabled) {
+				this.jdbcOperations.update(REMOVE_TOKEN_LOOKUP_SQL, pss);
+			}
+			this.jdbcOperations.update(REMOVE_AUTHORIZATION_SQL, pss);
+		});
+	}
+
+	/**
+	 * Removes the authorizations whose tokens have all expired, in batches of at most
+	 * {@link #setPurgeBatchSize(int) purge batch size} rows, pausing for the
+	 * {@link #setPurgeBatchInterval(Duration) purge batch interval} between batches.
+	 * An authorization without any token (for example, pending consent) is not removed,
+	 * nor is an authorization holding a token without expiry (for example, a refresh token).
+	 *
+	 * <p>
+	 * <b>NOTE:</b> An invalidated (for example, revoked) token is only considered once it has expired,
+	 * as its invalidation is held in the token metadata, which cannot be queried.
+	 *
+	 * <p>
+	 * This method is intended to be invoked periodically, for example,
+	 * {@code taskScheduler.scheduleWithFixedDelay(authorizationService::purgeExpiredAuthorizations, Duration.ofMinutes(10))}.
+	 *
+	 * @return the number of authorizations removed
+	 * @since 0.3.0
+	 */
+	public int purgeExpiredAuthorizations() {
+		Timestamp now = Timestamp.from(Instant.now());
+		int purgedCount = 0;
+		while (true) {
+			List<String> ids = getJdbcOperations().query(expiredAuthorizationIdsStatementCreator(now),
+					(rs, rowNum) -> rs.getString(1));
+			if (ids.isEmpty()) {
+				break;
+			}
+			int batchPurgedCount = this.transactionOperations.execute((status) -> removeExpiredAuthorizations(ids, now));
+			purgedCount += batchPurgedCount;
+			this.purgedAuthorizationsCount.addAndGet(batchPurgedCount);
+			if (ids.size() < this.purgeBatchSize || batchPurgedCount == 0) {
+				break;
+			}
+			if (!this.purgeBatchInterval.isZero()) {
+				try {
+					Thread.sleep(this.purgeBatchInterval.toMillis());
+				} catch (InterruptedException ex) {
+					Thread.currentThread().interrupt();
+					break;
+				}
+			}
+		}
+		return purgedCount;
+	}
+
+	/**
+	 * Returns the total number of authorizations removed by {@link #purgeExpiredAuthorizations()}.
+	 *
+	 * @return the total number of authorizations removed by {@link #purgeExpiredAuthorizations()}
+	 * @since 0.3.0
+	 */
+	public final long getPurgedAuthorizationsCount() {
+		return this.purgedAuthorizationsCount.get();
+	}
+
+	private PreparedStatementCreator expiredAuthorizationIdsStatementCreator(Timestamp now) {
+		return (connection) -> {
+			PreparedStatement ps = connection.prepareStatement(LOAD_EXPIRED_AUTHORIZATION_IDS_SQL);
+			ps.setMaxRows(this.purgeBatchSize);
+			ps.setQueryTimeout((int) this.purgeQueryTimeout.getSeconds());
+			for (int i = 1; i <= EXPIRED_FILTER_PARAMETERS_COUNT; i++) {
+				ps.setTimestamp(i, now);
+			}
+			return ps;
+		};
+	}
+
+	private int removeExpiredAuthorizations(List<String> ids, Timestamp now) {
+		int[] updateCounts = getJdbcOperations().batchUpdate(REMOVE_EXPIRED_AUTHORIZATION_SQL, new BatchPreparedStatementSetter() {
+
+			@Override
+			public void setValues(PreparedStatement ps, int i) throws SQLException {
+				ps.setQueryTimeout((int) JdbcOAuth2AuthorizationService.this.purgeQueryTimeout.getSeconds());
+				ps.setString(1, ids.get(i));
+				for (int j = 2; j <= EXPIRED_FILTER_PARAMETERS_COUNT + 1; j++) {
+					ps.setTimestamp(j, now);
+				}
+			}
+
+			@Override
+			public int getBatchSize() {
+				return ids.size();
+			}
+
+		});
+		List<Object[]> removedIds = new ArrayList<>();
+		for (int i = 0; i < updateCounts.length; i++) {
+			// Some drivers report SUCCESS_NO_INFO (-2) for batched statements
+			if (updateCounts[i] != 0) {
+				removedIds.add(new Object[] { ids.get(i) });
+			}
+		}
+		if (this.tokenLookupEnabled && !removedIds.isEmpty()) {
+			getJdbcOperations().batchUpdate(REMOVE_TOKEN_LOOKUP_SQL, removedIds);
+		}
+		return removedIds.size();
+	}
+
+	/*
+	 * Writes the lookup entries of the state and tokens whose value was modified since the authorization was loaded,
+	 * or of all of them when the authorization was inserted.
+	 */
+	private void saveTokenLookup(OAuth2Authorization authorization, boolean inserted) {
+		Map<String, String> tokenDigests = new LinkedHashMap<>();
+		List<String> removedTokenTypes = new ArrayList<>();
+		if (inserted || authorization.isAttributesModified()) {
+			String state = authorization.getAttribute(OAuth2ParameterNames.STATE);
+			if (StringUtils.hasText(state)) {
+				tokenDigests.put(OAuth2ParameterNames.STATE, digest(state));
+			} else {
+				removedTokenTypes.add(OAuth2ParameterNames.STATE);
+			}
+		}
+		addTokenLookup(authorization, OAuth2AuthorizationCode.class, OAuth2ParameterNames.CODE,
+				inserted, tokenDigests, removedTokenTypes);
+		addTokenLookup(authorization, OAuth2AccessToken.class, OAuth2TokenType.ACCESS_TOKEN.getValue(),
+				inserted, tokenDigests, removedTokenTypes);
+		addTokenLookup(authorization, OAuth2RefreshToken.class, OAuth2TokenType.REFRESH_TOKEN.getValue(),
+				inserted, tokenDigests, removedTokenTypes);
+
+		List<Object[]> saveTokenLookupArgs = new ArrayList<>();
+		tokenDigests.forEach((tokenType, tokenDigest) -> {
+			// The existing entries are updated in place (rather than removed and inserted again),
+			// so a concurrent lookup of a token that was not rotated is always resolved.
+			// An inserted authorization does not have any entry yet.
+			if (inserted || this.jdbcOperations.update(UPDATE_TOKEN_LOOKUP_SQL, tokenDigest, authorization.getId(), tokenType) == 0) {
+				saveTokenLookupArgs.add(new Object[] { authorization.getId(), tokenType, tokenDigest });
+			}
+		});
+		if (!saveTokenLookupArgs.isEmpty()) {
+			this.jdbcOperations.batchUpdate(SAVE_TOKEN_LOOKUP_SQL, saveTokenLookupArgs);
+		}
+
+		if (!inserted && !removedTokenTypes.isEmpty()) {
+			// Remove the entries of the tokens that were removed
+			StringBuilder sql = new StringBuilder(REMOVE_TOKEN_LOOKUP_SQL).append(" AND token_type IN (");
+			List<Object> removeTokenLookupArgs = new ArrayList<>();
+			removeTokenLookupArgs.add(authorization.getId());
+			for (String tokenType : removedTokenTypes) {
+				sql.append(removeTokenLookupArgs.size() > 1 ? ", ?" : "?");
+				removeTokenLookupArgs.add(tokenType);
+			}
+			sql.append(")");
+			this.jdbcOperations.update(sql.toString(), removeTokenLookupArgs.toArray());
+		}
+	}
+
+	private static void addTokenLookup(OAuth2Authorization authorization, Class<? extends OAuth2Token> tokenClass,
+			String tokenType, boolean inserted, Map<String, String> tokenDigests, List<String> removedTokenTypes) {
+		if (!inserted && !authorization.isTokenValueModified(tokenClass)) {
+			// Only the metadata may have been modified (e.g. the token was invalidated)
+			return;
+		}
+		OAuth2Authorization.Token<?> token = authorization.getToken(tokenClass);
+		if (token != null) {
+			tokenDigests.put(tokenType, digest(token.getToken().getTokenValue()));
+		} else {
+			removedTokenTypes.add(tokenType);
+		}
 	}
 
 	@Nullable
@@ -236,29 +656,217 @@ public class JdbcOAuth2AuthorizationService implements OAuth2AuthorizationServic
 	@Override
 	public OAuth2Authorization findByToken(String token, @Nullable OAuth2TokenType tokenType) {
 		Assert.hasText(token, "token cannot be empty");
+		if (this.tokenLookupEnabled) {
+			return findByTokenLookup(token, tokenType);
+		}
 		List<SqlParameterValue> parameters = new ArrayList<>();
+		String filter = getTokenFilter(token, tokenType, parameters);
+		return filter != null ? findBy(filter, parameters) : null;
+	}
+
+	@Nullable
+	private static String getTokenFilter(String token, @Nullable OAuth2TokenType tokenType,
+			List<SqlParameterValue> parameters) {
 		if (tokenType == null) {
 			parameters.add(new SqlParameterValue(Types.VARCHAR, token));
 			parameters.add(mapToSqlParameter("authorization_code_value", token));
 			parameters.add(mapToSqlParameter("access_token_value", token));
 			parameters.add(mapToSqlParameter("refresh_token_value", token));
-			return findBy(UNKNOWN_TOKEN_TYPE_FILTER, parameters);
+			return UNKNOWN_TOKEN_TYPE_FILTER;
 		} else if (OAuth2ParameterNames.STATE.equals(tokenType.getValue())) {
 			parameters.add(new SqlParameterValue(Types.VARCHAR, token));
-			return findBy(STATE_FILTER, parameters);
+			return STATE_FILTER;
 		} else if (OAuth2ParameterNames.CODE.equals(tokenType.getValue())) {
 			parameters.add(mapToSqlParameter("authorization_code_value", token));
-			return findBy(AUTHORIZATION_CODE_FILTER, parameters);
+			return AUTHORIZATION_CODE_FILTER;
 		} else if (OAuth2TokenType.ACCESS_TOKEN.equals(tokenType)) {
 			parameters.add(mapToSqlParameter("access_token_value", token));
-			return findBy(ACCESS_TOKEN_FILTER, parameters);
+			return ACCESS_TOKEN_FILTER;
 		} else if (OAuth2TokenType.REFRESH_TOKEN.equals(tokenType)) {
 			parameters.add(mapToSqlParameter("refresh_token_value", token));
-			return findBy(REFRESH_TOKEN_FILTER, parameters);
+			return REFRESH_TOKEN_FILTER;
+		}
+		return null;
+	}
+
+	@Nullable
+	private static String getTokenLookupFilter(String token, @Nullable OAuth2TokenType tokenType,
+			List<SqlParameterValue> parameters) {
+		parameters.add(new SqlParameterValue(Types.VARCHAR, digest(token)));
+		if (tokenType == null) {
+			return TOKEN_LOOKUP_FILTER;
+		} else if (OAuth2ParameterNames.STATE.equals(tokenType.getValue()) ||
+				OAuth2ParameterNames.CODE.equals(tokenType.getValue()) ||
+				OAuth2TokenType.ACCESS_TOKEN.equals(tokenType) ||
+				OAuth2TokenType.REFRESH_TOKEN.equals(tokenType)) {
+			parameters.add(new SqlParameterValue(Types.VARCHAR, tokenType.getValue()));
+			return TOKEN_LOOKUP_TOKEN_TYPE_FILTER;
+		}
+		return null;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * <p>
+	 * When the default {@link OAuth2AuthorizationRowMapper} is used, only the columns of the authorization code,
+	 * access token and refresh token are loaded, and only the metadata of the matching token is decoded.
+	 */
+	@Nullable
+	@Override
+	public OAuth2AuthorizedToken findAuthorizedToken(String token, @Nullable OAuth2TokenType tokenType) {
+		Assert.hasText(token, "token cannot be empty");
+		if (getAuthorizationRowMapper().getClass() != OAuth2AuthorizationRowMapper.class) {
+			// A custom RowMapper may map the tokens differently
+			return OAuth2AuthorizationService.super.findAuthorizedToken(token, tokenType);
+		}
+		if (tokenType != null && OAuth2ParameterNames.STATE.equals(tokenType.getValue())) {
+			return null;
+		}
+		OAuth2AuthorizationRowMapper authorizationRowMapper = (OAuth2AuthorizationRowMapper) getAuthorizationRowMapper();
+		List<SqlParameterValue> parameters = new ArrayList<>();
+		String filter = this.tokenLookupEnabled ?
+				getTokenLookupFilter(token, tokenType, parameters) :
+				getTokenFilter(token, tokenType, parameters);
+		if (filter == null) {
+			return null;
+		}
+		try (LobCreator lobCreator = getLobHandler().getLobCreator()) {
+			PreparedStatementSetter pss = new LobCreatorArgumentPreparedStatementSetter(lobCreator,
+					parameters.toArray());
+			List<OAuth2AuthorizedToken> result = getJdbcOperations().query(LOAD_AUTHORIZED_TOKEN_SQL + filter, pss,
+					(rs, rowNum) -> authorizationRowMapper.mapAuthorizedToken(rs, token));
+			for (OAuth2AuthorizedToken authorizedToken : result) {
+				// Not mapped when only the state (or the token digest of another token) matched
+				if (authorizedToken != null) {
+					return authorizedToken;
+				}
+			}
+			return null;
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * <p>
+	 * When the default {@link OAuth2AuthorizationRowMapper} is used, the tokens are resolved with a single query
+	 * (per {@code 100} tokens), using an {@code IN} condition, and only the columns of the authorization code,
+	 * access token and refresh token are loaded.
+	 */
+	@Override
+	public Map<String, OAuth2AuthorizedToken> findAuthorizedTokens(Collection<String> tokens,
+			@Nullable OAuth2TokenType tokenType) {
+		Assert.notNull(tokens, "tokens cannot be null");
+		tokens.forEach((token) -> Assert.hasText(token, "token cannot be empty"));
+		if (getAuthorizationRowMapper().getClass() != OAuth2AuthorizationRowMapper.class) {
+			// A custom RowMapper may map the tokens differently
+			return OAuth2AuthorizationService.super.findAuthorizedTokens(tokens, tokenType);
+		}
+		Map<String, OAuth2AuthorizedToken> authorizedTokens = new LinkedHashMap<>();
+		if (tokenType != null && OAuth2ParameterNames.STATE.equals(tokenType.getValue())) {
+			return authorizedTokens;
+		}
+		OAuth2AuthorizationRowMapper authorizationRowMapper = (OAuth2AuthorizationRowMapper) getAuthorizationRowMapper();
+		List<String> distinctTokens = new ArrayList<>(new LinkedHashSet<>(tokens));
+		for (int i = 0; i < distinctTokens.size(); i += MAX_AUTHORIZED_TOKENS_PER_QUERY) {
+			List<String> queryTokens = distinctTokens.subList(i,
+					Math.min(i + MAX_AUTHORIZED_TOKENS_PER_QUERY, distinctTokens.size()));
+			List<SqlParameterValue> parameters = new ArrayList<>();
+			String filter = this.tokenLookupEnabled ?
+					getTokensLookupFilter(queryTokens, tokenType, parameters) :
+					getTokensFilter(queryTokens, tokenType, parameters);
+			if (filter == null) {
+				return authorizedTokens;
+			}
+			Set<String> queryTokensSet = new HashSet<>(queryTokens);
+			try (LobCreator lobCreator = getLobHandler().getLobCreator()) {
+				PreparedStatementSetter pss = new LobCreatorArgumentPreparedStatementSetter(lobCreator,
+						parameters.toArray());
+				getJdbcOperations().query(LOAD_AUTHORIZED_TOKEN_SQL + filter, pss, (RowCallbackHandler) (rs) ->
+						authorizationRowMapper.mapAuthorizedTokens(rs, queryTokensSet, tokenType, authorizedTokens));
+			}
+		}
+		return authorizedTokens;
+	}
+
+	@Nullable
+	private static String getTokensFilter(List<String> tokens, @Nullable OAuth2TokenType tokenType,
+			List<SqlParameterValue> parameters) {
+		if (tokenType == null) {
+			return inFilter("authorization_code_value", tokens, parameters) + " OR " +
+					inFilter("access_token_value", tokens, parameters) + " OR " +
+					inFilter("refresh_token_value", tokens, parameters);
+		} else if (OAuth2ParameterNames.CODE.equals(tokenType.getValue())) {
+			return inFilter("authorization_code_value", tokens, parameters);
+		} else if (OAuth2TokenType.ACCESS_TOKEN.equals(tokenType)) {
+			return inFilter("access_token_value", tokens, parameters);
+		} else if (OAuth2TokenType.REFRESH_TOKEN.equals(tokenType)) {
+			return inFilter("refresh_token_value", tokens, parameters);
+		}
+		return null;
+	}
+
+	@Nullable
+	private static String getTokensLookupFilter(List<String> tokens, @Nullable OAuth2TokenType tokenType,
+			List<SqlParameterValue> parameters) {
+		StringBuilder filter = new StringBuilder("id IN (SELECT authorization_id FROM ")
+				.append(TOKEN_LOOKUP_TABLE_NAME)
+				.append(" WHERE token_digest IN (");
+		for (int i = 0; i < tokens.size(); i++) {
+			filter.append(i > 0 ? ", ?" : "?");
+			parameters.add(new SqlParameterValue(Types.VARCHAR, digest(tokens.get(i))));
+		}
+		filter.append(")");
+		if (tokenType != null) {
+			if (!OAuth2ParameterNames.CODE.equals(tokenType.getValue()) &&
+					!OAuth2TokenType.ACCESS_TOKEN.equals(tokenType) &&
+					!OAuth2TokenType.REFRESH_TOKEN.equals(tokenType)) {
+				return null;
+			}
+			filter.append(" AND token_type = ?");
+			parameters.add(new SqlParameterValue(Types.VARCHAR, tokenType.getValue()));
+		}
+		return filter.append(")").toString();
+	}
+
+	private static String inFilter(String columnName, List<String> tokens, List<SqlParameterValue> parameters) {
+		StringBuilder filter = new StringBuilder(columnName).append(" IN (");
+		for (int i = 0; i < tokens.size(); i++) {
+			filter.append(i > 0 ? ", ?" : "?");
+			parameters.add(mapToSqlParameter(columnName, tokens.get(i)));
+		}
+		return filter.append(")").toString();
+	}
+
+	private OAuth2Authorization findByTokenLookup(String token, @Nullable OAuth2TokenType tokenType) {
+		List<SqlParameterValue> parameters = new ArrayList<>();
+		String filter = getTokenLookupFilter(token, tokenType, parameters);
+		if (filter == null) {
+			return null;
+		}
+		List<OAuth2Authorization> result = getJdbcOperations().query(LOAD_AUTHORIZATION_SQL + filter,
+				new ArgumentPreparedStatementSetter(parameters.toArray()), getAuthorizationRowMapper());
+		for (OAuth2Authorization authorization : result) {
+			// A digest match is confirmed against the actual token value
+			if (token.equals(authorization.getAttribute(OAuth2ParameterNames.STATE)) ||
+					authorization.getToken(token) != null) {
+				return authorization;
+			}
 		}
 		return null;
 	}
 
+	private static String digest(String token) {
+		try {
+			MessageDigest md = MessageDigest.getInstance("SHA-256");
+			byte[] digest = md.digest(token.getBytes(StandardCharsets.UTF_8));
+			return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+		} catch (NoSuchAlgorithmException ex) {
+			throw new IllegalStateException(ex);
+		}
+	}
+
 	private OAuth2Authorization findBy(String filter, List<SqlParameterValue> parameters) {
 		try (LobCreator lobCreator = getLobHandler().getLobCreator()) {
 			PreparedStatementSetter pss = new LobCreatorArgumentPreparedStatementSetter(lobCreator,
@@ -295,6 +903,75 @@ public class JdbcOAuth2AuthorizationService implements OAuth2AuthorizationServic
 		this.authorizationParametersMapper = authorizationParametersMapper;
 	}
 
+	/**
+	 * Set to {@code true} if a digest of each token should be maintained in the
+	 * {@code oauth2_authorization_token_lookup} table, and used for resolving tokens in
+	 * {@link #findByToken(String, OAuth2TokenType)}. The default is {@code false}.
+	 *
+	 * <p>
+	 * <b>NOTE:</b> Authorizations saved prior to enabling token lookup do not have an entry
+	 * in the lookup table and will not be resolved by {@link #findByToken(String, OAuth2TokenType)}
+	 * until they are saved again.
+	 *
+	 * @param tokenLookupEnabled {@code true} if tokens should be resolved using the token lookup table, {@code false} otherwise
+	 */
+	public final void setTokenLookupEnabled(boolean tokenLookupEnabled) {
+		this.tokenLookupEnabled = tokenLookupEnabled;
+	}
+
+	/**
+	 * Sets the {@link TransactionOperations} used for writing an authorization together with its
+	 * {@link #setTokenLookupEnabled(boolean) token lookup} entries, for example a
+	 * {@code TransactionTemplate}. The default does not start a transaction,
+	 * in which case the writes are only atomic when executed within a surrounding transaction.
+	 *
+	 * @param transactionOperations the {@link TransactionOperations}
+	 * @since 0.3.0
+	 */
+	public final void setTransactionOperations(TransactionOperations transactionOperations) {
+		Assert.notNull(transactionOperations, "transactionOperations cannot be null");
+		this.transactionOperations = transactionOperations;
+	}
+
+	/**
+	 * Sets the maximum number of authorizations removed per batch by {@link #purgeExpiredAuthorizations()}.
+	 * The default is 100.
+	 *
+	 * @param purgeBatchSize the maximum number of authorizations removed per batch
+	 * @since 0.3.0
+	 */
+	public final void setPurgeBatchSize(int purgeBatchSize) {
+		Assert.isTrue(purgeBatchSize > 0, "purgeBatchSize must be greater than 0");
+		this.purgeBatchSize = purgeBatchSize;
+	}
+
+	/**
+	 * Sets the pause between batches in {@link #purgeExpiredAuthorizations()}, which limits the rate
+	 * at which authorizations are removed. The default is {@code Duration.ZERO}.
+	 *
+	 * @param purgeBatchInterval the pause between batches
+	 * @since 0.3.0
+	 */
+	public final void setPurgeBatchInterval(Duration purgeBatchInterval) {
+		Assert.notNull(purgeBatchInterval, "purgeBatchInterval cannot be null");
+		Assert.isTrue(!purgeBatchInterval.isNegative(), "purgeBatchInterval cannot be negative");
+		this.purgeBatchInterval = purgeBatchInterval;
+	}
+
+	/**
+	 * Sets the query timeout of the statements executed by {@link #purgeExpiredAuthorizations()},
+	 * which bounds the time spent waiting for row locks held by concurrent requests.
+	 * The default is {@code Duration.ZERO}, which uses the default of the JDBC driver.
+	 *
+	 * @param purgeQueryTimeout the query timeout of the purge statements
+	 * @since 0.3.0
+	 */
+	public final void setPurgeQueryTimeout(Duration purgeQueryTimeout) {
+		Assert.notNull(purgeQueryTimeout, "purgeQueryTimeout cannot be null");
+		Assert.isTrue(!purgeQueryTimeout.isNegative(), "purgeQueryTimeout cannot be negative");
+		this.purgeQueryTimeout = purgeQueryTimeout;
+	}
+
 	protected final JdbcOperations getJdbcOperations() {
 		return this.jdbcOperations;
 	}
@@ -344,77 +1021,144 @@ public class JdbcOAuth2AuthorizationService implements OAuth2AuthorizationServic
 			String id = rs.getString("id");
 			String principalName = rs.getString("principal_name");
 			String authorizationGrantType = rs.getString("authorization_grant_type");
-			Map<String, Object> attributes = parseMap(getLobValue(rs, "attributes"));
+			Object attributes = getMapValue(rs, "attributes");
 
 			builder.id(id)
 					.principalName(principalName)
 					.authorizationGrantType(new AuthorizationGrantType(authorizationGrantType))
-					.attributes((attrs) -> attrs.putAll(attributes));
+					.attributesResolver(() -> parseMap(attributes));
 
 			String state = rs.getString("state");
 			if (StringUtils.hasText(state)) {
 				builder.attribute(OAuth2ParameterNames.STATE, state);
 			}
 
-			Instant tokenIssuedAt;
-			Instant tokenExpiresAt;
 			String authorizationCodeValue = getLobValue(rs, "authorization_code_value");
-
 			if (StringUtils.hasText(authorizationCodeValue)) {
-				tokenIssuedAt = rs.getTimestamp("authorization_code_issued_at").toInstant();
-				tokenExpiresAt = rs.getTimestamp("authorization_code_expires_at").toInstant();
-				Map<String, Object> authorizationCodeMetadata = parseMap(getLobValue(rs, "authorization_code_metadata"));
-
-				OAuth2AuthorizationCode authorizationCode = new OAuth2AuthorizationCode(
-						authorizationCodeValue, tokenIssuedAt, tokenExpiresAt);
-				builder.token(authorizationCode, (metadata) -> metadata.putAll(authorizationCodeMetadata));
+				builder.token(OAuth2AuthorizationCode.class, mapAuthorizationCode(rs, authorizationCodeValue));
 			}
 
 			String accessTokenValue = getLobValue(rs, "access_token_value");
 			if (StringUtils.hasText(accessTokenValue)) {
-				tokenIssuedAt = rs.getTimestamp("access_token_issued_at").toInstant();
-				tokenExpiresAt = rs.getTimestamp("access_token_expires_at").toInstant();
-				Map<String, Object> accessTokenMetadata = parseMap(getLobValue(rs, "access_token_metadata"));
-				OAuth2AccessToken.TokenType tokenType = null;
-				if (OAuth2AccessToken.TokenType.BEARER.getValue().equalsIgnoreCase(rs.getString("access_token_type"))) {
-					tokenType = OAuth2AccessToken.TokenType.BEARER;
-				}
-
-				Set<String> scopes = Collections.emptySet();
-				String accessTokenScopes = rs.getString("access_token_scopes");
-				if (accessTokenScopes != null) {
-					scopes = StringUtils.commaDelimitedListToSet(accessTokenScopes);
-				}
-				OAuth2AccessToken accessToken = new OAuth2AccessToken(tokenType, accessTokenValue, tokenIssuedAt, tokenExpiresAt, scopes);
-				builder.token(accessToken, (metadata) -> metadata.putAll(accessTokenMetadata));
+				builder.token(OAuth2AccessToken.class, mapAccessToken(rs, accessTokenValue));
 			}
 
 			String oidcIdTokenValue = getLobValue(rs, "oidc_id_token_value");
 			if (StringUtils.hasText(oidcIdTokenValue)) {
-				tokenIssuedAt = rs.getTimestamp("oidc_id_token_issued_at").toInstant();
-				tokenExpiresAt = rs.getTimestamp("oidc_id_token_expires_at").toInstant();
-				Map<String, Object> oidcTokenMetadata = parseMap(getLobValue(rs, "oidc_id_token_metadata"));
-
-				OidcIdToken oidcToken = new OidcIdToken(
-						oidcIdTokenValue, tokenIssuedAt, tokenExpiresAt, (Map<String, Object>) oidcTokenMetadata.get(OAuth2Authorization.Token.CLAIMS_METADATA_NAME));
-				builder.token(oidcToken, (metadata) -> metadata.putAll(oidcTokenMetadata));
+				Instant tokenIssuedAt = rs.getTimestamp("oidc_id_token_issued_at").toInstant();
+				Instant tokenExpiresAt = rs.getTimestamp("oidc_id_token_expires_at").toInstant();
+				Object oidcTokenMetadata = getMapValue(rs, "oidc_id_token_metadata");
+
+				// The claims are held in the metadata, so the OidcIdToken is also resolved on first access
+				builder.token(OidcIdToken.class, OAuth2Authorization.Token.resolvable(oidcIdTokenValue,
+						(metadata) -> new OidcIdToken(oidcIdTokenValue, tokenIssuedAt, tokenExpiresAt,
+								(Map<String, Object>) metadata.get(OAuth2Authorization.Token.CLAIMS_METADATA_NAME)),
+						() -> parseMap(oidcTokenMetadata)));
 			}
 
 			String refreshTokenValue = getLobValue(rs, "refresh_token_value");
 			if (StringUtils.hasText(refreshTokenValue)) {
-				tokenIssuedAt = rs.getTimestamp("refresh_token_issued_at").toInstant();
-				tokenExpiresAt = null;
-				Timestamp refreshTokenExpiresAt = rs.getTimestamp("refresh_token_expires_at");
-				if (refreshTokenExpiresAt != null) {
-					tokenExpiresAt = refreshTokenExpiresAt.toInstant();
+				builder.token(OAuth2RefreshToken.class, mapRefreshToken(rs, refreshTokenValue));
+			}
+			return builder.persisted().build();
+		}
+
+		/*
+		 * Maps the authorization code, access token or refresh token matching the provided token value
+		 * (if any), reading only the columns of the matching token.
+		 */
+		@Nullable
+		private OAuth2AuthorizedToken mapAuthorizedToken(ResultSet rs, String token) throws SQLException {
+			OAuth2Authorization.Token<?> authorizedToken;
+			if (token.equals(getLobValue(rs, "access_token_value"))) {
+				authorizedToken = mapAccessToken(rs, token);
+			} else if (token.equals(getLobValue(rs, "refresh_token_value"))) {
+				authorizedToken = mapRefreshToken(rs, token);
+			} else if (token.equals(getLobValue(rs, "authorization_code_value"))) {
+				authorizedToken = mapAuthorizationCode(rs, token);
+			} else {
+				return null;
+			}
+			return new OAuth2AuthorizedToken(rs.getString("id"), rs.getString("registered_client_id"),
+					rs.getString("principal_name"), authorizedToken);
+		}
+
+		/*
+		 * Maps the authorization code, access token and refresh token (of the provided token type, if any)
+		 * contained in the provided token values, reading only the columns of the matching tokens.
+		 */
+		private void mapAuthorizedTokens(ResultSet rs, Set<String> tokens, @Nullable OAuth2TokenType tokenType,
+				Map<String, OAuth2AuthorizedToken> authorizedTokens) throws SQLException {
+			String authorizationId = rs.getString("id");
+			String registeredClientId = rs.getString("registered_client_id");
+			String principalName = rs.getString("principal_name");
+
+			if (tokenType == null || OAuth2TokenType.ACCESS_TOKEN.equals(tokenType)) {
+				String accessTokenValue = getLobValue(rs, "access_token_value");
+				if (accessTokenValue != null && tokens.contains(accessTokenValue)) {
+					authorizedTokens.put(accessTokenValue, new OAuth2AuthorizedToken(authorizationId,
+							registeredClientId, principalName, mapAccessToken(rs, accessTokenValue)));
 				}
-				Map<String, Object> refreshTokenMetadata = parseMap(getLobValue(rs, "refresh_token_metadata"));
+			}
+			if (tokenType == null || OAuth2TokenType.REFRESH_TOKEN.equals(tokenType)) {
+				String refreshTokenValue = getLobValue(rs, "refresh_token_value");
+				if (refreshTokenValue != null && tokens.contains(refreshTokenValue)) {
+					authorizedTokens.put(refreshTokenValue, new OAuth2AuthorizedToken(authorizationId,
+							registeredClientId, principalName, mapRefreshToken(rs, refreshTokenValue)));
+				}
+			}
+			if (tokenType == null || OAuth2ParameterNames.CODE.equals(tokenType.getValue())) {
+				String authorizationCodeValue = getLobValue(rs, "authorization_code_value");
+				if (authorizationCodeValue != null && tokens.contains(authorizationCodeValue)) {
+					authorizedTokens.put(authorizationCodeValue, new OAuth2AuthorizedToken(authorizationId,
+							registeredClientId, principalName, mapAuthorizationCode(rs, authorizationCodeValue)));
+				}
+			}
+		}
+
+		private OAuth2Authorization.Token<OAuth2AuthorizationCode> mapAuthorizationCode(ResultSet rs,
+				String authorizationCodeValue) throws SQLException {
+			Instant tokenIssuedAt = rs.getTimestamp("authorization_code_issued_at").toInstant();
+			Instant tokenExpiresAt = rs.getTimestamp("authorization_code_expires_at").toInstant();
+			Object authorizationCodeMetadata = getMapValue(rs, "authorization_code_metadata");
+
+			OAuth2AuthorizationCode authorizationCode = new OAuth2AuthorizationCode(
+					authorizationCodeValue, tokenIssuedAt, tokenExpiresAt);
+			return OAuth2Authorization.Token.resolvable(authorizationCode, () -> parseMap(authorizationCodeMetadata));
+		}
+
+		private OAuth2Authorization.Token<OAuth2AccessToken> mapAccessToken(ResultSet rs,
+				String accessTokenValue) throws SQLException {
+			Instant tokenIssuedAt = rs.getTimestamp("access_token_issued_at").toInstant();
+			Instant tokenExpiresAt = rs.getTimestamp("access_token_expires_at").toInstant();
+			Object accessTokenMetadata = getMapValue(rs, "access_token_metadata");
+			OAuth2AccessToken.TokenType tokenType = null;
+			if (OAuth2AccessToken.TokenType.BEARER.getValue().equalsIgnoreCase(rs.getString("access_token_type"))) {
+				tokenType = OAuth2AccessToken.TokenType.BEARER;
+			}
 
-				OAuth2RefreshToken refreshToken = new OAuth2RefreshToken(
-						refreshTokenValue, tokenIssuedAt, tokenExpiresAt);
-				builder.token(refreshToken, (metadata) -> metadata.putAll(refreshTokenMetadata));
+			Set<String> scopes = Collections.emptySet();
+			String accessTokenScopes = rs.getString("access_token_scopes");
+			if (accessTokenScopes != null) {
+				scopes = StringUtils.commaDelimitedListToSet(accessTokenScopes);
 			}
-			return builder.build();
+			OAuth2AccessToken accessToken = new OAuth2AccessToken(tokenType, accessTokenValue, tokenIssuedAt, tokenExpiresAt, scopes);
+			return OAuth2Authorization.Token.resolvable(accessToken, () -> parseMap(accessTokenMetadata));
+		}
+
+		private OAuth2Authorization.Token<OAuth2RefreshToken> mapRefreshToken(ResultSet rs,
+				String refreshTokenValue) throws SQLException {
+			Instant tokenIssuedAt = rs.getTimestamp("refresh_token_issued_at").toInstant();
+			Instant tokenExpiresAt = null;
+			Timestamp refreshTokenExpiresAt = rs.getTimestamp("refresh_token_expires_at");
+			if (refreshTokenExpiresAt != null) {
+				tokenExpiresAt = refreshTokenExpiresAt.toInstant();
+			}
+			Object refreshTokenMetadata = getMapValue(rs, "refresh_token_metadata");
+
+			OAuth2RefreshToken refreshToken = new OAuth2RefreshToken(
+					refreshTokenValue, tokenIssuedAt, tokenExpiresAt);
+			return OAuth2Authorization.Token.resolvable(refreshToken, () -> parseMap(refreshTokenMetadata));
 		}
 
 		private String getLobValue(ResultSet rs, String columnName) throws SQLException {
@@ -455,6 +1199,32 @@ public class JdbcOAuth2AuthorizationService implements OAuth2AuthorizationServic
 			return this.objectMapper;
 		}
 
+		/*
+		 * Returns the (undecoded) value of a column holding a Map, which is either a byte[] or a String.
+		 */
+		private Object getMapValue(ResultSet rs, String columnName) throws SQLException {
+			ColumnMetadata columnMetadata = columnMetadataMap.get(columnName);
+			if (Types.BLOB == columnMetadata.getDataType()) {
+				return this.lobHandler.getBlobAsBytes(rs, columnName);
+			}
+			return getLobValue(rs, columnName);
+		}
+
+		private Map<String, Object> parseMap(Object data) {
+			if (data instanceof byte[]) {
+				byte[] bytes = (byte[]) data;
+				if (SmileEncoding.PRESENT && SmileEncoding.isEncoded(bytes)) {
+					try {
+						return SmileEncoding.readMap(this.objectMapper, bytes);
+					} catch (Exception ex) {
+						throw new IllegalArgumentException(ex.getMessage(), ex);
+					}
+				}
+				return parseMap(new String(bytes, StandardCharsets.UTF_8));
+			}
+			return parseMap((String) data);
+		}
+
 		private Map<String, Object> parseMap(String data) {
 			try {
 				return this.objectMapper.readValue(data, new TypeReference<Map<String, Object>>() {});
@@ -471,6 +1241,7 @@ public class JdbcOAuth2AuthorizationService implements OAuth2AuthorizationServic
 	 */
 	public static class OAuth2AuthorizationParametersMapper implements Function<OAuth2Authorization, List<SqlParameterValue>> {
 		private ObjectMapper objectMapper = new ObjectMapper();
+		private boolean binaryEncodingEnabled;
 
 		public OAuth2AuthorizationParametersMapper() {
 			ClassLoader classLoader = JdbcOAuth2AuthorizationService.class.getClassLoader();
@@ -483,12 +1254,25 @@ public class JdbcOAuth2AuthorizationService implements OAuth2AuthorizationServic
 		public List<SqlParameterValue> apply(OAuth2Authorization authorization) {
 			List<SqlParameterValue> parameters = new ArrayList<>();
 			parameters.add(new SqlParameterValue(Types.VARCHAR, authorization.getId()));
+			parameters.addAll(mapAttributes(authorization));
+			parameters.addAll(mapAuthorizationCode(authorization));
+			parameters.addAll(mapAccessToken(authorization));
+			parameters.addAll(mapOidcIdToken(authorization));
+			parameters.addAll(mapRefreshToken(authorization));
+			return parameters;
+		}
+
+		/*
+		 * The following methods each map the columns of an UPDATE_*_COLUMNS group, in the same order.
+		 */
+
+		private List<SqlParameterValue> mapAttributes(OAuth2Authorization authorization) {
+			List<SqlParameterValue> parameters = new ArrayList<>();
 			parameters.add(new SqlParameterValue(Types.VARCHAR, authorization.getRegisteredClientId()));
 			parameters.add(new SqlParameterValue(Types.VARCHAR, authorization.getPrincipalName()));
 			parameters.add(new SqlParameterValue(Types.VARCHAR, authorization.getAuthorizationGrantType().getValue()));
 
-			String attributes = writeMap(authorization.getAttributes());
-			parameters.add(mapToSqlParameter("attributes", attributes));
+			parameters.add(writeMap("attributes", authorization.getAttributes()));
 
 			String state = null;
 			String authorizationState = authorization.getAttribute(OAuth2ParameterNames.STATE);
@@ -496,18 +1280,20 @@ public class JdbcOAuth2AuthorizationService implements OAuth2AuthorizationServic
 				state = authorizationState;
 			}
 			parameters.add(new SqlParameterValue(Types.VARCHAR, state));
+			return parameters;
+		}
 
+		private List<SqlParameterValue> mapAuthorizationCode(OAuth2Authorization authorization) {
 			OAuth2Authorization.Token<OAuth2AuthorizationCode> authorizationCode =
 					authorization.getToken(OAuth2AuthorizationCode.class);
-			List<SqlParameterValue> authorizationCodeSqlParameters = toSqlParameterList(
-					"authorization_code_value", "authorization_code_metadata", authorizationCode);
-			parameters.addAll(authorizationCodeSqlParameters);
+			return toSqlParameterList("authorization_code_value", "authorization_code_metadata", authorizationCode);
+		}
 
+		private List<SqlParameterValue> mapAccessToken(OAuth2Authorization authorization) {
 			OAuth2Authorization.Token<OAuth2AccessToken> accessToken =
 					authorization.getToken(OAuth2AccessToken.class);
-			List<SqlParameterValue> accessTokenSqlParameters = toSqlParameterList(
+			List<SqlParameterValue> parameters = toSqlParameterList(
 					"access_token_value", "access_token_metadata", accessToken);
-			parameters.addAll(accessTokenSqlParameters);
 			String accessTokenType = null;
 			String accessTokenScopes = null;
 			if (accessToken != null) {
@@ -518,17 +1304,17 @@ public class JdbcOAuth2AuthorizationService implements OAuth2AuthorizationServic
 			}
 			parameters.add(new SqlParameterValue(Types.VARCHAR, accessTokenType));
 			parameters.add(new SqlParameterValue(Types.VARCHAR, accessTokenScopes));
+			return parameters;
+		}
 
+		private List<SqlParameterValue> mapOidcIdToken(OAuth2Authorization authorization) {
 			OAuth2Authorization.Token<OidcIdToken> oidcIdToken = authorization.getToken(OidcIdToken.class);
-			List<SqlParameterValue> oidcIdTokenSqlParameters = toSqlParameterList(
-					"oidc_id_token_value", "oidc_id_token_metadata", oidcIdToken);
-			parameters.addAll(oidcIdTokenSqlParameters);
+			return toSqlParameterList("oidc_id_token_value", "oidc_id_token_metadata", oidcIdToken);
+		}
 
+		private List<SqlParameterValue> mapRefreshToken(OAuth2Authorization authorization) {
 			OAuth2Authorization.Token<OAuth2RefreshToken> refreshToken = authorization.getRefreshToken();
-			List<SqlParameterValue> refreshTokenSqlParameters = toSqlParameterList(
-					"refresh_token_value", "refresh_token_metadata", refreshToken);
-			parameters.addAll(refreshTokenSqlParameters);
-			return parameters;
+			return toSqlParameterList("refresh_token_value", "refresh_token_metadata", refreshToken);
 		}
 
 		public final void setObjectMapper(ObjectMapper objectMapper) {
@@ -536,6 +1322,24 @@ public class JdbcOAuth2AuthorizationService implements OAuth2AuthorizationServic
 			this.objectMapper = objectMapper;
 		}
 
+		/**
+		 * Sets whether the attributes and token metadata are written in the (binary) Smile format,
+		 * which is more compact and faster to read and write than JSON. This requires
+		 * {@code com.fasterxml.jackson.dataformat:jackson-dataformat-smile}, and only applies to the columns of type
+		 * {@code BLOB}, the other columns being written as JSON. The default is {@code false}.
+		 *
+		 * <p>
+		 * Rows previously written as JSON remain readable, which allows enabling binary encoding on an existing table.
+		 *
+		 * @param binaryEncodingEnabled {@code true} to write the attributes and token metadata in the Smile format
+		 * @since 0.3.0
+		 */
+		public final void setBinaryEncodingEnabled(boolean binaryEncodingEnabled) {
+			Assert.isTrue(!binaryEncodingEnabled || SmileEncoding.PRESENT,
+					"jackson-dataformat-smile is required for binary encoding");
+			this.binaryEncodingEnabled = binaryEncodingEnabled;
+		}
+
 		protected final ObjectMapper getObjectMapper() {
 			return this.objectMapper;
 		}
@@ -547,7 +1351,7 @@ public class JdbcOAuth2AuthorizationService implements OAuth2AuthorizationServic
 			String tokenValue = null;
 			Timestamp tokenIssuedAt = null;
 			Timestamp tokenExpiresAt = null;
-			String metadata = null;
+			SqlParameterValue metadata = mapToSqlParameter(tokenMetadataColumnName, null);
 			if (token != null) {
 				tokenValue = token.getToken().getTokenValue();
 				if (token.getToken().getIssuedAt() != null) {
@@ -556,19 +1360,22 @@ public class JdbcOAuth2AuthorizationService implements OAuth2AuthorizationServic
 				if (token.getToken().getExpiresAt() != null) {
 					tokenExpiresAt = Timestamp.from(token.getToken().getExpiresAt());
 				}
-				metadata = writeMap(token.getMetadata());
+				metadata = writeMap(tokenMetadataColumnName, token.getMetadata());
 			}
 
 			parameters.add(mapToSqlParameter(tokenColumnName, tokenValue));
 			parameters.add(new SqlParameterValue(Types.TIMESTAMP, tokenIssuedAt));
 			parameters.add(new SqlParameterValue(Types.TIMESTAMP, tokenExpiresAt));
-			parameters.add(mapToSqlParameter(tokenMetadataColumnName, metadata));
+			parameters.add(metadata);
 			return parameters;
 		}
 
-		private String writeMap(Map<String, Object> data) {
+		private SqlParameterValue writeMap(String columnName, Map<String, Object> data) {
 			try {
-				return this.objectMapper.writeValueAsString(data);
+				if (this.binaryEncodingEnabled && Types.BLOB == columnMetadataMap.get(columnName).getDataType()) {
+					return new SqlParameterValue(Types.BLOB, SmileEncoding.writeMap(this.objectMapper, data));
+				}
+				return mapToSqlParameter(columnName, this.objectMapper.writeValueAsString(data));
 			} catch (Exception ex) {
 				throw new IllegalArgumentException(ex.getMessage(), ex);
 			}
@@ -576,6 +1383,59 @@ public class JdbcOAuth2AuthorizationService implements OAuth2AuthorizationServic
 
 	}
 
+	/*
+	 * Reads and writes the Smile format using the (JSON) ObjectMapper configuration,
+	 * so the same modules and type handling apply to both formats.
+	 */
+	private static final class SmileEncoding {
+		private static final boolean PRESENT = ClassUtils.isPresent(
+				"com.fasterxml.jackson.dataformat.smile.SmileFactory", JdbcOAuth2AuthorizationService.class.getClassLoader());
+
+		// The Smile header (':)\n'), followed by a byte holding the format version and settings
+		private static final byte[] HEADER = { ':', ')', '\n' };
+
+		private static boolean isEncoded(byte[] data) {
+			return data.length > HEADER.length && data[0] == HEADER[0] && data[1] == HEADER[1] && data[2] == HEADER[2];
+		}
+
+		private static byte[] writeMap(ObjectMapper objectMapper, Map<String, Object> data) throws IOException {
+			Assert.state(PRESENT, "jackson-dataformat-smile is required for binary encoding");
+			return SmileCodec.writeMap(objectMapper, data);
+		}
+
+		private static Map<String, Object> readMap(ObjectMapper objectMapper, byte[] data) throws IOException {
+			Assert.state(PRESENT, "jackson-dataformat-smile is required to read the binary encoded columns");
+			return SmileCodec.readMap(objectMapper, data);
+		}
+
+		/*
+		 * The only class referencing jackson-dataformat-smile, which is optional,
+		 * so it must not be loaded unless the library is present.
+		 */
+		private static final class SmileCodec {
+			private static final com.fasterxml.jackson.dataformat.smile.SmileFactory SMILE_FACTORY =
+					com.fasterxml.jackson.dataformat.smile.SmileFactory.builder()
+							.enable(com.fasterxml.jackson.dataformat.smile.SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+							.build();
+
+			private static byte[] writeMap(ObjectMapper objectMapper, Map<String, Object> data) throws IOException {
+				ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+				try (JsonGenerator generator = SMILE_FACTORY.createGenerator(out)) {
+					objectMapper.writeValue(generator, data);
+				}
+				return out.toByteArray();
+			}
+
+			private static Map<String, Object> readMap(ObjectMapper objectMapper, byte[] data) throws IOException {
+				try (JsonParser parser = SMILE_FACTORY.createParser(data)) {
+					return objectMapper.readValue(parser, new TypeReference<Map<String, Object>>() {});
+				}
+			}
+
+		}
+
+	}
+
 	private static final class LobCreatorArgumentPreparedStatementSetter extends ArgumentPreparedStatementSetter {
 		private final LobCreator lobCreator;
 
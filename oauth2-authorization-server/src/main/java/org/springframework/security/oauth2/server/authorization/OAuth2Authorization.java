@@ -1,5 +1,5 @@
 /*
- * Copyright 2020-2021 the original author or authors.
+ * Copyright 2020-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,14 +15,20 @@
  */
 package org.springframework.security.oauth2.server.authorization;
 
+import java.io.IOException;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.time.Instant;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
 import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 import org.springframework.lang.Nullable;
 import org.springframework.security.oauth2.core.AuthorizationGrantType;
@@ -64,7 +70,21 @@ public class OAuth2Authorization implements Serializable {
 	private String principalName;
 	private AuthorizationGrantType authorizationGrantType;
 	private Map<Class<? extends OAuth2Token>, Token<?>> tokens;
-	private Map<String, Object> attributes;
+	private volatile Map<String, Object> attributes;
+
+	/*
+	 * Resolves the attributes on first access, or null if the attributes were provided.
+	 */
+	private transient Supplier<Map<String, Object>> attributesResolver;
+
+	/*
+	 * The changes relative to the persisted authorization this was (transitively) built from via from(),
+	 * or null (and false) if unknown, in which case everything is considered modified.
+	 * Both default to that safe state after deserialization.
+	 */
+	private transient Set<Class<? extends OAuth2Token>> modifiedTokenTypes;
+	private transient Set<Class<? extends OAuth2Token>> modifiedTokenValueTypes;
+	private transient boolean attributesUnmodified;
 
 	protected OAuth2Authorization() {
 	}
@@ -151,7 +171,7 @@ public class OAuth2Authorization implements Serializable {
 	public <T extends OAuth2Token> Token<T> getToken(String tokenValue) {
 		Assert.hasText(tokenValue, "tokenValue cannot be empty");
 		for (Token<?> token : this.tokens.values()) {
-			if (token.getToken().getTokenValue().equals(tokenValue)) {
+			if (token.getTokenValue().equals(tokenValue)) {
 				return (Token<T>) token;
 			}
 		}
@@ -164,7 +184,12 @@ public class OAuth2Authorization implements Serializable {
 	 * @return a {@code Map} of the attribute(s)
 	 */
 	public Map<String, Object> getAttributes() {
-		return this.attributes;
+		Map<String, Object> attributes = this.attributes;
+		if (attributes == null) {
+			attributes = Collections.unmodifiableMap(this.attributesResolver.get());
+			this.attributes = attributes;
+		}
+		return attributes;
 	}
 
 	/**
@@ -178,7 +203,31 @@ public class OAuth2Authorization implements Serializable {
 	@SuppressWarnings("unchecked")
 	public <T> T getAttribute(String name) {
 		Assert.hasText(name, "name cannot be empty");
-		return (T) this.attributes.get(name);
+		return (T) getAttributes().get(name);
+	}
+
+	/*
+	 * Returns true if the registered client, principal name, authorization grant type
+	 * or attributes differ from the persisted authorization this was built from.
+	 */
+	boolean isAttributesModified() {
+		return !this.attributesUnmodified;
+	}
+
+	/*
+	 * Returns true if the token of the provided type differs (or was added or removed)
+	 * from the persisted authorization this was built from.
+	 */
+	boolean isTokenModified(Class<? extends OAuth2Token> tokenType) {
+		return this.modifiedTokenTypes == null || this.modifiedTokenTypes.contains(tokenType);
+	}
+
+	/*
+	 * Returns true if the value of the token of the provided type differs (or the token was added or removed)
+	 * from the persisted authorization this was built from, as opposed to only its metadata.
+	 */
+	boolean isTokenValueModified(Class<? extends OAuth2Token> tokenType) {
+		return this.modifiedTokenValueTypes == null || this.modifiedTokenValueTypes.contains(tokenType);
 	}
 
 	@Override
@@ -195,13 +244,18 @@ public class OAuth2Authorization implements Serializable {
 				Objects.equals(this.principalName, that.principalName) &&
 				Objects.equals(this.authorizationGrantType, that.authorizationGrantType) &&
 				Objects.equals(this.tokens, that.tokens) &&
-				Objects.equals(this.attributes, that.attributes);
+				Objects.equals(getAttributes(), that.getAttributes());
 	}
 
 	@Override
 	public int hashCode() {
 		return Objects.hash(this.id, this.registeredClientId, this.principalName,
-				this.authorizationGrantType, this.tokens, this.attributes);
+				this.authorizationGrantType, this.tokens, getAttributes());
+	}
+
+	private void writeObject(ObjectOutputStream out) throws IOException {
+		getAttributes();
+		out.defaultWriteObject();
 	}
 
 	/**
@@ -224,11 +278,10 @@ public class OAuth2Authorization implements Serializable {
 	public static Builder from(OAuth2Authorization authorization) {
 		Assert.notNull(authorization, "authorization cannot be null");
 		return new Builder(authorization.getRegisteredClientId())
+				.source(authorization)
 				.id(authorization.getId())
 				.principalName(authorization.getPrincipalName())
-				.authorizationGrantType(authorization.getAuthorizationGrantType())
-				.tokens(authorization.tokens)
-				.attributes(attrs -> attrs.putAll(authorization.getAttributes()));
+				.authorizationGrantType(authorization.getAuthorizationGrantType());
 	}
 
 	/**
@@ -251,8 +304,15 @@ public class OAuth2Authorization implements Serializable {
 		 */
 		public static final String CLAIMS_METADATA_NAME = TOKEN_METADATA_NAMESPACE.concat("claims");
 
-		private final T token;
-		private final Map<String, Object> metadata;
+		private volatile T token;
+		private volatile Map<String, Object> metadata;
+
+		/*
+		 * Resolve the token and metadata on first access, or null if they were provided.
+		 */
+		private transient String tokenValue;
+		private transient Function<Map<String, Object>, T> tokenResolver;
+		private transient Supplier<Map<String, Object>> metadataResolver;
 
 		protected Token(T token) {
 			this(token, defaultMetadata());
@@ -263,13 +323,59 @@ public class OAuth2Authorization implements Serializable {
 			this.metadata = Collections.unmodifiableMap(metadata);
 		}
 
+		private Token(@Nullable T token, String tokenValue, @Nullable Function<Map<String, Object>, T> tokenResolver,
+				Supplier<Map<String, Object>> metadataResolver) {
+			this.token = token;
+			this.tokenValue = tokenValue;
+			this.tokenResolver = tokenResolver;
+			this.metadataResolver = metadataResolver;
+		}
+
 		/**
 		 * Returns the token of type {@link OAuth2Token}.
 		 *
 		 * @return the token of type {@link OAuth2Token}
 		 */
 		public T getToken() {
-			return this.token;
+			T token = this.token;
+			if (token == null) {
+				token = this.tokenResolver.apply(getMetadata());
+				this.token = token;
+			}
+			return token;
+		}
+
+		/*
+		 * Returns a Token where the metadata is resolved on first access (and merged with the default metadata),
+		 * as well as the token, which may be created from the metadata (e.g. an OidcIdToken, from the claims).
+		 */
+		static <T extends OAuth2Token> Token<T> resolvable(String tokenValue,
+				Function<Map<String, Object>, T> tokenResolver, Supplier<Map<String, Object>> metadataResolver) {
+			return new Token<>(null, tokenValue, tokenResolver, withDefaultMetadata(metadataResolver));
+		}
+
+		/*
+		 * Returns a Token where only the metadata is resolved on first access (and merged with the default metadata),
+		 * so accessing the token does not resolve the metadata.
+		 */
+		static <T extends OAuth2Token> Token<T> resolvable(T token, Supplier<Map<String, Object>> metadataResolver) {
+			return new Token<>(token, token.getTokenValue(), null, withDefaultMetadata(metadataResolver));
+		}
+
+		private static Supplier<Map<String, Object>> withDefaultMetadata(Supplier<Map<String, Object>> metadataResolver) {
+			return () -> {
+				Map<String, Object> metadata = defaultMetadata();
+				metadata.putAll(metadataResolver.get());
+				return metadata;
+			};
+		}
+
+		/*
+		 * Returns the token value, without resolving the token.
+		 */
+		String getTokenValue() {
+			T token = this.token;
+			return token != null ? token.getTokenValue() : this.tokenValue;
 		}
 
 		/**
@@ -334,7 +440,7 @@ public class OAuth2Authorization implements Serializable {
 		@SuppressWarnings("unchecked")
 		public <V> V getMetadata(String name) {
 			Assert.hasText(name, "name cannot be empty");
-			return (V) this.metadata.get(name);
+			return (V) getMetadata().get(name);
 		}
 
 		/**
@@ -343,7 +449,12 @@ public class OAuth2Authorization implements Serializable {
 		 * @return a {@code Map} of the metadata
 		 */
 		public Map<String, Object> getMetadata() {
-			return this.metadata;
+			Map<String, Object> metadata = this.metadata;
+			if (metadata == null) {
+				metadata = Collections.unmodifiableMap(this.metadataResolver.get());
+				this.metadata = metadata;
+			}
+			return metadata;
 		}
 
 		protected static Map<String, Object> defaultMetadata() {
@@ -361,13 +472,19 @@ public class OAuth2Authorization implements Serializable {
 				return false;
 			}
 			Token<?> that = (Token<?>) obj;
-			return Objects.equals(this.token, that.token) &&
-					Objects.equals(this.metadata, that.metadata);
+			return Objects.equals(getToken(), that.getToken()) &&
+					Objects.equals(getMetadata(), that.getMetadata());
 		}
 
 		@Override
 		public int hashCode() {
-			return Objects.hash(this.token, this.metadata);
+			return Objects.hash(getToken(), getMetadata());
+		}
+
+		private void writeObject(ObjectOutputStream out) throws IOException {
+			getToken();
+			getMetadata();
+			out.defaultWriteObject();
 		}
 	}
 
@@ -382,11 +499,33 @@ public class OAuth2Authorization implements Serializable {
 		private AuthorizationGrantType authorizationGrantType;
 		private Map<Class<? extends OAuth2Token>, Token<?>> tokens = new HashMap<>();
 		private final Map<String, Object> attributes = new HashMap<>();
+		private transient Supplier<Map<String, Object>> attributesResolver;
+		private transient OAuth2Authorization source;
+		private transient boolean persisted;
+
+		/*
+		 * The modifications applied to this builder, relative to the source (if any).
+		 */
+		private transient Set<Class<? extends OAuth2Token>> modifiedTokenTypes = new HashSet<>();
+		private transient boolean attributesModified;
 
 		protected Builder(String registeredClientId) {
 			this.registeredClientId = registeredClientId;
 		}
 
+		private Builder source(OAuth2Authorization source) {
+			this.source = source;
+			this.tokens = new HashMap<>(source.tokens);
+			Map<String, Object> attributes = source.attributes;
+			if (attributes != null) {
+				this.attributes.putAll(attributes);
+			} else {
+				// The attributes of the source are not resolved until needed
+				this.attributesResolver = source::getAttributes;
+			}
+			return this;
+		}
+
 		/**
 		 * Sets the identifier for the authorization.
 		 *
@@ -471,10 +610,22 @@ public class OAuth2Authorization implements Serializable {
 			metadataConsumer.accept(metadata);
 			Class<? extends OAuth2Token> tokenClass = token.getClass();
 			this.tokens.put(tokenClass, new Token<>(token, metadata));
+			this.modifiedTokenTypes.add(tokenClass);
+			return this;
+		}
+
+		/*
+		 * Sets the token of the provided type, which may be resolvable on first access.
+		 */
+		<T extends OAuth2Token> Builder token(Class<T> tokenType, Token<T> token) {
+			this.tokens.put(tokenType, token);
+			this.modifiedTokenTypes.add(tokenType);
 			return this;
 		}
 
 		protected final Builder tokens(Map<Class<? extends OAuth2Token>, Token<?>> tokens) {
+			this.modifiedTokenTypes.addAll(this.tokens.keySet());
+			this.modifiedTokenTypes.addAll(tokens.keySet());
 			this.tokens = new HashMap<>(tokens);
 			return this;
 		}
@@ -490,6 +641,7 @@ public class OAuth2Authorization implements Serializable {
 			Assert.hasText(name, "name cannot be empty");
 			Assert.notNull(value, "value cannot be null");
 			this.attributes.put(name, value);
+			this.attributesModified = true;
 			return this;
 		}
 
@@ -501,7 +653,32 @@ public class OAuth2Authorization implements Serializable {
 		 * @return the {@link Builder}
 		 */
 		public Builder attributes(Consumer<Map<String, Object>> attributesConsumer) {
+			// The consumer may read or remove any attribute, so they are resolved
+			if (this.attributesResolver != null) {
+				Map<String, Object> attributes = new HashMap<>(this.attributesResolver.get());
+				attributes.putAll(this.attributes);
+				this.attributes.putAll(attributes);
+				this.attributesResolver = null;
+			}
 			attributesConsumer.accept(this.attributes);
+			this.attributesModified = true;
+			return this;
+		}
+
+		/*
+		 * Indicates that the authorization is built from its persisted state (e.g. the row it was loaded from),
+		 * relative to which the modifications of the authorizations built from it are tracked.
+		 */
+		Builder persisted() {
+			this.persisted = true;
+			return this;
+		}
+
+		/*
+		 * Sets the attributes resolved on first access. The attributes added to this builder take precedence.
+		 */
+		Builder attributesResolver(Supplier<Map<String, Object>> attributesResolver) {
+			this.attributesResolver = attributesResolver;
 			return this;
 		}
 
@@ -523,10 +700,51 @@ public class OAuth2Authorization implements Serializable {
 			authorization.principalName = this.principalName;
 			authorization.authorizationGrantType = this.authorizationGrantType;
 			authorization.tokens = Collections.unmodifiableMap(this.tokens);
-			authorization.attributes = Collections.unmodifiableMap(this.attributes);
+			if (this.attributesResolver != null) {
+				Supplier<Map<String, Object>> attributesResolver = this.attributesResolver;
+				Map<String, Object> attributes = new HashMap<>(this.attributes);
+				authorization.attributesResolver = () -> {
+					Map<String, Object> resolvedAttributes = new HashMap<>(attributesResolver.get());
+					resolvedAttributes.putAll(attributes);
+					return resolvedAttributes;
+				};
+			} else {
+				authorization.attributes = Collections.unmodifiableMap(this.attributes);
+			}
+			if (this.persisted) {
+				authorization.modifiedTokenTypes = Collections.emptySet();
+				authorization.modifiedTokenValueTypes = Collections.emptySet();
+				authorization.attributesUnmodified = true;
+			} else if (this.source != null && this.source.getId().equals(this.id) &&
+					this.source.modifiedTokenTypes != null) {
+				trackModifications(this.source, authorization);
+			}
 			return authorization;
 		}
 
+		private void trackModifications(OAuth2Authorization source, OAuth2Authorization authorization) {
+			// The modifications of the source (relative to the persisted authorization) are retained,
+			// as the source itself may not have been saved
+			Set<Class<? extends OAuth2Token>> modifiedTokenTypes = new HashSet<>(source.modifiedTokenTypes);
+			modifiedTokenTypes.addAll(this.modifiedTokenTypes);
+			authorization.modifiedTokenTypes = Collections.unmodifiableSet(modifiedTokenTypes);
+			Set<Class<? extends OAuth2Token>> modifiedTokenValueTypes = new HashSet<>(source.modifiedTokenValueTypes);
+			for (Class<? extends OAuth2Token> tokenType : this.modifiedTokenTypes) {
+				Token<?> sourceToken = source.tokens.get(tokenType);
+				Token<?> token = this.tokens.get(tokenType);
+				if (sourceToken == null || token == null ?
+						sourceToken != token :
+						!sourceToken.getTokenValue().equals(token.getTokenValue())) {
+					modifiedTokenValueTypes.add(tokenType);
+				}
+			}
+			authorization.modifiedTokenValueTypes = Collections.unmodifiableSet(modifiedTokenValueTypes);
+			authorization.attributesUnmodified = source.attributesUnmodified && !this.attributesModified &&
+					Objects.equals(source.registeredClientId, authorization.registeredClientId) &&
+					Objects.equals(source.principalName, authorization.principalName) &&
+					Objects.equals(source.authorizationGrantType, authorization.authorizationGrantType);
+		}
+
 	}
 
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2020-2021 the original author or authors.
+ * Copyright 2020-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,7 +15,12 @@
  */
 package org.springframework.security.oauth2.server.authorization;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 import org.springframework.lang.Nullable;
+import org.springframework.security.oauth2.core.OAuth2Token;
 import org.springframework.security.oauth2.core.OAuth2TokenType;
 
 /**
@@ -64,4 +69,55 @@ public interface OAuth2AuthorizationService {
 	@Nullable
 	OAuth2Authorization findByToken(String token, @Nullable OAuth2TokenType tokenType);
 
+	/**
+	 * Returns the {@link OAuth2AuthorizedToken} holding the provided {@code token}, or {@code null} if not found.
+	 * A {@code state} does not match, as it is not a token.
+	 *
+	 * <p>
+	 * The default implementation delegates to {@link #findByToken(String, OAuth2TokenType)}.
+	 * Implementations may override it to load only the token, instead of the complete authorization.
+	 *
+	 * @param token the token credential
+	 * @param tokenType the {@link OAuth2TokenType token type}
+	 * @return the {@link OAuth2AuthorizedToken} if found, otherwise {@code null}
+	 * @since 0.3.0
+	 */
+	@Nullable
+	default OAuth2AuthorizedToken findAuthorizedToken(String token, @Nullable OAuth2TokenType tokenType) {
+		OAuth2Authorization authorization = findByToken(token, tokenType);
+		if (authorization == null) {
+			return null;
+		}
+		OAuth2Authorization.Token<OAuth2Token> authorizedToken = authorization.getToken(token);
+		return authorizedToken != null ?
+				new OAuth2AuthorizedToken(authorization.getId(), authorization.getRegisteredClientId(),
+						authorization.getPrincipalName(), authorizedToken) :
+				null;
+	}
+
+	/**
+	 * Returns the {@link OAuth2AuthorizedToken}'s holding the provided {@code tokens}, keyed by token value.
+	 * A token that is not found is not contained in the returned {@code Map}.
+	 *
+	 * <p>
+	 * The default implementation delegates to {@link #findAuthorizedToken(String, OAuth2TokenType)} for each token.
+	 * Implementations may override it to resolve all tokens with a single lookup.
+	 *
+	 * @param tokens the token credentials
+	 * @param tokenType the {@link OAuth2TokenType token type}
+	 * @return the {@link OAuth2AuthorizedToken}'s found, keyed by token value
+	 * @since 0.3.0
+	 */
+	default Map<String, OAuth2AuthorizedToken> findAuthorizedTokens(Collection<String> tokens,
+			@Nullable OAuth2TokenType tokenType) {
+		Map<String, OAuth2AuthorizedToken> authorizedTokens = new LinkedHashMap<>();
+		for (String token : tokens) {
+			OAuth2AuthorizedToken authorizedToken = findAuthorizedToken(token, tokenType);
+			if (authorizedToken != null) {
+				authorizedTokens.put(token, authorizedToken);
+			}
+		}
+		return authorizedTokens;
+	}
+
 }
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.security.oauth2.server.authorization;
+
+import org.springframework.security.oauth2.core.OAuth2Token;
+import org.springframework.util.Assert;
+
+/**
+ * A projection of an {@link OAuth2Authorization}, holding a single {@link OAuth2Authorization.Token token}
+ * along with the identifying attributes of the authorization it belongs to.
+ * It provides what is needed for token introspection, without loading the complete authorization.
+ *
+ * @since 0.3.0
+ * @see OAuth2AuthorizationService#findAuthorizedToken(String, org.springframework.security.oauth2.core.OAuth2TokenType)
+ * @see OAuth2Authorization
+ */
+public final class OAuth2AuthorizedToken {
+	private final String authorizationId;
+	private final String registeredClientId;
+	private final String principalName;
+	private final OAuth2Authorization.Token<?> token;
+
+	/**
+	 * Constructs an {@code OAuth2AuthorizedToken} using the provided parameters.
+	 *
+	 * @param authorizationId the identifier of the authorization
+	 * @param registeredClientId the identifier of the registered client
+	 * @param principalName the {@code Principal} name of the resource owner (or client)
+	 * @param token the token
+	 */
+	public OAuth2AuthorizedToken(String authorizationId, String registeredClientId,
+			String principalName, OAuth2Authorization.Token<?> token) {
+		Assert.hasText(authorizationId, "authorizationId cannot be empty");
+		Assert.hasText(registeredClientId, "registeredClientId cannot be empty");
+		Assert.hasText(principalName, "principalName cannot be empty");
+		Assert.notNull(token, "token cannot be null");
+		this.authorizationId = authorizationId;
+		this.registeredClientId = registeredClientId;
+		this.principalName = principalName;
+		this.token = token;
+	}
+
+	/**
+	 * Returns the identifier of the authorization.
+	 *
+	 * @return the identifier of the authorization
+	 */
+	public String getAuthorizationId() {
+		return this.authorizationId;
+	}
+
+	/**
+	 * Returns the identifier for the {@link org.springframework.security.oauth2.server.authorization.client.RegisteredClient#getId() registered client}.
+	 *
+	 * @return the {@link org.springframework.security.oauth2.server.authorization.client.RegisteredClient#getId()}
+	 */
+	public String getRegisteredClientId() {
+		return this.registeredClientId;
+	}
+
+	/**
+	 * Returns the {@code Principal} name of the resource owner (or client).
+	 *
+	 * @return the {@code Principal} name of the resource owner (or client)
+	 */
+	public String getPrincipalName() {
+		return this.principalName;
+	}
+
+	/**
+	 * Returns the {@link OAuth2Authorization.Token token}.
+	 *
+	 * @param <T> the type of the token
+	 * @return the {@link OAuth2Authorization.Token}
+	 */
+	@SuppressWarnings("unchecked")
+	public <T extends OAuth2Token> OAuth2Authorization.Token<T> getToken() {
+		return (OAuth2Authorization.Token<T>) this.token;
+	}
+
+}
@@ -0,0 +1,414 @@
+/*
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.security.oauth2.server.authorization;
+
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.springframework.util.Assert;
+
+/**
+ * An in-memory list of revoked tokens, identified by their identifier ({@code jti})
+ * or by their value. A revoked token is retained until it expires.
+ *
+ * <p>
+ * The revoked tokens are held in buckets aligned to their expiry, which are discarded once expired.
+ * The width of a bucket is derived from the lifetime of the revoked token
+ * (e.g. the {@link org.springframework.security.oauth2.server.authorization.config.TokenSettings#getAccessTokenTimeToLive()
+ * access token time-to-live}), so the number of buckets is bounded for each token lifetime, and a long-lived token
+ * (e.g. a refresh token) does not widen the buckets of the short-lived tokens.
+ * A Bloom filter over all the revoked tokens answers most lookups of a token that is not revoked,
+ * without searching the buckets. As a Bloom filter does not support removal, the Bloom filter is rebuilt
+ * only once it holds more tokens than its capacity (including the expired tokens), or once the number of
+ * revoked tokens dropped substantially below its capacity.
+ * A token is identified by the SHA-256 digest of its identifier or value, which is computed once per lookup.
+ *
+ * <p>
+ * A {@link #getSnapshot() snapshot} of the Bloom filter may be exported (e.g. to resource servers),
+ * which allows checking locally whether a token may have been revoked.
+ *
+ * <p>
+ * <b>NOTE:</b> The list is held in-memory and is not shared, therefore a token revoked on a node of a cluster
+ * is only known as revoked by that node, unless the {@link #getSnapshot() snapshots} are distributed.
+ * This list is not used unless it is configured, e.g. using
+ * {@code OAuth2AuthorizationServerConfigurer.tokenRevocationList(OAuth2TokenRevocationList)}.
+ *
+ * @since 0.3.0
+ * @see StatelessAccessTokenOAuth2AuthorizationService
+ */
+public final class OAuth2TokenRevocationList {
+	private static final long MINIMUM_BUCKET_SECONDS = 60;
+	private static final int MAXIMUM_BUCKETS = 16;
+	private static final int MINIMUM_CAPACITY = 1024;
+	private static final double FALSE_POSITIVE_PROBABILITY = 0.01;
+
+	/*
+	 * The revoked token keys, bucketed by the epoch second at which all the tokens of the bucket have expired.
+	 * The key of a token is the base64url-encoded SHA-256 digest of its identifier or value.
+	 */
+	private final Map<Long, Set<String>> revokedTokens = new ConcurrentHashMap<>();
+	private volatile BloomFilter bloomFilter = new BloomFilter(MINIMUM_CAPACITY);
+	private int size;
+
+	/*
+	 * The number of keys put in the Bloom filter, including the keys of the expired tokens.
+	 */
+	private int bloomFilterSize;
+	private Clock clock = Clock.systemUTC();
+
+	/**
+	 * Adds the identifier of a revoked token to the list, until the token expires.
+	 *
+	 * @param tokenId the token identifier ({@code jti})
+	 * @param expiresAt the time at which the token expires
+	 */
+	public void revoke(String tokenId, Instant expiresAt) {
+		Assert.hasText(tokenId, "tokenId cannot be empty");
+		Assert.notNull(expiresAt, "expiresAt cannot be null");
+		add(sha256(tokenId), expiresAt);
+	}
+
+	/**
+	 * Returns {@code true} if the token identifier is in the list.
+	 *
+	 * @param tokenId the token identifier ({@code jti})
+	 * @return {@code true} if the token was revoked, {@code false} otherwise
+	 */
+	public boolean isRevoked(String tokenId) {
+		Assert.hasText(tokenId, "tokenId cannot be empty");
+		return contains(sha256(tokenId));
+	}
+
+	/**
+	 * Adds the value of a revoked token to the list, until the token expires.
+	 *
+	 * @param tokenValue the token value
+	 * @param expiresAt the time at which the token expires
+	 */
+	public void revokeToken(String tokenValue, Instant expiresAt) {
+		Assert.hasText(tokenValue, "tokenValue cannot be empty");
+		Assert.notNull(expiresAt, "expiresAt cannot be null");
+		add(sha256(tokenValue), expiresAt);
+	}
+
+	/**
+	 * Returns {@code true} if the token value is in the list.
+	 *
+	 * @param tokenValue the token value
+	 * @return {@code true} if the token was revoked, {@code false} otherwise
+	 */
+	public boolean isTokenRevoked(String tokenValue) {
+		Assert.hasText(tokenValue, "tokenValue cannot be empty");
+		return contains(sha256(tokenValue));
+	}
+
+	/**
+	 * Returns a {@link Snapshot} of the revoked tokens.
+	 *
+	 * @return the {@link Snapshot} of the revoked tokens
+	 */
+	public synchronized Snapshot getSnapshot() {
+		long now = this.clock.instant().getEpochSecond();
+		removeExpired(now);
+		long expiresAt = now;
+		for (Long bucket : this.revokedTokens.keySet()) {
+			expiresAt = Math.max(expiresAt, bucket);
+		}
+		BloomFilter bloomFilter = this.bloomFilter;
+		long[] bits = new long[bloomFilter.bits.length()];
+		for (int i = 0; i < bits.length; i++) {
+			bits[i] = bloomFilter.bits.get(i);
+		}
+		return new Snapshot(bits, bloomFilter.hashFunctions, Instant.ofEpochSecond(now), Instant.ofEpochSecond(expiresAt));
+	}
+
+	/**
+	 * Sets the {@link Clock} used when determining whether a revoked token has expired.
+	 *
+	 * @param clock the {@link Clock}
+	 */
+	public void setClock(Clock clock) {
+		Assert.notNull(clock, "clock cannot be null");
+		this.clock = clock;
+	}
+
+	private synchronized void add(byte[] digest, Instant expiresAt) {
+		long now = this.clock.instant().getEpochSecond();
+		removeExpired(now);
+		long lifetime = expiresAt.getEpochSecond() - now;
+		if (lifetime < 0) {
+			return;
+		}
+		long bucketSeconds = MINIMUM_BUCKET_SECONDS;
+		while (bucketSeconds * MAXIMUM_BUCKETS < lifetime) {
+			bucketSeconds *= 2;
+		}
+		long bucket = (expiresAt.getEpochSecond() / bucketSeconds + 1) * bucketSeconds;
+		if (this.revokedTokens.computeIfAbsent(bucket, (k) -> ConcurrentHashMap.newKeySet()).add(encode(digest))) {
+			this.size++;
+			this.bloomFilterSize++;
+			if (this.bloomFilterSize > this.bloomFilter.capacity) {
+				rebuildBloomFilter();
+			} else {
+				this.bloomFilter.put(digest);
+			}
+		}
+	}
+
+	private boolean contains(byte[] digest) {
+		if (!this.bloomFilter.mightContain(digest)) {
+			return false;
+		}
+		String key = encode(digest);
+		for (Set<String> keys : this.revokedTokens.values()) {
+			if (keys.contains(key)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private void removeExpired(long now) {
+		int removed = 0;
+		Iterator<Map.Entry<Long, Set<String>>> buckets = this.revokedTokens.entrySet().iterator();
+		while (buckets.hasNext()) {
+			Map.Entry<Long, Set<String>> bucket = buckets.next();
+			if (bucket.getKey() < now) {
+				removed += bucket.getValue().size();
+				buckets.remove();
+			}
+		}
+		this.size -= removed;
+		// The expired tokens remain in the Bloom filter (a false positive is resolved by the buckets),
+		// until the revoked tokens occupy less than an eighth of its capacity
+		if (removed > 0 && this.bloomFilter.capacity > MINIMUM_CAPACITY &&
+				this.size < this.bloomFilter.capacity / 8) {
+			rebuildBloomFilter();
+		}
+	}
+
+	private void rebuildBloomFilter() {
+		int capacity = MINIMUM_CAPACITY;
+		while (capacity < this.size * 2 && capacity < Integer.MAX_VALUE / 2) {
+			capacity *= 2;
+		}
+		BloomFilter bloomFilter = new BloomFilter(capacity);
+		for (Set<String> keys : this.revokedTokens.values()) {
+			for (String key : keys) {
+				bloomFilter.put(Base64.getUrlDecoder().decode(key));
+			}
+		}
+		this.bloomFilter = bloomFilter;
+		this.bloomFilterSize = this.size;
+	}
+
+	private static String encode(byte[] digest) {
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+	}
+
+	private static byte[] sha256(String value) {
+		try {
+			MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+			return messageDigest.digest(value.getBytes(StandardCharsets.UTF_8));
+		} catch (NoSuchAlgorithmException ex) {
+			throw new IllegalStateException(ex);
+		}
+	}
+
+	/*
+	 * The bit index of the i-th hash function, using double hashing of the SHA-256 digest.
+	 */
+	private static int index(long hash1, long hash2, int i, int bitCount) {
+		return (int) Math.floorMod(hash1 + i * hash2, (long) bitCount);
+	}
+
+	private static final class BloomFilter {
+		private final int capacity;
+		private final int hashFunctions;
+		private final AtomicLongArray bits;
+
+		private BloomFilter(int capacity) {
+			this.capacity = capacity;
+			long bitCount = (long) Math.ceil(-capacity * Math.log(FALSE_POSITIVE_PROBABILITY) / (Math.log(2) * Math.log(2)));
+			this.bits = new AtomicLongArray((int) ((bitCount + 63) / 64));
+			this.hashFunctions = Math.max(1, (int) Math.round((double) this.bits.length() * 64 / capacity * Math.log(2)));
+		}
+
+		private void put(byte[] digest) {
+			ByteBuffer buffer = ByteBuffer.wrap(digest);
+			long hash1 = buffer.getLong();
+			long hash2 = buffer.getLong();
+			int bitCount = this.bits.length() * 64;
+			for (int i = 0; i < this.hashFunctions; i++) {
+				int index = index(hash1, hash2, i, bitCount);
+				long mask = 1L << index;
+				long word;
+				do {
+					word = this.bits.get(index >>> 6);
+				} while ((word & mask) == 0 && !this.bits.compareAndSet(index >>> 6, word, word | mask));
+			}
+		}
+
+		private boolean mightContain(byte[] digest) {
+			ByteBuffer buffer = ByteBuffer.wrap(digest);
+			long hash1 = buffer.getLong();
+			long hash2 = buffer.getLong();
+			int bitCount = this.bits.length() * 64;
+			for (int i = 0; i < this.hashFunctions; i++) {
+				int index = index(hash1, hash2, i, bitCount);
+				if ((this.bits.get(index >>> 6) & (1L << index)) == 0) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+	}
+
+	/**
+	 * A point-in-time snapshot of the Bloom filter of an {@link OAuth2TokenRevocationList}.
+	 * A snapshot has no false negatives for the tokens revoked before it was taken, and a low rate
+	 * of false positives, therefore a token that {@link #mightBeRevoked(String) might be revoked}
+	 * should be confirmed (e.g. using token introspection).
+	 *
+	 * <p>
+	 * The {@link #toByteArray() encoded} snapshot consists of the number of hash functions (4 bytes),
+	 * the issued at and expires at epoch seconds (8 bytes each), followed by the bits of the Bloom filter
+	 * (8 bytes per 64 bits), all big-endian. The i-th bit index of a key is {@code (h1 + i * h2) mod m},
+	 * where {@code h1} and {@code h2} are the first two big-endian 64-bit words of the SHA-256 digest of
+	 * the token identifier ({@code jti}) or of the token value (UTF-8 encoded), and {@code m} is the number of bits.
+	 */
+	public static final class Snapshot implements Serializable {
+		private static final long serialVersionUID = Version.SERIAL_VERSION_UID;
+		private final long[] bits;
+		private final int hashFunctions;
+		private final Instant issuedAt;
+		private final Instant expiresAt;
+
+		private Snapshot(long[] bits, int hashFunctions, Instant issuedAt, Instant expiresAt) {
+			this.bits = bits;
+			this.hashFunctions = hashFunctions;
+			this.issuedAt = issuedAt;
+			this.expiresAt = expiresAt;
+		}
+
+		/**
+		 * Returns the time at which the snapshot was taken.
+		 *
+		 * @return the time at which the snapshot was taken
+		 */
+		public Instant getIssuedAt() {
+			return this.issuedAt;
+		}
+
+		/**
+		 * Returns the time at which all the tokens revoked in the snapshot have expired.
+		 *
+		 * @return the time at which all the tokens revoked in the snapshot have expired
+		 */
+		public Instant getExpiresAt() {
+			return this.expiresAt;
+		}
+
+		/**
+		 * Returns {@code false} if the token identifier was not revoked when the snapshot was taken,
+		 * or {@code true} if it might have been revoked.
+		 *
+		 * @param tokenId the token identifier ({@code jti})
+		 * @return {@code true} if the token might have been revoked, {@code false} otherwise
+		 */
+		public boolean mightBeRevoked(String tokenId) {
+			Assert.hasText(tokenId, "tokenId cannot be empty");
+			return mightContain(sha256(tokenId));
+		}
+
+		/**
+		 * Returns {@code false} if the token value was not revoked when the snapshot was taken,
+		 * or {@code true} if it might have been revoked.
+		 *
+		 * @param tokenValue the token value
+		 * @return {@code true} if the token might have been revoked, {@code false} otherwise
+		 */
+		public boolean mightBeTokenRevoked(String tokenValue) {
+			Assert.hasText(tokenValue, "tokenValue cannot be empty");
+			return mightContain(sha256(tokenValue));
+		}
+
+		/**
+		 * Returns the encoded snapshot.
+		 *
+		 * @return the encoded snapshot
+		 */
+		public byte[] toByteArray() {
+			ByteBuffer buffer = ByteBuffer.allocate(4 + 8 + 8 + this.bits.length * 8);
+			buffer.putInt(this.hashFunctions);
+			buffer.putLong(this.issuedAt.getEpochSecond());
+			buffer.putLong(this.expiresAt.getEpochSecond());
+			for (long word : this.bits) {
+				buffer.putLong(word);
+			}
+			return buffer.array();
+		}
+
+		/**
+		 * Returns the {@code Snapshot} decoded from the provided {@link #toByteArray() encoded} snapshot.
+		 *
+		 * @param snapshot the encoded snapshot
+		 * @return the {@code Snapshot}
+		 */
+		public static Snapshot fromByteArray(byte[] snapshot) {
+			Assert.notNull(snapshot, "snapshot cannot be null");
+			Assert.isTrue(snapshot.length > 20 && (snapshot.length - 20) % 8 == 0, "snapshot is invalid");
+			ByteBuffer buffer = ByteBuffer.wrap(snapshot);
+			int hashFunctions = buffer.getInt();
+			Assert.isTrue(hashFunctions > 0, "snapshot is invalid");
+			Instant issuedAt = Instant.ofEpochSecond(buffer.getLong());
+			Instant expiresAt = Instant.ofEpochSecond(buffer.getLong());
+			long[] bits = new long[buffer.remaining() / 8];
+			for (int i = 0; i < bits.length; i++) {
+				bits[i] = buffer.getLong();
+			}
+			return new Snapshot(bits, hashFunctions, issuedAt, expiresAt);
+		}
+
+		private boolean mightContain(byte[] digest) {
+			ByteBuffer buffer = ByteBuffer.wrap(digest);
+			long hash1 = buffer.getLong();
+			long hash2 = buffer.getLong();
+			int bitCount = this.bits.length * 64;
+			for (int i = 0; i < this.hashFunctions; i++) {
+				int index = index(hash1, hash2, i, bitCount);
+				if ((this.bits[index >>> 6] & (1L << index)) == 0) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+	}
+
+}
@@ -0,0 +1,278 @@
+/*
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.security.oauth2.server.authorization;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.lang.Nullable;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.core.OAuth2TokenType;
+import org.springframework.security.oauth2.core.endpoint.OAuth2ParameterNames;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtClaimNames;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClientRepository;
+import org.springframework.security.oauth2.server.authorization.config.TokenSettings;
+import org.springframework.util.Assert;
+import org.springframework.util.CollectionUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * An {@link OAuth2AuthorizationService} that resolves the {@link OAuth2Authorization} of a self-contained
+ * access token issued for the {@code client_credentials} grant, which was not stored
+ * (see {@link TokenSettings#isStoreClientCredentialsAuthorizations()}),
+ * and delegates to an {@link OAuth2AuthorizationService} for everything else.
+ *
+ * <p>
+ * An {@link OAuth2Authorization} holding an active self-contained access token (with a {@code jti} claim),
+ * issued for the {@code client_credentials} grant to a {@link RegisteredClient} that does not store the authorization,
+ * is not stored. An access token that is not found by the delegate {@link OAuth2AuthorizationService} is verified
+ * using the provided {@link JwtDecoder}, and is resolved if it has an identifier ({@code jti}), was issued
+ * without storing its authorization (i.e. it has the {@link #STATELESS_CLAIM_NAME} claim, which is set by the
+ * {@code JwtGenerator}) and was issued to a {@link RegisteredClient} that does not store the authorization.
+ * An access token whose authorization was stored is therefore never resolved once it is removed from
+ * the delegate {@link OAuth2AuthorizationService}. When such an access token is revoked,
+ * or its authorization is removed, its identifier is added to the {@link OAuth2TokenRevocationList},
+ * and it is subsequently resolved as invalidated.
+ *
+ * <p>
+ * <b>NOTE:</b> The {@link OAuth2TokenRevocationList} is held in-memory, therefore an access token revoked
+ * on a node of a cluster is only resolved as invalidated by that node, and is resolved as active by the other nodes
+ * until it expires. The access token time-to-live of the clients that do not store the authorization
+ * should be set accordingly.
+ *
+ * @since 0.3.0
+ * @see OAuth2AuthorizationService
+ * @see OAuth2TokenRevocationList
+ * @see TokenSettings#isStoreClientCredentialsAuthorizations()
+ */
+public final class StatelessAccessTokenOAuth2AuthorizationService implements OAuth2AuthorizationService {
+
+	/**
+	 * The name of the claim set to {@code true} in a self-contained access token
+	 * whose authorization is not stored.
+	 */
+	public static final String STATELESS_CLAIM_NAME = "stateless";
+
+	private static final String STATELESS_ATTRIBUTE_NAME =
+			StatelessAccessTokenOAuth2AuthorizationService.class.getName().concat(".STATELESS");
+	private final OAuth2AuthorizationService authorizationService;
+	private final RegisteredClientRepository registeredClientRepository;
+	private final JwtDecoder jwtDecoder;
+	private final OAuth2TokenRevocationList tokenRevocationList;
+
+	/**
+	 * Constructs a {@code StatelessAccessTokenOAuth2AuthorizationService} using the provided parameters.
+	 *
+	 * @param authorizationService the delegate {@link OAuth2AuthorizationService}
+	 * @param registeredClientRepository the repository of registered clients
+	 * @param jwtDecoder the {@link JwtDecoder} used for verifying the access token
+	 * @param tokenRevocationList the list of the revoked access tokens
+	 */
+	public StatelessAccessTokenOAuth2AuthorizationService(OAuth2AuthorizationService authorizationService,
+			RegisteredClientRepository registeredClientRepository, JwtDecoder jwtDecoder,
+			OAuth2TokenRevocationList tokenRevocationList) {
+		Assert.notNull(authorizationService, "authorizationService cannot be null");
+		Assert.notNull(registeredClientRepository, "registeredClientRepository cannot be null");
+		Assert.notNull(jwtDecoder, "jwtDecoder cannot be null");
+		Assert.notNull(tokenRevocationList, "tokenRevocationList cannot be null");
+		this.authorizationService = authorizationService;
+		this.registeredClientRepository = registeredClientRepository;
+		this.jwtDecoder = jwtDecoder;
+		this.tokenRevocationList = tokenRevocationList;
+	}
+
+	@Override
+	public void save(OAuth2Authorization authorization) {
+		Assert.notNull(authorization, "authorization cannot be null");
+		String tokenId = getSelfContainedAccessTokenId(authorization);
+		if (tokenId == null) {
+			this.authorizationService.save(authorization);
+			return;
+		}
+		OAuth2Authorization.Token<OAuth2AccessToken> accessToken = authorization.getAccessToken();
+		if (accessToken.isInvalidated()) {
+			this.tokenRevocationList.revoke(tokenId, accessToken.getToken().getExpiresAt());
+			if (!isStateless(authorization)) {
+				// The authorization may have been stored (e.g. before the client stopped storing the authorization)
+				this.authorizationService.save(authorization);
+			}
+		}
+		// Otherwise, the authorization is held by the self-contained access token
+	}
+
+	@Override
+	public void remove(OAuth2Authorization authorization) {
+		Assert.notNull(authorization, "authorization cannot be null");
+		String tokenId = getSelfContainedAccessTokenId(authorization);
+		if (tokenId != null) {
+			// Otherwise, the access token would be resolved again
+			this.tokenRevocationList.revoke(tokenId, authorization.getAccessToken().getToken().getExpiresAt());
+		}
+		if (!isStateless(authorization)) {
+			this.authorizationService.remove(authorization);
+		}
+	}
+
+	@Nullable
+	@Override
+	public OAuth2Authorization findById(String id) {
+		return this.authorizationService.findById(id);
+	}
+
+	@Nullable
+	@Override
+	public OAuth2Authorization findByToken(String token, @Nullable OAuth2TokenType tokenType) {
+		OAuth2Authorization authorization = this.authorizationService.findByToken(token, tokenType);
+		if (authorization == null && isSelfContainedAccessToken(token, tokenType)) {
+			authorization = readAuthorization(token);
+		}
+		return authorization;
+	}
+
+	@Nullable
+	@Override
+	public OAuth2AuthorizedToken findAuthorizedToken(String token, @Nullable OAuth2TokenType tokenType) {
+		OAuth2AuthorizedToken authorizedToken = this.authorizationService.findAuthorizedToken(token, tokenType);
+		if (authorizedToken == null && isSelfContainedAccessToken(token, tokenType)) {
+			authorizedToken = readAuthorizedToken(token);
+		}
+		return authorizedToken;
+	}
+
+	@Override
+	public Map<String, OAuth2AuthorizedToken> findAuthorizedTokens(Collection<String> tokens,
+			@Nullable OAuth2TokenType tokenType) {
+		Map<String, OAuth2AuthorizedToken> authorizedTokens = this.authorizationService.findAuthorizedTokens(tokens, tokenType);
+		List<String> unresolvedTokens = new ArrayList<>();
+		for (String token : tokens) {
+			if (!authorizedTokens.containsKey(token) && isSelfContainedAccessToken(token, tokenType)) {
+				unresolvedTokens.add(token);
+			}
+		}
+		if (unresolvedTokens.isEmpty()) {
+			return authorizedTokens;
+		}
+		Map<String, OAuth2AuthorizedToken> result = new LinkedHashMap<>(authorizedTokens);
+		for (String token : unresolvedTokens) {
+			OAuth2AuthorizedToken authorizedToken = readAuthorizedToken(token);
+			if (authorizedToken != null) {
+				result.put(token, authorizedToken);
+			}
+		}
+		return result;
+	}
+
+	@Nullable
+	private OAuth2AuthorizedToken readAuthorizedToken(String token) {
+		OAuth2Authorization authorization = readAuthorization(token);
+		if (authorization == null) {
+			return null;
+		}
+		return new OAuth2AuthorizedToken(authorization.getId(), authorization.getRegisteredClientId(),
+				authorization.getPrincipalName(), authorization.getAccessToken());
+	}
+
+	@Nullable
+	private OAuth2Authorization readAuthorization(String token) {
+		Jwt jwt;
+		try {
+			jwt = this.jwtDecoder.decode(token);
+		} catch (JwtException ex) {
+			// Not issued by this authorization server, expired or malformed
+			return null;
+		}
+		if (!StringUtils.hasText(jwt.getId()) || !StringUtils.hasText(jwt.getSubject()) ||
+				!Boolean.TRUE.equals(jwt.getClaimAsBoolean(STATELESS_CLAIM_NAME))) {
+			// Not issued for an authorization which is not stored
+			return null;
+		}
+		// The subject of an access token issued for the client_credentials grant is the client
+		RegisteredClient registeredClient = this.registeredClientRepository.findByClientId(jwt.getSubject());
+		if (registeredClient == null ||
+				registeredClient.getTokenSettings().isStoreClientCredentialsAuthorizations() ||
+				CollectionUtils.isEmpty(jwt.getAudience()) ||
+				!jwt.getAudience().contains(registeredClient.getClientId())) {
+			return null;
+		}
+
+		List<String> scope = jwt.getClaimAsStringList(OAuth2ParameterNames.SCOPE);
+		Set<String> authorizedScopes = scope != null ?
+				Collections.unmodifiableSet(new LinkedHashSet<>(scope)) : Collections.emptySet();
+		OAuth2AccessToken accessToken = new OAuth2AccessToken(OAuth2AccessToken.TokenType.BEARER,
+				token, jwt.getIssuedAt(), jwt.getExpiresAt(), authorizedScopes);
+		boolean revoked = this.tokenRevocationList.isRevoked(jwt.getId());
+
+		// @formatter:off
+		return OAuth2Authorization.withRegisteredClient(registeredClient)
+				.id(jwt.getId())
+				.principalName(jwt.getSubject())
+				.authorizationGrantType(AuthorizationGrantType.CLIENT_CREDENTIALS)
+				.token(accessToken, (metadata) -> {
+					metadata.put(OAuth2Authorization.Token.CLAIMS_METADATA_NAME, jwt.getClaims());
+					metadata.put(OAuth2Authorization.Token.INVALIDATED_METADATA_NAME, revoked);
+				})
+				.attribute(OAuth2Authorization.AUTHORIZED_SCOPE_ATTRIBUTE_NAME, authorizedScopes)
+				.attribute(STATELESS_ATTRIBUTE_NAME, Boolean.TRUE)
+				.build();
+		// @formatter:on
+	}
+
+	/*
+	 * Returns the identifier of the self-contained access token of an authorization which is not stored,
+	 * or null if the authorization is stored.
+	 */
+	@Nullable
+	private String getSelfContainedAccessTokenId(OAuth2Authorization authorization) {
+		OAuth2Authorization.Token<OAuth2AccessToken> accessToken = authorization.getAccessToken();
+		if (!AuthorizationGrantType.CLIENT_CREDENTIALS.equals(authorization.getAuthorizationGrantType()) ||
+				accessToken == null || accessToken.getClaims() == null ||
+				accessToken.getToken().getExpiresAt() == null || authorization.getRefreshToken() != null) {
+			return null;
+		}
+		Object tokenId = accessToken.getClaims().get(JwtClaimNames.JTI);
+		if (!(tokenId instanceof String) || !StringUtils.hasText((String) tokenId) ||
+				!Boolean.TRUE.equals(accessToken.getClaims().get(STATELESS_CLAIM_NAME))) {
+			return null;
+		}
+		if (isStateless(authorization)) {
+			return (String) tokenId;
+		}
+		RegisteredClient registeredClient = this.registeredClientRepository.findById(authorization.getRegisteredClientId());
+		return registeredClient != null && !registeredClient.getTokenSettings().isStoreClientCredentialsAuthorizations() ?
+				(String) tokenId : null;
+	}
+
+	private static boolean isSelfContainedAccessToken(String token, @Nullable OAuth2TokenType tokenType) {
+		return (tokenType == null || OAuth2TokenType.ACCESS_TOKEN.equals(tokenType)) &&
+				StringUtils.countOccurrencesOf(token, ".") == 2;
+	}
+
+	private static boolean isStateless(OAuth2Authorization authorization) {
+		return Boolean.TRUE.equals(authorization.getAttribute(STATELESS_ATTRIBUTE_NAME));
+	}
+
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.security.oauth2.server.authorization;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.lang.Nullable;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.core.OAuth2AuthorizationCode;
+import org.springframework.security.oauth2.core.OAuth2RefreshToken;
+import org.springframework.security.oauth2.core.OAuth2TokenType;
+import org.springframework.security.oauth2.core.endpoint.OAuth2ParameterNames;
+import org.springframework.security.oauth2.server.authorization.token.StatelessAuthorizationCodeGenerator;
+import org.springframework.util.Assert;
+
+/**
+ * An {@link OAuth2AuthorizationService} that resolves the {@link OAuth2Authorization} from a
+ * self-contained authorization code generated by a {@link StatelessAuthorizationCodeGenerator},
+ * instead of storing it, and delegates to an {@link OAuth2AuthorizationService} for everything else.
+ *
+ * <p>
+ * An {@link OAuth2Authorization} holding only an active self-contained authorization code is not stored.
+ * Once the authorization code is invalidated (e.g. exchanged for an access token), the authorization is stored
+ * in the delegate {@link OAuth2AuthorizationService}, and the authorization code is subsequently resolved
+ * from the stored authorization, which enforces one-time use of the authorization code
+ * wherever the delegate {@link OAuth2AuthorizationService} is shared.
+ *
+ * @since 0.3.0
+ * @see OAuth2AuthorizationService
+ * @see StatelessAuthorizationCodeGenerator
+ */
+public final class StatelessAuthorizationCodeOAuth2AuthorizationService implements OAuth2AuthorizationService {
+	private static final OAuth2TokenType AUTHORIZATION_CODE_TOKEN_TYPE = new OAuth2TokenType(OAuth2ParameterNames.CODE);
+	private final OAuth2AuthorizationService authorizationService;
+	private final StatelessAuthorizationCodeGenerator authorizationCodeGenerator;
+
+	/**
+	 * Constructs a {@code StatelessAuthorizationCodeOAuth2AuthorizationService} using the provided parameters.
+	 *
+	 * @param authorizationService the delegate {@link OAuth2AuthorizationService}
+	 * @param authorizationCodeGenerator the {@link StatelessAuthorizationCodeGenerator}
+	 */
+	public StatelessAuthorizationCodeOAuth2AuthorizationService(OAuth2AuthorizationService authorizationService,
+			StatelessAuthorizationCodeGenerator authorizationCodeGenerator) {
+		Assert.notNull(authorizationService, "authorizationService cannot be null");
+		Assert.notNull(authorizationCodeGenerator, "authorizationCodeGenerator cannot be null");
+		this.authorizationService = authorizationService;
+		this.authorizationCodeGenerator = authorizationCodeGenerator;
+	}
+
+	@Override
+	public void save(OAuth2Authorization authorization) {
+		Assert.notNull(authorization, "authorization cannot be null");
+		OAuth2Authorization.Token<OAuth2AuthorizationCode> authorizationCode =
+				authorization.getToken(OAuth2AuthorizationCode.class);
+		if (authorizationCode != null && !authorizationCode.isInvalidated() &&
+				this.authorizationCodeGenerator.matches(authorizationCode.getToken().getTokenValue()) &&
+				authorization.getToken(OAuth2AccessToken.class) == null &&
+				authorization.getToken(OAuth2RefreshToken.class) == null) {
+			// The authorization is held by the authorization code
+			return;
+		}
+		this.authorizationService.save(authorization);
+	}
+
+	@Override
+	public void remove(OAuth2Authorization authorization) {
+		this.authorizationService.remove(authorization);
+	}
+
+	@Nullable
+	@Override
+	public OAuth2Authorization findById(String id) {
+		return this.authorizationService.findById(id);
+	}
+
+	@Nullable
+	@Override
+	public OAuth2Authorization findByToken(String token, @Nullable OAuth2TokenType tokenType) {
+		Assert.hasText(token, "token cannot be empty");
+		if (!isAuthorizationCode(token, tokenType)) {
+			return this.authorizationService.findByToken(token, tokenType);
+		}
+		OAuth2Authorization authorization = this.authorizationCodeGenerator.readAuthorization(token);
+		if (authorization == null) {
+			return null;
+		}
+		// The authorization is stored once the authorization code is invalidated (e.g. exchanged)
+		OAuth2Authorization storedAuthorization = this.authorizationService.findById(authorization.getId());
+		if (storedAuthorization == null) {
+			return authorization;
+		}
+		OAuth2Authorization.Token<OAuth2AuthorizationCode> authorizationCode =
+				storedAuthorization.getToken(OAuth2AuthorizationCode.class);
+		if (authorizationCode != null && token.equals(authorizationCode.getToken().getTokenValue())) {
+			return storedAuthorization;
+		}
+		return OAuth2Authorization.from(authorization)
+				.token(authorization.getToken(OAuth2AuthorizationCode.class).getToken(), (metadata) ->
+						metadata.put(OAuth2Authorization.Token.INVALIDATED_METADATA_NAME, true))
+				.build();
+	}
+
+	@Nullable
+	@Override
+	public OAuth2AuthorizedToken findAuthorizedToken(String token, @Nullable OAuth2TokenType tokenType) {
+		Assert.hasText(token, "token cannot be empty");
+		if (!isAuthorizationCode(token, tokenType)) {
+			return this.authorizationService.findAuthorizedToken(token, tokenType);
+		}
+		return OAuth2AuthorizationService.super.findAuthorizedToken(token, tokenType);
+	}
+
+	@Override
+	public Map<String, OAuth2AuthorizedToken> findAuthorizedTokens(Collection<String> tokens,
+			@Nullable OAuth2TokenType tokenType) {
+		Assert.notNull(tokens, "tokens cannot be null");
+		List<String> delegatedTokens = new ArrayList<>(tokens.size());
+		Map<String, OAuth2AuthorizedToken> authorizedTokens = new LinkedHashMap<>();
+		for (String token : tokens) {
+			if (isAuthorizationCode(token, tokenType)) {
+				OAuth2AuthorizedToken authorizedToken = findAuthorizedToken(token, tokenType);
+				if (authorizedToken != null) {
+					authorizedTokens.put(token, authorizedToken);
+				}
+			} else {
+				delegatedTokens.add(token);
+			}
+		}
+		if (!delegatedTokens.isEmpty()) {
+			authorizedTokens.putAll(this.authorizationService.findAuthorizedTokens(delegatedTokens, tokenType));
+		}
+		return authorizedTokens;
+	}
+
+	private boolean isAuthorizationCode(String token, @Nullable OAuth2TokenType tokenType) {
+		return (tokenType == null || AUTHORIZATION_CODE_TOKEN_TYPE.equals(tokenType)) &&
+				this.authorizationCodeGenerator.matches(token);
+	}
+
+}
@@ -15,6 +15,8 @@
  */
 package org.springframework.security.oauth2.server.authorization.authentication;
 
+import java.time.Duration;
+
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
@@ -47,6 +49,7 @@ public final class ClientSecretAuthenticationProvider implements AuthenticationP
 	private static final String ERROR_URI = "https://datatracker.ietf.org/doc/html/rfc6749#section-3.2.1";
 	private final RegisteredClientRepository registeredClientRepository;
 	private final CodeVerifierAuthenticator codeVerifierAuthenticator;
+	private final VerifiedClientSecretCache verifiedClientSecretCache = new VerifiedClientSecretCache();
 	private PasswordEncoder passwordEncoder;
 
 	/**
@@ -75,6 +78,30 @@ public final class ClientSecretAuthenticationProvider implements AuthenticationP
 	public void setPasswordEncoder(PasswordEncoder passwordEncoder) {
 		Assert.notNull(passwordEncoder, "passwordEncoder cannot be null");
 		this.passwordEncoder = passwordEncoder;
+		this.verifiedClientSecretCache.clear();
+	}
+
+	/**
+	 * Sets the time-to-live of a successfully verified client secret, during which subsequent
+	 * authentications with the same client secret are not validated again by the {@link PasswordEncoder}.
+	 * A cached verification is discarded when the {@link RegisteredClient#getClientSecret() client secret}
+	 * of the registered client changes. The default is {@code Duration.ZERO}, which disables the cache.
+	 *
+	 * @param timeToLive the time-to-live of a verified client secret, or {@code Duration.ZERO} to disable
+	 * @since 0.3.0
+	 */
+	public void setVerifiedClientSecretTimeToLive(Duration timeToLive) {
+		this.verifiedClientSecretCache.setTimeToLive(timeToLive);
+	}
+
+	/**
+	 * Sets the maximum number of cached client secret verifications. The default is 1000.
+	 *
+	 * @param maximumSize the maximum number of cached client secret verifications
+	 * @since 0.3.0
+	 */
+	public void setVerifiedClientSecretMaximumSize(int maximumSize) {
+		this.verifiedClientSecretCache.setMaximumSize(maximumSize);
 	}
 
 	@Override
@@ -103,8 +130,11 @@ public final class ClientSecretAuthenticationProvider implements AuthenticationP
 		}
 
 		String clientSecret = clientAuthentication.getCredentials().toString();
-		if (!this.passwordEncoder.matches(clientSecret, registeredClient.getClientSecret())) {
-			throwInvalidClient(OAuth2ParameterNames.CLIENT_SECRET);
+		if (!this.verifiedClientSecretCache.isVerified(registeredClient, clientSecret)) {
+			if (!this.passwordEncoder.matches(clientSecret, registeredClient.getClientSecret())) {
+				throwInvalidClient(OAuth2ParameterNames.CLIENT_SECRET);
+			}
+			this.verifiedClientSecretCache.verified(registeredClient, clientSecret);
 		}
 
 		// Validate the "code_verifier" parameter for the confidential client, if available
@@ -26,6 +26,7 @@ import java.util.function.Supplier;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.oauth2.core.AbstractOAuth2Token;
 import org.springframework.security.oauth2.core.AuthorizationGrantType;
 import org.springframework.security.oauth2.core.ClaimAccessor;
 import org.springframework.security.oauth2.core.ClientAuthenticationMethod;
@@ -92,6 +93,8 @@ public final class OAuth2AuthorizationCodeAuthenticationProvider implements Auth
 	@Deprecated
 	private Supplier<String> refreshTokenGenerator;
 
+	private OAuth2TokenIntrospectionCache tokenIntrospectionCache;
+
 	/**
 	 * Constructs an {@code OAuth2AuthorizationCodeAuthenticationProvider} using the provided parameters.
 	 *
@@ -152,6 +155,18 @@ public final class OAuth2AuthorizationCodeAuthenticationProvider implements Auth
 		this.refreshTokenGenerator = refreshTokenGenerator;
 	}
 
+	/**
+	 * Sets the {@link OAuth2TokenIntrospectionCache} used by the OAuth 2.0 Token Introspection endpoint,
+	 * so the tokens invalidated when an authorization code is used more than once are no longer reported as active.
+	 *
+	 * @param tokenIntrospectionCache the {@link OAuth2TokenIntrospectionCache}
+	 * @since 0.3.0
+	 */
+	public void setTokenIntrospectionCache(OAuth2TokenIntrospectionCache tokenIntrospectionCache) {
+		Assert.notNull(tokenIntrospectionCache, "tokenIntrospectionCache cannot be null");
+		this.tokenIntrospectionCache = tokenIntrospectionCache;
+	}
+
 	@Deprecated
 	protected void setProviderSettings(ProviderSettings providerSettings) {
 	}
@@ -181,6 +196,7 @@ public final class OAuth2AuthorizationCodeAuthenticationProvider implements Auth
 				// Invalidate the authorization code given that a different client is attempting to use it
 				authorization = OAuth2AuthenticationProviderUtils.invalidate(authorization, authorizationCode.getToken());
 				this.authorizationService.save(authorization);
+				evictTokenIntrospections(authorization);
 			}
 			throw new OAuth2AuthenticationException(OAuth2ErrorCodes.INVALID_GRANT);
 		}
@@ -191,6 +207,17 @@ public final class OAuth2AuthorizationCodeAuthenticationProvider implements Auth
 		}
 
 		if (!authorizationCode.isActive()) {
+			if (authorizationCode.isInvalidated()) {
+				OAuth2Authorization.Token<? extends AbstractOAuth2Token> token = authorization.getRefreshToken() != null ?
+						authorization.getRefreshToken() :
+						authorization.getAccessToken();
+				if (token != null && !token.isInvalidated()) {
+					// Invalidate the access (and refresh) token as the client is attempting to use the authorization code more than once
+					authorization = OAuth2AuthenticationProviderUtils.invalidate(authorization, token.getToken());
+					this.authorizationService.save(authorization);
+					evictTokenIntrospections(authorization);
+				}
+			}
 			throw new OAuth2AuthenticationException(OAuth2ErrorCodes.INVALID_GRANT);
 		}
 
@@ -288,4 +315,21 @@ public final class OAuth2AuthorizationCodeAuthenticationProvider implements Auth
 		return OAuth2AuthorizationCodeAuthenticationToken.class.isAssignableFrom(authentication);
 	}
 
+	private void evictTokenIntrospections(OAuth2Authorization authorization) {
+		if (this.tokenIntrospectionCache == null) {
+			return;
+		}
+		OAuth2Authorization.Token<OAuth2AuthorizationCode> authorizationCode =
+				authorization.getToken(OAuth2AuthorizationCode.class);
+		if (authorizationCode != null) {
+			this.tokenIntrospectionCache.evict(authorizationCode.getToken().getTokenValue());
+		}
+		if (authorization.getAccessToken() != null) {
+			this.tokenIntrospectionCache.evict(authorization.getAccessToken().getToken().getTokenValue());
+		}
+		if (authorization.getRefreshToken() != null) {
+			this.tokenIntrospectionCache.evict(authorization.getRefreshToken().getToken().getTokenValue());
+		}
+	}
+
 }
@@ -142,6 +142,13 @@ public final class OAuth2AuthorizationCodeRequestAuthenticationProvider implemen
 	/**
 	 * Sets the {@link OAuth2TokenGenerator} that generates the {@link OAuth2AuthorizationCode}.
 	 *
+	 * <p>
+	 * <b>NOTE:</b> {@link OAuth2TokenContext#getAuthorization()} provides the {@link OAuth2Authorization}
+	 * the authorization code is generated for, including when the authorization consent is not required,
+	 * in which case the {@link OAuth2Authorization} is not stored yet, and is stored once the authorization code is generated.
+	 * The {@link OAuth2Authorization} has the {@link OAuth2ParameterNames#STATE state} attribute
+	 * only if it was stored beforehand, for the authorization consent.
+	 *
 	 * @param authorizationCodeGenerator the {@link OAuth2TokenGenerator} that generates the {@link OAuth2AuthorizationCode}
 	 * @since 0.2.3
 	 */
@@ -277,6 +284,10 @@ public final class OAuth2AuthorizationCodeRequestAuthenticationProvider implemen
 					.build();
 		}
 
+		OAuth2Authorization authorization = authorizationBuilder(registeredClient, principal, authorizationRequest)
+				.attribute(OAuth2Authorization.AUTHORIZED_SCOPE_ATTRIBUTE_NAME, authorizationRequest.getScopes())
+				.build();
+
 		OAuth2AuthorizationCode authorizationCode;
 		if (this.authorizationCodeSupplier != null) {
 			Instant issuedAt = Instant.now();
@@ -284,7 +295,7 @@ public final class OAuth2AuthorizationCodeRequestAuthenticationProvider implemen
 			authorizationCode = new OAuth2AuthorizationCode(this.authorizationCodeSupplier.get(), issuedAt, expiresAt);
 		} else {
 			OAuth2TokenContext tokenContext = createAuthorizationCodeTokenContext(
-					authorizationCodeRequestAuthentication, registeredClient, null, authorizationRequest.getScopes());
+					authorizationCodeRequestAuthentication, registeredClient, authorization, authorizationRequest.getScopes());
 			authorizationCode = this.authorizationCodeGenerator.generate(tokenContext);
 			if (authorizationCode == null) {
 				OAuth2Error error = new OAuth2Error(OAuth2ErrorCodes.SERVER_ERROR,
@@ -293,9 +304,8 @@ public final class OAuth2AuthorizationCodeRequestAuthenticationProvider implemen
 			}
 		}
 
-		OAuth2Authorization authorization = authorizationBuilder(registeredClient, principal, authorizationRequest)
+		authorization = OAuth2Authorization.from(authorization)
 				.token(authorizationCode)
-				.attribute(OAuth2Authorization.AUTHORIZED_SCOPE_ATTRIBUTE_NAME, authorizationRequest.getScopes())
 				.build();
 		this.authorizationService.save(authorization);
 
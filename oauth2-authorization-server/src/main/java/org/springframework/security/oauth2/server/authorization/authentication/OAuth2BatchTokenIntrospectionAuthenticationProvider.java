@@ -0,0 +1,165 @@
+/*
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.security.oauth2.server.authorization.authentication;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.oauth2.core.AbstractOAuth2Token;
+import org.springframework.security.oauth2.core.OAuth2TokenIntrospection;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationService;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizedToken;
+import org.springframework.security.oauth2.server.authorization.OAuth2TokenRevocationList;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClientRepository;
+import org.springframework.util.Assert;
+
+import static org.springframework.security.oauth2.server.authorization.authentication.OAuth2AuthenticationProviderUtils.getAuthenticatedClientElseThrowInvalidClient;
+
+/**
+ * An {@link AuthenticationProvider} implementation for OAuth 2.0 Token Introspection of multiple tokens in a single request.
+ *
+ * <p>
+ * The tokens are resolved with a single call to {@link OAuth2AuthorizationService#findAuthorizedTokens},
+ * and each token is introspected as by the {@link OAuth2TokenIntrospectionAuthenticationProvider}.
+ *
+ * @since 0.3.0
+ * @see OAuth2BatchTokenIntrospectionAuthenticationToken
+ * @see OAuth2TokenIntrospectionAuthenticationProvider
+ * @see RegisteredClientRepository
+ * @see OAuth2AuthorizationService
+ */
+public final class OAuth2BatchTokenIntrospectionAuthenticationProvider implements AuthenticationProvider {
+	private final RegisteredClientRepository registeredClientRepository;
+	private final OAuth2AuthorizationService authorizationService;
+	private OAuth2TokenIntrospectionCache tokenIntrospectionCache;
+	private OAuth2TokenRevocationList tokenRevocationList;
+
+	/**
+	 * Constructs an {@code OAuth2BatchTokenIntrospectionAuthenticationProvider} using the provided parameters.
+	 *
+	 * @param registeredClientRepository the repository of registered clients
+	 * @param authorizationService the authorization service
+	 */
+	public OAuth2BatchTokenIntrospectionAuthenticationProvider(RegisteredClientRepository registeredClientRepository,
+			OAuth2AuthorizationService authorizationService) {
+		Assert.notNull(registeredClientRepository, "registeredClientRepository cannot be null");
+		Assert.notNull(authorizationService, "authorizationService cannot be null");
+		this.registeredClientRepository = registeredClientRepository;
+		this.authorizationService = authorizationService;
+	}
+
+	@Override
+	public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+		OAuth2BatchTokenIntrospectionAuthenticationToken batchTokenIntrospectionAuthentication =
+				(OAuth2BatchTokenIntrospectionAuthenticationToken) authentication;
+
+		OAuth2ClientAuthenticationToken clientPrincipal =
+				getAuthenticatedClientElseThrowInvalidClient(batchTokenIntrospectionAuthentication);
+
+		List<String> tokens = batchTokenIntrospectionAuthentication.getTokens();
+		Map<String, OAuth2TokenIntrospection> cachedTokenClaims = new HashMap<>();
+		List<String> uncachedTokens = tokens;
+		if (this.tokenIntrospectionCache != null || this.tokenRevocationList != null) {
+			uncachedTokens = new ArrayList<>(tokens.size());
+			for (String token : tokens) {
+				OAuth2TokenIntrospection cachedTokenIntrospection = getKnownTokenClaims(token);
+				if (cachedTokenIntrospection != null) {
+					cachedTokenClaims.put(token, cachedTokenIntrospection);
+				} else {
+					uncachedTokens.add(token);
+				}
+			}
+		}
+		Map<String, OAuth2AuthorizedToken> authorizations = !uncachedTokens.isEmpty() ?
+				this.authorizationService.findAuthorizedTokens(uncachedTokens, null) :
+				Collections.emptyMap();
+
+		// The same client is resolved once, when it authorized several of the tokens
+		Map<String, RegisteredClient> authorizedClients = new HashMap<>();
+		List<OAuth2TokenIntrospection> tokenClaims = new ArrayList<>(tokens.size());
+		for (String token : tokens) {
+			OAuth2TokenIntrospection cachedTokenIntrospection = cachedTokenClaims.get(token);
+			if (cachedTokenIntrospection != null) {
+				tokenClaims.add(cachedTokenIntrospection);
+				continue;
+			}
+			OAuth2AuthorizedToken authorization = authorizations.get(token);
+			if (authorization == null) {
+				tokenClaims.add(OAuth2TokenIntrospection.builder().build());
+				continue;
+			}
+			OAuth2Authorization.Token<AbstractOAuth2Token> authorizedToken = authorization.getToken();
+			if (!authorizedToken.isActive()) {
+				tokenClaims.add(OAuth2TokenIntrospection.builder().build());
+				continue;
+			}
+			RegisteredClient authorizedClient = authorizedClients.computeIfAbsent(
+					authorization.getRegisteredClientId(), this.registeredClientRepository::findById);
+			OAuth2TokenIntrospection tokenIntrospection = OAuth2TokenIntrospectionAuthenticationProvider
+					.withActiveTokenClaims(authorizedToken, authorizedClient);
+			if (this.tokenIntrospectionCache != null) {
+				this.tokenIntrospectionCache.put(token, tokenIntrospection);
+			}
+			tokenClaims.add(tokenIntrospection);
+		}
+
+		return new OAuth2BatchTokenIntrospectionAuthenticationToken(tokens, clientPrincipal, tokenClaims);
+	}
+
+	@Override
+	public boolean supports(Class<?> authentication) {
+		return OAuth2BatchTokenIntrospectionAuthenticationToken.class.isAssignableFrom(authentication);
+	}
+
+	/**
+	 * Sets the {@link OAuth2TokenIntrospectionCache} used for caching the {@link OAuth2TokenIntrospection} of active tokens.
+	 * The cache should also be set on the {@link OAuth2TokenRevocationAuthenticationProvider},
+	 * so a revoked token is evicted immediately.
+	 *
+	 * @param tokenIntrospectionCache the {@link OAuth2TokenIntrospectionCache}
+	 */
+	public void setTokenIntrospectionCache(OAuth2TokenIntrospectionCache tokenIntrospectionCache) {
+		Assert.notNull(tokenIntrospectionCache, "tokenIntrospectionCache cannot be null");
+		this.tokenIntrospectionCache = tokenIntrospectionCache;
+	}
+
+	/**
+	 * Sets the {@link OAuth2TokenRevocationList} used for answering the introspection of a revoked token
+	 * without looking up its authorization. The list should also be set on the {@link OAuth2TokenRevocationAuthenticationProvider}.
+	 *
+	 * @param tokenRevocationList the {@link OAuth2TokenRevocationList}
+	 */
+	public void setTokenRevocationList(OAuth2TokenRevocationList tokenRevocationList) {
+		Assert.notNull(tokenRevocationList, "tokenRevocationList cannot be null");
+		this.tokenRevocationList = tokenRevocationList;
+	}
+
+	private OAuth2TokenIntrospection getKnownTokenClaims(String token) {
+		if (this.tokenRevocationList != null && this.tokenRevocationList.isTokenRevoked(token)) {
+			return OAuth2TokenIntrospection.builder().build();
+		}
+		return this.tokenIntrospectionCache != null ? this.tokenIntrospectionCache.get(token) : null;
+	}
+
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.security.oauth2.server.authorization.authentication;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.lang.Nullable;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.core.OAuth2TokenIntrospection;
+import org.springframework.security.oauth2.core.Version;
+import org.springframework.util.Assert;
+
+/**
+ * An {@link Authentication} implementation used for OAuth 2.0 Token Introspection of multiple tokens in a single request.
+ *
+ * @since 0.3.0
+ * @see AbstractAuthenticationToken
+ * @see OAuth2TokenIntrospection
+ * @see OAuth2BatchTokenIntrospectionAuthenticationProvider
+ */
+public class OAuth2BatchTokenIntrospectionAuthenticationToken extends AbstractAuthenticationToken {
+	private static final long serialVersionUID = Version.SERIAL_VERSION_UID;
+	private final List<String> tokens;
+	private final Authentication clientPrincipal;
+	private final String tokenTypeHint;
+	private final Map<String, Object> additionalParameters;
+	private final List<OAuth2TokenIntrospection> tokenClaims;
+
+	/**
+	 * Constructs an {@code OAuth2BatchTokenIntrospectionAuthenticationToken} using the provided parameters.
+	 *
+	 * @param tokens the tokens
+	 * @param clientPrincipal the authenticated client principal
+	 * @param tokenTypeHint the token type hint
+	 * @param additionalParameters the additional parameters
+	 */
+	public OAuth2BatchTokenIntrospectionAuthenticationToken(List<String> tokens, Authentication clientPrincipal,
+			@Nullable String tokenTypeHint, @Nullable Map<String, Object> additionalParameters) {
+		super(Collections.emptyList());
+		Assert.notEmpty(tokens, "tokens cannot be empty");
+		tokens.forEach((token) -> Assert.hasText(token, "token cannot be empty"));
+		Assert.notNull(clientPrincipal, "clientPrincipal cannot be null");
+		this.tokens = Collections.unmodifiableList(new ArrayList<>(tokens));
+		this.clientPrincipal = clientPrincipal;
+		this.tokenTypeHint = tokenTypeHint;
+		this.additionalParameters = Collections.unmodifiableMap(
+				additionalParameters != null ? new HashMap<>(additionalParameters) : Collections.emptyMap());
+		this.tokenClaims = Collections.emptyList();
+	}
+
+	/**
+	 * Constructs an {@code OAuth2BatchTokenIntrospectionAuthenticationToken} using the provided parameters.
+	 *
+	 * @param tokens the tokens
+	 * @param clientPrincipal the authenticated client principal
+	 * @param tokenClaims the token claims, in the same order as the tokens
+	 */
+	public OAuth2BatchTokenIntrospectionAuthenticationToken(List<String> tokens, Authentication clientPrincipal,
+			List<OAuth2TokenIntrospection> tokenClaims) {
+		super(Collections.emptyList());
+		Assert.notEmpty(tokens, "tokens cannot be empty");
+		Assert.notNull(clientPrincipal, "clientPrincipal cannot be null");
+		Assert.notNull(tokenClaims, "tokenClaims cannot be null");
+		Assert.isTrue(tokens.size() == tokenClaims.size(), "tokenClaims must contain an entry for each token");
+		this.tokens = Collections.unmodifiableList(new ArrayList<>(tokens));
+		this.clientPrincipal = clientPrincipal;
+		this.tokenTypeHint = null;
+		this.additionalParameters = Collections.emptyMap();
+		this.tokenClaims = Collections.unmodifiableList(new ArrayList<>(tokenClaims));
+		// Indicates that the request was authenticated, even though the tokens might not be active
+		setAuthenticated(true);
+	}
+
+	@Override
+	public Object getPrincipal() {
+		return this.clientPrincipal;
+	}
+
+	@Override
+	public Object getCredentials() {
+		return "";
+	}
+
+	/**
+	 * Returns the tokens.
+	 *
+	 * @return the tokens
+	 */
+	public List<String> getTokens() {
+		return this.tokens;
+	}
+
+	/**
+	 * Returns the token type hint.
+	 *
+	 * @return the token type hint
+	 */
+	@Nullable
+	public String getTokenTypeHint() {
+		return this.tokenTypeHint;
+	}
+
+	/**
+	 * Returns the additional parameters.
+	 *
+	 * @return the additional parameters
+	 */
+	public Map<String, Object> getAdditionalParameters() {
+		return this.additionalParameters;
+	}
+
+	/**
+	 * Returns the token claims, in the same order as the {@link #getTokens() tokens}.
+	 *
+	 * @return the {@link OAuth2TokenIntrospection}'s
+	 */
+	public List<OAuth2TokenIntrospection> getTokenClaims() {
+		return this.tokenClaims;
+	}
+
+}
@@ -85,6 +85,8 @@ public final class OAuth2RefreshTokenAuthenticationProvider implements Authentic
 	@Deprecated
 	private Supplier<String> refreshTokenGenerator;
 
+	private OAuth2TokenIntrospectionCache tokenIntrospectionCache;
+
 	/**
 	 * Constructs an {@code OAuth2RefreshTokenAuthenticationProvider} using the provided parameters.
 	 *
@@ -146,6 +148,18 @@ public final class OAuth2RefreshTokenAuthenticationProvider implements Authentic
 		this.refreshTokenGenerator = refreshTokenGenerator;
 	}
 
+	/**
+	 * Sets the {@link OAuth2TokenIntrospectionCache} used by the OAuth 2.0 Token Introspection endpoint,
+	 * so the replaced access token (and refresh token) is no longer reported as active.
+	 *
+	 * @param tokenIntrospectionCache the {@link OAuth2TokenIntrospectionCache}
+	 * @since 0.3.0
+	 */
+	public void setTokenIntrospectionCache(OAuth2TokenIntrospectionCache tokenIntrospectionCache) {
+		Assert.notNull(tokenIntrospectionCache, "tokenIntrospectionCache cannot be null");
+		this.tokenIntrospectionCache = tokenIntrospectionCache;
+	}
+
 	@Deprecated
 	protected void setProviderSettings(ProviderSettings providerSettings) {
 	}
@@ -264,10 +278,21 @@ public final class OAuth2RefreshTokenAuthenticationProvider implements Authentic
 			idToken = null;
 		}
 
+		OAuth2Authorization.Token<OAuth2AccessToken> previousAccessToken = authorization.getAccessToken();
+
 		authorization = authorizationBuilder.build();
 
 		this.authorizationService.save(authorization);
 
+		if (this.tokenIntrospectionCache != null) {
+			if (previousAccessToken != null) {
+				this.tokenIntrospectionCache.evict(previousAccessToken.getToken().getTokenValue());
+			}
+			if (currentRefreshToken != refreshToken.getToken()) {
+				this.tokenIntrospectionCache.evict(refreshToken.getToken().getTokenValue());
+			}
+		}
+
 		Map<String, Object> additionalParameters = Collections.emptyMap();
 		if (idToken != null) {
 			additionalParameters = new HashMap<>();
@@ -31,6 +31,8 @@ import org.springframework.security.oauth2.core.OAuth2TokenIntrospectionClaimNam
 import org.springframework.security.oauth2.core.converter.ClaimConversionService;
 import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
 import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationService;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizedToken;
+import org.springframework.security.oauth2.server.authorization.OAuth2TokenRevocationList;
 import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
 import org.springframework.security.oauth2.server.authorization.client.RegisteredClientRepository;
 import org.springframework.util.Assert;
@@ -55,6 +57,8 @@ public final class OAuth2TokenIntrospectionAuthenticationProvider implements Aut
 			TypeDescriptor.collection(List.class, TypeDescriptor.valueOf(String.class));
 	private final RegisteredClientRepository registeredClientRepository;
 	private final OAuth2AuthorizationService authorizationService;
+	private OAuth2TokenIntrospectionCache tokenIntrospectionCache;
+	private OAuth2TokenRevocationList tokenRevocationList;
 
 	/**
 	 * Constructs an {@code OAuth2TokenIntrospectionAuthenticationProvider} using the provided parameters.
@@ -78,15 +82,30 @@ public final class OAuth2TokenIntrospectionAuthenticationProvider implements Aut
 		OAuth2ClientAuthenticationToken clientPrincipal =
 				getAuthenticatedClientElseThrowInvalidClient(tokenIntrospectionAuthentication);
 
-		OAuth2Authorization authorization = this.authorizationService.findByToken(
+		if (this.tokenRevocationList != null &&
+				this.tokenRevocationList.isTokenRevoked(tokenIntrospectionAuthentication.getToken())) {
+			return new OAuth2TokenIntrospectionAuthenticationToken(tokenIntrospectionAuthentication.getToken(),
+					clientPrincipal, OAuth2TokenIntrospection.builder().build());
+		}
+
+		if (this.tokenIntrospectionCache != null) {
+			OAuth2TokenIntrospection cachedTokenClaims =
+					this.tokenIntrospectionCache.get(tokenIntrospectionAuthentication.getToken());
+			if (cachedTokenClaims != null) {
+				return new OAuth2TokenIntrospectionAuthenticationToken(tokenIntrospectionAuthentication.getToken(),
+						clientPrincipal, cachedTokenClaims);
+			}
+		}
+
+		// Only the token is needed, rather than the complete authorization
+		OAuth2AuthorizedToken authorization = this.authorizationService.findAuthorizedToken(
 				tokenIntrospectionAuthentication.getToken(), null);
 		if (authorization == null) {
 			// Return the authentication request when token not found
 			return tokenIntrospectionAuthentication;
 		}
 
-		OAuth2Authorization.Token<AbstractOAuth2Token> authorizedToken =
-				authorization.getToken(tokenIntrospectionAuthentication.getToken());
+		OAuth2Authorization.Token<AbstractOAuth2Token> authorizedToken = authorization.getToken();
 		if (!authorizedToken.isActive()) {
 			return new OAuth2TokenIntrospectionAuthenticationToken(tokenIntrospectionAuthentication.getToken(),
 					clientPrincipal, OAuth2TokenIntrospection.builder().build());
@@ -94,6 +113,9 @@ public final class OAuth2TokenIntrospectionAuthenticationProvider implements Aut
 
 		RegisteredClient authorizedClient = this.registeredClientRepository.findById(authorization.getRegisteredClientId());
 		OAuth2TokenIntrospection tokenClaims = withActiveTokenClaims(authorizedToken, authorizedClient);
+		if (this.tokenIntrospectionCache != null) {
+			this.tokenIntrospectionCache.put(tokenIntrospectionAuthentication.getToken(), tokenClaims);
+		}
 
 		return new OAuth2TokenIntrospectionAuthenticationToken(authorizedToken.getToken().getTokenValue(),
 				clientPrincipal, tokenClaims);
@@ -104,7 +126,32 @@ public final class OAuth2TokenIntrospectionAuthenticationProvider implements Aut
 		return OAuth2TokenIntrospectionAuthenticationToken.class.isAssignableFrom(authentication);
 	}
 
-	private static OAuth2TokenIntrospection withActiveTokenClaims(
+	/**
+	 * Sets the {@link OAuth2TokenIntrospectionCache} used for caching the {@link OAuth2TokenIntrospection} of active tokens.
+	 * The cache should also be set on the {@link OAuth2TokenRevocationAuthenticationProvider},
+	 * so a revoked token is evicted immediately.
+	 *
+	 * @param tokenIntrospectionCache the {@link OAuth2TokenIntrospectionCache}
+	 * @since 0.3.0
+	 */
+	public void setTokenIntrospectionCache(OAuth2TokenIntrospectionCache tokenIntrospectionCache) {
+		Assert.notNull(tokenIntrospectionCache, "tokenIntrospectionCache cannot be null");
+		this.tokenIntrospectionCache = tokenIntrospectionCache;
+	}
+
+	/**
+	 * Sets the {@link OAuth2TokenRevocationList} used for answering the introspection of a revoked token
+	 * without looking up its authorization. The list should also be set on the {@link OAuth2TokenRevocationAuthenticationProvider}.
+	 *
+	 * @param tokenRevocationList the {@link OAuth2TokenRevocationList}
+	 * @since 0.3.0
+	 */
+	public void setTokenRevocationList(OAuth2TokenRevocationList tokenRevocationList) {
+		Assert.notNull(tokenRevocationList, "tokenRevocationList cannot be null");
+		this.tokenRevocationList = tokenRevocationList;
+	}
+
+	static OAuth2TokenIntrospection withActiveTokenClaims(
 			OAuth2Authorization.Token<AbstractOAuth2Token> authorizedToken, RegisteredClient authorizedClient) {
 
 		OAuth2TokenIntrospection.Builder tokenClaims;
@@ -0,0 +1,217 @@
+/*
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.security.oauth2.server.authorization.authentication;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.lang.Nullable;
+import org.springframework.security.oauth2.core.OAuth2TokenIntrospection;
+import org.springframework.util.Assert;
+
+/**
+ * A bounded cache of the {@link OAuth2TokenIntrospection} computed for active tokens, which allows the
+ * OAuth 2.0 Token Introspection of a recently introspected token to skip loading the authorization
+ * and converting the token claims.
+ *
+ * <p>
+ * A cached entry expires after the configured {@link #setTimeToLive(Duration) time-to-live},
+ * or when the token expires, whichever comes first. The token value is never retained. Instead, a keyed digest
+ * (HMAC-SHA256 with a random, per-instance key) is used as the cache key.
+ *
+ * <p>
+ * An entry is {@link #evict(String) evicted} by the {@link OAuth2TokenRevocationAuthenticationProvider}
+ * when the token is revoked through it, by the {@link OAuth2RefreshTokenAuthenticationProvider}
+ * when the access token (and refresh token) is replaced, by the {@link OAuth2AuthorizationCodeAuthenticationProvider}
+ * when the tokens are invalidated as their authorization code is used more than once, and when the authorization is removed
+ * through the configured {@code OAuth2AuthorizationService}.
+ *
+ * <p>
+ * <b>NOTE:</b> A token invalidated otherwise (for example, by saving the authorization directly
+ * through the {@code OAuth2AuthorizationService}, or by a revocation on another node) is still reported as active
+ * until the entry expires, so the time-to-live bounds how long an invalidated token may still be reported as active.
+ *
+ * @since 0.3.0
+ * @see OAuth2TokenIntrospectionAuthenticationProvider
+ * @see OAuth2BatchTokenIntrospectionAuthenticationProvider
+ * @see OAuth2TokenRevocationAuthenticationProvider
+ * @see OAuth2AuthorizationCodeAuthenticationProvider
+ */
+public final class OAuth2TokenIntrospectionCache {
+	private static final String HMAC_ALGORITHM = "HmacSHA256";
+	private static final Duration SWEEP_INTERVAL = Duration.ofSeconds(1);
+	private final Map<String, CachedTokenIntrospection> cachedTokenIntrospections = new ConcurrentHashMap<>();
+	private final SecretKeySpec key;
+	private Duration timeToLive = Duration.ofMinutes(1);
+	private int maximumSize = 10000;
+	private Clock clock = Clock.systemUTC();
+	private final AtomicReference<Instant> nextSweepAt = new AtomicReference<>(Instant.MIN);
+
+	/**
+	 * Constructs an {@code OAuth2TokenIntrospectionCache}.
+	 */
+	public OAuth2TokenIntrospectionCache() {
+		byte[] keyBytes = new byte[32];
+		new SecureRandom().nextBytes(keyBytes);
+		this.key = new SecretKeySpec(keyBytes, HMAC_ALGORITHM);
+	}
+
+	/**
+	 * Returns the cached {@link OAuth2TokenIntrospection} of the provided {@code token},
+	 * or {@code null} if not cached or expired.
+	 *
+	 * @param token the token
+	 * @return the cached {@link OAuth2TokenIntrospection}, or {@code null} if not cached or expired
+	 */
+	@Nullable
+	public OAuth2TokenIntrospection get(String token) {
+		Assert.hasText(token, "token cannot be empty");
+		String key = digest(token);
+		CachedTokenIntrospection cachedTokenIntrospection = this.cachedTokenIntrospections.get(key);
+		if (cachedTokenIntrospection == null) {
+			return null;
+		}
+		if (!this.clock.instant().isBefore(cachedTokenIntrospection.expiresAt)) {
+			this.cachedTokenIntrospections.remove(key, cachedTokenIntrospection);
+			return null;
+		}
+		return cachedTokenIntrospection.tokenClaims;
+	}
+
+	/**
+	 * Caches the {@link OAuth2TokenIntrospection} of the provided {@code token}, if it is active.
+	 *
+	 * @param token the token
+	 * @param tokenClaims the {@link OAuth2TokenIntrospection} of the token
+	 */
+	public void put(String token, OAuth2TokenIntrospection tokenClaims) {
+		Assert.hasText(token, "token cannot be empty");
+		Assert.notNull(tokenClaims, "tokenClaims cannot be null");
+		if (!tokenClaims.isActive()) {
+			return;
+		}
+		Instant now = this.clock.instant();
+		Instant expiresAt = now.plus(this.timeToLive);
+		if (tokenClaims.getExpiresAt() != null && tokenClaims.getExpiresAt().isBefore(expiresAt)) {
+			expiresAt = tokenClaims.getExpiresAt();
+		}
+		if (!now.isBefore(expiresAt)) {
+			return;
+		}
+		if (this.cachedTokenIntrospections.size() >= this.maximumSize) {
+			sweepExpired(now);
+			if (this.cachedTokenIntrospections.size() >= this.maximumSize) {
+				// Bounded: the token will be introspected again from the authorization
+				return;
+			}
+		}
+		this.cachedTokenIntrospections.put(digest(token), new CachedTokenIntrospection(tokenClaims, expiresAt));
+	}
+
+	/**
+	 * Evicts the cached {@link OAuth2TokenIntrospection} of the provided {@code token}, if any.
+	 *
+	 * @param token the token
+	 */
+	public void evict(String token) {
+		Assert.hasText(token, "token cannot be empty");
+		this.cachedTokenIntrospections.remove(digest(token));
+	}
+
+	/**
+	 * Evicts all cached entries.
+	 */
+	public void clear() {
+		this.cachedTokenIntrospections.clear();
+	}
+
+	/**
+	 * Sets the maximum time an {@link OAuth2TokenIntrospection} is cached. The default is 1 minute.
+	 *
+	 * @param timeToLive the maximum time an {@link OAuth2TokenIntrospection} is cached
+	 */
+	public void setTimeToLive(Duration timeToLive) {
+		Assert.notNull(timeToLive, "timeToLive cannot be null");
+		Assert.isTrue(timeToLive.getSeconds() > 0, "timeToLive must be greater than Duration.ZERO");
+		this.timeToLive = timeToLive;
+		clear();
+	}
+
+	/**
+	 * Sets the maximum number of cached entries. The default is {@code 10000}.
+	 *
+	 * @param maximumSize the maximum number of cached entries
+	 */
+	public void setMaximumSize(int maximumSize) {
+		Assert.isTrue(maximumSize > 0, "maximumSize must be greater than 0");
+		this.maximumSize = maximumSize;
+	}
+
+	/**
+	 * Sets the {@link Clock} used when checking the expiry of a cached entry.
+	 *
+	 * @param clock the {@link Clock}
+	 */
+	public void setClock(Clock clock) {
+		Assert.notNull(clock, "clock cannot be null");
+		this.clock = clock;
+	}
+
+	private void sweepExpired(Instant now) {
+		// The expired entries are removed at most once per interval (by a single thread),
+		// so a full cache does not scan all entries on every put
+		Instant nextSweepAt = this.nextSweepAt.get();
+		if (now.isBefore(nextSweepAt) || !this.nextSweepAt.compareAndSet(nextSweepAt, now.plus(SWEEP_INTERVAL))) {
+			return;
+		}
+		this.cachedTokenIntrospections.values().removeIf((cachedTokenIntrospection) ->
+				!now.isBefore(cachedTokenIntrospection.expiresAt));
+	}
+
+	private String digest(String token) {
+		try {
+			Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+			mac.init(this.key);
+			byte[] digest = mac.doFinal(token.getBytes(StandardCharsets.UTF_8));
+			return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+		} catch (GeneralSecurityException ex) {
+			throw new IllegalStateException(ex);
+		}
+	}
+
+	private static final class CachedTokenIntrospection {
+		private final OAuth2TokenIntrospection tokenClaims;
+		private final Instant expiresAt;
+
+		private CachedTokenIntrospection(OAuth2TokenIntrospection tokenClaims, Instant expiresAt) {
+			this.tokenClaims = tokenClaims;
+			this.expiresAt = expiresAt;
+		}
+
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2020-2021 the original author or authors.
+ * Copyright 2020-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -20,9 +20,11 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.oauth2.core.AbstractOAuth2Token;
 import org.springframework.security.oauth2.core.OAuth2AuthenticationException;
+import org.springframework.security.oauth2.core.OAuth2AuthorizationCode;
 import org.springframework.security.oauth2.core.OAuth2ErrorCodes;
 import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
 import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationService;
+import org.springframework.security.oauth2.server.authorization.OAuth2TokenRevocationList;
 import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
 import org.springframework.util.Assert;
 
@@ -40,6 +42,8 @@ import static org.springframework.security.oauth2.server.authorization.authentic
  */
 public final class OAuth2TokenRevocationAuthenticationProvider implements AuthenticationProvider {
 	private final OAuth2AuthorizationService authorizationService;
+	private OAuth2TokenIntrospectionCache tokenIntrospectionCache;
+	private OAuth2TokenRevocationList tokenRevocationList;
 
 	/**
 	 * Constructs an {@code OAuth2TokenRevocationAuthenticationProvider} using the provided parameters.
@@ -74,6 +78,12 @@ public final class OAuth2TokenRevocationAuthenticationProvider implements Authen
 		OAuth2Authorization.Token<AbstractOAuth2Token> token = authorization.getToken(tokenRevocationAuthentication.getToken());
 		authorization = OAuth2AuthenticationProviderUtils.invalidate(authorization, token.getToken());
 		this.authorizationService.save(authorization);
+		if (this.tokenIntrospectionCache != null) {
+			evictTokenIntrospections(authorization);
+		}
+		if (this.tokenRevocationList != null) {
+			revokeTokens(authorization);
+		}
 
 		return new OAuth2TokenRevocationAuthenticationToken(token.getToken(), clientPrincipal);
 	}
@@ -82,4 +92,56 @@ public final class OAuth2TokenRevocationAuthenticationProvider implements Authen
 	public boolean supports(Class<?> authentication) {
 		return OAuth2TokenRevocationAuthenticationToken.class.isAssignableFrom(authentication);
 	}
+
+	/**
+	 * Sets the {@link OAuth2TokenIntrospectionCache} used by the OAuth 2.0 Token Introspection endpoint,
+	 * which allows evicting the cached introspection of a revoked token immediately.
+	 *
+	 * @param tokenIntrospectionCache the {@link OAuth2TokenIntrospectionCache}
+	 * @since 0.3.0
+	 */
+	public void setTokenIntrospectionCache(OAuth2TokenIntrospectionCache tokenIntrospectionCache) {
+		Assert.notNull(tokenIntrospectionCache, "tokenIntrospectionCache cannot be null");
+		this.tokenIntrospectionCache = tokenIntrospectionCache;
+	}
+
+	/**
+	 * Sets the {@link OAuth2TokenRevocationList} consulted by the OAuth 2.0 Token Introspection endpoint,
+	 * which allows answering the introspection of a revoked token without looking up its authorization.
+	 *
+	 * @param tokenRevocationList the {@link OAuth2TokenRevocationList}
+	 * @since 0.3.0
+	 */
+	public void setTokenRevocationList(OAuth2TokenRevocationList tokenRevocationList) {
+		Assert.notNull(tokenRevocationList, "tokenRevocationList cannot be null");
+		this.tokenRevocationList = tokenRevocationList;
+	}
+
+	private void evictTokenIntrospections(OAuth2Authorization authorization) {
+		// Revoking a refresh token also invalidates the access token (and authorization code)
+		if (authorization.getAccessToken() != null) {
+			this.tokenIntrospectionCache.evict(authorization.getAccessToken().getToken().getTokenValue());
+		}
+		if (authorization.getRefreshToken() != null) {
+			this.tokenIntrospectionCache.evict(authorization.getRefreshToken().getToken().getTokenValue());
+		}
+		OAuth2Authorization.Token<OAuth2AuthorizationCode> authorizationCode =
+				authorization.getToken(OAuth2AuthorizationCode.class);
+		if (authorizationCode != null) {
+			this.tokenIntrospectionCache.evict(authorizationCode.getToken().getTokenValue());
+		}
+	}
+
+	private void revokeTokens(OAuth2Authorization authorization) {
+		revokeToken(authorization.getAccessToken());
+		revokeToken(authorization.getRefreshToken());
+	}
+
+	private void revokeToken(OAuth2Authorization.Token<? extends AbstractOAuth2Token> token) {
+		// A token without an expiry is never discarded from the list
+		if (token != null && token.isInvalidated() && token.getToken().getExpiresAt() != null) {
+			this.tokenRevocationList.revokeToken(token.getToken().getTokenValue(), token.getToken().getExpiresAt());
+		}
+	}
+
 }
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.security.oauth2.server.authorization.authentication;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+import org.springframework.util.Assert;
+
+/**
+ * A bounded cache of recently verified client secrets, used for OAuth 2.0 Client Authentication,
+ * which avoids repeating the (intentionally expensive) {@code PasswordEncoder} verification
+ * for a client secret that was successfully verified within the configured time-to-live.
+ *
+ * <p>
+ * The presented client secret is never retained. Instead, a keyed digest (HMAC-SHA256 with a random,
+ * per-instance key) is stored, along with the {@link RegisteredClient#getClientSecret() stored client secret}
+ * it was verified against, so a change of the registered client's secret invalidates the cached entry.
+ *
+ * @since 0.3.0
+ * @see ClientSecretAuthenticationProvider
+ */
+final class VerifiedClientSecretCache {
+	private static final String HMAC_ALGORITHM = "HmacSHA256";
+	private final Map<String, VerifiedClientSecret> verifiedClientSecrets = new ConcurrentHashMap<>();
+	private final SecretKeySpec key;
+	private Duration timeToLive = Duration.ZERO;
+	private int maximumSize = 1000;
+	private Clock clock = Clock.systemUTC();
+
+	VerifiedClientSecretCache() {
+		byte[] keyBytes = new byte[32];
+		new SecureRandom().nextBytes(keyBytes);
+		this.key = new SecretKeySpec(keyBytes, HMAC_ALGORITHM);
+	}
+
+	boolean isEnabled() {
+		return !this.timeToLive.isZero();
+	}
+
+	boolean isVerified(RegisteredClient registeredClient, String clientSecret) {
+		if (!isEnabled()) {
+			return false;
+		}
+		VerifiedClientSecret verifiedClientSecret = this.verifiedClientSecrets.get(registeredClient.getClientId());
+		if (verifiedClientSecret == null) {
+			return false;
+		}
+		if (!this.clock.instant().isBefore(verifiedClientSecret.expiresAt)) {
+			this.verifiedClientSecrets.remove(registeredClient.getClientId(), verifiedClientSecret);
+			return false;
+		}
+		return verifiedClientSecret.storedClientSecret.equals(registeredClient.getClientSecret()) &&
+				MessageDigest.isEqual(verifiedClientSecret.clientSecretDigest, digest(clientSecret));
+	}
+
+	void verified(RegisteredClient registeredClient, String clientSecret) {
+		if (!isEnabled() || registeredClient.getClientSecret() == null) {
+			return;
+		}
+		Instant now = this.clock.instant();
+		if (this.verifiedClientSecrets.size() >= this.maximumSize) {
+			this.verifiedClientSecrets.values().removeIf((verifiedClientSecret) ->
+					!now.isBefore(verifiedClientSecret.expiresAt));
+			if (this.verifiedClientSecrets.size() >= this.maximumSize) {
+				// Bounded: the secret will be verified again by the PasswordEncoder
+				return;
+			}
+		}
+		this.verifiedClientSecrets.put(registeredClient.getClientId(), new VerifiedClientSecret(
+				digest(clientSecret), registeredClient.getClientSecret(), now.plus(this.timeToLive)));
+	}
+
+	void clear() {
+		this.verifiedClientSecrets.clear();
+	}
+
+	void setTimeToLive(Duration timeToLive) {
+		Assert.notNull(timeToLive, "timeToLive cannot be null");
+		Assert.isTrue(!timeToLive.isNegative(), "timeToLive cannot be negative");
+		this.timeToLive = timeToLive;
+		clear();
+	}
+
+	void setMaximumSize(int maximumSize) {
+		Assert.isTrue(maximumSize > 0, "maximumSize must be greater than 0");
+		this.maximumSize = maximumSize;
+	}
+
+	void setClock(Clock clock) {
+		Assert.notNull(clock, "clock cannot be null");
+		this.clock = clock;
+	}
+
+	private byte[] digest(String clientSecret) {
+		try {
+			Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+			mac.init(this.key);
+			return mac.doFinal(clientSecret.getBytes(StandardCharsets.UTF_8));
+		} catch (GeneralSecurityException ex) {
+			throw new IllegalStateException(ex);
+		}
+	}
+
+	private static final class VerifiedClientSecret {
+		private final byte[] clientSecretDigest;
+		private final String storedClientSecret;
+		private final Instant expiresAt;
+
+		private VerifiedClientSecret(byte[] clientSecretDigest, String storedClientSecret, Instant expiresAt) {
+			this.clientSecretDigest = clientSecretDigest;
+			this.storedClientSecret = storedClientSecret;
+			this.expiresAt = expiresAt;
+		}
+
+	}
+
+}
@@ -0,0 +1,262 @@
+/*
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.security.oauth2.server.authorization.client;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * A {@link RegisteredClientRepository} that caches the {@link RegisteredClient}(s)
+ * returned by a delegate {@link RegisteredClientRepository}.
+ *
+ * <p>
+ * A cached {@link RegisteredClient} is resolvable by both {@link RegisteredClient#getId()}
+ * and {@link RegisteredClient#getClientId()}, and expires after the configured
+ * {@link #setTimeToLive(Duration) time-to-live}. When an entry is accessed after its
+ * {@link #setRefreshAheadTime(Duration) refresh-ahead time}, a single caller reloads it from the delegate,
+ * while concurrent callers continue to be served the (still valid) cached entry.
+ * The number of cached entries is bounded by the {@link #setMaximumSize(int) maximum size}.
+ *
+ * <p>
+ * An entry is invalidated when the {@link RegisteredClient} is {@link #save(RegisteredClient) saved}
+ * through this repository. Changes applied directly to the delegate (or by another node)
+ * are visible after the entry expires, or after an explicit call to {@link #invalidate(String)}
+ * or {@link #invalidateAll()}.
+ *
+ * @since 0.3.0
+ * @see RegisteredClientRepository
+ * @see RegisteredClient
+ */
+public final class CachingRegisteredClientRepository implements RegisteredClientRepository {
+	private final RegisteredClientRepository registeredClientRepository;
+	private final Map<String, CachedRegisteredClient> idCache = new ConcurrentHashMap<>();
+	private final Map<String, String> clientIdIndex = new ConcurrentHashMap<>();
+	private Duration timeToLive = Duration.ofMinutes(5);
+	private Duration refreshAheadTime;
+	private int maximumSize = 1000;
+	private Clock clock = Clock.systemUTC();
+
+	/**
+	 * Constructs a {@code CachingRegisteredClientRepository} using the provided parameters.
+	 *
+	 * @param registeredClientRepository the delegate {@link RegisteredClientRepository}
+	 */
+	public CachingRegisteredClientRepository(RegisteredClientRepository registeredClientRepository) {
+		Assert.notNull(registeredClientRepository, "registeredClientRepository cannot be null");
+		this.registeredClientRepository = registeredClientRepository;
+	}
+
+	@Override
+	public void save(RegisteredClient registeredClient) {
+		Assert.notNull(registeredClient, "registeredClient cannot be null");
+		this.registeredClientRepository.save(registeredClient);
+		invalidate(registeredClient.getId());
+		// The client identifier may be associated to a (previously cached) different registration
+		String id = this.clientIdIndex.get(registeredClient.getClientId());
+		if (id != null) {
+			invalidate(id);
+		}
+	}
+
+	@Nullable
+	@Override
+	public RegisteredClient findById(String id) {
+		Assert.hasText(id, "id cannot be empty");
+		CachedRegisteredClient cachedRegisteredClient = this.idCache.get(id);
+		Instant now = this.clock.instant();
+		if (cachedRegisteredClient != null && !cachedRegisteredClient.isExpired(now)) {
+			if (cachedRegisteredClient.tryRefresh(now)) {
+				return refresh(() -> this.registeredClientRepository.findById(id), cachedRegisteredClient);
+			}
+			return cachedRegisteredClient.registeredClient;
+		}
+		return cache(this.registeredClientRepository.findById(id), cachedRegisteredClient);
+	}
+
+	@Nullable
+	@Override
+	public RegisteredClient findByClientId(String clientId) {
+		Assert.hasText(clientId, "clientId cannot be empty");
+		String id = this.clientIdIndex.get(clientId);
+		CachedRegisteredClient cachedRegisteredClient = id != null ? this.idCache.get(id) : null;
+		if (cachedRegisteredClient != null &&
+				!clientId.equals(cachedRegisteredClient.registeredClient.getClientId())) {
+			cachedRegisteredClient = null;
+		}
+		Instant now = this.clock.instant();
+		if (cachedRegisteredClient != null && !cachedRegisteredClient.isExpired(now)) {
+			if (cachedRegisteredClient.tryRefresh(now)) {
+				return refresh(() -> this.registeredClientRepository.findByClientId(clientId), cachedRegisteredClient);
+			}
+			return cachedRegisteredClient.registeredClient;
+		}
+		RegisteredClient registeredClient = this.registeredClientRepository.findByClientId(clientId);
+		if (registeredClient == null) {
+			this.clientIdIndex.remove(clientId);
+		}
+		return cache(registeredClient, cachedRegisteredClient);
+	}
+
+	/**
+	 * Invalidates the cached {@link RegisteredClient} identified by the provided {@code id}, if any.
+	 *
+	 * @param id the registration identifier
+	 */
+	public void invalidate(String id) {
+		Assert.hasText(id, "id cannot be empty");
+		CachedRegisteredClient cachedRegisteredClient = this.idCache.remove(id);
+		if (cachedRegisteredClient != null) {
+			this.clientIdIndex.remove(cachedRegisteredClient.registeredClient.getClientId(), id);
+		}
+	}
+
+	/**
+	 * Invalidates all cached {@link RegisteredClient}(s).
+	 */
+	public void invalidateAll() {
+		this.idCache.clear();
+		this.clientIdIndex.clear();
+	}
+
+	/**
+	 * Sets the time-to-live of a cached {@link RegisteredClient}. The default is 5 minutes.
+	 *
+	 * @param timeToLive the time-to-live of a cached {@link RegisteredClient}
+	 */
+	public void setTimeToLive(Duration timeToLive) {
+		Assert.notNull(timeToLive, "timeToLive cannot be null");
+		Assert.isTrue(timeToLive.getSeconds() > 0, "timeToLive must be greater than Duration.ZERO");
+		this.timeToLive = timeToLive;
+	}
+
+	/**
+	 * Sets the time, relative to when a {@link RegisteredClient} was cached, after which it is
+	 * reloaded from the delegate on access, ahead of expiring. The default is 80% of the time-to-live.
+	 * A value greater than or equal to the {@link #setTimeToLive(Duration) time-to-live} disables refresh-ahead.
+	 *
+	 * @param refreshAheadTime the time after which a cached {@link RegisteredClient} is reloaded on access
+	 */
+	public void setRefreshAheadTime(Duration refreshAheadTime) {
+		Assert.notNull(refreshAheadTime, "refreshAheadTime cannot be null");
+		Assert.isTrue(!refreshAheadTime.isNegative(), "refreshAheadTime cannot be negative");
+		this.refreshAheadTime = refreshAheadTime;
+	}
+
+	/**
+	 * Sets the maximum number of cached {@link RegisteredClient}(s). The default is 1000.
+	 *
+	 * @param maximumSize the maximum number of cached {@link RegisteredClient}(s)
+	 */
+	public void setMaximumSize(int maximumSize) {
+		Assert.isTrue(maximumSize > 0, "maximumSize must be greater than 0");
+		this.maximumSize = maximumSize;
+	}
+
+	/**
+	 * Sets the {@link Clock} used for expiring cached {@link RegisteredClient}(s).
+	 *
+	 * @param clock the {@link Clock}
+	 */
+	public void setClock(Clock clock) {
+		Assert.notNull(clock, "clock cannot be null");
+		this.clock = clock;
+	}
+
+	private RegisteredClient refresh(Supplier<RegisteredClient> registeredClientLoader,
+			CachedRegisteredClient cachedRegisteredClient) {
+		try {
+			return cache(registeredClientLoader.get(), cachedRegisteredClient);
+		} finally {
+			// Allows a subsequent access to retry the refresh, if the delegate failed
+			cachedRegisteredClient.refreshing.set(false);
+		}
+	}
+
+	private RegisteredClient cache(@Nullable RegisteredClient registeredClient,
+			@Nullable CachedRegisteredClient previousCachedRegisteredClient) {
+		if (previousCachedRegisteredClient != null) {
+			String id = previousCachedRegisteredClient.registeredClient.getId();
+			this.idCache.remove(id, previousCachedRegisteredClient);
+			this.clientIdIndex.remove(previousCachedRegisteredClient.registeredClient.getClientId(), id);
+		}
+		if (registeredClient == null) {
+			return null;
+		}
+		if (this.idCache.size() >= this.maximumSize) {
+			evict();
+		}
+		Instant now = this.clock.instant();
+		Duration refreshAheadTime = this.refreshAheadTime != null ?
+				this.refreshAheadTime :
+				this.timeToLive.multipliedBy(4).dividedBy(5);
+		CachedRegisteredClient cachedRegisteredClient = new CachedRegisteredClient(registeredClient,
+				now.plus(refreshAheadTime), now.plus(this.timeToLive));
+		this.idCache.put(registeredClient.getId(), cachedRegisteredClient);
+		this.clientIdIndex.put(registeredClient.getClientId(), registeredClient.getId());
+		return registeredClient;
+	}
+
+	private void evict() {
+		// Remove the expired entries, or otherwise the entry closest to expiring
+		Instant now = this.clock.instant();
+		CachedRegisteredClient eldest = null;
+		for (Iterator<CachedRegisteredClient> it = this.idCache.values().iterator(); it.hasNext(); ) {
+			CachedRegisteredClient cachedRegisteredClient = it.next();
+			if (cachedRegisteredClient.isExpired(now)) {
+				it.remove();
+				this.clientIdIndex.remove(cachedRegisteredClient.registeredClient.getClientId(),
+						cachedRegisteredClient.registeredClient.getId());
+			} else if (eldest == null || cachedRegisteredClient.expiresAt.isBefore(eldest.expiresAt)) {
+				eldest = cachedRegisteredClient;
+			}
+		}
+		if (this.idCache.size() >= this.maximumSize && eldest != null) {
+			invalidate(eldest.registeredClient.getId());
+		}
+	}
+
+	private static final class CachedRegisteredClient {
+		private final RegisteredClient registeredClient;
+		private final Instant refreshAt;
+		private final Instant expiresAt;
+		private final AtomicBoolean refreshing = new AtomicBoolean();
+
+		private CachedRegisteredClient(RegisteredClient registeredClient, Instant refreshAt, Instant expiresAt) {
+			this.registeredClient = registeredClient;
+			this.refreshAt = refreshAt;
+			this.expiresAt = expiresAt;
+		}
+
+		private boolean isExpired(Instant now) {
+			return !now.isBefore(this.expiresAt);
+		}
+
+		private boolean tryRefresh(Instant now) {
+			return !now.isBefore(this.refreshAt) && this.refreshing.compareAndSet(false, true);
+		}
+
+	}
+
+}
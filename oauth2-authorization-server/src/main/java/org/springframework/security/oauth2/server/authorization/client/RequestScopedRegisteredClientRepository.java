@@ -0,0 +1,134 @@
+/*
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.security.oauth2.server.authorization.client;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.lang.Nullable;
+import org.springframework.security.oauth2.server.authorization.context.ProviderContext;
+import org.springframework.security.oauth2.server.authorization.context.ProviderContextHolder;
+import org.springframework.util.Assert;
+
+/**
+ * A {@link RegisteredClientRepository} that memoizes the {@link RegisteredClient}(s)
+ * returned by a delegate {@link RegisteredClientRepository} for the lifetime of the current request.
+ *
+ * <p>
+ * The memoized lookups are held in the {@link ProviderContext#getAttributes() attributes} of the
+ * {@link ProviderContext} associated to the current request, and are shared by all the
+ * {@code RequestScopedRegisteredClientRepository}(s) used while processing the request,
+ * e.g. by the client authentication and the endpoint. The {@code JdbcOAuth2AuthorizationService}
+ * shares them only if it is constructed with a {@code RequestScopedRegisteredClientRepository}.
+ * A {@link RegisteredClient} looked up by {@link RegisteredClient#getId()} is also resolvable by
+ * {@link RegisteredClient#getClientId()}, and vice versa. Nothing is retained beyond the request.
+ *
+ * <p>
+ * If there is no {@link ProviderContext} associated to the current thread, the lookups are delegated.
+ *
+ * @since 0.3.0
+ * @see RegisteredClientRepository
+ * @see ProviderContextHolder
+ * @see CachingRegisteredClientRepository
+ */
+public final class RequestScopedRegisteredClientRepository implements RegisteredClientRepository {
+	private static final String REGISTERED_CLIENTS_ATTRIBUTE_NAME =
+			RequestScopedRegisteredClientRepository.class.getName().concat(".REGISTERED_CLIENTS");
+	private final RegisteredClientRepository registeredClientRepository;
+
+	/**
+	 * Constructs a {@code RequestScopedRegisteredClientRepository} using the provided parameters.
+	 *
+	 * @param registeredClientRepository the delegate {@link RegisteredClientRepository}
+	 */
+	public RequestScopedRegisteredClientRepository(RegisteredClientRepository registeredClientRepository) {
+		Assert.notNull(registeredClientRepository, "registeredClientRepository cannot be null");
+		this.registeredClientRepository = registeredClientRepository;
+	}
+
+	@Override
+	public void save(RegisteredClient registeredClient) {
+		Assert.notNull(registeredClient, "registeredClient cannot be null");
+		this.registeredClientRepository.save(registeredClient);
+		RegisteredClients registeredClients = getRegisteredClients();
+		if (registeredClients != null) {
+			registeredClients.clear();
+		}
+	}
+
+	@Nullable
+	@Override
+	public RegisteredClient findById(String id) {
+		Assert.hasText(id, "id cannot be empty");
+		RegisteredClients registeredClients = getRegisteredClients();
+		if (registeredClients == null) {
+			return this.registeredClientRepository.findById(id);
+		}
+		Optional<RegisteredClient> registeredClient = registeredClients.byId.get(id);
+		if (registeredClient == null) {
+			registeredClient = Optional.ofNullable(this.registeredClientRepository.findById(id));
+			registeredClients.byId.put(id, registeredClient);
+			registeredClient.ifPresent(registeredClients::memoize);
+		}
+		return registeredClient.orElse(null);
+	}
+
+	@Nullable
+	@Override
+	public RegisteredClient findByClientId(String clientId) {
+		Assert.hasText(clientId, "clientId cannot be empty");
+		RegisteredClients registeredClients = getRegisteredClients();
+		if (registeredClients == null) {
+			return this.registeredClientRepository.findByClientId(clientId);
+		}
+		Optional<RegisteredClient> registeredClient = registeredClients.byClientId.get(clientId);
+		if (registeredClient == null) {
+			registeredClient = Optional.ofNullable(this.registeredClientRepository.findByClientId(clientId));
+			registeredClients.byClientId.put(clientId, registeredClient);
+			registeredClient.ifPresent(registeredClients::memoize);
+		}
+		return registeredClient.orElse(null);
+	}
+
+	@Nullable
+	private static RegisteredClients getRegisteredClients() {
+		ProviderContext providerContext = ProviderContextHolder.getProviderContext();
+		if (providerContext == null) {
+			return null;
+		}
+		return providerContext.computeAttributeIfAbsent(
+				REGISTERED_CLIENTS_ATTRIBUTE_NAME, (key) -> new RegisteredClients());
+	}
+
+	private static final class RegisteredClients {
+		private final Map<String, Optional<RegisteredClient>> byId = new ConcurrentHashMap<>();
+		private final Map<String, Optional<RegisteredClient>> byClientId = new ConcurrentHashMap<>();
+
+		private void memoize(RegisteredClient registeredClient) {
+			Optional<RegisteredClient> memoized = Optional.of(registeredClient);
+			this.byId.put(registeredClient.getId(), memoized);
+			this.byClientId.put(registeredClient.getClientId(), memoized);
+		}
+
+		private void clear() {
+			this.byId.clear();
+			this.byClientId.clear();
+		}
+
+	}
+
+}
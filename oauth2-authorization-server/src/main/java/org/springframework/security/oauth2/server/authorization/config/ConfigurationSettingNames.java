@@ -107,6 +107,11 @@ public final class ConfigurationSettingNames {
 		 */
 		public static final String TOKEN_INTROSPECTION_ENDPOINT = PROVIDER_SETTINGS_NAMESPACE.concat("token-introspection-endpoint");
 
+		/**
+		 * Set the Provider's Batch Token Introspection endpoint, which enables introspecting multiple tokens in a single request.
+		 */
+		public static final String BATCH_TOKEN_INTROSPECTION_ENDPOINT = PROVIDER_SETTINGS_NAMESPACE.concat("batch-token-introspection-endpoint");
+
 		/**
 		 * Set the Provider's OpenID Connect 1.0 Client Registration endpoint.
 		 */
@@ -117,6 +122,22 @@ public final class ConfigurationSettingNames {
 		 */
 		public static final String OIDC_USER_INFO_ENDPOINT = PROVIDER_SETTINGS_NAMESPACE.concat("oidc-user-info-endpoint");
 
+		/**
+		 * Set the time-to-live of a {@link org.springframework.security.oauth2.server.authorization.client.RegisteredClient}
+		 * cached by the {@link org.springframework.security.oauth2.server.authorization.client.CachingRegisteredClientRepository}.
+		 * When set, the configured {@link org.springframework.security.oauth2.server.authorization.client.RegisteredClientRepository}
+		 * is decorated with a {@code CachingRegisteredClientRepository}.
+		 */
+		public static final String REGISTERED_CLIENT_CACHE_TIME_TO_LIVE = PROVIDER_SETTINGS_NAMESPACE.concat("registered-client-cache-time-to-live");
+
+		/**
+		 * Set the time-to-live of an {@link org.springframework.security.oauth2.core.OAuth2TokenIntrospection}
+		 * cached by the {@link org.springframework.security.oauth2.server.authorization.authentication.OAuth2TokenIntrospectionCache}.
+		 * When set, the OAuth 2.0 Token Introspection endpoint caches the introspection of active tokens,
+		 * and the {@code Cache-Control} of its responses allows caching them for (at most) the same time-to-live.
+		 */
+		public static final String TOKEN_INTROSPECTION_CACHE_TIME_TO_LIVE = PROVIDER_SETTINGS_NAMESPACE.concat("token-introspection-cache-time-to-live");
+
 		private Provider() {
 		}
 
@@ -155,6 +176,13 @@ public final class ConfigurationSettingNames {
 		 */
 		public static final String ID_TOKEN_SIGNATURE_ALGORITHM = TOKEN_SETTINGS_NAMESPACE.concat("id-token-signature-algorithm");
 
+		/**
+		 * Set to {@code true} if the authorization is stored when a self-contained access token
+		 * is issued for the {@code client_credentials} grant, or {@code false} if it is not stored.
+		 * @since 0.3.0
+		 */
+		public static final String STORE_CLIENT_CREDENTIALS_AUTHORIZATIONS = TOKEN_SETTINGS_NAMESPACE.concat("store-client-credentials-authorizations");
+
 		private Token() {
 		}
 
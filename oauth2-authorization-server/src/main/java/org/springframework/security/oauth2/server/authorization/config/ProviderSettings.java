@@ -1,5 +1,5 @@
 /*
- * Copyright 2020-2021 the original author or authors.
+ * Copyright 2020-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,6 +15,7 @@
  */
 package org.springframework.security.oauth2.server.authorization.config;
 
+import java.time.Duration;
 import java.util.Map;
 
 import org.springframework.util.Assert;
@@ -88,6 +89,17 @@ public final class ProviderSettings extends AbstractSettings {
 		return getSetting(ConfigurationSettingNames.Provider.TOKEN_INTROSPECTION_ENDPOINT);
 	}
 
+	/**
+	 * Returns the Provider's Batch Token Introspection endpoint, or {@code null} if batch token introspection is disabled.
+	 * The default is {@code null}.
+	 *
+	 * @return the Batch Token Introspection endpoint, or {@code null} if disabled
+	 * @since 0.3.0
+	 */
+	public String getBatchTokenIntrospectionEndpoint() {
+		return getSetting(ConfigurationSettingNames.Provider.BATCH_TOKEN_INTROSPECTION_ENDPOINT);
+	}
+
 	/**
 	 * Returns the Provider's OpenID Connect 1.0 Client Registration endpoint. The default is {@code /connect/register}.
 	 *
@@ -106,6 +118,30 @@ public final class ProviderSettings extends AbstractSettings {
 		return getSetting(ConfigurationSettingNames.Provider.OIDC_USER_INFO_ENDPOINT);
 	}
 
+	/**
+	 * Returns the time-to-live of a {@code RegisteredClient} cached by the
+	 * {@link org.springframework.security.oauth2.server.authorization.client.CachingRegisteredClientRepository},
+	 * or {@code null} if the {@code RegisteredClientRepository} should not be decorated with a cache. The default is {@code null}.
+	 *
+	 * @return the time-to-live of a cached {@code RegisteredClient}, or {@code null} if caching is disabled
+	 * @since 0.3.0
+	 */
+	public Duration getRegisteredClientCacheTimeToLive() {
+		return getSetting(ConfigurationSettingNames.Provider.REGISTERED_CLIENT_CACHE_TIME_TO_LIVE);
+	}
+
+	/**
+	 * Returns the time-to-live of an {@code OAuth2TokenIntrospection} cached by the
+	 * {@link org.springframework.security.oauth2.server.authorization.authentication.OAuth2TokenIntrospectionCache},
+	 * or {@code null} if the introspection of active tokens should not be cached. The default is {@code null}.
+	 *
+	 * @return the time-to-live of a cached {@code OAuth2TokenIntrospection}, or {@code null} if caching is disabled
+	 * @since 0.3.0
+	 */
+	public Duration getTokenIntrospectionCacheTimeToLive() {
+		return getSetting(ConfigurationSettingNames.Provider.TOKEN_INTROSPECTION_CACHE_TIME_TO_LIVE);
+	}
+
 	/**
 	 * Constructs a new {@link Builder} with the default settings.
 	 *
@@ -202,6 +238,17 @@ public final class ProviderSettings extends AbstractSettings {
 			return setting(ConfigurationSettingNames.Provider.TOKEN_INTROSPECTION_ENDPOINT, tokenIntrospectionEndpoint);
 		}
 
+		/**
+		 * Sets the Provider's Batch Token Introspection endpoint, which enables introspecting multiple tokens in a single request.
+		 *
+		 * @param batchTokenIntrospectionEndpoint the Batch Token Introspection endpoint
+		 * @return the {@link Builder} for further configuration
+		 * @since 0.3.0
+		 */
+		public Builder batchTokenIntrospectionEndpoint(String batchTokenIntrospectionEndpoint) {
+			return setting(ConfigurationSettingNames.Provider.BATCH_TOKEN_INTROSPECTION_ENDPOINT, batchTokenIntrospectionEndpoint);
+		}
+
 		/**
 		 * Sets the Provider's OpenID Connect 1.0 Client Registration endpoint.
 		 *
@@ -222,6 +269,38 @@ public final class ProviderSettings extends AbstractSettings {
 			return setting(ConfigurationSettingNames.Provider.OIDC_USER_INFO_ENDPOINT, oidcUserInfoEndpoint);
 		}
 
+		/**
+		 * Sets the time-to-live of a {@code RegisteredClient} cached by the
+		 * {@link org.springframework.security.oauth2.server.authorization.client.CachingRegisteredClientRepository},
+		 * which enables decorating the {@code RegisteredClientRepository} with a cache.
+		 *
+		 * @param registeredClientCacheTimeToLive the time-to-live of a cached {@code RegisteredClient}
+		 * @return the {@link Builder} for further configuration
+		 * @since 0.3.0
+		 */
+		public Builder registeredClientCacheTimeToLive(Duration registeredClientCacheTimeToLive) {
+			Assert.notNull(registeredClientCacheTimeToLive, "registeredClientCacheTimeToLive cannot be null");
+			Assert.isTrue(registeredClientCacheTimeToLive.getSeconds() > 0,
+					"registeredClientCacheTimeToLive must be greater than Duration.ZERO");
+			return setting(ConfigurationSettingNames.Provider.REGISTERED_CLIENT_CACHE_TIME_TO_LIVE, registeredClientCacheTimeToLive);
+		}
+
+		/**
+		 * Sets the time-to-live of an {@code OAuth2TokenIntrospection} cached by the
+		 * {@link org.springframework.security.oauth2.server.authorization.authentication.OAuth2TokenIntrospectionCache},
+		 * which enables caching the introspection of active tokens. A cached entry also expires with the token.
+		 *
+		 * @param tokenIntrospectionCacheTimeToLive the time-to-live of a cached {@code OAuth2TokenIntrospection}
+		 * @return the {@link Builder} for further configuration
+		 * @since 0.3.0
+		 */
+		public Builder tokenIntrospectionCacheTimeToLive(Duration tokenIntrospectionCacheTimeToLive) {
+			Assert.notNull(tokenIntrospectionCacheTimeToLive, "tokenIntrospectionCacheTimeToLive cannot be null");
+			Assert.isTrue(tokenIntrospectionCacheTimeToLive.getSeconds() > 0,
+					"tokenIntrospectionCacheTimeToLive must be greater than Duration.ZERO");
+			return setting(ConfigurationSettingNames.Provider.TOKEN_INTROSPECTION_CACHE_TIME_TO_LIVE, tokenIntrospectionCacheTimeToLive);
+		}
+
 		/**
 		 * Builds the {@link ProviderSettings}.
 		 *
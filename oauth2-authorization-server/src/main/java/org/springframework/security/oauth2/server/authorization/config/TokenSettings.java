@@ -84,6 +84,29 @@ public final class TokenSettings extends AbstractSettings {
 		return getSetting(ConfigurationSettingNames.Token.ID_TOKEN_SIGNATURE_ALGORITHM);
 	}
 
+	/**
+	 * Returns {@code true} if the authorization is stored when a self-contained access token
+	 * is issued for the {@code client_credentials} grant, or {@code false} if it is not stored.
+	 * The default is {@code true}.
+	 *
+	 * <p>
+	 * When {@code false}, the self-contained access token is resolved by verifying its signature,
+	 * and it is revoked by its {@code jti} claim.
+	 * This setting only applies when an {@code OAuth2TokenRevocationList} is configured
+	 * (see {@code OAuth2AuthorizationServerConfigurer.tokenRevocationList()}), which is held in-memory
+	 * by each node, and is otherwise ignored, i.e. the authorization is stored as usual
+	 * (without any warning), since the access token could not be revoked otherwise.
+	 * An {@code OAuth2AuthorizationService} used without the {@code OAuth2AuthorizationServerConfigurer}
+	 * must be decorated with a {@code StatelessAccessTokenOAuth2AuthorizationService} for this setting to apply.
+	 *
+	 * @return {@code true} if the authorization is stored for the {@code client_credentials} grant, {@code false} otherwise
+	 * @since 0.3.0
+	 */
+	public boolean isStoreClientCredentialsAuthorizations() {
+		// Absent from the settings of a client registered before 0.3.0
+		return !Boolean.FALSE.equals(getSetting(ConfigurationSettingNames.Token.STORE_CLIENT_CREDENTIALS_AUTHORIZATIONS));
+	}
+
 	/**
 	 * Constructs a new {@link Builder} with the default settings.
 	 *
@@ -95,7 +118,8 @@ public final class TokenSettings extends AbstractSettings {
 				.accessTokenFormat(OAuth2TokenFormat.SELF_CONTAINED)
 				.reuseRefreshTokens(true)
 				.refreshTokenTimeToLive(Duration.ofMinutes(60))
-				.idTokenSignatureAlgorithm(SignatureAlgorithm.RS256);
+				.idTokenSignatureAlgorithm(SignatureAlgorithm.RS256)
+				.storeClientCredentialsAuthorizations(true);
 	}
 
 	/**
@@ -176,6 +200,20 @@ public final class TokenSettings extends AbstractSettings {
 			return setting(ConfigurationSettingNames.Token.ID_TOKEN_SIGNATURE_ALGORITHM, idTokenSignatureAlgorithm);
 		}
 
+		/**
+		 * Set to {@code true} if the authorization is stored when a self-contained access token
+		 * is issued for the {@code client_credentials} grant, or {@code false} if it is not stored.
+		 * {@code false} is ignored unless an {@code OAuth2TokenRevocationList} is configured
+		 * (see {@link TokenSettings#isStoreClientCredentialsAuthorizations()}).
+		 *
+		 * @param storeClientCredentialsAuthorizations {@code true} to store the authorization, {@code false} otherwise
+		 * @return the {@link Builder} for further configuration
+		 * @since 0.3.0
+		 */
+		public Builder storeClientCredentialsAuthorizations(boolean storeClientCredentialsAuthorizations) {
+			return setting(ConfigurationSettingNames.Token.STORE_CLIENT_CREDENTIALS_AUTHORIZATIONS, storeClientCredentialsAuthorizations);
+		}
+
 		/**
 		 * Builds the {@link TokenSettings}.
 		 *
@@ -15,6 +15,10 @@
  */
 package org.springframework.security.oauth2.server.authorization.context;
 
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 import java.util.function.Supplier;
 
 import org.springframework.lang.Nullable;
@@ -32,6 +36,7 @@ import org.springframework.util.Assert;
 public final class ProviderContext {
 	private final ProviderSettings providerSettings;
 	private final Supplier<String> issuerSupplier;
+	private final Map<Object, Object> attributes = new ConcurrentHashMap<>();
 
 	/**
 	 * Constructs a {@code ProviderContext} using the provided parameters.
@@ -67,4 +72,33 @@ public final class ProviderContext {
 				getProviderSettings().getIssuer();
 	}
 
+	/**
+	 * Returns the attributes associated to the {@code ProviderContext}.
+	 *
+	 * @return an unmodifiable {@code Map} of the attributes
+	 * @since 0.3.0
+	 * @see #computeAttributeIfAbsent(Object, Function)
+	 */
+	public Map<Object, Object> getAttributes() {
+		return Collections.unmodifiableMap(this.attributes);
+	}
+
+	/**
+	 * Returns the attribute associated to the provided {@code key}, computing (and associating) it first if absent.
+	 * The {@code ProviderContext} is associated to a single request (see {@code ProviderContextFilter}),
+	 * which allows the attributes to be used for memoizing lookups for the lifetime of the request.
+	 *
+	 * @param key the key of the attribute
+	 * @param mappingFunction the function computing the attribute
+	 * @param <T> the type of the attribute
+	 * @return the attribute associated to the {@code key}
+	 * @since 0.3.0
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> T computeAttributeIfAbsent(Object key, Function<Object, ? extends T> mappingFunction) {
+		Assert.notNull(key, "key cannot be null");
+		Assert.notNull(mappingFunction, "mappingFunction cannot be null");
+		return (T) this.attributes.computeIfAbsent(key, mappingFunction);
+	}
+
 }
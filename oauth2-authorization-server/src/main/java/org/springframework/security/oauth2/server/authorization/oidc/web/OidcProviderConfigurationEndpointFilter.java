@@ -15,8 +15,12 @@
  */
 package org.springframework.security.oauth2.server.authorization.oidc.web;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
 
 import javax.servlet.FilterChain;
@@ -24,9 +28,10 @@ import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpOutputMessage;
 import org.springframework.http.MediaType;
-import org.springframework.http.server.ServletServerHttpResponse;
 import org.springframework.security.oauth2.core.AuthorizationGrantType;
 import org.springframework.security.oauth2.core.ClientAuthenticationMethod;
 import org.springframework.security.oauth2.core.endpoint.OAuth2AuthorizationResponseType;
@@ -39,12 +44,19 @@ import org.springframework.security.oauth2.server.authorization.context.Provider
 import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
 import org.springframework.security.web.util.matcher.RequestMatcher;
 import org.springframework.util.Assert;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.filter.OncePerRequestFilter;
 import org.springframework.web.util.UriComponentsBuilder;
 
 /**
  * A {@code Filter} that processes OpenID Provider Configuration Requests.
  *
+ * <p>
+ * The serialized document only depends on the issuer and the {@link ProviderSettings},
+ * and is therefore computed once per issuer and reused. The response includes a strong {@code ETag},
+ * and a conditional request with a matching {@code If-None-Match} header is answered with {@code 304 Not Modified}.
+ *
  * @author Daniel Garnier-Moiroux
  * @since 0.1.0
  * @see OidcProviderConfiguration
@@ -57,10 +69,13 @@ public final class OidcProviderConfigurationEndpointFilter extends OncePerReques
 	 */
 	private static final String DEFAULT_OIDC_PROVIDER_CONFIGURATION_ENDPOINT_URI = "/.well-known/openid-configuration";
 
+	private static final int MAX_CACHED_RESPONSES = 16;
+
 	private final ProviderSettings providerSettings;
 	private final RequestMatcher requestMatcher;
 	private final OidcProviderConfigurationHttpMessageConverter providerConfigurationHttpMessageConverter =
 			new OidcProviderConfigurationHttpMessageConverter();
+	private final Map<String, MetadataResponse> metadataResponses = new ConcurrentHashMap<>();
 
 	public OidcProviderConfigurationEndpointFilter(ProviderSettings providerSettings) {
 		Assert.notNull(providerSettings, "providerSettings cannot be null");
@@ -81,7 +96,26 @@ public final class OidcProviderConfigurationEndpointFilter extends OncePerReques
 		}
 
 		String issuer = ProviderContextHolder.getProviderContext().getIssuer();
+		MetadataResponse metadataResponse = this.metadataResponses.get(issuer);
+		if (metadataResponse == null) {
+			metadataResponse = createMetadataResponse(issuer);
+			if (this.metadataResponses.size() >= MAX_CACHED_RESPONSES) {
+				// Bounded, as the issuer may be resolved from the request
+				this.metadataResponses.clear();
+			}
+			this.metadataResponses.put(issuer, metadataResponse);
+		}
+
+		if (new ServletWebRequest(request, response).checkNotModified(metadataResponse.eTag)) {
+			return;
+		}
+
+		response.setContentType(metadataResponse.contentType);
+		response.setContentLength(metadataResponse.body.length);
+		response.getOutputStream().write(metadataResponse.body);
+	}
 
+	private MetadataResponse createMetadataResponse(String issuer) throws IOException {
 		OidcProviderConfiguration providerConfiguration = OidcProviderConfiguration.builder()
 				.issuer(issuer)
 				.authorizationEndpoint(asUrl(issuer, this.providerSettings.getAuthorizationEndpoint()))
@@ -98,9 +132,10 @@ public final class OidcProviderConfigurationEndpointFilter extends OncePerReques
 				.scope(OidcScopes.OPENID)
 				.build();
 
-		ServletServerHttpResponse httpResponse = new ServletServerHttpResponse(response);
+		ByteArrayHttpOutputMessage httpResponse = new ByteArrayHttpOutputMessage();
 		this.providerConfigurationHttpMessageConverter.write(
 				providerConfiguration, MediaType.APPLICATION_JSON, httpResponse);
+		return new MetadataResponse(httpResponse);
 	}
 
 	private static Consumer<List<String>> clientAuthenticationMethods() {
@@ -115,4 +150,34 @@ public final class OidcProviderConfigurationEndpointFilter extends OncePerReques
 	private static String asUrl(String issuer, String endpoint) {
 		return UriComponentsBuilder.fromUriString(issuer).path(endpoint).build().toUriString();
 	}
+
+	private static final class MetadataResponse {
+		private final String contentType;
+		private final byte[] body;
+		private final String eTag;
+
+		private MetadataResponse(ByteArrayHttpOutputMessage httpOutputMessage) {
+			MediaType contentType = httpOutputMessage.getHeaders().getContentType();
+			this.contentType = contentType != null ? contentType.toString() : MediaType.APPLICATION_JSON_VALUE;
+			this.body = httpOutputMessage.body.toByteArray();
+			this.eTag = "\"" + DigestUtils.md5DigestAsHex(this.body) + "\"";
+		}
+
+	}
+
+	private static final class ByteArrayHttpOutputMessage implements HttpOutputMessage {
+		private final HttpHeaders headers = new HttpHeaders();
+		private final ByteArrayOutputStream body = new ByteArrayOutputStream(1024);
+
+		@Override
+		public OutputStream getBody() {
+			return this.body;
+		}
+
+		@Override
+		public HttpHeaders getHeaders() {
+			return this.headers;
+		}
+
+	}
 }
@@ -18,6 +18,7 @@ package org.springframework.security.oauth2.server.authorization.token;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.Collections;
+import java.util.UUID;
 
 import org.springframework.lang.Nullable;
 import org.springframework.security.oauth2.core.AuthorizationGrantType;
@@ -37,6 +38,7 @@ import org.springframework.security.oauth2.jwt.JwtEncoder;
 import org.springframework.security.oauth2.server.authorization.JwtEncodingContext;
 import org.springframework.security.oauth2.server.authorization.OAuth2TokenContext;
 import org.springframework.security.oauth2.server.authorization.OAuth2TokenCustomizer;
+import org.springframework.security.oauth2.server.authorization.StatelessAccessTokenOAuth2AuthorizationService;
 import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
 import org.springframework.util.Assert;
 import org.springframework.util.CollectionUtils;
@@ -110,6 +112,12 @@ public final class JwtGenerator implements OAuth2TokenGenerator<Jwt> {
 				.expiresAt(expiresAt);
 		if (OAuth2TokenType.ACCESS_TOKEN.equals(context.getTokenType())) {
 			claimsBuilder.notBefore(issuedAt);
+			if (AuthorizationGrantType.CLIENT_CREDENTIALS.equals(context.getAuthorizationGrantType()) &&
+					!registeredClient.getTokenSettings().isStoreClientCredentialsAuthorizations()) {
+				// Identifies the access token, as its authorization is not stored (e.g. for revocation)
+				claimsBuilder.id(UUID.randomUUID().toString());
+				claimsBuilder.claim(StatelessAccessTokenOAuth2AuthorizationService.STATELESS_CLAIM_NAME, true);
+			}
 			if (!CollectionUtils.isEmpty(context.getAuthorizedScopes())) {
 				claimsBuilder.claim(OAuth2ParameterNames.SCOPE, context.getAuthorizedScopes());
 			}
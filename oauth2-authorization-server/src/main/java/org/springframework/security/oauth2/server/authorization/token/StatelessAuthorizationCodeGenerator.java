@@ -0,0 +1,279 @@
+/*
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.security.oauth2.server.authorization.token;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.springframework.lang.Nullable;
+import org.springframework.security.crypto.keygen.Base64StringKeyGenerator;
+import org.springframework.security.crypto.keygen.StringKeyGenerator;
+import org.springframework.security.jackson2.SecurityJackson2Modules;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.OAuth2AuthorizationCode;
+import org.springframework.security.oauth2.core.Version;
+import org.springframework.security.oauth2.core.endpoint.OAuth2ParameterNames;
+import org.springframework.security.oauth2.server.authorization.JdbcOAuth2AuthorizationService;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.OAuth2TokenContext;
+import org.springframework.security.oauth2.server.authorization.StatelessAuthorizationCodeOAuth2AuthorizationService;
+import org.springframework.security.oauth2.server.authorization.jackson2.OAuth2AuthorizationServerJackson2Module;
+import org.springframework.util.Assert;
+
+/**
+ * An {@link OAuth2TokenGenerator} that generates a self-contained {@link OAuth2AuthorizationCode}.
+ * The authorization code value is the {@link OAuth2TokenContext#getAuthorization() authorization}
+ * (the authorization request, the principal and the authorized scopes), encrypted and authenticated
+ * with AES-GCM using the provided {@code SecretKey}, which allows the authorization to be
+ * {@link #readAuthorization(String) read} back from the authorization code, instead of being stored.
+ *
+ * <p>
+ * A self-contained authorization code is generated only when the authorization was not stored beforehand,
+ * that is when the authorization consent is not required. Otherwise, a random authorization code is generated,
+ * and the authorization is stored as usual.
+ *
+ * <p>
+ * The authorization is serialized to JSON using the {@link SecurityJackson2Modules} and the
+ * {@link OAuth2AuthorizationServerJackson2Module}, as done by {@link JdbcOAuth2AuthorizationService},
+ * therefore the attributes of the authorization (e.g. the {@code Principal}) must be supported by these modules,
+ * which only deserialize the allowlisted types.
+ *
+ * <p>
+ * <b>NOTE:</b> The same {@code SecretKey} must be used by all the nodes of a cluster.
+ * One-time use of a self-contained authorization code is enforced by
+ * {@link StatelessAuthorizationCodeOAuth2AuthorizationService}.
+ *
+ * @since 0.3.0
+ * @see OAuth2TokenGenerator
+ * @see OAuth2AuthorizationCode
+ * @see StatelessAuthorizationCodeOAuth2AuthorizationService
+ */
+public final class StatelessAuthorizationCodeGenerator implements OAuth2TokenGenerator<OAuth2AuthorizationCode> {
+	private static final String PREFIX = "1.";
+	private static final byte[] ADDITIONAL_AUTHENTICATED_DATA = PREFIX.getBytes(StandardCharsets.US_ASCII);
+	private static final String CIPHER_ALGORITHM = "AES/GCM/NoPadding";
+	private static final int IV_LENGTH = 12;
+	private static final int TAG_LENGTH = 128;
+	private static final String ID_CLAIM = "id";
+	private static final String REGISTERED_CLIENT_ID_CLAIM = "registeredClientId";
+	private static final String PRINCIPAL_NAME_CLAIM = "principalName";
+	private static final String AUTHORIZATION_GRANT_TYPE_CLAIM = "authorizationGrantType";
+	private static final String ATTRIBUTES_CLAIM = "attributes";
+	private static final String ISSUED_AT_CLAIM = "issuedAt";
+	private static final String EXPIRES_AT_CLAIM = "expiresAt";
+	private final StringKeyGenerator authorizationCodeGenerator =
+			new Base64StringKeyGenerator(Base64.getUrlEncoder().withoutPadding(), 96);
+	private final SecureRandom secureRandom = new SecureRandom();
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	private final SecretKey secretKey;
+	private Duration authorizationCodeTimeToLive = Duration.ofMinutes(5);
+
+	/**
+	 * Constructs a {@code StatelessAuthorizationCodeGenerator} using the provided parameters.
+	 *
+	 * @param secretKey the AES {@code SecretKey} used for encrypting the authorization code
+	 */
+	public StatelessAuthorizationCodeGenerator(SecretKey secretKey) {
+		Assert.notNull(secretKey, "secretKey cannot be null");
+		Assert.isTrue("AES".equals(secretKey.getAlgorithm()), "secretKey must be an AES key");
+		this.secretKey = secretKey;
+
+		ClassLoader classLoader = StatelessAuthorizationCodeGenerator.class.getClassLoader();
+		List<Module> securityModules = SecurityJackson2Modules.getModules(classLoader);
+		this.objectMapper.registerModules(securityModules);
+		this.objectMapper.registerModule(new OAuth2AuthorizationServerJackson2Module());
+	}
+
+	@Nullable
+	@Override
+	public OAuth2AuthorizationCode generate(OAuth2TokenContext context) {
+		if (context.getTokenType() == null ||
+				!OAuth2ParameterNames.CODE.equals(context.getTokenType().getValue())) {
+			return null;
+		}
+		// The instants are encoded in milliseconds
+		Instant issuedAt = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+		Instant expiresAt = issuedAt.plus(this.authorizationCodeTimeToLive);
+
+		OAuth2Authorization authorization = context.getAuthorization();
+		if (authorization == null || authorization.getAttribute(OAuth2ParameterNames.STATE) != null) {
+			// The authorization is stored (authorization consent), or unknown
+			return new OAuth2AuthorizationCode(this.authorizationCodeGenerator.generateKey(), issuedAt, expiresAt);
+		}
+
+		// @formatter:off
+		OAuth2Authorization authorizationCodeAuthorization = OAuth2Authorization.from(authorization)
+				.attribute(OAuth2Authorization.AUTHORIZED_SCOPE_ATTRIBUTE_NAME, new HashSet<>(context.getAuthorizedScopes()))
+				.build();
+		// @formatter:on
+		byte[] claims = writeClaims(authorizationCodeAuthorization, issuedAt, expiresAt);
+		return new OAuth2AuthorizationCode(PREFIX + encrypt(claims), issuedAt, expiresAt);
+	}
+
+	/**
+	 * Returns {@code true} if the provided {@code authorizationCode} has the format of a
+	 * self-contained authorization code, without decrypting it.
+	 *
+	 * @param authorizationCode the authorization code
+	 * @return {@code true} if the authorization code has the format of a self-contained authorization code
+	 */
+	public boolean matches(String authorizationCode) {
+		return authorizationCode != null && authorizationCode.startsWith(PREFIX);
+	}
+
+	/**
+	 * Returns the {@link OAuth2Authorization} contained in the provided self-contained {@code authorizationCode},
+	 * holding the {@link OAuth2AuthorizationCode}, or {@code null} if it was not generated with the {@code SecretKey}.
+	 *
+	 * @param authorizationCode the authorization code
+	 * @return the {@link OAuth2Authorization}, or {@code null} if the authorization code is not valid
+	 */
+	@Nullable
+	public OAuth2Authorization readAuthorization(String authorizationCode) {
+		Assert.hasText(authorizationCode, "authorizationCode cannot be empty");
+		if (!matches(authorizationCode)) {
+			return null;
+		}
+		byte[] claims;
+		try {
+			byte[] encrypted = Base64.getUrlDecoder().decode(authorizationCode.substring(PREFIX.length()));
+			claims = decrypt(encrypted);
+		} catch (IllegalArgumentException | GeneralSecurityException ex) {
+			// Not encrypted with the SecretKey, or modified
+			return null;
+		}
+		try {
+			return readClaims(authorizationCode, claims);
+		} catch (IllegalArgumentException | IOException ex) {
+			// Not supported, e.g. an attribute type not allowlisted
+			return null;
+		}
+	}
+
+	/**
+	 * Sets the time-to-live of the generated authorization code. The default is 5 minutes.
+	 *
+	 * @param authorizationCodeTimeToLive the time-to-live of the generated authorization code
+	 */
+	public void setAuthorizationCodeTimeToLive(Duration authorizationCodeTimeToLive) {
+		Assert.notNull(authorizationCodeTimeToLive, "authorizationCodeTimeToLive cannot be null");
+		Assert.isTrue(authorizationCodeTimeToLive.getSeconds() > 0, "authorizationCodeTimeToLive must be greater than Duration.ZERO");
+		this.authorizationCodeTimeToLive = authorizationCodeTimeToLive;
+	}
+
+	private String encrypt(byte[] plaintext) {
+		byte[] iv = new byte[IV_LENGTH];
+		this.secureRandom.nextBytes(iv);
+		try {
+			Cipher cipher = Cipher.getInstance(CIPHER_ALGORITHM);
+			cipher.init(Cipher.ENCRYPT_MODE, this.secretKey, new GCMParameterSpec(TAG_LENGTH, iv));
+			cipher.updateAAD(ADDITIONAL_AUTHENTICATED_DATA);
+			byte[] ciphertext = cipher.doFinal(plaintext);
+			byte[] encrypted = new byte[IV_LENGTH + ciphertext.length];
+			System.arraycopy(iv, 0, encrypted, 0, IV_LENGTH);
+			System.arraycopy(ciphertext, 0, encrypted, IV_LENGTH, ciphertext.length);
+			return Base64.getUrlEncoder().withoutPadding().encodeToString(encrypted);
+		} catch (GeneralSecurityException ex) {
+			throw new IllegalStateException("Failed to encrypt the authorization code", ex);
+		}
+	}
+
+	private byte[] decrypt(byte[] encrypted) throws GeneralSecurityException {
+		if (encrypted.length <= IV_LENGTH) {
+			throw new IllegalArgumentException("Invalid authorization code");
+		}
+		Cipher cipher = Cipher.getInstance(CIPHER_ALGORITHM);
+		cipher.init(Cipher.DECRYPT_MODE, this.secretKey, new GCMParameterSpec(TAG_LENGTH, encrypted, 0, IV_LENGTH));
+		cipher.updateAAD(ADDITIONAL_AUTHENTICATED_DATA);
+		return cipher.doFinal(encrypted, IV_LENGTH, encrypted.length - IV_LENGTH);
+	}
+
+	private byte[] writeClaims(OAuth2Authorization authorization, Instant issuedAt, Instant expiresAt) {
+		Map<String, Object> claims = new HashMap<>();
+		claims.put(ID_CLAIM, authorization.getId());
+		claims.put(REGISTERED_CLIENT_ID_CLAIM, authorization.getRegisteredClientId());
+		claims.put(PRINCIPAL_NAME_CLAIM, authorization.getPrincipalName());
+		claims.put(AUTHORIZATION_GRANT_TYPE_CLAIM, authorization.getAuthorizationGrantType().getValue());
+		claims.put(ATTRIBUTES_CLAIM, new HashMap<>(authorization.getAttributes()));
+		claims.put(ISSUED_AT_CLAIM, issuedAt.toEpochMilli());
+		claims.put(EXPIRES_AT_CLAIM, expiresAt.toEpochMilli());
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(1024);
+		try (OutputStream out = new DeflaterOutputStream(bytes)) {
+			this.objectMapper.writeValue(out, claims);
+		} catch (IOException ex) {
+			throw new IllegalStateException("Failed to serialize the authorization code", ex);
+		}
+		return bytes.toByteArray();
+	}
+
+	@SuppressWarnings("unchecked")
+	private OAuth2Authorization readClaims(String authorizationCode, byte[] data) throws IOException {
+		Map<String, Object> claims;
+		try (InputStream in = new InflaterInputStream(new ByteArrayInputStream(data))) {
+			claims = this.objectMapper.readValue(in, new TypeReference<Map<String, Object>>() {});
+		}
+		Map<String, Object> attributes = (Map<String, Object>) claims.get(ATTRIBUTES_CLAIM);
+		OAuth2AuthorizationCode token = new OAuth2AuthorizationCode(authorizationCode,
+				Instant.ofEpochMilli(((Number) claims.get(ISSUED_AT_CLAIM)).longValue()),
+				Instant.ofEpochMilli(((Number) claims.get(EXPIRES_AT_CLAIM)).longValue()));
+		// @formatter:off
+		return new AuthorizationBuilder((String) claims.get(REGISTERED_CLIENT_ID_CLAIM))
+				.id((String) claims.get(ID_CLAIM))
+				.principalName((String) claims.get(PRINCIPAL_NAME_CLAIM))
+				.authorizationGrantType(new AuthorizationGrantType((String) claims.get(AUTHORIZATION_GRANT_TYPE_CLAIM)))
+				.attributes((attrs) -> attrs.putAll(attributes))
+				.token(token)
+				.build();
+		// @formatter:on
+	}
+
+	/*
+	 * The RegisteredClient is not available when reading the authorization, only its identifier.
+	 */
+	private static final class AuthorizationBuilder extends OAuth2Authorization.Builder {
+		private static final long serialVersionUID = Version.SERIAL_VERSION_UID;
+
+		private AuthorizationBuilder(String registeredClientId) {
+			super(registeredClientId);
+		}
+
+	}
+
+}
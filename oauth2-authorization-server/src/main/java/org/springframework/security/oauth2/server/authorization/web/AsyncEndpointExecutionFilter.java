@@ -0,0 +1,467 @@
+/*
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.security.oauth2.server.authorization.web;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.server.authorization.context.ProviderContext;
+import org.springframework.security.oauth2.server.authorization.context.ProviderContextHolder;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.util.Assert;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * A {@code Filter} that offloads the processing of the matched endpoint requests from the servlet container thread
+ * to the provided {@link Executor}, using servlet asynchronous processing.
+ *
+ * <p>
+ * The remainder of the filter chain (client authentication, the endpoint filter and the blocking calls
+ * they make, e.g. JDBC and password hashing) runs on the {@link Executor}, which releases the container thread
+ * while the request is waiting on I/O. The {@link SecurityContext} and the {@link ProviderContext} associated
+ * to the container thread are propagated to (and cleared from) the {@link Executor} thread.
+ *
+ * <p>
+ * If the {@link Executor} rejects the request, or the request does not support asynchronous processing,
+ * the request is processed on the container thread.
+ *
+ * <p>
+ * If the request is not processed within the {@link #setTimeout(Duration) timeout} (30 seconds by default),
+ * or the asynchronous processing fails, the request is completed with a {@code 503 Service Unavailable}
+ * (if the response is not committed yet), a request still waiting in the {@link Executor} is not processed,
+ * and the outcome of a request still being processed is discarded, i.e. anything it writes
+ * to the response after completion is dropped.
+ *
+ * <p>
+ * <b>NOTE:</b> The filters after this filter run on the {@link Executor} thread, after the container thread
+ * returned from the filter chain, and therefore must not rely on any thread-bound state
+ * other than the {@link SecurityContext} and the {@link ProviderContext}.
+ *
+ * <p>
+ * <b>NOTE:</b> The {@link #getQueuedRequestCount() queued} and {@link #getActiveRequestCount() active}
+ * request counts may be exposed as metrics, e.g. by registering gauges for this filter
+ * from an {@code ObjectPostProcessor}.
+ *
+ * @since 0.3.0
+ * @see ProviderContextFilter
+ * @see ProviderContextHolder
+ * @see SecurityContextHolder
+ */
+public final class AsyncEndpointExecutionFilter extends OncePerRequestFilter {
+	private final Executor executor;
+	private final RequestMatcher requestMatcher;
+	private final AtomicInteger queuedRequestCount = new AtomicInteger();
+	private final AtomicInteger activeRequestCount = new AtomicInteger();
+	private Duration timeout = Duration.ofSeconds(30);
+
+	/**
+	 * Constructs an {@code AsyncEndpointExecutionFilter} using the provided parameters.
+	 *
+	 * @param executor the {@link Executor} used for processing the endpoint requests
+	 * @param requestMatcher the {@link RequestMatcher} used for matching the endpoint requests
+	 */
+	public AsyncEndpointExecutionFilter(Executor executor, RequestMatcher requestMatcher) {
+		Assert.notNull(executor, "executor cannot be null");
+		Assert.notNull(requestMatcher, "requestMatcher cannot be null");
+		this.executor = executor;
+		this.requestMatcher = requestMatcher;
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+
+		if (!this.requestMatcher.matches(request) || !request.isAsyncSupported()) {
+			filterChain.doFilter(request, response);
+			return;
+		}
+
+		SecurityContext securityContext = SecurityContextHolder.getContext();
+		ProviderContext providerContext = ProviderContextHolder.getProviderContext();
+		AsyncContext asyncContext = request.startAsync(request, response);
+		asyncContext.setTimeout(this.timeout.toMillis());
+
+		// Completed once, by either the endpoint request or the AsyncListener, whichever comes first
+		AsyncEndpointResponse endpointResponse = new AsyncEndpointResponse(response, asyncContext);
+		asyncContext.addListener(new AsyncListener() {
+
+			@Override
+			public void onTimeout(AsyncEvent event) {
+				logger.warn("Timed out processing the endpoint request");
+				endpointResponse.complete(HttpStatus.SERVICE_UNAVAILABLE);
+			}
+
+			@Override
+			public void onError(AsyncEvent event) {
+				logger.error("Failed to process the endpoint request", event.getThrowable());
+				endpointResponse.complete(HttpStatus.SERVICE_UNAVAILABLE);
+			}
+
+			@Override
+			public void onComplete(AsyncEvent event) {
+				endpointResponse.setCompleted();
+			}
+
+			@Override
+			public void onStartAsync(AsyncEvent event) {
+			}
+
+		});
+
+		Runnable endpointRequest = () -> {
+			if (endpointResponse.isCompleted()) {
+				// Timed out while waiting in the executor
+				return;
+			}
+			this.activeRequestCount.incrementAndGet();
+			HttpStatus status = null;
+			try {
+				SecurityContextHolder.setContext(securityContext);
+				ProviderContextHolder.setProviderContext(providerContext);
+				filterChain.doFilter(request, endpointResponse);
+			} catch (Exception ex) {
+				this.logger.error("Failed to process the endpoint request", ex);
+				status = HttpStatus.INTERNAL_SERVER_ERROR;
+			} finally {
+				ProviderContextHolder.resetProviderContext();
+				SecurityContextHolder.clearContext();
+				this.activeRequestCount.decrementAndGet();
+				endpointResponse.complete(status);
+			}
+		};
+
+		this.queuedRequestCount.incrementAndGet();
+		try {
+			this.executor.execute(() -> {
+				this.queuedRequestCount.decrementAndGet();
+				endpointRequest.run();
+			});
+		} catch (RejectedExecutionException ex) {
+			this.queuedRequestCount.decrementAndGet();
+			endpointRequest.run();
+			// Restore the container thread's contexts, which are cleared after processing
+			SecurityContextHolder.setContext(securityContext);
+			ProviderContextHolder.setProviderContext(providerContext);
+		}
+	}
+
+	/**
+	 * Sets the maximum time allowed for processing an endpoint request, including the time spent
+	 * waiting in the {@link Executor}, after which the request is completed with a {@code 503 Service Unavailable}.
+	 * The default is 30 seconds.
+	 *
+	 * @param timeout the maximum time allowed for processing an endpoint request
+	 */
+	public void setTimeout(Duration timeout) {
+		Assert.notNull(timeout, "timeout cannot be null");
+		Assert.isTrue(!timeout.isNegative() && !timeout.isZero(), "timeout must be greater than zero");
+		this.timeout = timeout;
+	}
+
+	/**
+	 * Returns the number of endpoint requests submitted to the {@link Executor} and waiting to be processed.
+	 *
+	 * @return the number of endpoint requests waiting to be processed
+	 */
+	public int getQueuedRequestCount() {
+		return this.queuedRequestCount.get();
+	}
+
+	/**
+	 * Returns the number of endpoint requests currently being processed.
+	 *
+	 * @return the number of endpoint requests currently being processed
+	 */
+	public int getActiveRequestCount() {
+		return this.activeRequestCount.get();
+	}
+
+	/**
+	 * The response passed to the remainder of the filter chain, which drops any write made
+	 * once the request is completed, as the response may have been recycled by the container.
+	 * Writes and completion are serialized, so a write either happens before completion or is dropped.
+	 */
+	private static final class AsyncEndpointResponse extends HttpServletResponseWrapper {
+		private final AsyncContext asyncContext;
+		private boolean completed;
+		private ServletOutputStream outputStream;
+		private PrintWriter writer;
+
+		private AsyncEndpointResponse(HttpServletResponse response, AsyncContext asyncContext) {
+			super(response);
+			this.asyncContext = asyncContext;
+		}
+
+		private synchronized boolean isCompleted() {
+			return this.completed;
+		}
+
+		private synchronized void setCompleted() {
+			this.completed = true;
+		}
+
+		private synchronized void complete(HttpStatus errorStatus) {
+			if (this.completed) {
+				return;
+			}
+			this.completed = true;
+			HttpServletResponse response = (HttpServletResponse) getResponse();
+			if (errorStatus != null && !response.isCommitted()) {
+				try {
+					response.sendError(errorStatus.value());
+				} catch (IOException ignored) {
+				}
+			}
+			this.asyncContext.complete();
+		}
+
+		@Override
+		public synchronized void setStatus(int sc) {
+			if (!this.completed) {
+				super.setStatus(sc);
+			}
+		}
+
+		@Override
+		public synchronized void sendError(int sc) throws IOException {
+			if (!this.completed) {
+				super.sendError(sc);
+			}
+		}
+
+		@Override
+		public synchronized void sendError(int sc, String msg) throws IOException {
+			if (!this.completed) {
+				super.sendError(sc, msg);
+			}
+		}
+
+		@Override
+		public synchronized void sendRedirect(String location) throws IOException {
+			if (!this.completed) {
+				super.sendRedirect(location);
+			}
+		}
+
+		@Override
+		public synchronized void setHeader(String name, String value) {
+			if (!this.completed) {
+				super.setHeader(name, value);
+			}
+		}
+
+		@Override
+		public synchronized void addHeader(String name, String value) {
+			if (!this.completed) {
+				super.addHeader(name, value);
+			}
+		}
+
+		@Override
+		public synchronized void setIntHeader(String name, int value) {
+			if (!this.completed) {
+				super.setIntHeader(name, value);
+			}
+		}
+
+		@Override
+		public synchronized void setDateHeader(String name, long date) {
+			if (!this.completed) {
+				super.setDateHeader(name, date);
+			}
+		}
+
+		@Override
+		public synchronized void setContentType(String type) {
+			if (!this.completed) {
+				super.setContentType(type);
+			}
+		}
+
+		@Override
+		public synchronized void setCharacterEncoding(String charset) {
+			if (!this.completed) {
+				super.setCharacterEncoding(charset);
+			}
+		}
+
+		@Override
+		public synchronized void setContentLength(int len) {
+			if (!this.completed) {
+				super.setContentLength(len);
+			}
+		}
+
+		@Override
+		public synchronized void setContentLengthLong(long len) {
+			if (!this.completed) {
+				super.setContentLengthLong(len);
+			}
+		}
+
+		@Override
+		public synchronized void flushBuffer() throws IOException {
+			if (!this.completed) {
+				super.flushBuffer();
+			}
+		}
+
+		@Override
+		public synchronized void reset() {
+			if (!this.completed) {
+				super.reset();
+			}
+		}
+
+		@Override
+		public synchronized void resetBuffer() {
+			if (!this.completed) {
+				super.resetBuffer();
+			}
+		}
+
+		@Override
+		public synchronized ServletOutputStream getOutputStream() throws IOException {
+			if (this.outputStream == null) {
+				// Not obtained from the response once completed, as it may have been recycled
+				this.outputStream = new AsyncEndpointOutputStream(!this.completed ? super.getOutputStream() : null);
+			}
+			return this.outputStream;
+		}
+
+		@Override
+		public synchronized PrintWriter getWriter() throws IOException {
+			if (this.writer == null) {
+				this.writer = new PrintWriter(new AsyncEndpointWriter(!this.completed ? super.getWriter() : null));
+			}
+			return this.writer;
+		}
+
+		private final class AsyncEndpointOutputStream extends ServletOutputStream {
+			private final ServletOutputStream delegate;
+
+			private AsyncEndpointOutputStream(ServletOutputStream delegate) {
+				this.delegate = delegate;
+			}
+
+			@Override
+			public void write(int b) throws IOException {
+				synchronized (AsyncEndpointResponse.this) {
+					if (!AsyncEndpointResponse.this.completed) {
+						this.delegate.write(b);
+					}
+				}
+			}
+
+			@Override
+			public void write(byte[] b, int off, int len) throws IOException {
+				synchronized (AsyncEndpointResponse.this) {
+					if (!AsyncEndpointResponse.this.completed) {
+						this.delegate.write(b, off, len);
+					}
+				}
+			}
+
+			@Override
+			public void flush() throws IOException {
+				synchronized (AsyncEndpointResponse.this) {
+					if (!AsyncEndpointResponse.this.completed) {
+						this.delegate.flush();
+					}
+				}
+			}
+
+			@Override
+			public void close() throws IOException {
+				synchronized (AsyncEndpointResponse.this) {
+					if (!AsyncEndpointResponse.this.completed) {
+						this.delegate.close();
+					}
+				}
+			}
+
+			@Override
+			public boolean isReady() {
+				return this.delegate == null || this.delegate.isReady();
+			}
+
+			@Override
+			public void setWriteListener(WriteListener writeListener) {
+				if (this.delegate != null) {
+					this.delegate.setWriteListener(writeListener);
+				}
+			}
+
+		}
+
+		private final class AsyncEndpointWriter extends Writer {
+			private final PrintWriter delegate;
+
+			private AsyncEndpointWriter(PrintWriter delegate) {
+				this.delegate = delegate;
+			}
+
+			@Override
+			public void write(char[] cbuf, int off, int len) {
+				synchronized (AsyncEndpointResponse.this) {
+					if (!AsyncEndpointResponse.this.completed) {
+						this.delegate.write(cbuf, off, len);
+					}
+				}
+			}
+
+			@Override
+			public void flush() {
+				synchronized (AsyncEndpointResponse.this) {
+					if (!AsyncEndpointResponse.this.completed) {
+						this.delegate.flush();
+					}
+				}
+			}
+
+			@Override
+			public void close() {
+				synchronized (AsyncEndpointResponse.this) {
+					if (!AsyncEndpointResponse.this.completed) {
+						this.delegate.close();
+					}
+				}
+			}
+
+		}
+
+	}
+
+}
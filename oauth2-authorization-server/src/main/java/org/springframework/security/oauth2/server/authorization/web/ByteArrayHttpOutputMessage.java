@@ -0,0 +1,43 @@
+/*
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.security.oauth2.server.authorization.web;
+
+import java.io.ByteArrayOutputStream;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+
+/**
+ * An {@link HttpOutputMessage} that buffers the body in memory,
+ * which allows setting the {@code Content-Length} or reusing the body.
+ *
+ * @since 0.3.0
+ */
+final class ByteArrayHttpOutputMessage implements HttpOutputMessage {
+	private final HttpHeaders headers = new HttpHeaders();
+	private final ByteArrayOutputStream body = new ByteArrayOutputStream(1024);
+
+	@Override
+	public ByteArrayOutputStream getBody() {
+		return this.body;
+	}
+
+	@Override
+	public HttpHeaders getHeaders() {
+		return this.headers;
+	}
+
+}
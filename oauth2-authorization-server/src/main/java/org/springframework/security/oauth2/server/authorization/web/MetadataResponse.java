@@ -0,0 +1,57 @@
+/*
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.security.oauth2.server.authorization.web;
+
+import java.io.IOException;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.http.MediaType;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+
+/**
+ * A serialized metadata document, which is computed once and written with a strong {@code ETag}.
+ *
+ * @since 0.3.0
+ */
+final class MetadataResponse {
+	private final String contentType;
+	private final byte[] body;
+	private final String eTag;
+
+	MetadataResponse(ByteArrayHttpOutputMessage httpOutputMessage) {
+		MediaType contentType = httpOutputMessage.getHeaders().getContentType();
+		this.contentType = contentType != null ? contentType.toString() : MediaType.APPLICATION_JSON_VALUE;
+		this.body = httpOutputMessage.getBody().toByteArray();
+		this.eTag = "\"" + DigestUtils.md5DigestAsHex(this.body) + "\"";
+	}
+
+	/**
+	 * Writes the document, unless the request has a matching {@code If-None-Match} header,
+	 * in which case {@code 304 Not Modified} is sent instead.
+	 */
+	void writeTo(HttpServletRequest request, HttpServletResponse response) throws IOException {
+		if (new ServletWebRequest(request, response).checkNotModified(this.eTag)) {
+			return;
+		}
+		response.setContentType(this.contentType);
+		response.setContentLength(this.body.length);
+		response.getOutputStream().write(this.body);
+	}
+
+}
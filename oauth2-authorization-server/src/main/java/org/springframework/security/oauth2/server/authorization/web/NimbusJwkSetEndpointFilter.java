@@ -1,5 +1,5 @@
 /*
- * Copyright 2020-2021 the original author or authors.
+ * Copyright 2020-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,29 +16,44 @@
 package org.springframework.security.oauth2.server.authorization.web;
 
 import java.io.IOException;
-import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 
 import javax.servlet.FilterChain;
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+import com.nimbusds.jose.jwk.JWK;
 import com.nimbusds.jose.jwk.JWKMatcher;
 import com.nimbusds.jose.jwk.JWKSelector;
 import com.nimbusds.jose.jwk.JWKSet;
 import com.nimbusds.jose.jwk.source.JWKSource;
 import com.nimbusds.jose.proc.SecurityContext;
 
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
 import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
 import org.springframework.security.web.util.matcher.RequestMatcher;
 import org.springframework.util.Assert;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.StringUtils;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 /**
  * A {@code Filter} that processes JWK Set requests.
  *
+ * <p>
+ * The serialized JWK Set is computed once and reused for as long as the
+ * {@link JWK}(s) provided by the {@code JWKSource} remain unchanged.
+ * The response includes a strong {@code ETag}, a conditional request with a matching
+ * {@code If-None-Match} header is answered with {@code 304 Not Modified},
+ * and the {@code Cache-Control} header may be configured via {@link #setCacheControl(CacheControl)}.
+ *
  * @author Joe Grandja
  * @since 0.0.1
  * @see com.nimbusds.jose.jwk.source.JWKSource
@@ -54,6 +69,8 @@ public final class NimbusJwkSetEndpointFilter extends OncePerRequestFilter {
 	private final JWKSource<SecurityContext> jwkSource;
 	private final JWKSelector jwkSelector;
 	private final RequestMatcher requestMatcher;
+	private CacheControl cacheControl = CacheControl.empty();
+	private volatile JwkSetResponse jwkSetResponse;
 
 	/**
 	 * Constructs a {@code NimbusJwkSetEndpointFilter} using the provided parameters.
@@ -77,6 +94,19 @@ public final class NimbusJwkSetEndpointFilter extends OncePerRequestFilter {
 		this.requestMatcher = new AntPathRequestMatcher(jwkSetEndpointUri, HttpMethod.GET.name());
 	}
 
+	/**
+	 * Sets the {@link CacheControl} used for the {@code Cache-Control} header of the JWK Set response,
+	 * for example, {@code CacheControl.maxAge(Duration.ofMinutes(5))}.
+	 * The default is {@link CacheControl#empty()}, which does not include the header.
+	 *
+	 * @param cacheControl the {@link CacheControl} used for the JWK Set response
+	 * @since 0.3.0
+	 */
+	public void setCacheControl(CacheControl cacheControl) {
+		Assert.notNull(cacheControl, "cacheControl cannot be null");
+		this.cacheControl = cacheControl;
+	}
+
 	@Override
 	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
 			throws ServletException, IOException {
@@ -86,17 +116,59 @@ public final class NimbusJwkSetEndpointFilter extends OncePerRequestFilter {
 			return;
 		}
 
-		JWKSet jwkSet;
+		List<JWK> jwks;
 		try {
-			jwkSet = new JWKSet(this.jwkSource.get(this.jwkSelector, null));
+			jwks = this.jwkSource.get(this.jwkSelector, null);
 		}
 		catch (Exception ex) {
 			throw new IllegalStateException("Failed to select the JWK(s) -> " + ex.getMessage(), ex);
 		}
 
+		JwkSetResponse jwkSetResponse = this.jwkSetResponse;
+		if (jwkSetResponse == null || !jwkSetResponse.matches(jwks)) {
+			jwkSetResponse = new JwkSetResponse(jwks);
+			this.jwkSetResponse = jwkSetResponse;
+		}
+
+		String cacheControl = this.cacheControl.getHeaderValue();
+		if (StringUtils.hasText(cacheControl)) {
+			response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+		}
+		if (new ServletWebRequest(request, response).checkNotModified(jwkSetResponse.eTag)) {
+			return;
+		}
+
 		response.setContentType(MediaType.APPLICATION_JSON_VALUE);
-		try (Writer writer = response.getWriter()) {
-			writer.write(jwkSet.toString());	// toString() excludes private keys
+		response.setContentLength(jwkSetResponse.body.length);
+		response.getOutputStream().write(jwkSetResponse.body);
+	}
+
+	private static final class JwkSetResponse {
+		private final List<JWK> jwks;
+		private final byte[] body;
+		private final String eTag;
+
+		private JwkSetResponse(List<JWK> jwks) {
+			this.jwks = new ArrayList<>(jwks);
+			this.body = new JWKSet(jwks).toString()	// toString() excludes private keys
+					.getBytes(StandardCharsets.UTF_8);
+			this.eTag = "\"" + DigestUtils.md5DigestAsHex(this.body) + "\"";
 		}
+
+		private boolean matches(List<JWK> jwks) {
+			if (this.jwks.size() != jwks.size()) {
+				return false;
+			}
+			for (int i = 0; i < jwks.size(); i++) {
+				JWK jwk = jwks.get(i);
+				// Identity check first, as a JWKSource typically returns the same JWK instances
+				if (this.jwks.get(i) != jwk && !this.jwks.get(i).equals(jwk)) {
+					return false;
+				}
+			}
+			return true;
+		}
+
 	}
+
 }
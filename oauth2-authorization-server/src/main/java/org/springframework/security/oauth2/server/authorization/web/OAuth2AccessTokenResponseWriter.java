@@ -0,0 +1,98 @@
+/*
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.security.oauth2.server.authorization.web;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+
+import javax.servlet.http.HttpServletResponse;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.lang.Nullable;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.core.OAuth2RefreshToken;
+import org.springframework.security.oauth2.core.endpoint.OAuth2ParameterNames;
+import org.springframework.util.CollectionUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * Writes the OAuth 2.0 Access Token Response by streaming the parameters directly to the response body,
+ * without building an intermediate {@code OAuth2AccessTokenResponse} and parameters {@code Map},
+ * as done by the {@code HttpMessageConverter} used for the (generic) response.
+ *
+ * @since 0.3.0
+ * @see OAuth2TokenEndpointFilter
+ * @see <a target="_blank" href="https://datatracker.ietf.org/doc/html/rfc6749#section-5.1">Section 5.1 Successful Response</a>
+ */
+final class OAuth2AccessTokenResponseWriter {
+	private static final String CONTENT_TYPE = new MediaType(MediaType.APPLICATION_JSON, StandardCharsets.UTF_8).toString();
+	private final JsonFactory jsonFactory;
+
+	OAuth2AccessTokenResponseWriter() {
+		// The codec is used for (non-String) additional parameters, and is configured
+		// as the one used by the HttpMessageConverter for the (generic) response
+		ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+				.featuresToDisable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+				.build();
+		this.jsonFactory = objectMapper.getFactory();
+	}
+
+	void write(OAuth2AccessToken accessToken, @Nullable OAuth2RefreshToken refreshToken,
+			@Nullable Map<String, Object> additionalParameters, HttpServletResponse response) throws IOException {
+		response.setContentType(CONTENT_TYPE);
+		write(accessToken, refreshToken, additionalParameters, response.getOutputStream());
+	}
+
+	void write(OAuth2AccessToken accessToken, @Nullable OAuth2RefreshToken refreshToken,
+			@Nullable Map<String, Object> additionalParameters, OutputStream outputStream) throws IOException {
+		try (JsonGenerator generator = this.jsonFactory.createGenerator(outputStream, JsonEncoding.UTF8)) {
+			generator.writeStartObject();
+			generator.writeStringField(OAuth2ParameterNames.ACCESS_TOKEN, accessToken.getTokenValue());
+			generator.writeStringField(OAuth2ParameterNames.TOKEN_TYPE, accessToken.getTokenType().getValue());
+			if (accessToken.getIssuedAt() != null && accessToken.getExpiresAt() != null) {
+				generator.writeNumberField(OAuth2ParameterNames.EXPIRES_IN,
+						ChronoUnit.SECONDS.between(accessToken.getIssuedAt(), accessToken.getExpiresAt()));
+			}
+			if (!CollectionUtils.isEmpty(accessToken.getScopes())) {
+				generator.writeStringField(OAuth2ParameterNames.SCOPE,
+						StringUtils.collectionToDelimitedString(accessToken.getScopes(), " "));
+			}
+			if (refreshToken != null) {
+				generator.writeStringField(OAuth2ParameterNames.REFRESH_TOKEN, refreshToken.getTokenValue());
+			}
+			if (!CollectionUtils.isEmpty(additionalParameters)) {
+				for (Map.Entry<String, Object> additionalParameter : additionalParameters.entrySet()) {
+					if (additionalParameter.getValue() instanceof String) {
+						generator.writeStringField(additionalParameter.getKey(), (String) additionalParameter.getValue());
+					} else {
+						generator.writeObjectField(additionalParameter.getKey(), additionalParameter.getValue());
+					}
+				}
+			}
+			generator.writeEndObject();
+		}
+	}
+
+}
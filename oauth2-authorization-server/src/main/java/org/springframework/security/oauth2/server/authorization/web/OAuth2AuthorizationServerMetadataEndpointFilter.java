@@ -17,6 +17,8 @@ package org.springframework.security.oauth2.server.authorization.web;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
 
 import javax.servlet.FilterChain;
@@ -26,7 +28,6 @@ import javax.servlet.http.HttpServletResponse;
 
 import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
-import org.springframework.http.server.ServletServerHttpResponse;
 import org.springframework.security.oauth2.core.AuthorizationGrantType;
 import org.springframework.security.oauth2.core.ClientAuthenticationMethod;
 import org.springframework.security.oauth2.core.OAuth2AuthorizationServerMetadata;
@@ -43,6 +44,11 @@ import org.springframework.web.util.UriComponentsBuilder;
 /**
  * A {@code Filter} that processes OAuth 2.0 Authorization Server Metadata Requests.
  *
+ * <p>
+ * The serialized document only depends on the issuer and the {@link ProviderSettings},
+ * and is therefore computed once per issuer and reused. The response includes a strong {@code ETag},
+ * and a conditional request with a matching {@code If-None-Match} header is answered with {@code 304 Not Modified}.
+ *
  * @author Daniel Garnier-Moiroux
  * @since 0.1.1
  * @see OAuth2AuthorizationServerMetadata
@@ -55,10 +61,13 @@ public final class OAuth2AuthorizationServerMetadataEndpointFilter extends OnceP
 	 */
 	private static final String DEFAULT_OAUTH2_AUTHORIZATION_SERVER_METADATA_ENDPOINT_URI = "/.well-known/oauth-authorization-server";
 
+	private static final int MAX_CACHED_RESPONSES = 16;
+
 	private final ProviderSettings providerSettings;
 	private final RequestMatcher requestMatcher;
 	private final OAuth2AuthorizationServerMetadataHttpMessageConverter authorizationServerMetadataHttpMessageConverter =
 			new OAuth2AuthorizationServerMetadataHttpMessageConverter();
+	private final Map<String, MetadataResponse> metadataResponses = new ConcurrentHashMap<>();
 
 	public OAuth2AuthorizationServerMetadataEndpointFilter(ProviderSettings providerSettings) {
 		Assert.notNull(providerSettings, "providerSettings cannot be null");
@@ -79,7 +88,20 @@ public final class OAuth2AuthorizationServerMetadataEndpointFilter extends OnceP
 		}
 
 		String issuer = ProviderContextHolder.getProviderContext().getIssuer();
+		MetadataResponse metadataResponse = this.metadataResponses.get(issuer);
+		if (metadataResponse == null) {
+			metadataResponse = createMetadataResponse(issuer);
+			if (this.metadataResponses.size() >= MAX_CACHED_RESPONSES) {
+				// Bounded, as the issuer may be resolved from the request
+				this.metadataResponses.clear();
+			}
+			this.metadataResponses.put(issuer, metadataResponse);
+		}
+
+		metadataResponse.writeTo(request, response);
+	}
 
+	private MetadataResponse createMetadataResponse(String issuer) throws IOException {
 		OAuth2AuthorizationServerMetadata authorizationServerMetadata = OAuth2AuthorizationServerMetadata.builder()
 				.issuer(issuer)
 				.authorizationEndpoint(asUrl(issuer, this.providerSettings.getAuthorizationEndpoint()))
@@ -98,9 +120,10 @@ public final class OAuth2AuthorizationServerMetadataEndpointFilter extends OnceP
 				.codeChallengeMethod("S256")
 				.build();
 
-		ServletServerHttpResponse httpResponse = new ServletServerHttpResponse(response);
+		ByteArrayHttpOutputMessage httpResponse = new ByteArrayHttpOutputMessage();
 		this.authorizationServerMetadataHttpMessageConverter.write(
 				authorizationServerMetadata, MediaType.APPLICATION_JSON, httpResponse);
+		return new MetadataResponse(httpResponse);
 	}
 
 	private static Consumer<List<String>> clientAuthenticationMethods() {
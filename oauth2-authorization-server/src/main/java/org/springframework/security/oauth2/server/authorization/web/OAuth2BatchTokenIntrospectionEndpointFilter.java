@@ -0,0 +1,266 @@
+/*
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.security.oauth2.server.authorization.web;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.core.OAuth2AuthenticationException;
+import org.springframework.security.oauth2.core.OAuth2Error;
+import org.springframework.security.oauth2.core.OAuth2ErrorCodes;
+import org.springframework.security.oauth2.core.OAuth2TokenIntrospection;
+import org.springframework.security.oauth2.core.endpoint.OAuth2ParameterNames;
+import org.springframework.security.oauth2.core.http.converter.OAuth2ErrorHttpMessageConverter;
+import org.springframework.security.oauth2.core.http.converter.OAuth2TokenIntrospectionHttpMessageConverter;
+import org.springframework.security.oauth2.server.authorization.authentication.OAuth2BatchTokenIntrospectionAuthenticationProvider;
+import org.springframework.security.oauth2.server.authorization.authentication.OAuth2BatchTokenIntrospectionAuthenticationToken;
+import org.springframework.security.web.authentication.AuthenticationConverter;
+import org.springframework.security.web.authentication.AuthenticationFailureHandler;
+import org.springframework.security.web.authentication.AuthenticationSuccessHandler;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.util.Assert;
+import org.springframework.util.MultiValueMap;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * A {@code Filter} for introspecting multiple OAuth 2.0 tokens in a single request.
+ *
+ * <p>
+ * The request is an OAuth 2.0 Token Introspection Request where the {@code token} parameter is repeated
+ * for each token to introspect. The response is a JSON array holding the Token Introspection Response
+ * of each token, in the order of the {@code token} parameters.
+ *
+ * @since 0.3.0
+ * @see OAuth2BatchTokenIntrospectionAuthenticationProvider
+ * @see OAuth2TokenIntrospectionEndpointFilter
+ * @see <a target="_blank" href="https://tools.ietf.org/html/rfc7662#section-2.1">Section 2.1 Introspection Request</a>
+ * @see <a target="_blank" href="https://tools.ietf.org/html/rfc7662#section-2.2">Section 2.2 Introspection Response</a>
+ */
+public final class OAuth2BatchTokenIntrospectionEndpointFilter extends OncePerRequestFilter {
+	private static final int DEFAULT_MAX_BATCH_SIZE = 100;
+
+	private final AuthenticationManager authenticationManager;
+	private final RequestMatcher batchTokenIntrospectionEndpointMatcher;
+	private AuthenticationConverter authenticationConverter =
+			new DefaultBatchTokenIntrospectionAuthenticationConverter();
+	private final HttpMessageConverter<OAuth2TokenIntrospection> tokenIntrospectionHttpResponseConverter =
+			new OAuth2TokenIntrospectionHttpMessageConverter();
+	private final HttpMessageConverter<OAuth2Error> errorHttpResponseConverter = new OAuth2ErrorHttpMessageConverter();
+	private AuthenticationSuccessHandler authenticationSuccessHandler = this::sendIntrospectionResponse;
+	private AuthenticationFailureHandler authenticationFailureHandler = this::sendErrorResponse;
+	private Duration cacheControlMaxAge;
+	private int maxBatchSize = DEFAULT_MAX_BATCH_SIZE;
+
+	/**
+	 * Constructs an {@code OAuth2BatchTokenIntrospectionEndpointFilter} using the provided parameters.
+	 *
+	 * @param authenticationManager the authentication manager
+	 * @param batchTokenIntrospectionEndpointUri the endpoint {@code URI} for batch token introspection requests
+	 */
+	public OAuth2BatchTokenIntrospectionEndpointFilter(AuthenticationManager authenticationManager,
+			String batchTokenIntrospectionEndpointUri) {
+		Assert.notNull(authenticationManager, "authenticationManager cannot be null");
+		Assert.hasText(batchTokenIntrospectionEndpointUri, "batchTokenIntrospectionEndpointUri cannot be empty");
+		this.authenticationManager = authenticationManager;
+		this.batchTokenIntrospectionEndpointMatcher = new AntPathRequestMatcher(
+				batchTokenIntrospectionEndpointUri, HttpMethod.POST.name());
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+
+		if (!this.batchTokenIntrospectionEndpointMatcher.matches(request)) {
+			filterChain.doFilter(request, response);
+			return;
+		}
+
+		try {
+			Authentication batchTokenIntrospectionAuthentication = this.authenticationConverter.convert(request);
+			if (batchTokenIntrospectionAuthentication instanceof OAuth2BatchTokenIntrospectionAuthenticationToken &&
+					((OAuth2BatchTokenIntrospectionAuthenticationToken) batchTokenIntrospectionAuthentication)
+							.getTokens().size() > this.maxBatchSize) {
+				// Also bounds the tokens of a request converted by a custom AuthenticationConverter
+				throwError(OAuth2ErrorCodes.INVALID_REQUEST, OAuth2ParameterNames.TOKEN);
+			}
+			Authentication batchTokenIntrospectionAuthenticationResult =
+					this.authenticationManager.authenticate(batchTokenIntrospectionAuthentication);
+			this.authenticationSuccessHandler.onAuthenticationSuccess(request, response, batchTokenIntrospectionAuthenticationResult);
+		} catch (OAuth2AuthenticationException ex) {
+			SecurityContextHolder.clearContext();
+			this.authenticationFailureHandler.onAuthenticationFailure(request, response, ex);
+		}
+	}
+
+	/**
+	 * Sets the {@link AuthenticationConverter} used when attempting to extract a Batch Introspection Request from {@link HttpServletRequest}
+	 * to an instance of {@link OAuth2BatchTokenIntrospectionAuthenticationToken} used for authenticating the request.
+	 *
+	 * @param authenticationConverter the {@link AuthenticationConverter} used when attempting to extract a Batch Introspection Request from {@link HttpServletRequest}
+	 */
+	public void setAuthenticationConverter(AuthenticationConverter authenticationConverter) {
+		Assert.notNull(authenticationConverter, "authenticationConverter cannot be null");
+		this.authenticationConverter = authenticationConverter;
+	}
+
+	/**
+	 * Sets the {@link AuthenticationSuccessHandler} used for handling an {@link OAuth2BatchTokenIntrospectionAuthenticationToken}.
+	 *
+	 * @param authenticationSuccessHandler the {@link AuthenticationSuccessHandler} used for handling an {@link OAuth2BatchTokenIntrospectionAuthenticationToken}
+	 */
+	public void setAuthenticationSuccessHandler(AuthenticationSuccessHandler authenticationSuccessHandler) {
+		Assert.notNull(authenticationSuccessHandler, "authenticationSuccessHandler cannot be null");
+		this.authenticationSuccessHandler = authenticationSuccessHandler;
+	}
+
+	/**
+	 * Sets the {@link AuthenticationFailureHandler} used for handling an {@link OAuth2AuthenticationException}
+	 * and returning the {@link OAuth2Error Error Response}.
+	 *
+	 * @param authenticationFailureHandler the {@link AuthenticationFailureHandler} used for handling an {@link OAuth2AuthenticationException}
+	 */
+	public void setAuthenticationFailureHandler(AuthenticationFailureHandler authenticationFailureHandler) {
+		Assert.notNull(authenticationFailureHandler, "authenticationFailureHandler cannot be null");
+		this.authenticationFailureHandler = authenticationFailureHandler;
+	}
+
+	/**
+	 * Sets the maximum number of tokens that may be introspected in a single request. The default is {@code 100}.
+	 *
+	 * @param maxBatchSize the maximum number of tokens that may be introspected in a single request
+	 */
+	public void setMaxBatchSize(int maxBatchSize) {
+		Assert.isTrue(maxBatchSize > 0, "maxBatchSize must be greater than 0");
+		this.maxBatchSize = maxBatchSize;
+	}
+
+	/**
+	 * Sets the maximum time a client may cache a Batch Token Introspection Response where all tokens are active,
+	 * which enables the {@code Cache-Control} response header. The response may be cached until the first token expires,
+	 * for at most the provided {@code maxAge}, and a response holding an inactive token is not stored.
+	 *
+	 * @param cacheControlMaxAge the maximum time a client may cache a Batch Token Introspection Response
+	 */
+	public void setCacheControlMaxAge(Duration cacheControlMaxAge) {
+		Assert.notNull(cacheControlMaxAge, "cacheControlMaxAge cannot be null");
+		this.cacheControlMaxAge = cacheControlMaxAge;
+	}
+
+	private void sendIntrospectionResponse(HttpServletRequest request, HttpServletResponse response,
+			Authentication authentication) throws IOException {
+
+		OAuth2BatchTokenIntrospectionAuthenticationToken batchTokenIntrospectionAuthentication =
+				(OAuth2BatchTokenIntrospectionAuthenticationToken) authentication;
+		List<OAuth2TokenIntrospection> tokenClaims = batchTokenIntrospectionAuthentication.getTokenClaims();
+
+		// Each Token Introspection Response is written by the same converter as the single token endpoint
+		ByteArrayHttpOutputMessage httpResponseBody = new ByteArrayHttpOutputMessage();
+		OutputStream body = httpResponseBody.getBody();
+		body.write('[');
+		for (int i = 0; i < tokenClaims.size(); i++) {
+			if (i > 0) {
+				body.write(',');
+			}
+			this.tokenIntrospectionHttpResponseConverter.write(tokenClaims.get(i), MediaType.APPLICATION_JSON, httpResponseBody);
+		}
+		body.write(']');
+
+		if (this.cacheControlMaxAge != null) {
+			response.setHeader(HttpHeaders.CACHE_CONTROL, OAuth2EndpointUtils.getTokenIntrospectionCacheControl(
+					tokenClaims, this.cacheControlMaxAge));
+		}
+		response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+		response.setContentLength(httpResponseBody.getBody().size());
+		httpResponseBody.getBody().writeTo(response.getOutputStream());
+	}
+
+	private void sendErrorResponse(HttpServletRequest request, HttpServletResponse response,
+			AuthenticationException exception) throws IOException {
+		OAuth2Error error = ((OAuth2AuthenticationException) exception).getError();
+		ServletServerHttpResponse httpResponse = new ServletServerHttpResponse(response);
+		httpResponse.setStatusCode(HttpStatus.BAD_REQUEST);
+		this.errorHttpResponseConverter.write(error, null, httpResponse);
+	}
+
+	private static void throwError(String errorCode, String parameterName) {
+		OAuth2Error error = new OAuth2Error(errorCode, "OAuth 2.0 Token Introspection Parameter: " + parameterName,
+				"https://datatracker.ietf.org/doc/html/rfc7662#section-2.1");
+		throw new OAuth2AuthenticationException(error);
+	}
+
+	private static class DefaultBatchTokenIntrospectionAuthenticationConverter
+			implements AuthenticationConverter {
+
+		@Override
+		public Authentication convert(HttpServletRequest request) {
+			Authentication clientPrincipal = SecurityContextHolder.getContext().getAuthentication();
+
+			MultiValueMap<String, String> parameters = OAuth2EndpointUtils.getParameters(request);
+
+			// token (REQUIRED, one or more)
+			List<String> tokens = parameters.get(OAuth2ParameterNames.TOKEN);
+			if (tokens == null || tokens.isEmpty()) {
+				throwError(OAuth2ErrorCodes.INVALID_REQUEST, OAuth2ParameterNames.TOKEN);
+			}
+			for (String token : tokens) {
+				if (!StringUtils.hasText(token)) {
+					throwError(OAuth2ErrorCodes.INVALID_REQUEST, OAuth2ParameterNames.TOKEN);
+				}
+			}
+
+			// token_type_hint (OPTIONAL)
+			String tokenTypeHint = parameters.getFirst(OAuth2ParameterNames.TOKEN_TYPE_HINT);
+			if (StringUtils.hasText(tokenTypeHint) &&
+					parameters.get(OAuth2ParameterNames.TOKEN_TYPE_HINT).size() != 1) {
+				throwError(OAuth2ErrorCodes.INVALID_REQUEST, OAuth2ParameterNames.TOKEN_TYPE_HINT);
+			}
+
+			Map<String, Object> additionalParameters = new HashMap<>();
+			parameters.forEach((key, value) -> {
+				if (!key.equals(OAuth2ParameterNames.TOKEN) &&
+						!key.equals(OAuth2ParameterNames.TOKEN_TYPE_HINT)) {
+					additionalParameters.put(key, value.get(0));
+				}
+			});
+
+			return new OAuth2BatchTokenIntrospectionAuthenticationToken(
+					tokens, clientPrincipal, tokenTypeHint, additionalParameters);
+		}
+
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2020-2021 the original author or authors.
+ * Copyright 2020-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,10 +15,18 @@
  */
 package org.springframework.security.oauth2.server.authorization.web;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import javax.servlet.http.HttpServletRequest;
 
+import org.springframework.http.CacheControl;
+import org.springframework.security.oauth2.core.OAuth2TokenIntrospection;
+import org.springframework.util.CollectionUtils;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
 
@@ -29,21 +37,57 @@ import org.springframework.util.MultiValueMap;
  * @since 0.0.1
  */
 final class OAuth2EndpointUtils {
+	// Shared by the OAuth2EndpointUtils in the web and web.authentication packages
+	private static final String PARAMETERS_ATTRIBUTE_NAME =
+			"org.springframework.security.oauth2.server.authorization.web.OAuth2EndpointUtils.PARAMETERS";
 
 	private OAuth2EndpointUtils() {
 	}
 
+	/*
+	 * Returns an unmodifiable view of the request parameters, which is parsed once
+	 * and then shared by the filters and converters processing the request.
+	 */
 	static MultiValueMap<String, String> getParameters(HttpServletRequest request) {
+		@SuppressWarnings("unchecked")
+		MultiValueMap<String, String> parameters =
+				(MultiValueMap<String, String>) request.getAttribute(PARAMETERS_ATTRIBUTE_NAME);
+		if (parameters == null) {
+			parameters = CollectionUtils.unmodifiableMultiValueMap(parseParameters(request));
+			request.setAttribute(PARAMETERS_ATTRIBUTE_NAME, parameters);
+		}
+		return parameters;
+	}
+
+	private static MultiValueMap<String, String> parseParameters(HttpServletRequest request) {
 		Map<String, String[]> parameterMap = request.getParameterMap();
 		MultiValueMap<String, String> parameters = new LinkedMultiValueMap<>(parameterMap.size());
 		parameterMap.forEach((key, values) -> {
 			if (values.length > 0) {
-				for (String value : values) {
-					parameters.add(key, value);
-				}
+				parameters.put(key, Arrays.asList(values));
 			}
 		});
 		return parameters;
 	}
 
+	/*
+	 * Returns the Cache-Control of a Token Introspection Response holding the provided token claims,
+	 * which allows caching active tokens for (at most) the provided max age, and until the tokens expire.
+	 */
+	static String getTokenIntrospectionCacheControl(Collection<OAuth2TokenIntrospection> tokenClaims, Duration maxAge) {
+		Instant now = Instant.now();
+		long maxAgeSeconds = maxAge.getSeconds();
+		for (OAuth2TokenIntrospection tokenIntrospection : tokenClaims) {
+			if (!tokenIntrospection.isActive()) {
+				return CacheControl.noStore().getHeaderValue();
+			}
+			if (tokenIntrospection.getExpiresAt() != null) {
+				maxAgeSeconds = Math.min(maxAgeSeconds, Duration.between(now, tokenIntrospection.getExpiresAt()).getSeconds());
+			}
+		}
+		return maxAgeSeconds > 0 ?
+				CacheControl.maxAge(maxAgeSeconds, TimeUnit.SECONDS).cachePrivate().getHeaderValue() :
+				CacheControl.noStore().getHeaderValue();
+	}
+
 }
@@ -16,6 +16,8 @@
 package org.springframework.security.oauth2.server.authorization.web;
 
 import java.io.IOException;
+import java.time.Duration;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -24,6 +26,7 @@ import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.converter.HttpMessageConverter;
@@ -77,6 +80,7 @@ public final class OAuth2TokenIntrospectionEndpointFilter extends OncePerRequest
 	private final HttpMessageConverter<OAuth2Error> errorHttpResponseConverter = new OAuth2ErrorHttpMessageConverter();
 	private AuthenticationSuccessHandler authenticationSuccessHandler = this::sendIntrospectionResponse;
 	private AuthenticationFailureHandler authenticationFailureHandler = this::sendErrorResponse;
+	private Duration cacheControlMaxAge;
 
 	/**
 	 * Constructs an {@code OAuth2TokenIntrospectionEndpointFilter} using the provided parameters.
@@ -157,12 +161,29 @@ public final class OAuth2TokenIntrospectionEndpointFilter extends OncePerRequest
 		this.authenticationFailureHandler = authenticationFailureHandler;
 	}
 
+	/**
+	 * Sets the maximum time a client may cache an active Token Introspection Response, which enables
+	 * the {@code Cache-Control} response header. An active token may be cached until it expires, for at most
+	 * the provided {@code maxAge}, and a response for an inactive token is not stored.
+	 *
+	 * @param cacheControlMaxAge the maximum time a client may cache an active Token Introspection Response
+	 * @since 0.3.0
+	 */
+	public void setCacheControlMaxAge(Duration cacheControlMaxAge) {
+		Assert.notNull(cacheControlMaxAge, "cacheControlMaxAge cannot be null");
+		this.cacheControlMaxAge = cacheControlMaxAge;
+	}
+
 	private void sendIntrospectionResponse(HttpServletRequest request, HttpServletResponse response,
 			Authentication authentication) throws IOException {
 
 		OAuth2TokenIntrospectionAuthenticationToken tokenIntrospectionAuthentication =
 				(OAuth2TokenIntrospectionAuthenticationToken) authentication;
 		OAuth2TokenIntrospection tokenClaims = tokenIntrospectionAuthentication.getTokenClaims();
+		if (this.cacheControlMaxAge != null) {
+			response.setHeader(HttpHeaders.CACHE_CONTROL, OAuth2EndpointUtils.getTokenIntrospectionCacheControl(
+					Collections.singletonList(tokenClaims), this.cacheControlMaxAge));
+		}
 		ServletServerHttpResponse httpResponse = new ServletServerHttpResponse(response);
 		this.tokenIntrospectionHttpResponseConverter.write(tokenClaims, null, httpResponse);
 	}
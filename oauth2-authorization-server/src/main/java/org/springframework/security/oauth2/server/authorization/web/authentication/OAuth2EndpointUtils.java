@@ -1,5 +1,5 @@
 /*
- * Copyright 2020-2021 the original author or authors.
+ * Copyright 2020-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,6 +15,7 @@
  */
 package org.springframework.security.oauth2.server.authorization.web.authentication;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
@@ -26,6 +27,7 @@ import org.springframework.security.oauth2.core.OAuth2AuthenticationException;
 import org.springframework.security.oauth2.core.OAuth2Error;
 import org.springframework.security.oauth2.core.endpoint.OAuth2ParameterNames;
 import org.springframework.security.oauth2.core.endpoint.PkceParameterNames;
+import org.springframework.util.CollectionUtils;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
 
@@ -37,18 +39,34 @@ import org.springframework.util.MultiValueMap;
  */
 final class OAuth2EndpointUtils {
 	static final String ACCESS_TOKEN_REQUEST_ERROR_URI = "https://datatracker.ietf.org/doc/html/rfc6749#section-5.2";
+	// Shared by the OAuth2EndpointUtils in the web and web.authentication packages
+	private static final String PARAMETERS_ATTRIBUTE_NAME =
+			"org.springframework.security.oauth2.server.authorization.web.OAuth2EndpointUtils.PARAMETERS";
 
 	private OAuth2EndpointUtils() {
 	}
 
+	/*
+	 * Returns an unmodifiable view of the request parameters, which is parsed once
+	 * and then shared by the filters and converters processing the request.
+	 */
 	static MultiValueMap<String, String> getParameters(HttpServletRequest request) {
+		@SuppressWarnings("unchecked")
+		MultiValueMap<String, String> parameters =
+				(MultiValueMap<String, String>) request.getAttribute(PARAMETERS_ATTRIBUTE_NAME);
+		if (parameters == null) {
+			parameters = CollectionUtils.unmodifiableMultiValueMap(parseParameters(request));
+			request.setAttribute(PARAMETERS_ATTRIBUTE_NAME, parameters);
+		}
+		return parameters;
+	}
+
+	private static MultiValueMap<String, String> parseParameters(HttpServletRequest request) {
 		Map<String, String[]> parameterMap = request.getParameterMap();
 		MultiValueMap<String, String> parameters = new LinkedMultiValueMap<>(parameterMap.size());
 		parameterMap.forEach((key, values) -> {
 			if (values.length > 0) {
-				for (String value : values) {
-					parameters.add(key, value);
-				}
+				parameters.put(key, Arrays.asList(values));
 			}
 		});
 		return parameters;
@@ -58,11 +76,13 @@ final class OAuth2EndpointUtils {
 		if (!matchesAuthorizationCodeGrantRequest(request)) {
 			return Collections.emptyMap();
 		}
-		Map<String, Object> parameters = new HashMap<>(getParameters(request).toSingleValueMap());
+		MultiValueMap<String, String> parameters = getParameters(request);
+		Map<String, Object> additionalParameters = new HashMap<>(parameters.size());
+		parameters.forEach((key, values) -> additionalParameters.put(key, values.get(0)));
 		for (String exclusion : exclusions) {
-			parameters.remove(exclusion);
+			additionalParameters.remove(exclusion);
 		}
-		return parameters;
+		return additionalParameters;
 	}
 
 	static boolean matchesAuthorizationCodeGrantRequest(HttpServletRequest request) {
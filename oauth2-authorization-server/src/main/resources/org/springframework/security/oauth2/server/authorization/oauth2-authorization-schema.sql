@@ -30,3 +30,6 @@ CREATE TABLE oauth2_authorization (
     refresh_token_metadata blob DEFAULT NULL,
     PRIMARY KEY (id)
 );
+
+CREATE INDEX oauth2_authorization_access_token_expires_at_idx ON oauth2_authorization (access_token_expires_at);
+CREATE INDEX oauth2_authorization_refresh_token_expires_at_idx ON oauth2_authorization (refresh_token_expires_at);
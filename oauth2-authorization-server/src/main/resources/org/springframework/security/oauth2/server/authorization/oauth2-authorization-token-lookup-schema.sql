@@ -0,0 +1,12 @@
+/*
+IMPORTANT:
+    This table is ONLY required when JdbcOAuth2AuthorizationService.setTokenLookupEnabled(true) is configured,
+    and MUST be defined in addition to the 'oauth2_authorization' table.
+*/
+CREATE TABLE oauth2_authorization_token_lookup (
+    authorization_id varchar(100) NOT NULL,
+    token_type varchar(100) NOT NULL,
+    token_digest varchar(100) NOT NULL,
+    PRIMARY KEY (authorization_id, token_type)
+);
+CREATE INDEX oauth2_authorization_token_lookup_digest_idx ON oauth2_authorization_token_lookup (token_digest);
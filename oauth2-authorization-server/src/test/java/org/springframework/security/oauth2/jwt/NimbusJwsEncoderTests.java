@@ -17,6 +17,7 @@ package org.springframework.security.oauth2.jwt;
 
 import java.security.interfaces.ECPrivateKey;
 import java.security.interfaces.ECPublicKey;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -30,6 +31,7 @@ import com.nimbusds.jose.jwk.JWKSet;
 import com.nimbusds.jose.jwk.KeyUse;
 import com.nimbusds.jose.jwk.OctetSequenceKey;
 import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
 import com.nimbusds.jose.jwk.source.JWKSource;
 import com.nimbusds.jose.proc.SecurityContext;
 import org.junit.Before;
@@ -49,6 +51,8 @@ import static org.mockito.BDDMockito.given;
 import static org.mockito.BDDMockito.willAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 /**
  * Tests for {@link NimbusJwsEncoder}.
@@ -185,6 +189,67 @@ public class NimbusJwsEncoderTests {
 		jwtDecoder.decode(encodedJws.getTokenValue());
 	}
 
+	@Test
+	public void setJwkSelectionCacheTimeToLiveWhenNegativeThenThrowIllegalArgumentException() {
+		assertThatIllegalArgumentException()
+				.isThrownBy(() -> this.jwsEncoder.setJwkSelectionCacheTimeToLive(Duration.ofSeconds(-1)))
+				.withMessage("jwkSelectionCacheTimeToLive cannot be negative");
+	}
+
+	@Test
+	public void encodeWhenImmutableJwkSetThenJwkSelectedOnce() throws Exception {
+		JWKSource<SecurityContext> jwkSource = spy(new ImmutableJWKSet<>(new JWKSet(TestJwks.DEFAULT_RSA_JWK)));
+		NimbusJwsEncoder jwsEncoder = new NimbusJwsEncoder(jwkSource);
+
+		JoseHeader joseHeader = JoseHeader.withAlgorithm(SignatureAlgorithm.RS256).build();
+		JwtClaimsSet jwtClaimsSet = TestJwtClaimsSets.jwtClaimsSet().build();
+		jwsEncoder.encode(joseHeader, jwtClaimsSet);
+		Jwt encodedJws = jwsEncoder.encode(joseHeader, jwtClaimsSet);
+
+		verify(jwkSource, times(1)).get(any(), any());
+		NimbusJwtDecoder jwtDecoder = NimbusJwtDecoder.withPublicKey(TestJwks.DEFAULT_RSA_JWK.toRSAPublicKey()).build();
+		jwtDecoder.decode(encodedJws.getTokenValue());
+	}
+
+	@Test
+	public void encodeWhenDefaultJwkSelectionCacheTimeToLiveThenJwkSelectedEachTime() throws Exception {
+		this.jwkList.add(TestJwks.DEFAULT_RSA_JWK);
+		JWKSource<SecurityContext> jwkSource = spy(new JWKSource<SecurityContext>() {
+			@Override
+			public List<JWK> get(JWKSelector jwkSelector, SecurityContext context) {
+				return jwkSelector.select(new JWKSet(NimbusJwsEncoderTests.this.jwkList));
+			}
+		});
+		NimbusJwsEncoder jwsEncoder = new NimbusJwsEncoder(jwkSource);
+
+		JoseHeader joseHeader = JoseHeader.withAlgorithm(SignatureAlgorithm.RS256).build();
+		JwtClaimsSet jwtClaimsSet = TestJwtClaimsSets.jwtClaimsSet().build();
+		jwsEncoder.encode(joseHeader, jwtClaimsSet);
+		jwsEncoder.encode(joseHeader, jwtClaimsSet);
+
+		verify(jwkSource, times(2)).get(any(), any());
+	}
+
+	@Test
+	public void encodeWhenJwkSelectionCacheTimeToLiveThenJwkSelectedOnce() throws Exception {
+		this.jwkList.add(TestJwks.DEFAULT_RSA_JWK);
+		JWKSource<SecurityContext> jwkSource = spy(new JWKSource<SecurityContext>() {
+			@Override
+			public List<JWK> get(JWKSelector jwkSelector, SecurityContext context) {
+				return jwkSelector.select(new JWKSet(NimbusJwsEncoderTests.this.jwkList));
+			}
+		});
+		NimbusJwsEncoder jwsEncoder = new NimbusJwsEncoder(jwkSource);
+		jwsEncoder.setJwkSelectionCacheTimeToLive(Duration.ofMinutes(1));
+
+		JoseHeader joseHeader = JoseHeader.withAlgorithm(SignatureAlgorithm.RS256).build();
+		JwtClaimsSet jwtClaimsSet = TestJwtClaimsSets.jwtClaimsSet().build();
+		jwsEncoder.encode(joseHeader, jwtClaimsSet);
+		jwsEncoder.encode(joseHeader, jwtClaimsSet);
+
+		verify(jwkSource, times(1)).get(any(), any());
+	}
+
 	@Test
 	public void encodeWhenKeysRotatedThenNewKeyUsed() throws Exception {
 		TestJWKSource jwkSource = new TestJWKSource();
@@ -15,7 +15,9 @@
  */
 package org.springframework.security.oauth2.server.authorization;
 
+import java.time.Clock;
 import java.time.Instant;
+import java.time.ZoneOffset;
 import java.time.temporal.ChronoUnit;
 import java.util.List;
 
@@ -169,6 +171,40 @@ public class InMemoryOAuth2AuthorizationServiceTests {
 		assertThat(authorization).isNull();
 	}
 
+	@Test
+	public void saveWhenInitializedAuthorizationsReachMaxThenLeastRecentlySavedRemoved() {
+		int maxInitializedAuthorizations = 5;
+		InMemoryOAuth2AuthorizationService authorizationService =
+				new InMemoryOAuth2AuthorizationService(maxInitializedAuthorizations);
+
+		OAuth2Authorization initialAuthorization = OAuth2Authorization.withRegisteredClient(REGISTERED_CLIENT)
+				.id(ID + "-initial")
+				.principalName(PRINCIPAL_NAME)
+				.authorizationGrantType(AUTHORIZATION_GRANT_TYPE)
+				.attribute(OAuth2ParameterNames.STATE, "state-initial")
+				.build();
+		authorizationService.save(initialAuthorization);
+
+		for (int i = 0; i < maxInitializedAuthorizations; i++) {
+			if (i == maxInitializedAuthorizations - 1) {
+				// Saving again makes it the most recently saved
+				authorizationService.save(initialAuthorization);
+			}
+			authorizationService.save(OAuth2Authorization.withRegisteredClient(REGISTERED_CLIENT)
+					.id(ID + "-" + i)
+					.principalName(PRINCIPAL_NAME)
+					.authorizationGrantType(AUTHORIZATION_GRANT_TYPE)
+					.attribute(OAuth2ParameterNames.STATE, "state-" + i)
+					.build());
+		}
+
+		assertThat(authorizationService.findByToken("state-initial", STATE_TOKEN_TYPE)).isEqualTo(initialAuthorization);
+		assertThat(authorizationService.findById(ID + "-0")).isNull();
+		assertThat(authorizationService.findByToken("state-0", STATE_TOKEN_TYPE)).isNull();
+		assertThat(authorizationService.getAuthorizationsCount()).isEqualTo(maxInitializedAuthorizations);
+		assertThat(authorizationService.getEvictedAuthorizationsCount()).isEqualTo(1);
+	}
+
 	@Test
 	public void removeWhenAuthorizationNullThenThrowIllegalArgumentException() {
 		assertThatThrownBy(() -> this.authorizationService.remove(null))
@@ -299,10 +335,185 @@ public class InMemoryOAuth2AuthorizationServiceTests {
 		assertThat(result).isNull();
 	}
 
+	@Test
+	public void findByTokenWhenAccessTokenRotatedThenPreviousNotFound() {
+		OAuth2AccessToken accessToken = new OAuth2AccessToken(OAuth2AccessToken.TokenType.BEARER,
+				"access-token", Instant.now().minusSeconds(60), Instant.now());
+		OAuth2RefreshToken refreshToken = new OAuth2RefreshToken("refresh-token", Instant.now());
+		OAuth2Authorization authorization = OAuth2Authorization.withRegisteredClient(REGISTERED_CLIENT)
+				.id(ID)
+				.principalName(PRINCIPAL_NAME)
+				.authorizationGrantType(AUTHORIZATION_GRANT_TYPE)
+				.accessToken(accessToken)
+				.refreshToken(refreshToken)
+				.build();
+		this.authorizationService.save(authorization);
+
+		OAuth2AccessToken rotatedAccessToken = new OAuth2AccessToken(OAuth2AccessToken.TokenType.BEARER,
+				"rotated-access-token", Instant.now(), Instant.now().plusSeconds(300));
+		OAuth2Authorization updatedAuthorization = OAuth2Authorization.from(authorization)
+				.accessToken(rotatedAccessToken)
+				.build();
+		this.authorizationService.save(updatedAuthorization);
+
+		assertThat(this.authorizationService.findByToken(accessToken.getTokenValue(), OAuth2TokenType.ACCESS_TOKEN)).isNull();
+		assertThat(this.authorizationService.findByToken(accessToken.getTokenValue(), null)).isNull();
+		assertThat(this.authorizationService.findByToken(rotatedAccessToken.getTokenValue(), OAuth2TokenType.ACCESS_TOKEN))
+				.isEqualTo(updatedAuthorization);
+		assertThat(this.authorizationService.findByToken(refreshToken.getTokenValue(), OAuth2TokenType.REFRESH_TOKEN))
+				.isEqualTo(updatedAuthorization);
+	}
+
+	@Test
+	public void findByTokenWhenInitializedAuthorizationCompletedThenFound() {
+		int maxInitializedAuthorizations = 1;
+		InMemoryOAuth2AuthorizationService authorizationService =
+				new InMemoryOAuth2AuthorizationService(maxInitializedAuthorizations);
+
+		OAuth2Authorization initializedAuthorization = OAuth2Authorization.withRegisteredClient(REGISTERED_CLIENT)
+				.id(ID)
+				.principalName(PRINCIPAL_NAME)
+				.authorizationGrantType(AUTHORIZATION_GRANT_TYPE)
+				.token(AUTHORIZATION_CODE)
+				.build();
+		authorizationService.save(initializedAuthorization);
+
+		OAuth2AccessToken accessToken = new OAuth2AccessToken(OAuth2AccessToken.TokenType.BEARER,
+				"access-token", Instant.now(), Instant.now().plusSeconds(300));
+		OAuth2Authorization completedAuthorization = OAuth2Authorization.from(initializedAuthorization)
+				.accessToken(accessToken)
+				.build();
+		authorizationService.save(completedAuthorization);
+
+		// Evict any remaining initialized authorization
+		authorizationService.save(OAuth2Authorization.withRegisteredClient(REGISTERED_CLIENT)
+				.id(ID + "-other")
+				.principalName(PRINCIPAL_NAME)
+				.authorizationGrantType(AUTHORIZATION_GRANT_TYPE)
+				.build());
+
+		assertThat(authorizationService.findByToken(AUTHORIZATION_CODE.getTokenValue(), AUTHORIZATION_CODE_TOKEN_TYPE))
+				.isEqualTo(completedAuthorization);
+		assertThat(authorizationService.findByToken(accessToken.getTokenValue(), null))
+				.isEqualTo(completedAuthorization);
+	}
+
+	@Test
+	public void removeWhenAuthorizationRemovedThenTokensNotFound() {
+		OAuth2AccessToken accessToken = new OAuth2AccessToken(OAuth2AccessToken.TokenType.BEARER,
+				"access-token", Instant.now(), Instant.now().plusSeconds(300));
+		OAuth2Authorization authorization = OAuth2Authorization.withRegisteredClient(REGISTERED_CLIENT)
+				.id(ID)
+				.principalName(PRINCIPAL_NAME)
+				.authorizationGrantType(AUTHORIZATION_GRANT_TYPE)
+				.token(AUTHORIZATION_CODE)
+				.accessToken(accessToken)
+				.build();
+		this.authorizationService.save(authorization);
+		this.authorizationService.remove(authorization);
+
+		assertThat(this.authorizationService.findByToken(AUTHORIZATION_CODE.getTokenValue(), null)).isNull();
+		assertThat(this.authorizationService.findByToken(accessToken.getTokenValue(), null)).isNull();
+	}
+
 	@Test
 	public void findByTokenWhenTokenDoesNotExistThenNull() {
 		OAuth2Authorization result = this.authorizationService.findByToken(
 				"access-token", OAuth2TokenType.ACCESS_TOKEN);
 		assertThat(result).isNull();
 	}
+
+	@Test
+	public void setMaxAuthorizationsWhenZeroThenThrowIllegalArgumentException() {
+		assertThatThrownBy(() -> this.authorizationService.setMaxAuthorizations(0))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("maxAuthorizations must be greater than 0");
+	}
+
+	@Test
+	public void saveWhenAuthorizationExpiredThenRemoved() {
+		this.authorizationService.setRemoveExpiredAuthorizationsOnSave(true);
+		Instant issuedAt = Instant.now();
+		OAuth2Authorization expiringAuthorization = createCompletedAuthorization(ID + "-expiring",
+				"access-token-expiring", issuedAt, issuedAt.plusSeconds(60));
+		OAuth2Authorization authorization = createCompletedAuthorization(ID,
+				"access-token", issuedAt, issuedAt.plusSeconds(600));
+		this.authorizationService.save(expiringAuthorization);
+		this.authorizationService.save(authorization);
+		assertThat(this.authorizationService.getAuthorizationsCount()).isEqualTo(2);
+
+		this.authorizationService.setClock(Clock.fixed(issuedAt.plusSeconds(120), ZoneOffset.UTC));
+		this.authorizationService.save(authorization);
+
+		assertThat(this.authorizationService.findById(expiringAuthorization.getId())).isNull();
+		assertThat(this.authorizationService.findByToken("access-token-expiring", OAuth2TokenType.ACCESS_TOKEN)).isNull();
+		assertThat(this.authorizationService.findById(authorization.getId())).isEqualTo(authorization);
+		assertThat(this.authorizationService.getAuthorizationsCount()).isEqualTo(1);
+		assertThat(this.authorizationService.getExpiredAuthorizationsCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void saveWhenAuthorizationExpiredAndRemoveOnSaveDisabledThenRetained() {
+		Instant issuedAt = Instant.now();
+		OAuth2Authorization expiringAuthorization = createCompletedAuthorization(ID + "-expiring",
+				"access-token-expiring", issuedAt, issuedAt.plusSeconds(60));
+		OAuth2Authorization authorization = createCompletedAuthorization(ID,
+				"access-token", issuedAt, issuedAt.plusSeconds(600));
+		this.authorizationService.save(expiringAuthorization);
+
+		this.authorizationService.setClock(Clock.fixed(issuedAt.plusSeconds(120), ZoneOffset.UTC));
+		this.authorizationService.save(authorization);
+
+		assertThat(this.authorizationService.findById(expiringAuthorization.getId())).isEqualTo(expiringAuthorization);
+		assertThat(this.authorizationService.getExpiredAuthorizationsCount()).isZero();
+		assertThat(this.authorizationService.purgeExpiredAuthorizations()).isEqualTo(1);
+		assertThat(this.authorizationService.findById(expiringAuthorization.getId())).isNull();
+	}
+
+	@Test
+	public void purgeExpiredAuthorizationsWhenRefreshTokenNotExpiredThenRetained() {
+		Instant issuedAt = Instant.now();
+		OAuth2RefreshToken refreshToken = new OAuth2RefreshToken("refresh-token", issuedAt, issuedAt.plusSeconds(3600));
+		OAuth2Authorization authorization = OAuth2Authorization.from(createCompletedAuthorization(ID,
+				"access-token", issuedAt, issuedAt.plusSeconds(60)))
+				.refreshToken(refreshToken)
+				.build();
+		this.authorizationService.save(authorization);
+
+		this.authorizationService.setClock(Clock.fixed(issuedAt.plusSeconds(120), ZoneOffset.UTC));
+		assertThat(this.authorizationService.purgeExpiredAuthorizations()).isZero();
+		assertThat(this.authorizationService.findByToken("refresh-token", OAuth2TokenType.REFRESH_TOKEN))
+				.isEqualTo(authorization);
+
+		this.authorizationService.setClock(Clock.fixed(issuedAt.plusSeconds(3601), ZoneOffset.UTC));
+		assertThat(this.authorizationService.purgeExpiredAuthorizations()).isEqualTo(1);
+		assertThat(this.authorizationService.findByToken("refresh-token", OAuth2TokenType.REFRESH_TOKEN)).isNull();
+	}
+
+	@Test
+	public void saveWhenMaxAuthorizationsExceededThenClosestToExpiringEvicted() {
+		this.authorizationService.setMaxAuthorizations(2);
+		Instant issuedAt = Instant.now();
+		for (int i = 0; i < 3; i++) {
+			this.authorizationService.save(createCompletedAuthorization(ID + "-" + i,
+					"access-token-" + i, issuedAt, issuedAt.plusSeconds(300 - i)));
+		}
+
+		assertThat(this.authorizationService.findById(ID + "-0")).isNotNull();
+		assertThat(this.authorizationService.findById(ID + "-1")).isNotNull();
+		assertThat(this.authorizationService.findById(ID + "-2")).isNull();
+		assertThat(this.authorizationService.getEvictedAuthorizationsCount()).isEqualTo(1);
+	}
+
+	private static OAuth2Authorization createCompletedAuthorization(String id, String accessTokenValue,
+			Instant issuedAt, Instant expiresAt) {
+		OAuth2AccessToken accessToken = new OAuth2AccessToken(OAuth2AccessToken.TokenType.BEARER,
+				accessTokenValue, issuedAt, expiresAt);
+		return OAuth2Authorization.withRegisteredClient(REGISTERED_CLIENT)
+				.id(id)
+				.principalName(PRINCIPAL_NAME)
+				.authorizationGrantType(AuthorizationGrantType.CLIENT_CREDENTIALS)
+				.accessToken(accessToken)
+				.build();
+	}
 }
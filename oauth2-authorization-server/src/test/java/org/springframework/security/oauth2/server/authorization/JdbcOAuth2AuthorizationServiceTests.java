@@ -15,6 +15,10 @@
  */
 package org.springframework.security.oauth2.server.authorization;
 
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
@@ -22,13 +26,18 @@ import java.sql.Types;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 
+import javax.sql.DataSource;
+
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -40,6 +49,8 @@ import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.PreparedStatementSetter;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.SqlParameterValue;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
 import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
 import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
 import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
@@ -50,10 +61,15 @@ import org.springframework.security.oauth2.core.OAuth2AuthorizationCode;
 import org.springframework.security.oauth2.core.OAuth2RefreshToken;
 import org.springframework.security.oauth2.core.OAuth2TokenType;
 import org.springframework.security.oauth2.core.endpoint.OAuth2ParameterNames;
+import org.springframework.security.oauth2.core.oidc.IdTokenClaimNames;
 import org.springframework.security.oauth2.core.oidc.OidcIdToken;
 import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
 import org.springframework.security.oauth2.server.authorization.client.RegisteredClientRepository;
 import org.springframework.security.oauth2.server.authorization.client.TestRegisteredClients;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.CollectionUtils;
 import org.springframework.util.StringUtils;
 
@@ -61,9 +77,15 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -75,6 +97,7 @@ import static org.mockito.Mockito.when;
 public class JdbcOAuth2AuthorizationServiceTests {
 	private static final String OAUTH2_AUTHORIZATION_SCHEMA_SQL_RESOURCE = "org/springframework/security/oauth2/server/authorization/oauth2-authorization-schema.sql";
 	private static final String CUSTOM_OAUTH2_AUTHORIZATION_SCHEMA_SQL_RESOURCE = "org/springframework/security/oauth2/server/authorization/custom-oauth2-authorization-schema.sql";
+	private static final String OAUTH2_AUTHORIZATION_TOKEN_LOOKUP_SCHEMA_SQL_RESOURCE = "org/springframework/security/oauth2/server/authorization/oauth2-authorization-token-lookup-schema.sql";
 	private static final String OAUTH2_AUTHORIZATION_SCHEMA_CLOB_DATA_TYPE_SQL_RESOURCE = "org/springframework/security/oauth2/server/authorization/custom-oauth2-authorization-schema-clob-data-type.sql";
 	private static final OAuth2TokenType AUTHORIZATION_CODE_TOKEN_TYPE = new OAuth2TokenType(OAuth2ParameterNames.CODE);
 	private static final OAuth2TokenType STATE_TOKEN_TYPE = new OAuth2TokenType(OAuth2ParameterNames.STATE);
@@ -173,6 +196,163 @@ public class JdbcOAuth2AuthorizationServiceTests {
 		assertThat(authorization).isEqualTo(expectedAuthorization);
 	}
 
+	@Test
+	public void saveWhenBinaryEncodingEnabledThenAttributesAndMetadataEncodedAndReadable() {
+		when(this.registeredClientRepository.findById(eq(REGISTERED_CLIENT.getId())))
+				.thenReturn(REGISTERED_CLIENT);
+		OAuth2Authorization jsonAuthorization = OAuth2Authorization.withRegisteredClient(REGISTERED_CLIENT)
+				.id(ID + "-json")
+				.principalName(PRINCIPAL_NAME)
+				.authorizationGrantType(AUTHORIZATION_GRANT_TYPE)
+				.attribute("custom-name", "custom-value")
+				.token(AUTHORIZATION_CODE)
+				.build();
+		this.authorizationService.save(jsonAuthorization);
+
+		JdbcOAuth2AuthorizationService.OAuth2AuthorizationParametersMapper authorizationParametersMapper =
+				new JdbcOAuth2AuthorizationService.OAuth2AuthorizationParametersMapper();
+		authorizationParametersMapper.setBinaryEncodingEnabled(true);
+		this.authorizationService.setAuthorizationParametersMapper(authorizationParametersMapper);
+		OAuth2Authorization binaryAuthorization = OAuth2Authorization.from(jsonAuthorization)
+				.id(ID)
+				.build();
+		this.authorizationService.save(binaryAuthorization);
+
+		byte[] attributes = this.jdbcOperations.queryForObject(
+				"SELECT attributes FROM oauth2_authorization WHERE id = ?", byte[].class, ID);
+		byte[] authorizationCodeMetadata = this.jdbcOperations.queryForObject(
+				"SELECT authorization_code_metadata FROM oauth2_authorization WHERE id = ?", byte[].class, ID);
+		byte[] smileHeader = { ':', ')', '\n' };
+		assertThat(attributes).startsWith(smileHeader);
+		assertThat(authorizationCodeMetadata).startsWith(smileHeader);
+		assertThat(this.authorizationService.findById(ID)).isEqualTo(binaryAuthorization);
+		assertThat(this.authorizationService.findById(jsonAuthorization.getId())).isEqualTo(jsonAuthorization);
+	}
+
+	@Test
+	public void findByTokenWhenFoundThenAttributesAndMetadataDecodedOnAccess() {
+		when(this.registeredClientRepository.findById(eq(REGISTERED_CLIENT.getId())))
+				.thenReturn(REGISTERED_CLIENT);
+		OAuth2RefreshToken refreshToken = new OAuth2RefreshToken("refresh-token",
+				Instant.now().truncatedTo(ChronoUnit.MILLIS), Instant.now().plus(1, ChronoUnit.HOURS).truncatedTo(ChronoUnit.MILLIS));
+		OAuth2Authorization expectedAuthorization = OAuth2Authorization.withRegisteredClient(REGISTERED_CLIENT)
+				.id(ID)
+				.principalName(PRINCIPAL_NAME)
+				.authorizationGrantType(AUTHORIZATION_GRANT_TYPE)
+				.attribute("custom-name", "custom-value")
+				.token(AUTHORIZATION_CODE)
+				.refreshToken(refreshToken)
+				.build();
+		this.authorizationService.save(expectedAuthorization);
+		// Corrupt the columns that are not expected to be decoded
+		this.jdbcOperations.update("UPDATE oauth2_authorization SET attributes = ?, authorization_code_metadata = ? WHERE id = ?",
+				"{".getBytes(StandardCharsets.UTF_8), "{".getBytes(StandardCharsets.UTF_8), ID);
+
+		OAuth2Authorization authorization = this.authorizationService.findByToken(
+				refreshToken.getTokenValue(), OAuth2TokenType.REFRESH_TOKEN);
+		assertThat(authorization).isNotNull();
+		assertThat(authorization.getToken(refreshToken.getTokenValue())).isNotNull();
+		assertThat(authorization.getRefreshToken().getToken()).isEqualTo(refreshToken);
+		assertThat(authorization.getRefreshToken().isActive()).isTrue();
+		assertThat(authorization.getToken(OAuth2AuthorizationCode.class).getToken()).isEqualTo(AUTHORIZATION_CODE);
+		assertThatThrownBy(authorization::getAttributes)
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> authorization.getToken(OAuth2AuthorizationCode.class).getMetadata())
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	public void findAuthorizedTokenWhenAccessTokenExistsThenFound() {
+		when(this.registeredClientRepository.findById(eq(REGISTERED_CLIENT.getId())))
+				.thenReturn(REGISTERED_CLIENT);
+		OAuth2AccessToken accessToken = new OAuth2AccessToken(OAuth2AccessToken.TokenType.BEARER,
+				"access-token", Instant.now().truncatedTo(ChronoUnit.MILLIS),
+				Instant.now().plus(5, ChronoUnit.MINUTES).truncatedTo(ChronoUnit.MILLIS));
+		OAuth2Authorization authorization = OAuth2Authorization.withRegisteredClient(REGISTERED_CLIENT)
+				.id(ID)
+				.principalName(PRINCIPAL_NAME)
+				.authorizationGrantType(AUTHORIZATION_GRANT_TYPE)
+				.attribute(OAuth2ParameterNames.STATE, "state")
+				.token(AUTHORIZATION_CODE)
+				.accessToken(accessToken)
+				.build();
+		this.authorizationService.save(authorization);
+
+		OAuth2AuthorizedToken authorizedToken = this.authorizationService.findAuthorizedToken(
+				accessToken.getTokenValue(), null);
+		assertThat(authorizedToken).isNotNull();
+		assertThat(authorizedToken.getAuthorizationId()).isEqualTo(ID);
+		assertThat(authorizedToken.getRegisteredClientId()).isEqualTo(REGISTERED_CLIENT.getId());
+		assertThat(authorizedToken.getPrincipalName()).isEqualTo(PRINCIPAL_NAME);
+		assertThat(authorizedToken.<OAuth2AccessToken>getToken()).isEqualTo(authorization.getAccessToken());
+		assertThat(this.authorizationService.findAuthorizedToken(AUTHORIZATION_CODE.getTokenValue(), AUTHORIZATION_CODE_TOKEN_TYPE)
+				.<OAuth2AuthorizationCode>getToken()).isEqualTo(authorization.getToken(OAuth2AuthorizationCode.class));
+		assertThat(this.authorizationService.findAuthorizedToken("state", null)).isNull();
+		assertThat(this.authorizationService.findAuthorizedToken("unknown", OAuth2TokenType.ACCESS_TOKEN)).isNull();
+	}
+
+	@Test
+	public void findAuthorizedTokensWhenTokensExistThenFound() {
+		assertFindAuthorizedTokens(this.authorizationService);
+	}
+
+	@Test
+	public void findAuthorizedTokensWhenTokenLookupEnabledThenFound() {
+		EmbeddedDatabase db = createDb(OAUTH2_AUTHORIZATION_SCHEMA_SQL_RESOURCE, OAUTH2_AUTHORIZATION_TOKEN_LOOKUP_SCHEMA_SQL_RESOURCE);
+		JdbcOAuth2AuthorizationService authorizationService =
+				new JdbcOAuth2AuthorizationService(new JdbcTemplate(db), this.registeredClientRepository);
+		authorizationService.setTokenLookupEnabled(true);
+		assertFindAuthorizedTokens(authorizationService);
+		db.shutdown();
+	}
+
+	private void assertFindAuthorizedTokens(JdbcOAuth2AuthorizationService authorizationService) {
+		when(this.registeredClientRepository.findById(eq(REGISTERED_CLIENT.getId())))
+				.thenReturn(REGISTERED_CLIENT);
+		OAuth2AccessToken accessToken1 = new OAuth2AccessToken(OAuth2AccessToken.TokenType.BEARER,
+				"access-token-1", Instant.now().truncatedTo(ChronoUnit.MILLIS),
+				Instant.now().plus(5, ChronoUnit.MINUTES).truncatedTo(ChronoUnit.MILLIS));
+		OAuth2RefreshToken refreshToken1 = new OAuth2RefreshToken("refresh-token-1",
+				Instant.now().truncatedTo(ChronoUnit.MILLIS));
+		OAuth2Authorization authorization1 = OAuth2Authorization.withRegisteredClient(REGISTERED_CLIENT)
+				.id(ID)
+				.principalName(PRINCIPAL_NAME)
+				.authorizationGrantType(AUTHORIZATION_GRANT_TYPE)
+				.attribute(OAuth2ParameterNames.STATE, "state")
+				.accessToken(accessToken1)
+				.refreshToken(refreshToken1)
+				.build();
+		authorizationService.save(authorization1);
+		OAuth2AccessToken accessToken2 = new OAuth2AccessToken(OAuth2AccessToken.TokenType.BEARER,
+				"access-token-2", Instant.now().truncatedTo(ChronoUnit.MILLIS),
+				Instant.now().plus(5, ChronoUnit.MINUTES).truncatedTo(ChronoUnit.MILLIS));
+		OAuth2Authorization authorization2 = OAuth2Authorization.withRegisteredClient(REGISTERED_CLIENT)
+				.id("id-2")
+				.principalName("principal-2")
+				.authorizationGrantType(AUTHORIZATION_GRANT_TYPE)
+				.accessToken(accessToken2)
+				.build();
+		authorizationService.save(authorization2);
+
+		Map<String, OAuth2AuthorizedToken> authorizedTokens = authorizationService.findAuthorizedTokens(
+				Arrays.asList(accessToken1.getTokenValue(), "unknown", accessToken2.getTokenValue(),
+						refreshToken1.getTokenValue(), "state"), null);
+		assertThat(authorizedTokens).containsOnlyKeys(accessToken1.getTokenValue(),
+				accessToken2.getTokenValue(), refreshToken1.getTokenValue());
+		assertThat(authorizedTokens.get(accessToken1.getTokenValue()).<OAuth2AccessToken>getToken())
+				.isEqualTo(authorization1.getAccessToken());
+		assertThat(authorizedTokens.get(refreshToken1.getTokenValue()).<OAuth2RefreshToken>getToken())
+				.isEqualTo(authorization1.getRefreshToken());
+		OAuth2AuthorizedToken authorizedToken2 = authorizedTokens.get(accessToken2.getTokenValue());
+		assertThat(authorizedToken2.getAuthorizationId()).isEqualTo("id-2");
+		assertThat(authorizedToken2.getPrincipalName()).isEqualTo("principal-2");
+		assertThat(authorizedToken2.<OAuth2AccessToken>getToken()).isEqualTo(authorization2.getAccessToken());
+
+		assertThat(authorizationService.findAuthorizedTokens(
+				Arrays.asList(accessToken1.getTokenValue(), refreshToken1.getTokenValue()), OAuth2TokenType.ACCESS_TOKEN))
+				.containsOnlyKeys(accessToken1.getTokenValue());
+	}
+
 	@Test
 	public void saveWhenAuthorizationExistsThenUpdated() {
 		when(this.registeredClientRepository.findById(eq(REGISTERED_CLIENT.getId())))
@@ -200,6 +380,219 @@ public class JdbcOAuth2AuthorizationServiceTests {
 		assertThat(authorization).isNotEqualTo(originalAuthorization);
 	}
 
+	@Test
+	public void saveWhenConcurrentlyInsertedWithinTransactionThenUpdated() {
+		when(this.registeredClientRepository.findById(eq(REGISTERED_CLIENT.getId())))
+				.thenReturn(REGISTERED_CLIENT);
+		OAuth2Authorization originalAuthorization = OAuth2Authorization.withRegisteredClient(REGISTERED_CLIENT)
+				.id(ID)
+				.principalName(PRINCIPAL_NAME)
+				.authorizationGrantType(AUTHORIZATION_GRANT_TYPE)
+				.token(AUTHORIZATION_CODE)
+				.build();
+		this.authorizationService.save(originalAuthorization);
+
+		// The update does not find the row, which was inserted concurrently, so the insert fails
+		JdbcTemplate jdbcOperations = spy(new JdbcTemplate(this.db));
+		doReturn(0).doCallRealMethod().when(jdbcOperations)
+				.update(startsWith("UPDATE oauth2_authorization"), any(PreparedStatementSetter.class));
+		JdbcOAuth2AuthorizationService authorizationService =
+				new JdbcOAuth2AuthorizationService(jdbcOperations, this.registeredClientRepository);
+		OAuth2Authorization updatedAuthorization = OAuth2Authorization.withRegisteredClient(REGISTERED_CLIENT)
+				.id(ID)
+				.principalName(PRINCIPAL_NAME)
+				.authorizationGrantType(AUTHORIZATION_GRANT_TYPE)
+				.attribute("custom-name-1", "custom-value-1")
+				.token(AUTHORIZATION_CODE)
+				.build();
+		TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(this.db));
+		transactionTemplate.executeWithoutResult((status) -> authorizationService.save(updatedAuthorization));
+
+		OAuth2Authorization authorization = this.authorizationService.findById(ID);
+		assertThat(authorization.<String>getAttribute("custom-name-1")).isEqualTo("custom-value-1");
+		Integer count = this.jdbcOperations.queryForObject(
+				"SELECT COUNT(*) FROM oauth2_authorization", Integer.class);
+		assertThat(count).isEqualTo(1);
+	}
+
+	@Test
+	public void saveWhenNewAuthorizationThenSingleConnectionHeld() {
+		AtomicInteger openConnectionsCount = new AtomicInteger();
+		AtomicInteger maxOpenConnectionsCount = new AtomicInteger();
+		DataSource dataSource = new DelegatingDataSource(this.db) {
+			@Override
+			public Connection getConnection() throws SQLException {
+				Connection connection = super.getConnection();
+				maxOpenConnectionsCount.accumulateAndGet(openConnectionsCount.incrementAndGet(), Math::max);
+				return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(),
+						new Class<?>[] { Connection.class }, (proxy, method, args) -> {
+							if ("close".equals(method.getName())) {
+								openConnectionsCount.decrementAndGet();
+							}
+							try {
+								return method.invoke(connection, args);
+							} catch (InvocationTargetException ex) {
+								throw ex.getTargetException();
+							}
+						});
+			}
+		};
+		JdbcOAuth2AuthorizationService authorizationService =
+				new JdbcOAuth2AuthorizationService(new JdbcTemplate(dataSource), this.registeredClientRepository);
+		OAuth2Authorization authorization = OAuth2Authorization.withRegisteredClient(REGISTERED_CLIENT)
+				.id(ID)
+				.principalName(PRINCIPAL_NAME)
+				.authorizationGrantType(AUTHORIZATION_GRANT_TYPE)
+				.token(AUTHORIZATION_CODE)
+				.build();
+
+		authorizationService.save(authorization);
+
+		assertThat(maxOpenConnectionsCount.get()).isEqualTo(1);
+		Integer count = this.jdbcOperations.queryForObject(
+				"SELECT COUNT(*) FROM oauth2_authorization", Integer.class);
+		assertThat(count).isEqualTo(1);
+	}
+
+	@Test
+	public void saveWhenAuthorizationExistsThenExistingNotLoaded() throws Exception {
+		OAuth2Authorization originalAuthorization = OAuth2Authorization.withRegisteredClient(REGISTERED_CLIENT)
+				.id(ID)
+				.principalName(PRINCIPAL_NAME)
+				.authorizationGrantType(AUTHORIZATION_GRANT_TYPE)
+				.token(AUTHORIZATION_CODE)
+				.build();
+		RowMapper<OAuth2Authorization> authorizationRowMapper = spy(
+				new JdbcOAuth2AuthorizationService.OAuth2AuthorizationRowMapper(
+						this.registeredClientRepository));
+		this.authorizationService.setAuthorizationRowMapper(authorizationRowMapper);
+
+		this.authorizationService.save(originalAuthorization);
+		OAuth2Authorization updatedAuthorization = OAuth2Authorization.from(originalAuthorization)
+				.attribute("custom-name-1", "custom-value-1")
+				.build();
+		this.authorizationService.save(updatedAuthorization);
+
+		verify(authorizationRowMapper, never()).mapRow(any(), anyInt());
+		verify(this.registeredClientRepository, never()).findById(any());
+		Integer count = this.jdbcOperations.queryForObject(
+				"SELECT COUNT(*) FROM oauth2_authorization", Integer.class);
+		assertThat(count).isEqualTo(1);
+	}
+
+	@Test
+	public void saveWhenAuthorizationCodeExchangedThenAllIssuedTokensSaved() {
+		when(this.registeredClientRepository.findById(eq(REGISTERED_CLIENT.getId())))
+				.thenReturn(REGISTERED_CLIENT);
+		OAuth2Authorization originalAuthorization = OAuth2Authorization.withRegisteredClient(REGISTERED_CLIENT)
+				.id(ID)
+				.principalName(PRINCIPAL_NAME)
+				.authorizationGrantType(AUTHORIZATION_GRANT_TYPE)
+				.token(AUTHORIZATION_CODE)
+				.build();
+		this.authorizationService.save(originalAuthorization);
+
+		// As in the authorization code grant: the tokens are issued, then the authorization code is invalidated
+		OAuth2Authorization loadedAuthorization = this.authorizationService.findByToken(
+				AUTHORIZATION_CODE.getTokenValue(), AUTHORIZATION_CODE_TOKEN_TYPE);
+		Instant issuedAt = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+		OAuth2AccessToken accessToken = new OAuth2AccessToken(OAuth2AccessToken.TokenType.BEARER,
+				"access-token", issuedAt, issuedAt.plusSeconds(300));
+		OAuth2RefreshToken refreshToken = new OAuth2RefreshToken("refresh-token", issuedAt, issuedAt.plusSeconds(3600));
+		OidcIdToken idToken = OidcIdToken.withTokenValue("id-token")
+				.issuedAt(issuedAt)
+				.expiresAt(issuedAt.plusSeconds(300))
+				.subject(PRINCIPAL_NAME)
+				.build();
+		OAuth2Authorization authorization = OAuth2Authorization.from(loadedAuthorization)
+				.accessToken(accessToken)
+				.refreshToken(refreshToken)
+				.token(idToken, (metadata) -> metadata.put(OAuth2Authorization.Token.CLAIMS_METADATA_NAME,
+						Collections.singletonMap(IdTokenClaimNames.SUB, PRINCIPAL_NAME)))
+				.build();
+		authorization = OAuth2Authorization.from(authorization)
+				.token(AUTHORIZATION_CODE, (metadata) ->
+						metadata.put(OAuth2Authorization.Token.INVALIDATED_METADATA_NAME, true))
+				.build();
+		this.authorizationService.save(authorization);
+
+		OAuth2Authorization savedAuthorization = this.authorizationService.findById(ID);
+		assertThat(savedAuthorization.getToken(OAuth2AuthorizationCode.class).isInvalidated()).isTrue();
+		assertThat(savedAuthorization.getAccessToken().getToken()).isEqualTo(accessToken);
+		assertThat(savedAuthorization.getRefreshToken().getToken()).isEqualTo(refreshToken);
+		assertThat(savedAuthorization.getToken(OidcIdToken.class).getToken().getTokenValue()).isEqualTo("id-token");
+		assertThat(this.authorizationService.findByToken(accessToken.getTokenValue(), OAuth2TokenType.ACCESS_TOKEN))
+				.isEqualTo(savedAuthorization);
+		assertThat(this.authorizationService.findByToken(refreshToken.getTokenValue(), OAuth2TokenType.REFRESH_TOKEN))
+				.isEqualTo(savedAuthorization);
+	}
+
+	@Test
+	public void saveWhenOnlyTokenModifiedThenOnlyTokenColumnsUpdated() {
+		when(this.registeredClientRepository.findById(eq(REGISTERED_CLIENT.getId())))
+				.thenReturn(REGISTERED_CLIENT);
+		OAuth2AccessToken accessToken = new OAuth2AccessToken(OAuth2AccessToken.TokenType.BEARER,
+				"access-token", Instant.now().minusSeconds(60).truncatedTo(ChronoUnit.MILLIS), Instant.now().truncatedTo(ChronoUnit.MILLIS));
+		OAuth2Authorization originalAuthorization = OAuth2Authorization.withRegisteredClient(REGISTERED_CLIENT)
+				.id(ID)
+				.principalName(PRINCIPAL_NAME)
+				.authorizationGrantType(AUTHORIZATION_GRANT_TYPE)
+				.token(AUTHORIZATION_CODE)
+				.accessToken(accessToken)
+				.build();
+		this.authorizationService.save(originalAuthorization);
+		OAuth2Authorization loadedAuthorization = this.authorizationService.findById(ID);
+
+		// Modify a column outside of the access token columns, which must not be overwritten
+		this.jdbcOperations.update("UPDATE oauth2_authorization SET principal_name = ? WHERE id = ?", "other-principal", ID);
+
+		OAuth2Authorization updatedAuthorization = OAuth2Authorization.from(loadedAuthorization)
+				.token(accessToken, (metadata) ->
+						metadata.put(OAuth2Authorization.Token.INVALIDATED_METADATA_NAME, true))
+				.build();
+		this.authorizationService.save(updatedAuthorization);
+
+		OAuth2Authorization authorization = this.authorizationService.findById(ID);
+		assertThat(authorization.getPrincipalName()).isEqualTo("other-principal");
+		assertThat(authorization.getAccessToken().isInvalidated()).isTrue();
+		assertThat(authorization.getToken(OAuth2AuthorizationCode.class).isInvalidated()).isFalse();
+	}
+
+	@Test
+	public void saveWhenOnlyTokenModifiedThenOnlyTokenColumnsMapped() throws Exception {
+		when(this.registeredClientRepository.findById(eq(REGISTERED_CLIENT.getId())))
+				.thenReturn(REGISTERED_CLIENT);
+		OAuth2AccessToken accessToken = new OAuth2AccessToken(OAuth2AccessToken.TokenType.BEARER,
+				"access-token", Instant.now().minusSeconds(60).truncatedTo(ChronoUnit.MILLIS), Instant.now().truncatedTo(ChronoUnit.MILLIS));
+		OAuth2Authorization originalAuthorization = OAuth2Authorization.withRegisteredClient(REGISTERED_CLIENT)
+				.id(ID)
+				.principalName(PRINCIPAL_NAME)
+				.authorizationGrantType(AUTHORIZATION_GRANT_TYPE)
+				.attribute("custom-name-1", "custom-value-1")
+				.token(AUTHORIZATION_CODE)
+				.accessToken(accessToken)
+				.build();
+		this.authorizationService.save(originalAuthorization);
+		OAuth2Authorization loadedAuthorization = this.authorizationService.findById(ID);
+
+		ObjectMapper objectMapper = spy(new ObjectMapper());
+		JdbcOAuth2AuthorizationService.OAuth2AuthorizationParametersMapper authorizationParametersMapper =
+				new JdbcOAuth2AuthorizationService.OAuth2AuthorizationParametersMapper();
+		authorizationParametersMapper.setObjectMapper(objectMapper);
+		this.authorizationService.setAuthorizationParametersMapper(authorizationParametersMapper);
+		OAuth2Authorization updatedAuthorization = OAuth2Authorization.from(loadedAuthorization)
+				.token(accessToken, (metadata) ->
+						metadata.put(OAuth2Authorization.Token.INVALIDATED_METADATA_NAME, true))
+				.build();
+		this.authorizationService.save(updatedAuthorization);
+
+		// Only the access token metadata is written
+		verify(objectMapper, times(1)).writeValueAsString(any());
+		OAuth2Authorization authorization = this.authorizationService.findById(ID);
+		assertThat(authorization.getAccessToken().isInvalidated()).isTrue();
+		assertThat(authorization.<String>getAttribute("custom-name-1")).isEqualTo("custom-value-1");
+	}
+
 	@Test
 	public void saveLoadAuthorizationWhenCustomStrategiesSetThenCalled() throws Exception {
 		when(this.registeredClientRepository.findById(eq(REGISTERED_CLIENT.getId())))
@@ -391,6 +784,254 @@ public class JdbcOAuth2AuthorizationServiceTests {
 		assertThat(result).isNull();
 	}
 
+	@Test
+	public void findByTokenWhenTokenLookupEnabledThenFound() {
+		when(this.registeredClientRepository.findById(eq(REGISTERED_CLIENT.getId())))
+				.thenReturn(REGISTERED_CLIENT);
+
+		EmbeddedDatabase db = createDb(OAUTH2_AUTHORIZATION_SCHEMA_SQL_RESOURCE, OAUTH2_AUTHORIZATION_TOKEN_LOOKUP_SCHEMA_SQL_RESOURCE);
+		JdbcOAuth2AuthorizationService authorizationService =
+				new JdbcOAuth2AuthorizationService(new JdbcTemplate(db), this.registeredClientRepository);
+		authorizationService.setTokenLookupEnabled(true);
+		String state = "state";
+		OAuth2AccessToken accessToken = new OAuth2AccessToken(OAuth2AccessToken.TokenType.BEARER,
+				"access-token", Instant.now().minusSeconds(60).truncatedTo(ChronoUnit.MILLIS), Instant.now().truncatedTo(ChronoUnit.MILLIS));
+		OAuth2Authorization authorization = OAuth2Authorization.withRegisteredClient(REGISTERED_CLIENT)
+				.id(ID)
+				.principalName(PRINCIPAL_NAME)
+				.authorizationGrantType(AUTHORIZATION_GRANT_TYPE)
+				.attribute(OAuth2ParameterNames.STATE, state)
+				.token(AUTHORIZATION_CODE)
+				.accessToken(accessToken)
+				.build();
+		authorizationService.save(authorization);
+
+		assertThat(authorizationService.findByToken(state, STATE_TOKEN_TYPE)).isEqualTo(authorization);
+		assertThat(authorizationService.findByToken(state, null)).isEqualTo(authorization);
+		assertThat(authorizationService.findByToken(AUTHORIZATION_CODE.getTokenValue(), AUTHORIZATION_CODE_TOKEN_TYPE)).isEqualTo(authorization);
+		assertThat(authorizationService.findByToken(AUTHORIZATION_CODE.getTokenValue(), null)).isEqualTo(authorization);
+		assertThat(authorizationService.findByToken(accessToken.getTokenValue(), OAuth2TokenType.ACCESS_TOKEN)).isEqualTo(authorization);
+		assertThat(authorizationService.findByToken(accessToken.getTokenValue(), null)).isEqualTo(authorization);
+		assertThat(authorizationService.findByToken(accessToken.getTokenValue(), OAuth2TokenType.REFRESH_TOKEN)).isNull();
+		db.shutdown();
+	}
+
+	@Test
+	public void findByTokenWhenTokenLookupEnabledAndTokenRotatedThenPreviousNotFound() {
+		when(this.registeredClientRepository.findById(eq(REGISTERED_CLIENT.getId())))
+				.thenReturn(REGISTERED_CLIENT);
+
+		EmbeddedDatabase db = createDb(OAUTH2_AUTHORIZATION_SCHEMA_SQL_RESOURCE, OAUTH2_AUTHORIZATION_TOKEN_LOOKUP_SCHEMA_SQL_RESOURCE);
+		JdbcOAuth2AuthorizationService authorizationService =
+				new JdbcOAuth2AuthorizationService(new JdbcTemplate(db), this.registeredClientRepository);
+		authorizationService.setTokenLookupEnabled(true);
+		OAuth2AccessToken accessToken = new OAuth2AccessToken(OAuth2AccessToken.TokenType.BEARER,
+				"access-token", Instant.now().minusSeconds(60).truncatedTo(ChronoUnit.MILLIS), Instant.now().truncatedTo(ChronoUnit.MILLIS));
+		OAuth2Authorization authorization = OAuth2Authorization.withRegisteredClient(REGISTERED_CLIENT)
+				.id(ID)
+				.principalName(PRINCIPAL_NAME)
+				.authorizationGrantType(AUTHORIZATION_GRANT_TYPE)
+				.accessToken(accessToken)
+				.build();
+		authorizationService.save(authorization);
+
+		OAuth2AccessToken rotatedAccessToken = new OAuth2AccessToken(OAuth2AccessToken.TokenType.BEARER,
+				"rotated-access-token", Instant.now().truncatedTo(ChronoUnit.MILLIS), Instant.now().plusSeconds(300).truncatedTo(ChronoUnit.MILLIS));
+		OAuth2Authorization updatedAuthorization = OAuth2Authorization.from(authorization)
+				.accessToken(rotatedAccessToken)
+				.build();
+		authorizationService.save(updatedAuthorization);
+
+		assertThat(authorizationService.findByToken(accessToken.getTokenValue(), null)).isNull();
+		assertThat(authorizationService.findByToken(rotatedAccessToken.getTokenValue(), null)).isEqualTo(updatedAuthorization);
+
+		authorizationService.remove(updatedAuthorization);
+		assertThat(authorizationService.findByToken(rotatedAccessToken.getTokenValue(), null)).isNull();
+		Integer count = new JdbcTemplate(db).queryForObject(
+				"SELECT COUNT(*) FROM oauth2_authorization_token_lookup", Integer.class);
+		assertThat(count).isZero();
+		db.shutdown();
+	}
+
+	@Test
+	public void saveWhenTokenLookupEnabledAndOnlyTokenMetadataModifiedThenLookupNotWritten() {
+		when(this.registeredClientRepository.findById(eq(REGISTERED_CLIENT.getId())))
+				.thenReturn(REGISTERED_CLIENT);
+
+		EmbeddedDatabase db = createDb(OAUTH2_AUTHORIZATION_SCHEMA_SQL_RESOURCE, OAUTH2_AUTHORIZATION_TOKEN_LOOKUP_SCHEMA_SQL_RESOURCE);
+		JdbcTemplate jdbcOperations = spy(new JdbcTemplate(db));
+		JdbcOAuth2AuthorizationService authorizationService =
+				new JdbcOAuth2AuthorizationService(jdbcOperations, this.registeredClientRepository);
+		authorizationService.setTokenLookupEnabled(true);
+		OAuth2AccessToken accessToken = new OAuth2AccessToken(OAuth2AccessToken.TokenType.BEARER,
+				"access-token", Instant.now().truncatedTo(ChronoUnit.MILLIS), Instant.now().plusSeconds(300).truncatedTo(ChronoUnit.MILLIS));
+		OAuth2Authorization authorization = OAuth2Authorization.withRegisteredClient(REGISTERED_CLIENT)
+				.id(ID)
+				.principalName(PRINCIPAL_NAME)
+				.authorizationGrantType(AUTHORIZATION_GRANT_TYPE)
+				.token(AUTHORIZATION_CODE)
+				.accessToken(accessToken)
+				.build();
+		authorizationService.save(authorization);
+
+		// The entries of an inserted authorization are only inserted
+		verify(jdbcOperations, never()).update(startsWith("UPDATE oauth2_authorization_token_lookup"), any(), any(), any());
+		verify(jdbcOperations).batchUpdate(startsWith("INSERT INTO oauth2_authorization_token_lookup"), anyList());
+
+		OAuth2Authorization loadedAuthorization = authorizationService.findById(ID);
+		OAuth2Authorization updatedAuthorization = OAuth2Authorization.from(loadedAuthorization)
+				.token(accessToken, (metadata) ->
+						metadata.put(OAuth2Authorization.Token.INVALIDATED_METADATA_NAME, true))
+				.build();
+		clearInvocations(jdbcOperations);
+		authorizationService.save(updatedAuthorization);
+
+		verify(jdbcOperations, never()).update(startsWith("UPDATE oauth2_authorization_token_lookup"), any(), any(), any());
+		verify(jdbcOperations, never()).batchUpdate(startsWith("INSERT INTO oauth2_authorization_token_lookup"), anyList());
+		assertThat(authorizationService.findByToken(accessToken.getTokenValue(), OAuth2TokenType.ACCESS_TOKEN)
+				.getAccessToken().isInvalidated()).isTrue();
+		Integer count = new JdbcTemplate(db).queryForObject(
+				"SELECT COUNT(*) FROM oauth2_authorization_token_lookup", Integer.class);
+		assertThat(count).isEqualTo(2);
+		db.shutdown();
+	}
+
+	@Test
+	public void setTransactionOperationsWhenNullThenThrowIllegalArgumentException() {
+		assertThatThrownBy(() -> this.authorizationService.setTransactionOperations(null))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("transactionOperations cannot be null");
+	}
+
+	@Test
+	public void saveWhenTokenLookupEnabledAndTransactionOperationsThenWrittenInTransaction() {
+		when(this.registeredClientRepository.findById(eq(REGISTERED_CLIENT.getId())))
+				.thenReturn(REGISTERED_CLIENT);
+
+		EmbeddedDatabase db = createDb(OAUTH2_AUTHORIZATION_SCHEMA_SQL_RESOURCE, OAUTH2_AUTHORIZATION_TOKEN_LOOKUP_SCHEMA_SQL_RESOURCE);
+		JdbcOAuth2AuthorizationService authorizationService =
+				new JdbcOAuth2AuthorizationService(new JdbcTemplate(db), this.registeredClientRepository);
+		authorizationService.setTokenLookupEnabled(true);
+		AtomicInteger transactionCount = new AtomicInteger();
+		authorizationService.setTransactionOperations(new TransactionOperations() {
+			@Override
+			public <T> T execute(TransactionCallback<T> action) {
+				transactionCount.incrementAndGet();
+				return action.doInTransaction(new SimpleTransactionStatus());
+			}
+		});
+		OAuth2Authorization authorization = OAuth2Authorization.withRegisteredClient(REGISTERED_CLIENT)
+				.id(ID)
+				.principalName(PRINCIPAL_NAME)
+				.authorizationGrantType(AUTHORIZATION_GRANT_TYPE)
+				.token(AUTHORIZATION_CODE)
+				.build();
+		authorizationService.save(authorization);
+		OAuth2AccessToken accessToken = new OAuth2AccessToken(OAuth2AccessToken.TokenType.BEARER,
+				"access-token", Instant.now().truncatedTo(ChronoUnit.MILLIS), Instant.now().plusSeconds(300).truncatedTo(ChronoUnit.MILLIS));
+		OAuth2Authorization updatedAuthorization = OAuth2Authorization.from(authorization)
+				.accessToken(accessToken)
+				.build();
+		authorizationService.save(updatedAuthorization);
+
+		assertThat(transactionCount).hasValue(2);
+		assertThat(authorizationService.findByToken(AUTHORIZATION_CODE.getTokenValue(), AUTHORIZATION_CODE_TOKEN_TYPE))
+				.isEqualTo(updatedAuthorization);
+		assertThat(authorizationService.findByToken(accessToken.getTokenValue(), OAuth2TokenType.ACCESS_TOKEN))
+				.isEqualTo(updatedAuthorization);
+		Integer count = new JdbcTemplate(db).queryForObject(
+				"SELECT COUNT(*) FROM oauth2_authorization_token_lookup", Integer.class);
+		assertThat(count).isEqualTo(2);
+
+		authorizationService.remove(updatedAuthorization);
+		assertThat(transactionCount).hasValue(3);
+		db.shutdown();
+	}
+
+	@Test
+	public void setPurgeBatchSizeWhenZeroThenThrowIllegalArgumentException() {
+		assertThatThrownBy(() -> this.authorizationService.setPurgeBatchSize(0))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("purgeBatchSize must be greater than 0");
+	}
+
+	@Test
+	public void purgeExpiredAuthorizationsWhenExpiredThenRemoved() {
+		when(this.registeredClientRepository.findById(eq(REGISTERED_CLIENT.getId())))
+				.thenReturn(REGISTERED_CLIENT);
+		this.authorizationService.setPurgeBatchSize(2);
+
+		Instant expiredAt = Instant.now().minus(1, ChronoUnit.HOURS).truncatedTo(ChronoUnit.MILLIS);
+		for (int i = 0; i < 5; i++) {
+			OAuth2AccessToken accessToken = new OAuth2AccessToken(OAuth2AccessToken.TokenType.BEARER,
+					"expired-access-token-" + i, expiredAt.minusSeconds(300), expiredAt);
+			this.authorizationService.save(OAuth2Authorization.withRegisteredClient(REGISTERED_CLIENT)
+					.id("expired-" + i)
+					.principalName(PRINCIPAL_NAME)
+					.authorizationGrantType(AuthorizationGrantType.CLIENT_CREDENTIALS)
+					.accessToken(accessToken)
+					.build());
+		}
+		OAuth2Authorization activeAuthorization = OAuth2Authorization.withRegisteredClient(REGISTERED_CLIENT)
+				.id("active")
+				.principalName(PRINCIPAL_NAME)
+				.authorizationGrantType(AUTHORIZATION_GRANT_TYPE)
+				.token(AUTHORIZATION_CODE)
+				.build();
+		this.authorizationService.save(activeAuthorization);
+		OAuth2Authorization pendingAuthorization = OAuth2Authorization.withRegisteredClient(REGISTERED_CLIENT)
+				.id("pending")
+				.principalName(PRINCIPAL_NAME)
+				.authorizationGrantType(AUTHORIZATION_GRANT_TYPE)
+				.attribute(OAuth2ParameterNames.STATE, "state")
+				.build();
+		this.authorizationService.save(pendingAuthorization);
+		OAuth2AccessToken expiredAccessToken = new OAuth2AccessToken(OAuth2AccessToken.TokenType.BEARER,
+				"expired-access-token", expiredAt.minusSeconds(300), expiredAt);
+		OAuth2Authorization notExpiringAuthorization = OAuth2Authorization.withRegisteredClient(REGISTERED_CLIENT)
+				.id("not-expiring")
+				.principalName(PRINCIPAL_NAME)
+				.authorizationGrantType(AUTHORIZATION_GRANT_TYPE)
+				.accessToken(expiredAccessToken)
+				.refreshToken(new OAuth2RefreshToken("not-expiring-refresh-token", expiredAt.minusSeconds(300)))
+				.build();
+		this.authorizationService.save(notExpiringAuthorization);
+
+		assertThat(this.authorizationService.purgeExpiredAuthorizations()).isEqualTo(5);
+		assertThat(this.authorizationService.getPurgedAuthorizationsCount()).isEqualTo(5);
+		assertThat(this.authorizationService.findById("expired-0")).isNull();
+		assertThat(this.authorizationService.findById(activeAuthorization.getId())).isNotNull();
+		assertThat(this.authorizationService.findById(pendingAuthorization.getId())).isNotNull();
+		assertThat(this.authorizationService.findById(notExpiringAuthorization.getId())).isNotNull();
+		assertThat(this.authorizationService.purgeExpiredAuthorizations()).isZero();
+	}
+
+	@Test
+	public void purgeExpiredAuthorizationsWhenTokenLookupEnabledThenLookupRemoved() {
+		when(this.registeredClientRepository.findById(eq(REGISTERED_CLIENT.getId())))
+				.thenReturn(REGISTERED_CLIENT);
+
+		EmbeddedDatabase db = createDb(OAUTH2_AUTHORIZATION_SCHEMA_SQL_RESOURCE, OAUTH2_AUTHORIZATION_TOKEN_LOOKUP_SCHEMA_SQL_RESOURCE);
+		JdbcOAuth2AuthorizationService authorizationService =
+				new JdbcOAuth2AuthorizationService(new JdbcTemplate(db), this.registeredClientRepository);
+		authorizationService.setTokenLookupEnabled(true);
+		Instant expiredAt = Instant.now().minus(1, ChronoUnit.HOURS).truncatedTo(ChronoUnit.MILLIS);
+		OAuth2AccessToken accessToken = new OAuth2AccessToken(OAuth2AccessToken.TokenType.BEARER,
+				"expired-access-token", expiredAt.minusSeconds(300), expiredAt);
+		authorizationService.save(OAuth2Authorization.withRegisteredClient(REGISTERED_CLIENT)
+				.id(ID)
+				.principalName(PRINCIPAL_NAME)
+				.authorizationGrantType(AuthorizationGrantType.CLIENT_CREDENTIALS)
+				.accessToken(accessToken)
+				.build());
+
+		assertThat(authorizationService.purgeExpiredAuthorizations()).isEqualTo(1);
+		Integer count = new JdbcTemplate(db).queryForObject(
+				"SELECT COUNT(*) FROM oauth2_authorization_token_lookup", Integer.class);
+		assertThat(count).isZero();
+		db.shutdown();
+	}
+
 	@Test
 	public void tableDefinitionWhenCustomThenAbleToOverride() {
 		when(this.registeredClientRepository.findById(eq(REGISTERED_CLIENT.getId())))
@@ -451,13 +1092,13 @@ public class JdbcOAuth2AuthorizationServiceTests {
 		return createDb(OAUTH2_AUTHORIZATION_SCHEMA_SQL_RESOURCE);
 	}
 
-	private static EmbeddedDatabase createDb(String schema) {
+	private static EmbeddedDatabase createDb(String... schemas) {
 		// @formatter:off
 		return new EmbeddedDatabaseBuilder()
 				.generateUniqueName(true)
 				.setType(EmbeddedDatabaseType.HSQL)
 				.setScriptEncoding("UTF-8")
-				.addScript(schema)
+				.addScripts(schemas)
 				.build();
 		// @formatter:on
 	}
@@ -17,6 +17,8 @@ package org.springframework.security.oauth2.server.authorization;
 
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.Test;
 
@@ -26,6 +28,7 @@ import org.springframework.security.oauth2.core.OAuth2AuthorizationCode;
 import org.springframework.security.oauth2.core.OAuth2RefreshToken;
 import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
 import org.springframework.security.oauth2.server.authorization.client.TestRegisteredClients;
+import org.springframework.util.SerializationUtils;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -133,4 +136,177 @@ public class OAuth2AuthorizationTests {
 		assertThat(authorization.getAccessToken().getToken()).isEqualTo(ACCESS_TOKEN);
 		assertThat(authorization.getRefreshToken().getToken()).isEqualTo(REFRESH_TOKEN);
 	}
+
+	@Test
+	public void buildWhenNotFromAuthorizationThenAllModified() {
+		OAuth2Authorization authorization = OAuth2Authorization.withRegisteredClient(REGISTERED_CLIENT)
+				.id(ID)
+				.principalName(PRINCIPAL_NAME)
+				.authorizationGrantType(AUTHORIZATION_GRANT_TYPE)
+				.accessToken(ACCESS_TOKEN)
+				.build();
+
+		assertThat(authorization.isAttributesModified()).isTrue();
+		assertThat(authorization.isTokenModified(OAuth2AccessToken.class)).isTrue();
+		assertThat(authorization.isTokenModified(OAuth2RefreshToken.class)).isTrue();
+	}
+
+	@Test
+	public void buildWhenFromAuthorizationAndTokenMetadataChangedThenOnlyTokenModified() {
+		OAuth2Authorization authorization = OAuth2Authorization.withRegisteredClient(REGISTERED_CLIENT)
+				.id(ID)
+				.principalName(PRINCIPAL_NAME)
+				.authorizationGrantType(AUTHORIZATION_GRANT_TYPE)
+				.token(AUTHORIZATION_CODE)
+				.accessToken(ACCESS_TOKEN)
+				.refreshToken(REFRESH_TOKEN)
+				.persisted()
+				.build();
+		OAuth2Authorization updatedAuthorization = OAuth2Authorization.from(authorization)
+				.token(ACCESS_TOKEN, (metadata) ->
+						metadata.put(OAuth2Authorization.Token.INVALIDATED_METADATA_NAME, true))
+				.build();
+
+		assertThat(updatedAuthorization.isAttributesModified()).isFalse();
+		assertThat(updatedAuthorization.isTokenModified(OAuth2AccessToken.class)).isTrue();
+		assertThat(updatedAuthorization.isTokenModified(OAuth2AuthorizationCode.class)).isFalse();
+		assertThat(updatedAuthorization.isTokenModified(OAuth2RefreshToken.class)).isFalse();
+	}
+
+	@Test
+	public void buildWhenFromAuthorizationAndAttributeAddedThenAttributesModified() {
+		OAuth2Authorization authorization = OAuth2Authorization.withRegisteredClient(REGISTERED_CLIENT)
+				.id(ID)
+				.principalName(PRINCIPAL_NAME)
+				.authorizationGrantType(AUTHORIZATION_GRANT_TYPE)
+				.token(AUTHORIZATION_CODE)
+				.persisted()
+				.build();
+		OAuth2Authorization updatedAuthorization = OAuth2Authorization.from(authorization)
+				.attribute("name", "value")
+				.build();
+
+		assertThat(updatedAuthorization.isAttributesModified()).isTrue();
+		assertThat(updatedAuthorization.isTokenModified(OAuth2AuthorizationCode.class)).isFalse();
+	}
+
+	@Test
+	public void buildWhenFromAuthorizationAndIdChangedThenAllModified() {
+		OAuth2Authorization authorization = OAuth2Authorization.withRegisteredClient(REGISTERED_CLIENT)
+				.id(ID)
+				.principalName(PRINCIPAL_NAME)
+				.authorizationGrantType(AUTHORIZATION_GRANT_TYPE)
+				.token(AUTHORIZATION_CODE)
+				.persisted()
+				.build();
+		OAuth2Authorization copiedAuthorization = OAuth2Authorization.from(authorization)
+				.id(ID + "-copy")
+				.build();
+
+		assertThat(copiedAuthorization.isAttributesModified()).isTrue();
+		assertThat(copiedAuthorization.isTokenModified(OAuth2AuthorizationCode.class)).isTrue();
+	}
+
+	@Test
+	public void buildWhenFromNotPersistedAuthorizationThenAllModified() {
+		OAuth2Authorization authorization = OAuth2Authorization.withRegisteredClient(REGISTERED_CLIENT)
+				.id(ID)
+				.principalName(PRINCIPAL_NAME)
+				.authorizationGrantType(AUTHORIZATION_GRANT_TYPE)
+				.token(AUTHORIZATION_CODE)
+				.build();
+		OAuth2Authorization updatedAuthorization = OAuth2Authorization.from(authorization)
+				.accessToken(ACCESS_TOKEN)
+				.build();
+
+		assertThat(updatedAuthorization.isAttributesModified()).isTrue();
+		assertThat(updatedAuthorization.isTokenModified(OAuth2AuthorizationCode.class)).isTrue();
+	}
+
+	@Test
+	public void buildWhenFromAuthorizationTwiceThenModificationsRetained() {
+		OAuth2Authorization authorization = OAuth2Authorization.withRegisteredClient(REGISTERED_CLIENT)
+				.id(ID)
+				.principalName(PRINCIPAL_NAME)
+				.authorizationGrantType(AUTHORIZATION_GRANT_TYPE)
+				.token(AUTHORIZATION_CODE)
+				.persisted()
+				.build();
+		OAuth2Authorization updatedAuthorization = OAuth2Authorization.from(authorization)
+				.accessToken(ACCESS_TOKEN)
+				.refreshToken(REFRESH_TOKEN)
+				.build();
+		updatedAuthorization = OAuth2Authorization.from(updatedAuthorization)
+				.token(AUTHORIZATION_CODE, (metadata) ->
+						metadata.put(OAuth2Authorization.Token.INVALIDATED_METADATA_NAME, true))
+				.build();
+
+		assertThat(updatedAuthorization.isAttributesModified()).isFalse();
+		assertThat(updatedAuthorization.isTokenModified(OAuth2AuthorizationCode.class)).isTrue();
+		assertThat(updatedAuthorization.isTokenModified(OAuth2AccessToken.class)).isTrue();
+		assertThat(updatedAuthorization.isTokenModified(OAuth2RefreshToken.class)).isTrue();
+		assertThat(updatedAuthorization.isTokenValueModified(OAuth2AuthorizationCode.class)).isFalse();
+		assertThat(updatedAuthorization.isTokenValueModified(OAuth2AccessToken.class)).isTrue();
+		assertThat(updatedAuthorization.isTokenValueModified(OAuth2RefreshToken.class)).isTrue();
+	}
+
+	@Test
+	public void buildWhenFromAuthorizationAndAttributesNotModifiedThenAttributesNotResolved() {
+		AtomicInteger resolveCount = new AtomicInteger();
+		OAuth2Authorization authorization = OAuth2Authorization.withRegisteredClient(REGISTERED_CLIENT)
+				.id(ID)
+				.principalName(PRINCIPAL_NAME)
+				.authorizationGrantType(AUTHORIZATION_GRANT_TYPE)
+				.token(AUTHORIZATION_CODE)
+				.attributesResolver(() -> {
+					resolveCount.incrementAndGet();
+					return Collections.singletonMap("name", "value");
+				})
+				.persisted()
+				.build();
+		OAuth2Authorization updatedAuthorization = OAuth2Authorization.from(authorization)
+				.accessToken(ACCESS_TOKEN)
+				.build();
+
+		assertThat(resolveCount.get()).isEqualTo(0);
+		assertThat(updatedAuthorization.isAttributesModified()).isFalse();
+		assertThat(updatedAuthorization.isTokenModified(OAuth2AccessToken.class)).isTrue();
+		assertThat(updatedAuthorization.<String>getAttribute("name")).isEqualTo("value");
+		assertThat(resolveCount.get()).isEqualTo(1);
+	}
+
+	@Test
+	public void getTokenWhenResolvableTokenThenMetadataNotResolved() {
+		AtomicInteger resolveCount = new AtomicInteger();
+		OAuth2Authorization.Token<OAuth2AccessToken> accessToken = OAuth2Authorization.Token.resolvable(ACCESS_TOKEN,
+				() -> {
+					resolveCount.incrementAndGet();
+					return Collections.singletonMap("name", "value");
+				});
+
+		assertThat(accessToken.getToken()).isSameAs(ACCESS_TOKEN);
+		assertThat(resolveCount.get()).isEqualTo(0);
+		assertThat(accessToken.<String>getMetadata("name")).isEqualTo("value");
+		assertThat(accessToken.isInvalidated()).isFalse();
+		assertThat(resolveCount.get()).isEqualTo(1);
+	}
+
+	@Test
+	public void buildWhenDeserializedThenAllModified() {
+		OAuth2Authorization authorization = OAuth2Authorization.withRegisteredClient(REGISTERED_CLIENT)
+				.id(ID)
+				.principalName(PRINCIPAL_NAME)
+				.authorizationGrantType(AUTHORIZATION_GRANT_TYPE)
+				.token(AUTHORIZATION_CODE)
+				.persisted()
+				.build();
+
+		OAuth2Authorization deserializedAuthorization = (OAuth2Authorization) SerializationUtils.deserialize(
+				SerializationUtils.serialize(authorization));
+
+		assertThat(deserializedAuthorization).isEqualTo(authorization);
+		assertThat(deserializedAuthorization.isAttributesModified()).isTrue();
+		assertThat(deserializedAuthorization.isTokenModified(OAuth2AuthorizationCode.class)).isTrue();
+	}
+
 }
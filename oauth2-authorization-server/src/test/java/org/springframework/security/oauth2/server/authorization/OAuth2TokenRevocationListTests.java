@@ -0,0 +1,171 @@
+/*
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.security.oauth2.server.authorization;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for {@link OAuth2TokenRevocationList}.
+ */
+public class OAuth2TokenRevocationListTests {
+	private final OAuth2TokenRevocationList tokenRevocationList = new OAuth2TokenRevocationList();
+
+	@Test
+	public void revokeWhenTokenIdEmptyThenThrowIllegalArgumentException() {
+		assertThatThrownBy(() -> this.tokenRevocationList.revoke("", Instant.now()))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("tokenId cannot be empty");
+	}
+
+	@Test
+	public void revokeWhenExpiresAtNullThenThrowIllegalArgumentException() {
+		assertThatThrownBy(() -> this.tokenRevocationList.revoke("jti", null))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("expiresAt cannot be null");
+	}
+
+	@Test
+	public void isRevokedWhenRevokedThenTrue() {
+		this.tokenRevocationList.revoke("jti", Instant.now().plusSeconds(300));
+
+		assertThat(this.tokenRevocationList.isRevoked("jti")).isTrue();
+		assertThat(this.tokenRevocationList.isRevoked("other-jti")).isFalse();
+	}
+
+	@Test
+	public void isRevokedWhenTokenExpiredThenFalse() {
+		Instant now = Instant.now();
+		this.tokenRevocationList.revoke("jti", now.plusSeconds(300));
+
+		this.tokenRevocationList.setClock(Clock.fixed(now.plus(Duration.ofMinutes(10)), ZoneOffset.UTC));
+		this.tokenRevocationList.revoke("other-jti", now.plus(Duration.ofMinutes(15)));
+
+		assertThat(this.tokenRevocationList.isRevoked("jti")).isFalse();
+		assertThat(this.tokenRevocationList.isRevoked("other-jti")).isTrue();
+	}
+
+	@Test
+	public void isRevokedWhenLongLivedTokensRevokedThenRetainedUntilExpired() {
+		Instant now = Instant.now();
+		this.tokenRevocationList.setClock(Clock.fixed(now, ZoneOffset.UTC));
+		this.tokenRevocationList.revoke("jti", now.plus(Duration.ofDays(1)));
+		this.tokenRevocationList.revoke("other-jti", now.plus(Duration.ofHours(1)));
+
+		this.tokenRevocationList.setClock(Clock.fixed(now.plus(Duration.ofHours(12)), ZoneOffset.UTC));
+		this.tokenRevocationList.revoke("new-jti", now.plus(Duration.ofHours(13)));
+
+		assertThat(this.tokenRevocationList.isRevoked("jti")).isTrue();
+		assertThat(this.tokenRevocationList.isRevoked("other-jti")).isFalse();
+		assertThat(this.tokenRevocationList.isRevoked("new-jti")).isTrue();
+	}
+
+	@Test
+	public void isRevokedWhenLongLivedTokenRevokedThenShortLivedTokensNotRetained() {
+		Instant now = Instant.now();
+		this.tokenRevocationList.setClock(Clock.fixed(now, ZoneOffset.UTC));
+		this.tokenRevocationList.revokeToken("refresh-token", now.plus(Duration.ofDays(30)));
+		this.tokenRevocationList.revoke("jti", now.plus(Duration.ofMinutes(5)));
+
+		this.tokenRevocationList.setClock(Clock.fixed(now.plus(Duration.ofMinutes(10)), ZoneOffset.UTC));
+		this.tokenRevocationList.revoke("other-jti", now.plus(Duration.ofMinutes(15)));
+
+		assertThat(this.tokenRevocationList.isRevoked("jti")).isFalse();
+		assertThat(this.tokenRevocationList.isRevoked("other-jti")).isTrue();
+		assertThat(this.tokenRevocationList.isTokenRevoked("refresh-token")).isTrue();
+	}
+
+	@Test
+	public void isRevokedWhenManyTokensRevokedAndExpiredThenOthersRevoked() {
+		Instant now = Instant.now();
+		this.tokenRevocationList.setClock(Clock.fixed(now, ZoneOffset.UTC));
+		for (int i = 0; i < 5000; i++) {
+			this.tokenRevocationList.revoke("jti-" + i, now.plus(Duration.ofMinutes(5)));
+		}
+		this.tokenRevocationList.revoke("jti", now.plus(Duration.ofHours(1)));
+
+		this.tokenRevocationList.setClock(Clock.fixed(now.plus(Duration.ofMinutes(10)), ZoneOffset.UTC));
+		this.tokenRevocationList.revoke("other-jti", now.plus(Duration.ofMinutes(15)));
+
+		for (int i = 0; i < 5000; i++) {
+			assertThat(this.tokenRevocationList.isRevoked("jti-" + i)).isFalse();
+		}
+		assertThat(this.tokenRevocationList.isRevoked("jti")).isTrue();
+		assertThat(this.tokenRevocationList.isRevoked("other-jti")).isTrue();
+	}
+
+	@Test
+	public void isRevokedWhenManyTokensRevokedThenAllRevoked() {
+		Instant expiresAt = Instant.now().plusSeconds(300);
+		for (int i = 0; i < 5000; i++) {
+			this.tokenRevocationList.revoke("jti-" + i, expiresAt);
+		}
+
+		for (int i = 0; i < 5000; i++) {
+			assertThat(this.tokenRevocationList.isRevoked("jti-" + i)).isTrue();
+		}
+		assertThat(this.tokenRevocationList.isRevoked("other-jti")).isFalse();
+	}
+
+	@Test
+	public void revokeTokenWhenTokenValueEmptyThenThrowIllegalArgumentException() {
+		assertThatThrownBy(() -> this.tokenRevocationList.revokeToken("", Instant.now()))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("tokenValue cannot be empty");
+	}
+
+	@Test
+	public void isTokenRevokedWhenRevokedThenTrue() {
+		this.tokenRevocationList.revokeToken("token", Instant.now().plusSeconds(300));
+
+		assertThat(this.tokenRevocationList.isTokenRevoked("token")).isTrue();
+		assertThat(this.tokenRevocationList.isTokenRevoked("other-token")).isFalse();
+	}
+
+	@Test
+	public void getSnapshotWhenEncodedThenDecoded() {
+		Instant now = Instant.now();
+		this.tokenRevocationList.setClock(Clock.fixed(now, ZoneOffset.UTC));
+		this.tokenRevocationList.revoke("jti", now.plusSeconds(300));
+		this.tokenRevocationList.revokeToken("token", now.plusSeconds(300));
+
+		OAuth2TokenRevocationList.Snapshot snapshot = OAuth2TokenRevocationList.Snapshot.fromByteArray(
+				this.tokenRevocationList.getSnapshot().toByteArray());
+
+		assertThat(snapshot.getIssuedAt()).isEqualTo(now.truncatedTo(ChronoUnit.SECONDS));
+		assertThat(snapshot.getExpiresAt()).isAfterOrEqualTo(now.plusSeconds(300).truncatedTo(ChronoUnit.SECONDS));
+		assertThat(snapshot.mightBeRevoked("jti")).isTrue();
+		assertThat(snapshot.mightBeTokenRevoked("token")).isTrue();
+		assertThat(snapshot.mightBeRevoked("other-jti")).isFalse();
+		assertThat(snapshot.mightBeTokenRevoked("other-token")).isFalse();
+	}
+
+	@Test
+	public void fromByteArrayWhenInvalidThenThrowIllegalArgumentException() {
+		assertThatThrownBy(() -> OAuth2TokenRevocationList.Snapshot.fromByteArray(new byte[10]))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("snapshot is invalid");
+	}
+
+}
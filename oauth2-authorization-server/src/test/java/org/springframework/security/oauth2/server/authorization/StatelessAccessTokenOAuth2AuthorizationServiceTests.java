@@ -0,0 +1,300 @@
+/*
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.security.oauth2.server.authorization;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.core.OAuth2TokenType;
+import org.springframework.security.oauth2.core.endpoint.OAuth2ParameterNames;
+import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.JoseHeaderNames;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtClaimNames;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClientRepository;
+import org.springframework.security.oauth2.server.authorization.client.TestRegisteredClients;
+import org.springframework.security.oauth2.server.authorization.config.TokenSettings;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for {@link StatelessAccessTokenOAuth2AuthorizationService}.
+ */
+public class StatelessAccessTokenOAuth2AuthorizationServiceTests {
+	private static final String TOKEN_VALUE = "header.payload.signature";
+	private RegisteredClient registeredClient;
+	private OAuth2AuthorizationService delegate;
+	private RegisteredClientRepository registeredClientRepository;
+	private JwtDecoder jwtDecoder;
+	private OAuth2TokenRevocationList tokenRevocationList;
+	private StatelessAccessTokenOAuth2AuthorizationService authorizationService;
+
+	@Before
+	public void setUp() {
+		// @formatter:off
+		this.registeredClient = TestRegisteredClients.registeredClient2()
+				.tokenSettings(TokenSettings.builder()
+						.storeClientCredentialsAuthorizations(false)
+						.build())
+				.build();
+		// @formatter:on
+		this.delegate = mock(OAuth2AuthorizationService.class);
+		this.registeredClientRepository = mock(RegisteredClientRepository.class);
+		when(this.registeredClientRepository.findByClientId(this.registeredClient.getClientId()))
+				.thenReturn(this.registeredClient);
+		when(this.registeredClientRepository.findById(this.registeredClient.getId()))
+				.thenReturn(this.registeredClient);
+		this.jwtDecoder = mock(JwtDecoder.class);
+		this.tokenRevocationList = new OAuth2TokenRevocationList();
+		this.authorizationService = new StatelessAccessTokenOAuth2AuthorizationService(
+				this.delegate, this.registeredClientRepository, this.jwtDecoder, this.tokenRevocationList);
+	}
+
+	@Test
+	public void constructorWhenJwtDecoderNullThenThrowIllegalArgumentException() {
+		assertThatThrownBy(() -> new StatelessAccessTokenOAuth2AuthorizationService(
+				this.delegate, this.registeredClientRepository, null, this.tokenRevocationList))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("jwtDecoder cannot be null");
+	}
+
+	@Test
+	public void findByTokenWhenStoredThenNotDecoded() {
+		OAuth2Authorization authorization = TestOAuth2Authorizations.authorization().build();
+		when(this.delegate.findByToken(TOKEN_VALUE, OAuth2TokenType.ACCESS_TOKEN)).thenReturn(authorization);
+
+		assertThat(this.authorizationService.findByToken(TOKEN_VALUE, OAuth2TokenType.ACCESS_TOKEN))
+				.isSameAs(authorization);
+		verifyNoInteractions(this.jwtDecoder);
+	}
+
+	@Test
+	public void findByTokenWhenNotStoredThenReadFromAccessToken() {
+		Jwt jwt = createJwt(this.registeredClient.getClientId());
+		when(this.jwtDecoder.decode(TOKEN_VALUE)).thenReturn(jwt);
+
+		OAuth2Authorization authorization = this.authorizationService.findByToken(TOKEN_VALUE, OAuth2TokenType.ACCESS_TOKEN);
+
+		assertThat(authorization).isNotNull();
+		assertThat(authorization.getId()).isEqualTo(jwt.getId());
+		assertThat(authorization.getRegisteredClientId()).isEqualTo(this.registeredClient.getId());
+		assertThat(authorization.getPrincipalName()).isEqualTo(this.registeredClient.getClientId());
+		assertThat(authorization.getAuthorizationGrantType()).isEqualTo(AuthorizationGrantType.CLIENT_CREDENTIALS);
+		assertThat(authorization.<Set<String>>getAttribute(OAuth2Authorization.AUTHORIZED_SCOPE_ATTRIBUTE_NAME))
+				.containsExactly("scope1");
+		OAuth2Authorization.Token<OAuth2AccessToken> accessToken = authorization.getAccessToken();
+		assertThat(accessToken.getToken().getTokenValue()).isEqualTo(TOKEN_VALUE);
+		assertThat(accessToken.getToken().getExpiresAt()).isEqualTo(jwt.getExpiresAt());
+		assertThat(accessToken.getClaims()).isEqualTo(jwt.getClaims());
+		assertThat(accessToken.isActive()).isTrue();
+	}
+
+	@Test
+	public void findByTokenWhenClientStoresAuthorizationsThenNull() {
+		RegisteredClient registeredClient = TestRegisteredClients.registeredClient().build();
+		when(this.registeredClientRepository.findByClientId(registeredClient.getClientId())).thenReturn(registeredClient);
+		when(this.jwtDecoder.decode(TOKEN_VALUE)).thenReturn(createJwt(registeredClient.getClientId()));
+
+		assertThat(this.authorizationService.findByToken(TOKEN_VALUE, OAuth2TokenType.ACCESS_TOKEN)).isNull();
+	}
+
+	@Test
+	public void findByTokenWhenIssuedWithStoredAuthorizationThenNull() {
+		// e.g. the authorization was removed, or the client stopped storing the authorization since
+		Jwt jwt = Jwt.withTokenValue(TOKEN_VALUE)
+				.header(JoseHeaderNames.ALG, SignatureAlgorithm.RS256.getName())
+				.id("jti")
+				.subject(this.registeredClient.getClientId())
+				.audience(Collections.singletonList(this.registeredClient.getClientId()))
+				.build();
+		when(this.jwtDecoder.decode(TOKEN_VALUE)).thenReturn(jwt);
+
+		assertThat(this.authorizationService.findByToken(TOKEN_VALUE, OAuth2TokenType.ACCESS_TOKEN)).isNull();
+	}
+
+	@Test
+	public void saveWhenIssuedWithStoredAuthorizationThenStored() {
+		OAuth2Authorization authorization = createAuthorization(this.registeredClient, "jti");
+		Map<String, Object> claims = new HashMap<>(authorization.getAccessToken().getClaims());
+		claims.remove(StatelessAccessTokenOAuth2AuthorizationService.STATELESS_CLAIM_NAME);
+		OAuth2Authorization storedAuthorization = OAuth2Authorization.from(authorization)
+				.token(authorization.getAccessToken().getToken(), (metadata) ->
+						metadata.put(OAuth2Authorization.Token.CLAIMS_METADATA_NAME, claims))
+				.build();
+
+		this.authorizationService.save(storedAuthorization);
+
+		verify(this.delegate).save(storedAuthorization);
+	}
+
+	@Test
+	public void findByTokenWhenInvalidJwtThenNull() {
+		when(this.jwtDecoder.decode(TOKEN_VALUE)).thenThrow(new BadJwtException("invalid"));
+
+		assertThat(this.authorizationService.findByToken(TOKEN_VALUE, null)).isNull();
+	}
+
+	@Test
+	public void findByTokenWhenRefreshTokenTypeThenNotDecoded() {
+		assertThat(this.authorizationService.findByToken(TOKEN_VALUE, OAuth2TokenType.REFRESH_TOKEN)).isNull();
+		verifyNoInteractions(this.jwtDecoder);
+	}
+
+	@Test
+	public void saveWhenNotStoredAccessTokenRevokedThenResolvedAsInvalidated() {
+		when(this.jwtDecoder.decode(TOKEN_VALUE)).thenReturn(createJwt(this.registeredClient.getClientId()));
+		OAuth2Authorization authorization = this.authorizationService.findByToken(TOKEN_VALUE, OAuth2TokenType.ACCESS_TOKEN);
+		OAuth2Authorization revokedAuthorization = OAuth2Authorization.from(authorization)
+				.token(authorization.getAccessToken().getToken(), (metadata) ->
+						metadata.put(OAuth2Authorization.Token.INVALIDATED_METADATA_NAME, true))
+				.build();
+
+		this.authorizationService.save(revokedAuthorization);
+
+		verify(this.delegate, never()).save(any());
+		assertThat(this.tokenRevocationList.isRevoked(authorization.getId())).isTrue();
+		authorization = this.authorizationService.findByToken(TOKEN_VALUE, OAuth2TokenType.ACCESS_TOKEN);
+		assertThat(authorization.getAccessToken().isInvalidated()).isTrue();
+	}
+
+	@Test
+	public void saveWhenIssuedToClientNotStoringAuthorizationsThenNotStored() {
+		OAuth2Authorization authorization = createAuthorization(this.registeredClient, "jti");
+
+		this.authorizationService.save(authorization);
+
+		verify(this.delegate, never()).save(any());
+	}
+
+	@Test
+	public void saveWhenIssuedWithoutTokenIdThenStored() {
+		OAuth2Authorization authorization = createAuthorization(this.registeredClient, null);
+
+		this.authorizationService.save(authorization);
+
+		verify(this.delegate).save(authorization);
+	}
+
+	@Test
+	public void saveWhenIssuedToClientStoringAuthorizationsThenStored() {
+		RegisteredClient registeredClient = TestRegisteredClients.registeredClient().build();
+		when(this.registeredClientRepository.findById(registeredClient.getId())).thenReturn(registeredClient);
+		OAuth2Authorization authorization = createAuthorization(registeredClient, "jti");
+
+		this.authorizationService.save(authorization);
+
+		verify(this.delegate).save(authorization);
+	}
+
+	@Test
+	public void removeWhenClientNotStoringAuthorizationsThenNotResolvedAgain() {
+		OAuth2Authorization authorization = createAuthorization(this.registeredClient, "jti");
+
+		this.authorizationService.remove(authorization);
+
+		verify(this.delegate).remove(authorization);
+		assertThat(this.tokenRevocationList.isRevoked("jti")).isTrue();
+		when(this.jwtDecoder.decode(TOKEN_VALUE)).thenReturn(createJwt(this.registeredClient.getClientId()));
+		OAuth2Authorization resolvedAuthorization =
+				this.authorizationService.findByToken(TOKEN_VALUE, OAuth2TokenType.ACCESS_TOKEN);
+		assertThat(resolvedAuthorization.getAccessToken().isInvalidated()).isTrue();
+	}
+
+	@Test
+	public void findByTokenWhenNoTokenIdThenNull() {
+		Jwt jwt = Jwt.withTokenValue(TOKEN_VALUE)
+				.header(JoseHeaderNames.ALG, SignatureAlgorithm.RS256.getName())
+				.subject(this.registeredClient.getClientId())
+				.audience(Collections.singletonList(this.registeredClient.getClientId()))
+				.build();
+		when(this.jwtDecoder.decode(TOKEN_VALUE)).thenReturn(jwt);
+
+		assertThat(this.authorizationService.findByToken(TOKEN_VALUE, OAuth2TokenType.ACCESS_TOKEN)).isNull();
+	}
+
+	@Test
+	public void saveWhenStoredThenDelegated() {
+		OAuth2Authorization authorization = TestOAuth2Authorizations.authorization().build();
+
+		this.authorizationService.save(authorization);
+
+		verify(this.delegate).save(authorization);
+	}
+
+	@Test
+	public void findAuthorizedTokensWhenNotStoredThenReadFromAccessToken() {
+		when(this.delegate.findAuthorizedTokens(any(), any())).thenReturn(Collections.emptyMap());
+		when(this.jwtDecoder.decode(TOKEN_VALUE)).thenReturn(createJwt(this.registeredClient.getClientId()));
+
+		Map<String, OAuth2AuthorizedToken> authorizedTokens = this.authorizationService.findAuthorizedTokens(
+				Arrays.asList(TOKEN_VALUE, "opaque-token"), OAuth2TokenType.ACCESS_TOKEN);
+
+		assertThat(authorizedTokens).containsOnlyKeys(TOKEN_VALUE);
+		assertThat(authorizedTokens.get(TOKEN_VALUE).getRegisteredClientId()).isEqualTo(this.registeredClient.getId());
+	}
+
+	private static OAuth2Authorization createAuthorization(RegisteredClient registeredClient, String tokenId) {
+		Jwt jwt = createJwt(registeredClient.getClientId());
+		Map<String, Object> claims = new HashMap<>(jwt.getClaims());
+		if (tokenId == null) {
+			claims.remove(JwtClaimNames.JTI);
+		}
+		OAuth2AccessToken accessToken = new OAuth2AccessToken(OAuth2AccessToken.TokenType.BEARER,
+				TOKEN_VALUE, jwt.getIssuedAt(), jwt.getExpiresAt());
+		// @formatter:off
+		return OAuth2Authorization.withRegisteredClient(registeredClient)
+				.principalName(registeredClient.getClientId())
+				.authorizationGrantType(AuthorizationGrantType.CLIENT_CREDENTIALS)
+				.token(accessToken, (metadata) -> metadata.put(OAuth2Authorization.Token.CLAIMS_METADATA_NAME, claims))
+				.build();
+		// @formatter:on
+	}
+
+	private static Jwt createJwt(String clientId) {
+		Instant issuedAt = Instant.now();
+		return Jwt.withTokenValue(TOKEN_VALUE)
+				.header(JoseHeaderNames.ALG, SignatureAlgorithm.RS256.getName())
+				.id("jti")
+				.subject(clientId)
+				.audience(Collections.singletonList(clientId))
+				.issuedAt(issuedAt)
+				.expiresAt(issuedAt.plus(5, ChronoUnit.MINUTES))
+				.claim(OAuth2ParameterNames.SCOPE, Collections.singletonList("scope1"))
+				.claim(StatelessAccessTokenOAuth2AuthorizationService.STATELESS_CLAIM_NAME, true)
+				.build();
+	}
+
+}
@@ -0,0 +1,220 @@
+/*
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.security.oauth2.server.authorization;
+
+import java.security.Principal;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+import javax.crypto.KeyGenerator;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.core.OAuth2AuthorizationCode;
+import org.springframework.security.oauth2.core.OAuth2TokenType;
+import org.springframework.security.oauth2.core.endpoint.OAuth2AuthorizationRequest;
+import org.springframework.security.oauth2.core.endpoint.OAuth2ParameterNames;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+import org.springframework.security.oauth2.server.authorization.client.TestRegisteredClients;
+import org.springframework.security.oauth2.server.authorization.token.DefaultOAuth2TokenContext;
+import org.springframework.security.oauth2.server.authorization.token.StatelessAuthorizationCodeGenerator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for {@link StatelessAuthorizationCodeOAuth2AuthorizationService}.
+ */
+public class StatelessAuthorizationCodeOAuth2AuthorizationServiceTests {
+	private static final OAuth2TokenType AUTHORIZATION_CODE_TOKEN_TYPE = new OAuth2TokenType(OAuth2ParameterNames.CODE);
+	private final RegisteredClient registeredClient = TestRegisteredClients.registeredClient().build();
+	private OAuth2AuthorizationService delegate;
+	private StatelessAuthorizationCodeGenerator authorizationCodeGenerator;
+	private StatelessAuthorizationCodeOAuth2AuthorizationService authorizationService;
+
+	@Before
+	public void setUp() throws Exception {
+		KeyGenerator keyGenerator = KeyGenerator.getInstance("AES");
+		keyGenerator.init(128);
+		this.delegate = mock(OAuth2AuthorizationService.class);
+		this.authorizationCodeGenerator = new StatelessAuthorizationCodeGenerator(keyGenerator.generateKey());
+		this.authorizationService = new StatelessAuthorizationCodeOAuth2AuthorizationService(
+				this.delegate, this.authorizationCodeGenerator);
+	}
+
+	@Test
+	public void constructorWhenAuthorizationServiceNullThenThrowIllegalArgumentException() {
+		assertThatThrownBy(() -> new StatelessAuthorizationCodeOAuth2AuthorizationService(null, this.authorizationCodeGenerator))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("authorizationService cannot be null");
+	}
+
+	@Test
+	public void constructorWhenAuthorizationCodeGeneratorNullThenThrowIllegalArgumentException() {
+		assertThatThrownBy(() -> new StatelessAuthorizationCodeOAuth2AuthorizationService(this.delegate, null))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("authorizationCodeGenerator cannot be null");
+	}
+
+	@Test
+	public void saveWhenOnlyStatelessAuthorizationCodeThenNotStored() {
+		OAuth2Authorization authorization = authorizationWithAuthorizationCode();
+
+		this.authorizationService.save(authorization);
+
+		verify(this.delegate, never()).save(any());
+	}
+
+	@Test
+	public void saveWhenRandomAuthorizationCodeThenStored() {
+		OAuth2Authorization authorization = TestOAuth2Authorizations.authorization().build();
+
+		this.authorizationService.save(authorization);
+
+		verify(this.delegate).save(authorization);
+	}
+
+	@Test
+	public void findByTokenWhenStatelessAuthorizationCodeThenReadFromAuthorizationCode() {
+		OAuth2Authorization authorization = authorizationWithAuthorizationCode();
+		String authorizationCode = authorization.getToken(OAuth2AuthorizationCode.class).getToken().getTokenValue();
+
+		OAuth2Authorization result = this.authorizationService.findByToken(authorizationCode, AUTHORIZATION_CODE_TOKEN_TYPE);
+
+		assertThat(result).isNotNull();
+		assertThat(result.getId()).isEqualTo(authorization.getId());
+		assertThat(result.getToken(OAuth2AuthorizationCode.class).isActive()).isTrue();
+		verify(this.delegate, never()).findByToken(any(), any());
+	}
+
+	@Test
+	public void findByTokenWhenStatelessAuthorizationCodeExchangedThenInvalidated() {
+		OAuth2Authorization authorization = authorizationWithAuthorizationCode();
+		OAuth2AuthorizationCode authorizationCode = authorization.getToken(OAuth2AuthorizationCode.class).getToken();
+		OAuth2AccessToken accessToken = new OAuth2AccessToken(OAuth2AccessToken.TokenType.BEARER,
+				"access-token", Instant.now(), Instant.now().plusSeconds(300));
+		OAuth2Authorization exchangedAuthorization = OAuth2Authorization.from(authorization)
+				.token(accessToken)
+				.token(authorizationCode, (metadata) ->
+						metadata.put(OAuth2Authorization.Token.INVALIDATED_METADATA_NAME, true))
+				.build();
+
+		this.authorizationService.save(exchangedAuthorization);
+		verify(this.delegate).save(exchangedAuthorization);
+		when(this.delegate.findById(authorization.getId())).thenReturn(exchangedAuthorization);
+
+		OAuth2Authorization result = this.authorizationService.findByToken(
+				authorizationCode.getTokenValue(), AUTHORIZATION_CODE_TOKEN_TYPE);
+		assertThat(result).isSameAs(exchangedAuthorization);
+		assertThat(result.getToken(OAuth2AuthorizationCode.class).isInvalidated()).isTrue();
+	}
+
+	@Test
+	public void saveWhenStatelessAuthorizationCodeInvalidatedThenStored() {
+		OAuth2Authorization authorization = authorizationWithAuthorizationCode();
+		OAuth2AuthorizationCode authorizationCode = authorization.getToken(OAuth2AuthorizationCode.class).getToken();
+		OAuth2Authorization invalidatedAuthorization = OAuth2Authorization.from(authorization)
+				.token(authorizationCode, (metadata) ->
+						metadata.put(OAuth2Authorization.Token.INVALIDATED_METADATA_NAME, true))
+				.build();
+
+		this.authorizationService.save(invalidatedAuthorization);
+
+		verify(this.delegate).save(invalidatedAuthorization);
+	}
+
+	@Test
+	public void findByTokenWhenAuthorizationStoredByAnotherNodeThenStoredAuthorization() {
+		OAuth2Authorization authorization = authorizationWithAuthorizationCode();
+		OAuth2AuthorizationCode authorizationCode = authorization.getToken(OAuth2AuthorizationCode.class).getToken();
+		OAuth2Authorization invalidatedAuthorization = OAuth2Authorization.from(authorization)
+				.token(authorizationCode, (metadata) ->
+						metadata.put(OAuth2Authorization.Token.INVALIDATED_METADATA_NAME, true))
+				.build();
+		// Stored through another instance sharing the delegate
+		when(this.delegate.findById(authorization.getId())).thenReturn(invalidatedAuthorization);
+
+		OAuth2Authorization result = this.authorizationService.findByToken(
+				authorizationCode.getTokenValue(), AUTHORIZATION_CODE_TOKEN_TYPE);
+
+		assertThat(result).isSameAs(invalidatedAuthorization);
+		assertThat(result.getToken(OAuth2AuthorizationCode.class).isInvalidated()).isTrue();
+	}
+
+	@Test
+	public void findByTokenWhenNotStatelessAuthorizationCodeThenDelegated() {
+		OAuth2Authorization authorization = TestOAuth2Authorizations.authorization().build();
+		when(this.delegate.findByToken("access-token", OAuth2TokenType.ACCESS_TOKEN)).thenReturn(authorization);
+
+		assertThat(this.authorizationService.findByToken("access-token", OAuth2TokenType.ACCESS_TOKEN))
+				.isSameAs(authorization);
+	}
+
+	@Test
+	public void findAuthorizedTokensWhenStatelessAuthorizationCodeThenOtherTokensDelegated() {
+		String authorizationCode = authorizationWithAuthorizationCode()
+				.getToken(OAuth2AuthorizationCode.class).getToken().getTokenValue();
+		OAuth2Authorization authorization = TestOAuth2Authorizations.authorization().build();
+		OAuth2AuthorizedToken accessToken = new OAuth2AuthorizedToken(authorization.getId(),
+				authorization.getRegisteredClientId(), authorization.getPrincipalName(), authorization.getAccessToken());
+		when(this.delegate.findAuthorizedTokens(Collections.singletonList("access-token"), null))
+				.thenReturn(Collections.singletonMap("access-token", accessToken));
+
+		Map<String, OAuth2AuthorizedToken> authorizedTokens = this.authorizationService.findAuthorizedTokens(
+				Arrays.asList(authorizationCode, "access-token"), null);
+
+		assertThat(authorizedTokens).containsOnlyKeys(authorizationCode, "access-token");
+		assertThat(authorizedTokens.get("access-token")).isSameAs(accessToken);
+	}
+
+	private OAuth2Authorization authorizationWithAuthorizationCode() {
+		OAuth2AuthorizationRequest authorizationRequest = OAuth2AuthorizationRequest.authorizationCode()
+				.authorizationUri("https://provider.com/oauth2/authorize")
+				.clientId(this.registeredClient.getClientId())
+				.redirectUri(this.registeredClient.getRedirectUris().iterator().next())
+				.scopes(this.registeredClient.getScopes())
+				.build();
+		// @formatter:off
+		OAuth2Authorization authorization = OAuth2Authorization.withRegisteredClient(this.registeredClient)
+				.principalName("principal")
+				.authorizationGrantType(AuthorizationGrantType.AUTHORIZATION_CODE)
+				.attribute(Principal.class.getName(), new UsernamePasswordAuthenticationToken("principal", null, AuthorityUtils.createAuthorityList("ROLE_A")))
+				.attribute(OAuth2AuthorizationRequest.class.getName(), authorizationRequest)
+				.build();
+		OAuth2AuthorizationCode authorizationCode = this.authorizationCodeGenerator.generate(
+				DefaultOAuth2TokenContext.builder()
+						.registeredClient(this.registeredClient)
+						.authorization(authorization)
+						.authorizedScopes(this.registeredClient.getScopes())
+						.tokenType(AUTHORIZATION_CODE_TOKEN_TYPE)
+						.build());
+		// @formatter:on
+		return OAuth2Authorization.from(authorization).token(authorizationCode).build();
+	}
+
+}
@@ -15,6 +15,7 @@
  */
 package org.springframework.security.oauth2.server.authorization.authentication;
 
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -43,6 +44,7 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -203,6 +205,78 @@ public class ClientSecretAuthenticationProviderTests {
 		assertThat(authenticationResult.getRegisteredClient()).isEqualTo(registeredClient);
 	}
 
+	@Test
+	public void setVerifiedClientSecretTimeToLiveWhenNegativeThenThrowIllegalArgumentException() {
+		assertThatThrownBy(() -> this.authenticationProvider.setVerifiedClientSecretTimeToLive(Duration.ofSeconds(-1)))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("timeToLive cannot be negative");
+	}
+
+	@Test
+	public void setVerifiedClientSecretMaximumSizeWhenZeroThenThrowIllegalArgumentException() {
+		assertThatThrownBy(() -> this.authenticationProvider.setVerifiedClientSecretMaximumSize(0))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("maximumSize must be greater than 0");
+	}
+
+	@Test
+	public void authenticateWhenVerifiedClientSecretCachedThenPasswordEncoderCalledOnce() {
+		this.authenticationProvider.setVerifiedClientSecretTimeToLive(Duration.ofMinutes(1));
+		RegisteredClient registeredClient = TestRegisteredClients.registeredClient().build();
+		when(this.registeredClientRepository.findByClientId(eq(registeredClient.getClientId())))
+				.thenReturn(registeredClient);
+
+		OAuth2ClientAuthenticationToken authentication = new OAuth2ClientAuthenticationToken(
+				registeredClient.getClientId(), ClientAuthenticationMethod.CLIENT_SECRET_BASIC, registeredClient.getClientSecret(), null);
+		assertThat(this.authenticationProvider.authenticate(authentication).isAuthenticated()).isTrue();
+		assertThat(this.authenticationProvider.authenticate(authentication).isAuthenticated()).isTrue();
+
+		verify(this.passwordEncoder, times(1)).matches(any(), any());
+	}
+
+	@Test
+	public void authenticateWhenVerifiedClientSecretCachedAndInvalidClientSecretThenThrowOAuth2AuthenticationException() {
+		this.authenticationProvider.setVerifiedClientSecretTimeToLive(Duration.ofMinutes(1));
+		RegisteredClient registeredClient = TestRegisteredClients.registeredClient().build();
+		when(this.registeredClientRepository.findByClientId(eq(registeredClient.getClientId())))
+				.thenReturn(registeredClient);
+
+		this.authenticationProvider.authenticate(new OAuth2ClientAuthenticationToken(
+				registeredClient.getClientId(), ClientAuthenticationMethod.CLIENT_SECRET_BASIC, registeredClient.getClientSecret(), null));
+		OAuth2ClientAuthenticationToken authentication = new OAuth2ClientAuthenticationToken(
+				registeredClient.getClientId(), ClientAuthenticationMethod.CLIENT_SECRET_BASIC, registeredClient.getClientSecret() + "-invalid", null);
+		assertThatThrownBy(() -> this.authenticationProvider.authenticate(authentication))
+				.isInstanceOf(OAuth2AuthenticationException.class)
+				.extracting(ex -> ((OAuth2AuthenticationException) ex).getError())
+				.satisfies(error -> {
+					assertThat(error.getErrorCode()).isEqualTo(OAuth2ErrorCodes.INVALID_CLIENT);
+					assertThat(error.getDescription()).contains(OAuth2ParameterNames.CLIENT_SECRET);
+				});
+		verify(this.passwordEncoder, times(2)).matches(any(), any());
+	}
+
+	@Test
+	public void authenticateWhenVerifiedClientSecretCachedAndClientSecretChangedThenPasswordEncoderCalled() {
+		this.authenticationProvider.setVerifiedClientSecretTimeToLive(Duration.ofMinutes(1));
+		RegisteredClient registeredClient = TestRegisteredClients.registeredClient().build();
+		when(this.registeredClientRepository.findByClientId(eq(registeredClient.getClientId())))
+				.thenReturn(registeredClient);
+
+		OAuth2ClientAuthenticationToken authentication = new OAuth2ClientAuthenticationToken(
+				registeredClient.getClientId(), ClientAuthenticationMethod.CLIENT_SECRET_BASIC, registeredClient.getClientSecret(), null);
+		this.authenticationProvider.authenticate(authentication);
+
+		RegisteredClient updatedRegisteredClient = RegisteredClient.from(registeredClient)
+				.clientSecret("updated-secret")
+				.build();
+		when(this.registeredClientRepository.findByClientId(eq(registeredClient.getClientId())))
+				.thenReturn(updatedRegisteredClient);
+		assertThatThrownBy(() -> this.authenticationProvider.authenticate(authentication))
+				.isInstanceOf(OAuth2AuthenticationException.class);
+
+		verify(this.passwordEncoder, times(2)).matches(any(), any());
+	}
+
 	@Test
 	public void authenticateWhenAuthorizationCodeGrantAndValidCredentialsThenAuthenticated() {
 		RegisteredClient registeredClient = TestRegisteredClients.registeredClient().build();
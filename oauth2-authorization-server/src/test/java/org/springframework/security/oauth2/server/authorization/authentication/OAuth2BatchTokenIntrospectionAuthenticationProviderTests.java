@@ -0,0 +1,169 @@
+/*
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.security.oauth2.server.authorization.authentication;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.security.oauth2.core.ClientAuthenticationMethod;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.core.OAuth2AuthenticationException;
+import org.springframework.security.oauth2.core.OAuth2ErrorCodes;
+import org.springframework.security.oauth2.core.OAuth2RefreshToken;
+import org.springframework.security.oauth2.core.OAuth2TokenIntrospection;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationService;
+import org.springframework.security.oauth2.server.authorization.TestOAuth2Authorizations;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClientRepository;
+import org.springframework.security.oauth2.server.authorization.client.TestRegisteredClients;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for {@link OAuth2BatchTokenIntrospectionAuthenticationProvider}.
+ */
+public class OAuth2BatchTokenIntrospectionAuthenticationProviderTests {
+	private RegisteredClientRepository registeredClientRepository;
+	private OAuth2AuthorizationService authorizationService;
+	private OAuth2BatchTokenIntrospectionAuthenticationProvider authenticationProvider;
+
+	@Before
+	public void setUp() {
+		this.registeredClientRepository = mock(RegisteredClientRepository.class);
+		this.authorizationService = mock(OAuth2AuthorizationService.class);
+		when(this.authorizationService.findAuthorizedToken(any(), any())).thenCallRealMethod();
+		when(this.authorizationService.findAuthorizedTokens(any(), any())).thenCallRealMethod();
+		this.authenticationProvider = new OAuth2BatchTokenIntrospectionAuthenticationProvider(
+				this.registeredClientRepository, this.authorizationService);
+	}
+
+	@Test
+	public void constructorWhenRegisteredClientRepositoryNullThenThrowIllegalArgumentException() {
+		assertThatThrownBy(() -> new OAuth2BatchTokenIntrospectionAuthenticationProvider(null, this.authorizationService))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("registeredClientRepository cannot be null");
+	}
+
+	@Test
+	public void constructorWhenAuthorizationServiceNullThenThrowIllegalArgumentException() {
+		assertThatThrownBy(() -> new OAuth2BatchTokenIntrospectionAuthenticationProvider(this.registeredClientRepository, null))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("authorizationService cannot be null");
+	}
+
+	@Test
+	public void supportsWhenTypeOAuth2BatchTokenIntrospectionAuthenticationTokenThenReturnTrue() {
+		assertThat(this.authenticationProvider.supports(OAuth2BatchTokenIntrospectionAuthenticationToken.class)).isTrue();
+	}
+
+	@Test
+	public void authenticateWhenClientPrincipalNotAuthenticatedThenThrowOAuth2AuthenticationException() {
+		RegisteredClient registeredClient = TestRegisteredClients.registeredClient().build();
+		OAuth2ClientAuthenticationToken clientPrincipal = new OAuth2ClientAuthenticationToken(
+				registeredClient.getClientId(), ClientAuthenticationMethod.CLIENT_SECRET_BASIC, registeredClient.getClientSecret(), null);
+
+		OAuth2BatchTokenIntrospectionAuthenticationToken authentication = new OAuth2BatchTokenIntrospectionAuthenticationToken(
+				Arrays.asList("token1", "token2"), clientPrincipal, null, null);
+
+		assertThatThrownBy(() -> this.authenticationProvider.authenticate(authentication))
+				.isInstanceOf(OAuth2AuthenticationException.class)
+				.extracting(ex -> ((OAuth2AuthenticationException) ex).getError()).extracting("errorCode")
+				.isEqualTo(OAuth2ErrorCodes.INVALID_CLIENT);
+	}
+
+	@Test
+	public void authenticateWhenValidAndInvalidTokensThenTokenClaimsInRequestOrder() {
+		RegisteredClient authorizedClient = TestRegisteredClients.registeredClient().build();
+		Instant issuedAt = Instant.now();
+		Instant expiresAt = issuedAt.plus(Duration.ofHours(1));
+		OAuth2AccessToken accessToken = new OAuth2AccessToken(
+				OAuth2AccessToken.TokenType.BEARER, "access-token", issuedAt, expiresAt,
+				new HashSet<>(Arrays.asList("scope1", "scope2")));
+		OAuth2RefreshToken refreshToken = new OAuth2RefreshToken("refresh-token", issuedAt, expiresAt);
+		OAuth2Authorization authorization = TestOAuth2Authorizations.authorization(authorizedClient)
+				.token(accessToken)
+				.refreshToken(refreshToken)
+				.build();
+		when(this.authorizationService.findByToken(eq(accessToken.getTokenValue()), isNull()))
+				.thenReturn(authorization);
+		when(this.authorizationService.findByToken(eq(refreshToken.getTokenValue()), isNull()))
+				.thenReturn(authorization);
+		when(this.registeredClientRepository.findById(eq(authorizedClient.getId()))).thenReturn(authorizedClient);
+		RegisteredClient registeredClient = TestRegisteredClients.registeredClient2().build();
+		OAuth2ClientAuthenticationToken clientPrincipal = new OAuth2ClientAuthenticationToken(
+				registeredClient, ClientAuthenticationMethod.CLIENT_SECRET_BASIC, registeredClient.getClientSecret());
+
+		OAuth2BatchTokenIntrospectionAuthenticationToken authentication = new OAuth2BatchTokenIntrospectionAuthenticationToken(
+				Arrays.asList(accessToken.getTokenValue(), "unknown-token", refreshToken.getTokenValue()),
+				clientPrincipal, null, null);
+		OAuth2BatchTokenIntrospectionAuthenticationToken authenticationResult =
+				(OAuth2BatchTokenIntrospectionAuthenticationToken) this.authenticationProvider.authenticate(authentication);
+
+		verify(this.authorizationService).findAuthorizedTokens(eq(authentication.getTokens()), isNull());
+		// The authorized client is resolved once for both tokens
+		verify(this.registeredClientRepository, times(1)).findById(eq(authorizedClient.getId()));
+		assertThat(authenticationResult.isAuthenticated()).isTrue();
+		assertThat(authenticationResult.getTokens()).isEqualTo(authentication.getTokens());
+		List<OAuth2TokenIntrospection> tokenClaims = authenticationResult.getTokenClaims();
+		assertThat(tokenClaims).hasSize(3);
+		assertThat(tokenClaims.get(0).isActive()).isTrue();
+		assertThat(tokenClaims.get(0).getClientId()).isEqualTo(authorizedClient.getClientId());
+		assertThat(tokenClaims.get(0).getTokenType()).isEqualTo(accessToken.getTokenType().getValue());
+		assertThat(tokenClaims.get(1).isActive()).isFalse();
+		assertThat(tokenClaims.get(1).getClaims()).hasSize(1);
+		assertThat(tokenClaims.get(2).isActive()).isTrue();
+		assertThat(tokenClaims.get(2).getExpiresAt()).isEqualTo(refreshToken.getExpiresAt());
+		assertThat(tokenClaims.get(2).getTokenType()).isNull();
+	}
+
+	@Test
+	public void authenticateWhenTokenInvalidatedThenNotActive() {
+		RegisteredClient authorizedClient = TestRegisteredClients.registeredClient().build();
+		OAuth2Authorization authorization = TestOAuth2Authorizations.authorization(authorizedClient).build();
+		OAuth2AccessToken accessToken = authorization.getAccessToken().getToken();
+		authorization = OAuth2AuthenticationProviderUtils.invalidate(authorization, accessToken);
+		when(this.authorizationService.findByToken(eq(accessToken.getTokenValue()), isNull()))
+				.thenReturn(authorization);
+		RegisteredClient registeredClient = TestRegisteredClients.registeredClient2().build();
+		OAuth2ClientAuthenticationToken clientPrincipal = new OAuth2ClientAuthenticationToken(
+				registeredClient, ClientAuthenticationMethod.CLIENT_SECRET_BASIC, registeredClient.getClientSecret());
+
+		OAuth2BatchTokenIntrospectionAuthenticationToken authentication = new OAuth2BatchTokenIntrospectionAuthenticationToken(
+				Arrays.asList(accessToken.getTokenValue()), clientPrincipal, null, null);
+		OAuth2BatchTokenIntrospectionAuthenticationToken authenticationResult =
+				(OAuth2BatchTokenIntrospectionAuthenticationToken) this.authenticationProvider.authenticate(authentication);
+
+		assertThat(authenticationResult.isAuthenticated()).isTrue();
+		assertThat(authenticationResult.getTokenClaims()).hasSize(1);
+		assertThat(authenticationResult.getTokenClaims().get(0).isActive()).isFalse();
+	}
+
+}
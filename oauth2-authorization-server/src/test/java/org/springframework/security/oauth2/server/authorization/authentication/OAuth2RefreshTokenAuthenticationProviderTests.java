@@ -38,6 +38,7 @@ import org.springframework.security.oauth2.core.OAuth2AuthenticationException;
 import org.springframework.security.oauth2.core.OAuth2ErrorCodes;
 import org.springframework.security.oauth2.core.OAuth2RefreshToken;
 import org.springframework.security.oauth2.core.OAuth2Token;
+import org.springframework.security.oauth2.core.OAuth2TokenIntrospection;
 import org.springframework.security.oauth2.core.OAuth2TokenFormat;
 import org.springframework.security.oauth2.core.OAuth2TokenType;
 import org.springframework.security.oauth2.core.endpoint.OAuth2ParameterNames;
@@ -311,6 +312,44 @@ public class OAuth2RefreshTokenAuthenticationProviderTests {
 		assertThat(updatedAuthorization.getRefreshToken()).isNotEqualTo(authorization.getRefreshToken());
 	}
 
+	@Test
+	public void setTokenIntrospectionCacheWhenNullThenThrowIllegalArgumentException() {
+		assertThatThrownBy(() -> this.authenticationProvider.setTokenIntrospectionCache(null))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("tokenIntrospectionCache cannot be null");
+	}
+
+	@Test
+	public void authenticateWhenTokenIntrospectionCacheThenReplacedTokensEvicted() {
+		RegisteredClient registeredClient = TestRegisteredClients.registeredClient()
+				.tokenSettings(TokenSettings.builder().reuseRefreshTokens(false).build())
+				.build();
+		OAuth2Authorization authorization = TestOAuth2Authorizations.authorization(registeredClient).build();
+		when(this.authorizationService.findByToken(
+				eq(authorization.getRefreshToken().getToken().getTokenValue()),
+				eq(OAuth2TokenType.REFRESH_TOKEN)))
+				.thenReturn(authorization);
+		String accessTokenValue = authorization.getAccessToken().getToken().getTokenValue();
+		String refreshTokenValue = authorization.getRefreshToken().getToken().getTokenValue();
+		OAuth2TokenIntrospectionCache tokenIntrospectionCache = new OAuth2TokenIntrospectionCache();
+		OAuth2TokenIntrospection tokenClaims = OAuth2TokenIntrospection.builder(true)
+				.expiresAt(Instant.now().plus(1, ChronoUnit.HOURS))
+				.build();
+		tokenIntrospectionCache.put(accessTokenValue, tokenClaims);
+		tokenIntrospectionCache.put(refreshTokenValue, tokenClaims);
+		this.authenticationProvider.setTokenIntrospectionCache(tokenIntrospectionCache);
+
+		OAuth2ClientAuthenticationToken clientPrincipal = new OAuth2ClientAuthenticationToken(
+				registeredClient, ClientAuthenticationMethod.CLIENT_SECRET_BASIC, registeredClient.getClientSecret());
+		OAuth2RefreshTokenAuthenticationToken authentication = new OAuth2RefreshTokenAuthenticationToken(
+				refreshTokenValue, clientPrincipal, null, null);
+
+		this.authenticationProvider.authenticate(authentication);
+
+		assertThat(tokenIntrospectionCache.get(accessTokenValue)).isNull();
+		assertThat(tokenIntrospectionCache.get(refreshTokenValue)).isNull();
+	}
+
 	@Test
 	public void authenticateWhenRequestedScopesAuthorizedThenAccessTokenIncludesScopes() {
 		RegisteredClient registeredClient = TestRegisteredClients.registeredClient()
@@ -35,6 +35,7 @@ import org.springframework.security.oauth2.core.OAuth2TokenIntrospection;
 import org.springframework.security.oauth2.core.OAuth2TokenIntrospectionClaimNames;
 import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
 import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationService;
+import org.springframework.security.oauth2.server.authorization.OAuth2TokenRevocationList;
 import org.springframework.security.oauth2.server.authorization.TestOAuth2Authorizations;
 import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
 import org.springframework.security.oauth2.server.authorization.client.RegisteredClientRepository;
@@ -44,9 +45,12 @@ import org.springframework.security.oauth2.server.authorization.token.OAuth2Toke
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -65,6 +69,7 @@ public class OAuth2TokenIntrospectionAuthenticationProviderTests {
 	public void setUp() {
 		this.registeredClientRepository = mock(RegisteredClientRepository.class);
 		this.authorizationService = mock(OAuth2AuthorizationService.class);
+		when(this.authorizationService.findAuthorizedToken(any(), any())).thenCallRealMethod();
 		this.authenticationProvider = new OAuth2TokenIntrospectionAuthenticationProvider(
 				this.registeredClientRepository, this.authorizationService);
 	}
@@ -293,4 +298,72 @@ public class OAuth2TokenIntrospectionAuthenticationProviderTests {
 		assertThat(tokenClaims.getExpiresAt()).isEqualTo(refreshToken.getExpiresAt());
 	}
 
+	@Test
+	public void authenticateWhenTokenIntrospectionCachedThenAuthorizationNotLoaded() {
+		this.authenticationProvider.setTokenIntrospectionCache(new OAuth2TokenIntrospectionCache());
+		RegisteredClient authorizedClient = TestRegisteredClients.registeredClient().build();
+		OAuth2Authorization authorization = TestOAuth2Authorizations.authorization(authorizedClient).build();
+		OAuth2AccessToken accessToken = authorization.getAccessToken().getToken();
+		when(this.authorizationService.findByToken(eq(accessToken.getTokenValue()), isNull()))
+				.thenReturn(authorization);
+		when(this.registeredClientRepository.findById(eq(authorizedClient.getId()))).thenReturn(authorizedClient);
+		RegisteredClient registeredClient = TestRegisteredClients.registeredClient2().build();
+		OAuth2ClientAuthenticationToken clientPrincipal = new OAuth2ClientAuthenticationToken(
+				registeredClient, ClientAuthenticationMethod.CLIENT_SECRET_BASIC, registeredClient.getClientSecret());
+
+		OAuth2TokenIntrospectionAuthenticationToken authentication = new OAuth2TokenIntrospectionAuthenticationToken(
+				accessToken.getTokenValue(), clientPrincipal, null, null);
+		OAuth2TokenIntrospectionAuthenticationToken authenticationResult =
+				(OAuth2TokenIntrospectionAuthenticationToken) this.authenticationProvider.authenticate(authentication);
+		OAuth2TokenIntrospectionAuthenticationToken cachedAuthenticationResult =
+				(OAuth2TokenIntrospectionAuthenticationToken) this.authenticationProvider.authenticate(authentication);
+
+		verify(this.authorizationService, times(1)).findByToken(eq(accessToken.getTokenValue()), isNull());
+		assertThat(cachedAuthenticationResult.isAuthenticated()).isTrue();
+		assertThat(cachedAuthenticationResult.getTokenClaims()).isSameAs(authenticationResult.getTokenClaims());
+	}
+
+	@Test
+	public void authenticateWhenTokenIntrospectionCacheAndInvalidTokenThenNotCached() {
+		this.authenticationProvider.setTokenIntrospectionCache(new OAuth2TokenIntrospectionCache());
+		RegisteredClient registeredClient = TestRegisteredClients.registeredClient().build();
+		OAuth2ClientAuthenticationToken clientPrincipal = new OAuth2ClientAuthenticationToken(
+				registeredClient, ClientAuthenticationMethod.CLIENT_SECRET_BASIC, registeredClient.getClientSecret());
+
+		OAuth2TokenIntrospectionAuthenticationToken authentication = new OAuth2TokenIntrospectionAuthenticationToken(
+				"token", clientPrincipal, null, null);
+		this.authenticationProvider.authenticate(authentication);
+		this.authenticationProvider.authenticate(authentication);
+
+		verify(this.authorizationService, times(2)).findByToken(eq("token"), isNull());
+		verify(this.registeredClientRepository, never()).findById(any());
+	}
+
+	@Test
+	public void setTokenRevocationListWhenNullThenThrowIllegalArgumentException() {
+		assertThatThrownBy(() -> this.authenticationProvider.setTokenRevocationList(null))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("tokenRevocationList cannot be null");
+	}
+
+	@Test
+	public void authenticateWhenTokenRevokedThenNotActiveAndAuthorizationNotLoaded() {
+		OAuth2TokenRevocationList tokenRevocationList = new OAuth2TokenRevocationList();
+		tokenRevocationList.revokeToken("token", Instant.now().plusSeconds(300));
+		this.authenticationProvider.setTokenRevocationList(tokenRevocationList);
+		RegisteredClient registeredClient = TestRegisteredClients.registeredClient().build();
+		OAuth2ClientAuthenticationToken clientPrincipal = new OAuth2ClientAuthenticationToken(
+				registeredClient, ClientAuthenticationMethod.CLIENT_SECRET_BASIC, registeredClient.getClientSecret());
+
+		OAuth2TokenIntrospectionAuthenticationToken authentication = new OAuth2TokenIntrospectionAuthenticationToken(
+				"token", clientPrincipal, null, null);
+		OAuth2TokenIntrospectionAuthenticationToken authenticationResult =
+				(OAuth2TokenIntrospectionAuthenticationToken) this.authenticationProvider.authenticate(authentication);
+
+		assertThat(authenticationResult.isAuthenticated()).isTrue();
+		assertThat(authenticationResult.getTokenClaims().isActive()).isFalse();
+		verify(this.authorizationService, never()).findByToken(any(), any());
+		verify(this.authorizationService, never()).findAuthorizedToken(any(), any());
+	}
+
 }
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.security.oauth2.server.authorization.authentication;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.security.oauth2.core.OAuth2TokenIntrospection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for {@link OAuth2TokenIntrospectionCache}.
+ */
+public class OAuth2TokenIntrospectionCacheTests {
+	private final Instant now = Instant.parse("2022-01-01T00:00:00Z");
+	private OAuth2TokenIntrospectionCache cache;
+
+	@Before
+	public void setUp() {
+		this.cache = new OAuth2TokenIntrospectionCache();
+		this.cache.setClock(Clock.fixed(this.now, ZoneOffset.UTC));
+	}
+
+	@Test
+	public void setTimeToLiveWhenZeroThenThrowIllegalArgumentException() {
+		assertThatThrownBy(() -> this.cache.setTimeToLive(Duration.ZERO))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("timeToLive must be greater than Duration.ZERO");
+	}
+
+	@Test
+	public void setMaximumSizeWhenZeroThenThrowIllegalArgumentException() {
+		assertThatThrownBy(() -> this.cache.setMaximumSize(0))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("maximumSize must be greater than 0");
+	}
+
+	@Test
+	public void getWhenPutActiveThenReturned() {
+		OAuth2TokenIntrospection tokenClaims = activeTokenClaims(this.now.plusSeconds(300));
+		this.cache.put("token", tokenClaims);
+		assertThat(this.cache.get("token")).isSameAs(tokenClaims);
+		assertThat(this.cache.get("other-token")).isNull();
+	}
+
+	@Test
+	public void putWhenInactiveThenNotCached() {
+		this.cache.put("token", OAuth2TokenIntrospection.builder().build());
+		assertThat(this.cache.get("token")).isNull();
+	}
+
+	@Test
+	public void getWhenTimeToLiveElapsedThenNull() {
+		this.cache.put("token", activeTokenClaims(this.now.plusSeconds(300)));
+		this.cache.setClock(Clock.fixed(this.now.plusSeconds(60), ZoneOffset.UTC));
+		assertThat(this.cache.get("token")).isNull();
+	}
+
+	@Test
+	public void getWhenTokenExpiredBeforeTimeToLiveThenNull() {
+		this.cache.put("token", activeTokenClaims(this.now.plusSeconds(10)));
+		this.cache.setClock(Clock.fixed(this.now.plusSeconds(10), ZoneOffset.UTC));
+		assertThat(this.cache.get("token")).isNull();
+	}
+
+	@Test
+	public void getWhenEvictedThenNull() {
+		this.cache.put("token", activeTokenClaims(this.now.plusSeconds(300)));
+		this.cache.evict("token");
+		assertThat(this.cache.get("token")).isNull();
+	}
+
+	@Test
+	public void putWhenMaximumSizeReachedThenNotCached() {
+		this.cache.setMaximumSize(1);
+		this.cache.put("token-1", activeTokenClaims(this.now.plusSeconds(300)));
+		this.cache.put("token-2", activeTokenClaims(this.now.plusSeconds(300)));
+		assertThat(this.cache.get("token-1")).isNotNull();
+		assertThat(this.cache.get("token-2")).isNull();
+	}
+
+	@Test
+	public void putWhenMaximumSizeReachedAndEntryExpiredThenSweptAtMostOncePerInterval() {
+		this.cache.setMaximumSize(2);
+		this.cache.put("token-1", activeTokenClaims(this.now.plusMillis(200)));
+		this.cache.put("token-2", activeTokenClaims(this.now.plusSeconds(300)));
+		// The sweep finds no expired entry
+		this.cache.put("token-3", activeTokenClaims(this.now.plusSeconds(300)));
+		assertThat(this.cache.get("token-3")).isNull();
+
+		// token-1 has expired, but the previous sweep was less than a second ago
+		this.cache.setClock(Clock.fixed(this.now.plusMillis(500), ZoneOffset.UTC));
+		this.cache.put("token-3", activeTokenClaims(this.now.plusSeconds(300)));
+		assertThat(this.cache.get("token-3")).isNull();
+
+		this.cache.setClock(Clock.fixed(this.now.plusSeconds(10), ZoneOffset.UTC));
+		this.cache.put("token-3", activeTokenClaims(this.now.plusSeconds(300)));
+		assertThat(this.cache.get("token-3")).isNotNull();
+	}
+
+	private static OAuth2TokenIntrospection activeTokenClaims(Instant expiresAt) {
+		return OAuth2TokenIntrospection.builder(true)
+				.expiresAt(expiresAt)
+				.build();
+	}
+
+}
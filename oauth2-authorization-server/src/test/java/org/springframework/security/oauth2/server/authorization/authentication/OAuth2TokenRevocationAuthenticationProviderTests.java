@@ -1,5 +1,5 @@
 /*
- * Copyright 2020-2021 the original author or authors.
+ * Copyright 2020-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -25,8 +25,10 @@ import org.springframework.security.oauth2.core.OAuth2AccessToken;
 import org.springframework.security.oauth2.core.OAuth2AuthenticationException;
 import org.springframework.security.oauth2.core.OAuth2ErrorCodes;
 import org.springframework.security.oauth2.core.OAuth2RefreshToken;
+import org.springframework.security.oauth2.core.OAuth2TokenIntrospection;
 import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
 import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationService;
+import org.springframework.security.oauth2.server.authorization.OAuth2TokenRevocationList;
 import org.springframework.security.oauth2.server.authorization.TestOAuth2Authorizations;
 import org.springframework.security.oauth2.core.OAuth2TokenType;
 import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
@@ -190,4 +192,65 @@ public class OAuth2TokenRevocationAuthenticationProviderTests {
 		OAuth2Authorization.Token<OAuth2RefreshToken> refreshToken = updatedAuthorization.getRefreshToken();
 		assertThat(refreshToken.isInvalidated()).isFalse();
 	}
+
+	@Test
+	public void authenticateWhenTokenIntrospectionCacheThenRevokedTokensEvicted() {
+		OAuth2TokenIntrospectionCache tokenIntrospectionCache = new OAuth2TokenIntrospectionCache();
+		this.authenticationProvider.setTokenIntrospectionCache(tokenIntrospectionCache);
+
+		RegisteredClient registeredClient = TestRegisteredClients.registeredClient().build();
+		OAuth2Authorization authorization = TestOAuth2Authorizations.authorization(
+				registeredClient).build();
+		String accessTokenValue = authorization.getAccessToken().getToken().getTokenValue();
+		String refreshTokenValue = authorization.getRefreshToken().getToken().getTokenValue();
+		OAuth2TokenIntrospection tokenClaims = OAuth2TokenIntrospection.builder(true).build();
+		tokenIntrospectionCache.put(accessTokenValue, tokenClaims);
+		tokenIntrospectionCache.put(refreshTokenValue, tokenClaims);
+		when(this.authorizationService.findByToken(
+				eq(refreshTokenValue),
+				isNull()))
+				.thenReturn(authorization);
+
+		OAuth2ClientAuthenticationToken clientPrincipal = new OAuth2ClientAuthenticationToken(
+				registeredClient, ClientAuthenticationMethod.CLIENT_SECRET_BASIC, registeredClient.getClientSecret());
+		OAuth2TokenRevocationAuthenticationToken authentication = new OAuth2TokenRevocationAuthenticationToken(
+				refreshTokenValue, clientPrincipal, OAuth2TokenType.REFRESH_TOKEN.getValue());
+		this.authenticationProvider.authenticate(authentication);
+
+		assertThat(tokenIntrospectionCache.get(accessTokenValue)).isNull();
+		assertThat(tokenIntrospectionCache.get(refreshTokenValue)).isNull();
+	}
+
+	@Test
+	public void setTokenRevocationListWhenNullThenThrowIllegalArgumentException() {
+		assertThatThrownBy(() -> this.authenticationProvider.setTokenRevocationList(null))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("tokenRevocationList cannot be null");
+	}
+
+	@Test
+	public void authenticateWhenTokenRevocationListThenRevokedTokensAdded() {
+		OAuth2TokenRevocationList tokenRevocationList = new OAuth2TokenRevocationList();
+		this.authenticationProvider.setTokenRevocationList(tokenRevocationList);
+
+		RegisteredClient registeredClient = TestRegisteredClients.registeredClient().build();
+		OAuth2Authorization authorization = TestOAuth2Authorizations.authorization(
+				registeredClient).build();
+		String accessTokenValue = authorization.getAccessToken().getToken().getTokenValue();
+		when(this.authorizationService.findByToken(
+				eq(accessTokenValue),
+				isNull()))
+				.thenReturn(authorization);
+
+		OAuth2ClientAuthenticationToken clientPrincipal = new OAuth2ClientAuthenticationToken(
+				registeredClient, ClientAuthenticationMethod.CLIENT_SECRET_BASIC, registeredClient.getClientSecret());
+		OAuth2TokenRevocationAuthenticationToken authentication = new OAuth2TokenRevocationAuthenticationToken(
+				accessTokenValue, clientPrincipal, OAuth2TokenType.ACCESS_TOKEN.getValue());
+		this.authenticationProvider.authenticate(authentication);
+
+		assertThat(tokenRevocationList.isTokenRevoked(accessTokenValue)).isTrue();
+		assertThat(tokenRevocationList.isTokenRevoked(
+				authorization.getRefreshToken().getToken().getTokenValue())).isFalse();
+	}
+
 }
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.security.oauth2.server.authorization.client;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for {@link CachingRegisteredClientRepository}.
+ */
+public class CachingRegisteredClientRepositoryTests {
+	private final RegisteredClient registeredClient = TestRegisteredClients.registeredClient().build();
+	private final Instant now = Instant.now();
+	private RegisteredClientRepository delegate;
+	private CachingRegisteredClientRepository registeredClientRepository;
+
+	@Before
+	public void setUp() {
+		this.delegate = mock(RegisteredClientRepository.class);
+		when(this.delegate.findById(this.registeredClient.getId())).thenReturn(this.registeredClient);
+		when(this.delegate.findByClientId(this.registeredClient.getClientId())).thenReturn(this.registeredClient);
+		this.registeredClientRepository = new CachingRegisteredClientRepository(this.delegate);
+		this.registeredClientRepository.setTimeToLive(Duration.ofMinutes(5));
+		this.registeredClientRepository.setRefreshAheadTime(Duration.ofMinutes(4));
+		setNow(this.now);
+	}
+
+	@Test
+	public void constructorWhenRegisteredClientRepositoryNullThenThrowIllegalArgumentException() {
+		assertThatIllegalArgumentException()
+				.isThrownBy(() -> new CachingRegisteredClientRepository(null))
+				.withMessage("registeredClientRepository cannot be null");
+	}
+
+	@Test
+	public void setTimeToLiveWhenZeroThenThrowIllegalArgumentException() {
+		assertThatIllegalArgumentException()
+				.isThrownBy(() -> this.registeredClientRepository.setTimeToLive(Duration.ZERO))
+				.withMessage("timeToLive must be greater than Duration.ZERO");
+	}
+
+	@Test
+	public void setMaximumSizeWhenZeroThenThrowIllegalArgumentException() {
+		assertThatIllegalArgumentException()
+				.isThrownBy(() -> this.registeredClientRepository.setMaximumSize(0))
+				.withMessage("maximumSize must be greater than 0");
+	}
+
+	@Test
+	public void findByIdWhenCachedThenDelegateCalledOnce() {
+		assertThat(this.registeredClientRepository.findById(this.registeredClient.getId())).isEqualTo(this.registeredClient);
+		assertThat(this.registeredClientRepository.findById(this.registeredClient.getId())).isEqualTo(this.registeredClient);
+		verify(this.delegate, times(1)).findById(this.registeredClient.getId());
+	}
+
+	@Test
+	public void findByClientIdWhenCachedByIdThenDelegateNotCalled() {
+		this.registeredClientRepository.findById(this.registeredClient.getId());
+		assertThat(this.registeredClientRepository.findByClientId(this.registeredClient.getClientId()))
+				.isEqualTo(this.registeredClient);
+		verify(this.delegate, times(0)).findByClientId(this.registeredClient.getClientId());
+	}
+
+	@Test
+	public void findByIdWhenNotFoundThenNotCached() {
+		assertThat(this.registeredClientRepository.findById("unknown")).isNull();
+		assertThat(this.registeredClientRepository.findById("unknown")).isNull();
+		verify(this.delegate, times(2)).findById("unknown");
+	}
+
+	@Test
+	public void findByIdWhenExpiredThenReloaded() {
+		this.registeredClientRepository.findById(this.registeredClient.getId());
+		setNow(this.now.plus(Duration.ofMinutes(5)));
+		this.registeredClientRepository.findById(this.registeredClient.getId());
+		verify(this.delegate, times(2)).findById(this.registeredClient.getId());
+	}
+
+	@Test
+	public void findByIdWhenPastRefreshAheadTimeThenReloaded() {
+		this.registeredClientRepository.findById(this.registeredClient.getId());
+		setNow(this.now.plus(Duration.ofMinutes(4)));
+		this.registeredClientRepository.findById(this.registeredClient.getId());
+		this.registeredClientRepository.findById(this.registeredClient.getId());
+		verify(this.delegate, times(2)).findById(this.registeredClient.getId());
+	}
+
+	@Test
+	public void findByIdWhenRefreshFailedThenRefreshRetried() {
+		this.registeredClientRepository.findById(this.registeredClient.getId());
+		setNow(this.now.plus(Duration.ofMinutes(4)));
+		when(this.delegate.findById(this.registeredClient.getId()))
+				.thenThrow(new IllegalStateException("unavailable"))
+				.thenReturn(this.registeredClient);
+		assertThatIllegalStateException()
+				.isThrownBy(() -> this.registeredClientRepository.findById(this.registeredClient.getId()));
+		assertThat(this.registeredClientRepository.findById(this.registeredClient.getId())).isEqualTo(this.registeredClient);
+		verify(this.delegate, times(3)).findById(this.registeredClient.getId());
+	}
+
+	@Test
+	public void saveWhenCachedThenInvalidated() {
+		this.registeredClientRepository.findByClientId(this.registeredClient.getClientId());
+		RegisteredClient updatedRegisteredClient = RegisteredClient.from(this.registeredClient)
+				.clientSecret("updated-secret")
+				.build();
+		this.registeredClientRepository.save(updatedRegisteredClient);
+		verify(this.delegate).save(updatedRegisteredClient);
+
+		when(this.delegate.findByClientId(this.registeredClient.getClientId())).thenReturn(updatedRegisteredClient);
+		assertThat(this.registeredClientRepository.findByClientId(this.registeredClient.getClientId()))
+				.isEqualTo(updatedRegisteredClient);
+	}
+
+	@Test
+	public void invalidateAllWhenCachedThenReloaded() {
+		this.registeredClientRepository.findById(this.registeredClient.getId());
+		this.registeredClientRepository.invalidateAll();
+		this.registeredClientRepository.findById(this.registeredClient.getId());
+		verify(this.delegate, times(2)).findById(this.registeredClient.getId());
+	}
+
+	@Test
+	public void findByIdWhenMaximumSizeReachedThenEvicted() {
+		RegisteredClient registeredClient2 = TestRegisteredClients.registeredClient2().build();
+		when(this.delegate.findById(registeredClient2.getId())).thenReturn(registeredClient2);
+		this.registeredClientRepository.setMaximumSize(1);
+
+		this.registeredClientRepository.findById(this.registeredClient.getId());
+		this.registeredClientRepository.findById(registeredClient2.getId());
+		this.registeredClientRepository.findById(registeredClient2.getId());
+		this.registeredClientRepository.findById(this.registeredClient.getId());
+		verify(this.delegate, times(2)).findById(this.registeredClient.getId());
+		verify(this.delegate, times(1)).findById(registeredClient2.getId());
+	}
+
+	private void setNow(Instant now) {
+		this.registeredClientRepository.setClock(Clock.fixed(now, ZoneOffset.UTC));
+	}
+
+}
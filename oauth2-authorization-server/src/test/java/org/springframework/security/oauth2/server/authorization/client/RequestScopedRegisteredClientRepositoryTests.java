@@ -0,0 +1,120 @@
+/*
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.security.oauth2.server.authorization.client;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.security.oauth2.server.authorization.config.ProviderSettings;
+import org.springframework.security.oauth2.server.authorization.context.ProviderContext;
+import org.springframework.security.oauth2.server.authorization.context.ProviderContextHolder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for {@link RequestScopedRegisteredClientRepository}.
+ */
+public class RequestScopedRegisteredClientRepositoryTests {
+	private final RegisteredClient registeredClient = TestRegisteredClients.registeredClient().build();
+	private RegisteredClientRepository delegate;
+	private RequestScopedRegisteredClientRepository registeredClientRepository;
+
+	@Before
+	public void setUp() {
+		this.delegate = mock(RegisteredClientRepository.class);
+		when(this.delegate.findById(this.registeredClient.getId())).thenReturn(this.registeredClient);
+		when(this.delegate.findByClientId(this.registeredClient.getClientId())).thenReturn(this.registeredClient);
+		this.registeredClientRepository = new RequestScopedRegisteredClientRepository(this.delegate);
+		startRequest();
+	}
+
+	@After
+	public void cleanup() {
+		ProviderContextHolder.resetProviderContext();
+	}
+
+	@Test
+	public void constructorWhenRegisteredClientRepositoryNullThenThrowIllegalArgumentException() {
+		assertThatIllegalArgumentException()
+				.isThrownBy(() -> new RequestScopedRegisteredClientRepository(null))
+				.withMessage("registeredClientRepository cannot be null");
+	}
+
+	@Test
+	public void findByIdWhenSameRequestThenDelegateCalledOnce() {
+		assertThat(this.registeredClientRepository.findById(this.registeredClient.getId())).isEqualTo(this.registeredClient);
+		assertThat(this.registeredClientRepository.findById(this.registeredClient.getId())).isEqualTo(this.registeredClient);
+		verify(this.delegate, times(1)).findById(this.registeredClient.getId());
+	}
+
+	@Test
+	public void findByClientIdWhenFoundByIdInSameRequestThenDelegateNotCalled() {
+		this.registeredClientRepository.findById(this.registeredClient.getId());
+		assertThat(this.registeredClientRepository.findByClientId(this.registeredClient.getClientId())).isEqualTo(this.registeredClient);
+		verify(this.delegate, never()).findByClientId(this.registeredClient.getClientId());
+	}
+
+	@Test
+	public void findByIdWhenFoundByAnotherRepositoryInSameRequestThenDelegateNotCalled() {
+		new RequestScopedRegisteredClientRepository(this.delegate).findByClientId(this.registeredClient.getClientId());
+		assertThat(this.registeredClientRepository.findById(this.registeredClient.getId())).isEqualTo(this.registeredClient);
+		verify(this.delegate, never()).findById(this.registeredClient.getId());
+	}
+
+	@Test
+	public void findByIdWhenNotFoundThenDelegateCalledOnce() {
+		assertThat(this.registeredClientRepository.findById("unknown")).isNull();
+		assertThat(this.registeredClientRepository.findById("unknown")).isNull();
+		verify(this.delegate, times(1)).findById("unknown");
+	}
+
+	@Test
+	public void findByIdWhenAnotherRequestThenDelegateCalledAgain() {
+		this.registeredClientRepository.findById(this.registeredClient.getId());
+		startRequest();
+		this.registeredClientRepository.findById(this.registeredClient.getId());
+		verify(this.delegate, times(2)).findById(this.registeredClient.getId());
+	}
+
+	@Test
+	public void findByIdWhenNoProviderContextThenDelegateCalledEachTime() {
+		ProviderContextHolder.resetProviderContext();
+		this.registeredClientRepository.findById(this.registeredClient.getId());
+		this.registeredClientRepository.findById(this.registeredClient.getId());
+		verify(this.delegate, times(2)).findById(this.registeredClient.getId());
+	}
+
+	@Test
+	public void saveWhenMemoizedThenDelegateCalledAgain() {
+		this.registeredClientRepository.findById(this.registeredClient.getId());
+		this.registeredClientRepository.save(this.registeredClient);
+		this.registeredClientRepository.findById(this.registeredClient.getId());
+		verify(this.delegate).save(this.registeredClient);
+		verify(this.delegate, times(2)).findById(this.registeredClient.getId());
+	}
+
+	private static void startRequest() {
+		ProviderContextHolder.setProviderContext(new ProviderContext(ProviderSettings.builder().build(), null));
+	}
+
+}
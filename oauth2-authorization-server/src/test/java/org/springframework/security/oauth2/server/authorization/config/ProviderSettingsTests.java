@@ -15,6 +15,8 @@
  */
 package org.springframework.security.oauth2.server.authorization.config;
 
+import java.time.Duration;
+
 import org.junit.Test;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -39,6 +41,7 @@ public class ProviderSettingsTests {
 		assertThat(providerSettings.getTokenIntrospectionEndpoint()).isEqualTo("/oauth2/introspect");
 		assertThat(providerSettings.getOidcClientRegistrationEndpoint()).isEqualTo("/connect/register");
 		assertThat(providerSettings.getOidcUserInfoEndpoint()).isEqualTo("/userinfo");
+		assertThat(providerSettings.getRegisteredClientCacheTimeToLive()).isNull();
 	}
 
 	@Test
@@ -142,4 +145,19 @@ public class ProviderSettingsTests {
 				.withMessage("value cannot be null");
 	}
 
+	@Test
+	public void registeredClientCacheTimeToLiveWhenProvidedThenSet() {
+		ProviderSettings providerSettings = ProviderSettings.builder()
+				.registeredClientCacheTimeToLive(Duration.ofMinutes(1))
+				.build();
+		assertThat(providerSettings.getRegisteredClientCacheTimeToLive()).isEqualTo(Duration.ofMinutes(1));
+	}
+
+	@Test
+	public void registeredClientCacheTimeToLiveWhenZeroThenThrowIllegalArgumentException() {
+		assertThatIllegalArgumentException()
+				.isThrownBy(() -> ProviderSettings.builder().registeredClientCacheTimeToLive(Duration.ZERO))
+				.withMessage("registeredClientCacheTimeToLive must be greater than Duration.ZERO");
+	}
+
 }
@@ -16,6 +16,7 @@
 package org.springframework.security.oauth2.server.authorization.config;
 
 import java.time.Duration;
+import java.util.Collections;
 
 import org.junit.Test;
 
@@ -35,12 +36,13 @@ public class TokenSettingsTests {
 	@Test
 	public void buildWhenDefaultThenDefaultsAreSet() {
 		TokenSettings tokenSettings = TokenSettings.builder().build();
-		assertThat(tokenSettings.getSettings()).hasSize(5);
+		assertThat(tokenSettings.getSettings()).hasSize(6);
 		assertThat(tokenSettings.getAccessTokenTimeToLive()).isEqualTo(Duration.ofMinutes(5));
 		assertThat(tokenSettings.getAccessTokenFormat()).isEqualTo(OAuth2TokenFormat.SELF_CONTAINED);
 		assertThat(tokenSettings.isReuseRefreshTokens()).isTrue();
 		assertThat(tokenSettings.getRefreshTokenTimeToLive()).isEqualTo(Duration.ofMinutes(60));
 		assertThat(tokenSettings.getIdTokenSignatureAlgorithm()).isEqualTo(SignatureAlgorithm.RS256);
+		assertThat(tokenSettings.isStoreClientCredentialsAuthorizations()).isTrue();
 	}
 
 	@Test
@@ -130,13 +132,28 @@ public class TokenSettingsTests {
 		assertThat(tokenSettings.getIdTokenSignatureAlgorithm()).isEqualTo(idTokenSignatureAlgorithm);
 	}
 
+	@Test
+	public void storeClientCredentialsAuthorizationsWhenFalseThenSet() {
+		TokenSettings tokenSettings = TokenSettings.builder()
+				.storeClientCredentialsAuthorizations(false)
+				.build();
+		assertThat(tokenSettings.isStoreClientCredentialsAuthorizations()).isFalse();
+	}
+
+	@Test
+	public void storeClientCredentialsAuthorizationsWhenNotSetThenTrue() {
+		TokenSettings tokenSettings = TokenSettings.withSettings(
+				Collections.singletonMap(ConfigurationSettingNames.Token.REUSE_REFRESH_TOKENS, true)).build();
+		assertThat(tokenSettings.isStoreClientCredentialsAuthorizations()).isTrue();
+	}
+
 	@Test
 	public void settingWhenCustomThenSet() {
 		TokenSettings tokenSettings = TokenSettings.builder()
 				.setting("name1", "value1")
 				.settings(settings -> settings.put("name2", "value2"))
 				.build();
-		assertThat(tokenSettings.getSettings()).hasSize(7);
+		assertThat(tokenSettings.getSettings()).hasSize(8);
 		assertThat(tokenSettings.<String>getSetting("name1")).isEqualTo("value1");
 		assertThat(tokenSettings.<String>getSetting("name2")).isEqualTo("value2");
 	}
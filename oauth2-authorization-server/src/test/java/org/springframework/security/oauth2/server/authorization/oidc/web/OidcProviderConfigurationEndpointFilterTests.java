@@ -22,6 +22,8 @@ import javax.servlet.http.HttpServletResponse;
 import org.junit.After;
 import org.junit.Test;
 
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.mock.web.MockHttpServletResponse;
@@ -132,6 +134,56 @@ public class OidcProviderConfigurationEndpointFilterTests {
 		assertThat(providerConfigurationResponse).contains("\"token_endpoint_auth_methods_supported\":[\"client_secret_basic\",\"client_secret_post\",\"client_secret_jwt\",\"private_key_jwt\"]");
 	}
 
+	@Test
+	public void doFilterWhenIfNoneMatchETagThenNotModified() throws Exception {
+		ProviderSettings providerSettings = ProviderSettings.builder()
+				.issuer("https://example.com/issuer1")
+				.build();
+		ProviderContextHolder.setProviderContext(new ProviderContext(providerSettings, null));
+		OidcProviderConfigurationEndpointFilter filter =
+				new OidcProviderConfigurationEndpointFilter(providerSettings);
+
+		String requestUri = DEFAULT_OIDC_PROVIDER_CONFIGURATION_ENDPOINT_URI;
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", requestUri);
+		request.setServletPath(requestUri);
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		filter.doFilter(request, response, mock(FilterChain.class));
+
+		String eTag = response.getHeader(HttpHeaders.ETAG);
+		assertThat(eTag).isNotNull();
+
+		request = new MockHttpServletRequest("GET", requestUri);
+		request.setServletPath(requestUri);
+		request.addHeader(HttpHeaders.IF_NONE_MATCH, eTag);
+		response = new MockHttpServletResponse();
+		filter.doFilter(request, response, mock(FilterChain.class));
+
+		assertThat(response.getStatus()).isEqualTo(HttpStatus.NOT_MODIFIED.value());
+		assertThat(response.getContentAsByteArray()).isEmpty();
+	}
+
+	@Test
+	public void doFilterWhenDifferentIssuerThenDifferentResponse() throws Exception {
+		ProviderSettings providerSettings = ProviderSettings.builder().build();
+		OidcProviderConfigurationEndpointFilter filter =
+				new OidcProviderConfigurationEndpointFilter(providerSettings);
+
+		String requestUri = DEFAULT_OIDC_PROVIDER_CONFIGURATION_ENDPOINT_URI;
+		ProviderContextHolder.setProviderContext(new ProviderContext(providerSettings, () -> "https://example.com/issuer1"));
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", requestUri);
+		request.setServletPath(requestUri);
+		MockHttpServletResponse response1 = new MockHttpServletResponse();
+		filter.doFilter(request, response1, mock(FilterChain.class));
+
+		ProviderContextHolder.setProviderContext(new ProviderContext(providerSettings, () -> "https://example.com/issuer2"));
+		MockHttpServletResponse response2 = new MockHttpServletResponse();
+		filter.doFilter(request, response2, mock(FilterChain.class));
+
+		assertThat(response1.getContentAsString()).contains("\"issuer\":\"https://example.com/issuer1\"");
+		assertThat(response2.getContentAsString()).contains("\"issuer\":\"https://example.com/issuer2\"");
+		assertThat(response1.getHeader(HttpHeaders.ETAG)).isNotEqualTo(response2.getHeader(HttpHeaders.ETAG));
+	}
+
 	@Test
 	public void doFilterWhenProviderSettingsWithInvalidIssuerThenThrowIllegalArgumentException() {
 		ProviderSettings providerSettings = ProviderSettings.builder()
@@ -0,0 +1,208 @@
+/*
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.security.oauth2.server.authorization.token;
+
+import java.security.Principal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Set;
+
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.OAuth2AuthorizationCode;
+import org.springframework.security.oauth2.core.OAuth2TokenType;
+import org.springframework.security.oauth2.core.endpoint.OAuth2AuthorizationRequest;
+import org.springframework.security.oauth2.core.endpoint.OAuth2ParameterNames;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.OAuth2TokenContext;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+import org.springframework.security.oauth2.server.authorization.client.TestRegisteredClients;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for {@link StatelessAuthorizationCodeGenerator}.
+ */
+public class StatelessAuthorizationCodeGeneratorTests {
+	private static final OAuth2TokenType AUTHORIZATION_CODE_TOKEN_TYPE = new OAuth2TokenType(OAuth2ParameterNames.CODE);
+	private final RegisteredClient registeredClient = TestRegisteredClients.registeredClient().build();
+	private SecretKey secretKey;
+	private StatelessAuthorizationCodeGenerator authorizationCodeGenerator;
+
+	@Before
+	public void setUp() throws Exception {
+		KeyGenerator keyGenerator = KeyGenerator.getInstance("AES");
+		keyGenerator.init(128);
+		this.secretKey = keyGenerator.generateKey();
+		this.authorizationCodeGenerator = new StatelessAuthorizationCodeGenerator(this.secretKey);
+	}
+
+	@Test
+	public void constructorWhenSecretKeyNullThenThrowIllegalArgumentException() {
+		assertThatThrownBy(() -> new StatelessAuthorizationCodeGenerator(null))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("secretKey cannot be null");
+	}
+
+	@Test
+	public void constructorWhenNotAesSecretKeyThenThrowIllegalArgumentException() {
+		SecretKey secretKey = new SecretKeySpec(new byte[32], "HmacSHA256");
+		assertThatThrownBy(() -> new StatelessAuthorizationCodeGenerator(secretKey))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("secretKey must be an AES key");
+	}
+
+	@Test
+	public void setAuthorizationCodeTimeToLiveWhenZeroThenThrowIllegalArgumentException() {
+		assertThatThrownBy(() -> this.authorizationCodeGenerator.setAuthorizationCodeTimeToLive(Duration.ZERO))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("authorizationCodeTimeToLive must be greater than Duration.ZERO");
+	}
+
+	@Test
+	public void generateWhenUnsupportedTokenTypeThenReturnNull() {
+		// @formatter:off
+		OAuth2TokenContext tokenContext = DefaultOAuth2TokenContext.builder()
+				.tokenType(OAuth2TokenType.ACCESS_TOKEN)
+				.build();
+		// @formatter:on
+
+		assertThat(this.authorizationCodeGenerator.generate(tokenContext)).isNull();
+	}
+
+	@Test
+	public void generateWhenAuthorizationNotStoredThenAuthorizationReadFromAuthorizationCode() {
+		OAuth2Authorization authorization = authorization().build();
+		this.authorizationCodeGenerator.setAuthorizationCodeTimeToLive(Duration.ofMinutes(2));
+
+		OAuth2AuthorizationCode authorizationCode = this.authorizationCodeGenerator.generate(
+				tokenContext(authorization, Collections.singleton("scope1")));
+
+		assertThat(authorizationCode).isNotNull();
+		assertThat(this.authorizationCodeGenerator.matches(authorizationCode.getTokenValue())).isTrue();
+		Instant expiresAt = Instant.now().plus(Duration.ofMinutes(2));
+		assertThat(authorizationCode.getExpiresAt()).isBetween(expiresAt.minusSeconds(1), expiresAt.plusSeconds(1));
+
+		OAuth2Authorization codeAuthorization =
+				this.authorizationCodeGenerator.readAuthorization(authorizationCode.getTokenValue());
+		assertThat(codeAuthorization).isNotNull();
+		assertThat(codeAuthorization.getId()).isEqualTo(authorization.getId());
+		assertThat(codeAuthorization.getRegisteredClientId()).isEqualTo(this.registeredClient.getId());
+		assertThat(codeAuthorization.getPrincipalName()).isEqualTo("principal");
+		assertThat(codeAuthorization.<Set<String>>getAttribute(OAuth2Authorization.AUTHORIZED_SCOPE_ATTRIBUTE_NAME))
+				.containsExactly("scope1");
+		OAuth2AuthorizationRequest authorizationRequest =
+				codeAuthorization.getAttribute(OAuth2AuthorizationRequest.class.getName());
+		assertThat(authorizationRequest.getClientId()).isEqualTo(this.registeredClient.getClientId());
+		assertThat(authorizationRequest.getState()).isEqualTo("state");
+		assertThat(codeAuthorization.<Authentication>getAttribute(Principal.class.getName()).getName())
+				.isEqualTo("principal");
+		OAuth2Authorization.Token<OAuth2AuthorizationCode> token = codeAuthorization.getToken(OAuth2AuthorizationCode.class);
+		assertThat(token.getToken().getTokenValue()).isEqualTo(authorizationCode.getTokenValue());
+		assertThat(token.getToken().getExpiresAt()).isEqualTo(authorizationCode.getExpiresAt());
+		assertThat(token.isActive()).isTrue();
+	}
+
+	@Test
+	public void generateWhenAuthorizationStoredThenRandomAuthorizationCode() {
+		OAuth2Authorization authorization = authorization()
+				.attribute(OAuth2ParameterNames.STATE, "state")
+				.build();
+
+		OAuth2AuthorizationCode authorizationCode = this.authorizationCodeGenerator.generate(
+				tokenContext(authorization, this.registeredClient.getScopes()));
+
+		assertThat(authorizationCode).isNotNull();
+		assertThat(this.authorizationCodeGenerator.matches(authorizationCode.getTokenValue())).isFalse();
+	}
+
+	@Test
+	public void readAuthorizationWhenModifiedThenReturnNull() {
+		String authorizationCode = this.authorizationCodeGenerator.generate(
+				tokenContext(authorization().build(), this.registeredClient.getScopes())).getTokenValue();
+		int index = authorizationCode.length() / 2;
+		String modifiedAuthorizationCode = authorizationCode.substring(0, index) +
+				(authorizationCode.charAt(index) == 'A' ? 'B' : 'A') + authorizationCode.substring(index + 1);
+
+		assertThat(this.authorizationCodeGenerator.readAuthorization(modifiedAuthorizationCode)).isNull();
+		assertThat(this.authorizationCodeGenerator.readAuthorization("1.invalid")).isNull();
+		assertThat(this.authorizationCodeGenerator.readAuthorization("code")).isNull();
+	}
+
+	@Test
+	public void readAuthorizationWhenAttributeNotAllowlistedThenReturnNull() {
+		OAuth2Authorization authorization = authorization()
+				.attribute(Principal.class.getName(), new TestingAuthenticationToken("principal", null, "ROLE_A"))
+				.build();
+		String authorizationCode = this.authorizationCodeGenerator.generate(
+				tokenContext(authorization, this.registeredClient.getScopes())).getTokenValue();
+
+		assertThat(this.authorizationCodeGenerator.readAuthorization(authorizationCode)).isNull();
+	}
+
+	@Test
+	public void readAuthorizationWhenAnotherSecretKeyThenReturnNull() throws Exception {
+		String authorizationCode = this.authorizationCodeGenerator.generate(
+				tokenContext(authorization().build(), this.registeredClient.getScopes())).getTokenValue();
+		KeyGenerator keyGenerator = KeyGenerator.getInstance("AES");
+		keyGenerator.init(128);
+		StatelessAuthorizationCodeGenerator authorizationCodeGenerator =
+				new StatelessAuthorizationCodeGenerator(keyGenerator.generateKey());
+
+		assertThat(authorizationCodeGenerator.readAuthorization(authorizationCode)).isNull();
+	}
+
+	private OAuth2Authorization.Builder authorization() {
+		OAuth2AuthorizationRequest authorizationRequest = OAuth2AuthorizationRequest.authorizationCode()
+				.authorizationUri("https://provider.com/oauth2/authorize")
+				.clientId(this.registeredClient.getClientId())
+				.redirectUri(this.registeredClient.getRedirectUris().iterator().next())
+				.scopes(this.registeredClient.getScopes())
+				.state("state")
+				.build();
+		// @formatter:off
+		return OAuth2Authorization.withRegisteredClient(this.registeredClient)
+				.principalName("principal")
+				.authorizationGrantType(AuthorizationGrantType.AUTHORIZATION_CODE)
+				.attribute(Principal.class.getName(), new UsernamePasswordAuthenticationToken("principal", null, AuthorityUtils.createAuthorityList("ROLE_A")))
+				.attribute(OAuth2AuthorizationRequest.class.getName(), authorizationRequest);
+		// @formatter:on
+	}
+
+	private OAuth2TokenContext tokenContext(OAuth2Authorization authorization, Set<String> authorizedScopes) {
+		// @formatter:off
+		return DefaultOAuth2TokenContext.builder()
+				.registeredClient(this.registeredClient)
+				.authorization(authorization)
+				.authorizedScopes(authorizedScopes)
+				.tokenType(AUTHORIZATION_CODE_TOKEN_TYPE)
+				.build();
+		// @formatter:on
+	}
+
+}
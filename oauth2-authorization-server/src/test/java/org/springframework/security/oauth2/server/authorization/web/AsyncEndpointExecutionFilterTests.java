@@ -0,0 +1,311 @@
+/*
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.security.oauth2.server.authorization.web;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.http.HttpServletResponse;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.server.authorization.config.ProviderSettings;
+import org.springframework.security.oauth2.server.authorization.context.ProviderContext;
+import org.springframework.security.oauth2.server.authorization.context.ProviderContextHolder;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+/**
+ * Tests for {@link AsyncEndpointExecutionFilter}.
+ */
+public class AsyncEndpointExecutionFilterTests {
+	private static final String DEFAULT_TOKEN_ENDPOINT_URI = "/oauth2/token";
+	private final List<Runnable> tasks = new ArrayList<>();
+	private final Executor executor = this.tasks::add;
+	private AsyncEndpointExecutionFilter filter;
+
+	@Before
+	public void setUp() {
+		this.filter = new AsyncEndpointExecutionFilter(this.executor,
+				new AntPathRequestMatcher(DEFAULT_TOKEN_ENDPOINT_URI));
+	}
+
+	@After
+	public void cleanup() {
+		SecurityContextHolder.clearContext();
+		ProviderContextHolder.resetProviderContext();
+	}
+
+	@Test
+	public void constructorWhenExecutorNullThenThrowIllegalArgumentException() {
+		assertThatThrownBy(() -> new AsyncEndpointExecutionFilter(null, new AntPathRequestMatcher(DEFAULT_TOKEN_ENDPOINT_URI)))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("executor cannot be null");
+	}
+
+	@Test
+	public void constructorWhenRequestMatcherNullThenThrowIllegalArgumentException() {
+		assertThatThrownBy(() -> new AsyncEndpointExecutionFilter(this.executor, null))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("requestMatcher cannot be null");
+	}
+
+	@Test
+	public void setTimeoutWhenNullThenThrowIllegalArgumentException() {
+		assertThatThrownBy(() -> this.filter.setTimeout(null))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("timeout cannot be null");
+	}
+
+	@Test
+	public void setTimeoutWhenZeroThenThrowIllegalArgumentException() {
+		assertThatThrownBy(() -> this.filter.setTimeout(Duration.ZERO))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("timeout must be greater than zero");
+	}
+
+	@Test
+	public void doFilterWhenTimeoutSetThenAsyncContextTimeoutSet() throws Exception {
+		this.filter.setTimeout(Duration.ofSeconds(5));
+		MockHttpServletRequest request = createRequest(DEFAULT_TOKEN_ENDPOINT_URI);
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		this.filter.doFilter(request, response, mock(FilterChain.class));
+
+		assertThat(request.getAsyncContext().getTimeout()).isEqualTo(5000L);
+	}
+
+	@Test
+	public void doFilterWhenTimeoutWhileQueuedThenServiceUnavailableAndNotProcessed() throws Exception {
+		MockHttpServletRequest request = createRequest(DEFAULT_TOKEN_ENDPOINT_URI);
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		FilterChain filterChain = mock(FilterChain.class);
+
+		this.filter.doFilter(request, response, filterChain);
+		MockAsyncContext asyncContext = (MockAsyncContext) request.getAsyncContext();
+		for (AsyncListener listener : asyncContext.getListeners()) {
+			listener.onTimeout(new AsyncEvent(asyncContext));
+		}
+
+		assertThat(response.getStatus()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE.value());
+		assertThat(request.isAsyncStarted()).isFalse();
+
+		this.tasks.get(0).run();
+
+		verify(filterChain, never()).doFilter(any(), any());
+		assertThat(this.filter.getQueuedRequestCount()).isEqualTo(0);
+		assertThat(this.filter.getActiveRequestCount()).isEqualTo(0);
+	}
+
+	@Test
+	public void doFilterWhenTimeoutWhileProcessingThenResponseNotWrittenAfterTimeout() throws Exception {
+		MockHttpServletRequest request = createRequest(DEFAULT_TOKEN_ENDPOINT_URI);
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		FilterChain filterChain = mock(FilterChain.class);
+		doAnswer((invocation) -> {
+			MockAsyncContext asyncContext = (MockAsyncContext) request.getAsyncContext();
+			for (AsyncListener listener : asyncContext.getListeners()) {
+				listener.onTimeout(new AsyncEvent(asyncContext));
+			}
+			throw new IllegalStateException();
+		}).when(filterChain).doFilter(any(), any());
+
+		this.filter.doFilter(request, response, filterChain);
+		this.tasks.get(0).run();
+
+		assertThat(response.getStatus()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE.value());
+		assertThat(request.isAsyncStarted()).isFalse();
+		assertThat(this.filter.getActiveRequestCount()).isEqualTo(0);
+	}
+
+	@Test
+	public void doFilterWhenTimeoutWhileProcessingThenWritesAfterTimeoutDropped() throws Exception {
+		MockHttpServletRequest request = createRequest(DEFAULT_TOKEN_ENDPOINT_URI);
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		FilterChain filterChain = mock(FilterChain.class);
+		doAnswer((invocation) -> {
+			HttpServletResponse endpointResponse = invocation.getArgument(1);
+			MockAsyncContext asyncContext = (MockAsyncContext) request.getAsyncContext();
+			for (AsyncListener listener : asyncContext.getListeners()) {
+				listener.onTimeout(new AsyncEvent(asyncContext));
+			}
+			endpointResponse.setStatus(HttpStatus.OK.value());
+			endpointResponse.setHeader("X-Endpoint", "value");
+			endpointResponse.getWriter().write("{\"access_token\":\"token\"}");
+			endpointResponse.getOutputStream().write("body".getBytes(StandardCharsets.UTF_8));
+			endpointResponse.flushBuffer();
+			return null;
+		}).when(filterChain).doFilter(any(), any());
+
+		this.filter.doFilter(request, response, filterChain);
+		this.tasks.get(0).run();
+
+		assertThat(response.getStatus()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE.value());
+		assertThat(response.getHeader("X-Endpoint")).isNull();
+		assertThat(response.getContentAsString()).isEmpty();
+		assertThat(request.isAsyncStarted()).isFalse();
+		assertThat(this.filter.getActiveRequestCount()).isEqualTo(0);
+	}
+
+	@Test
+	public void doFilterWhenAsyncErrorThenServiceUnavailableAndNotProcessed() throws Exception {
+		MockHttpServletRequest request = createRequest(DEFAULT_TOKEN_ENDPOINT_URI);
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		FilterChain filterChain = mock(FilterChain.class);
+
+		this.filter.doFilter(request, response, filterChain);
+		MockAsyncContext asyncContext = (MockAsyncContext) request.getAsyncContext();
+		for (AsyncListener listener : asyncContext.getListeners()) {
+			listener.onError(new AsyncEvent(asyncContext, new IllegalStateException()));
+		}
+		this.tasks.get(0).run();
+
+		assertThat(response.getStatus()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE.value());
+		assertThat(request.isAsyncStarted()).isFalse();
+		verify(filterChain, never()).doFilter(any(), any());
+	}
+
+	@Test
+	public void doFilterWhenNotEndpointRequestThenNotOffloaded() throws Exception {
+		MockHttpServletRequest request = createRequest("/path");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		FilterChain filterChain = mock(FilterChain.class);
+
+		this.filter.doFilter(request, response, filterChain);
+
+		verify(filterChain).doFilter(request, response);
+		assertThat(request.isAsyncStarted()).isFalse();
+		assertThat(this.tasks).isEmpty();
+	}
+
+	@Test
+	public void doFilterWhenAsyncNotSupportedThenNotOffloaded() throws Exception {
+		MockHttpServletRequest request = createRequest(DEFAULT_TOKEN_ENDPOINT_URI);
+		request.setAsyncSupported(false);
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		FilterChain filterChain = mock(FilterChain.class);
+
+		this.filter.doFilter(request, response, filterChain);
+
+		verify(filterChain).doFilter(request, response);
+		assertThat(this.tasks).isEmpty();
+	}
+
+	@Test
+	public void doFilterWhenEndpointRequestThenOffloadedWithContexts() throws Exception {
+		Authentication principal = new TestingAuthenticationToken("principal", "credentials");
+		SecurityContext securityContext = SecurityContextHolder.createEmptyContext();
+		securityContext.setAuthentication(principal);
+		SecurityContextHolder.setContext(securityContext);
+		ProviderContext providerContext = new ProviderContext(ProviderSettings.builder().build(), null);
+		ProviderContextHolder.setProviderContext(providerContext);
+
+		MockHttpServletRequest request = createRequest(DEFAULT_TOKEN_ENDPOINT_URI);
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		FilterChain filterChain = mock(FilterChain.class);
+		List<Object> propagatedContexts = new ArrayList<>();
+		doAnswer((invocation) -> {
+			propagatedContexts.add(SecurityContextHolder.getContext().getAuthentication());
+			propagatedContexts.add(ProviderContextHolder.getProviderContext());
+			return null;
+		}).when(filterChain).doFilter(any(), any());
+
+		this.filter.doFilter(request, response, filterChain);
+
+		verifyNoInteractions(filterChain);
+		assertThat(request.isAsyncStarted()).isTrue();
+		assertThat(this.tasks).hasSize(1);
+		assertThat(this.filter.getQueuedRequestCount()).isEqualTo(1);
+
+		// Simulate the executor thread
+		SecurityContextHolder.clearContext();
+		ProviderContextHolder.resetProviderContext();
+		this.tasks.get(0).run();
+
+		verify(filterChain).doFilter(eq(request), any());
+		assertThat(propagatedContexts).containsExactly(principal, providerContext);
+		assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+		assertThat(ProviderContextHolder.getProviderContext()).isNull();
+		assertThat(request.isAsyncStarted()).isFalse();
+		assertThat(this.filter.getQueuedRequestCount()).isEqualTo(0);
+		assertThat(this.filter.getActiveRequestCount()).isEqualTo(0);
+	}
+
+	@Test
+	public void doFilterWhenExecutorRejectsThenProcessedOnCallingThread() throws Exception {
+		this.filter = new AsyncEndpointExecutionFilter((task) -> {
+			throw new RejectedExecutionException();
+		}, new AntPathRequestMatcher(DEFAULT_TOKEN_ENDPOINT_URI));
+		MockHttpServletRequest request = createRequest(DEFAULT_TOKEN_ENDPOINT_URI);
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		FilterChain filterChain = mock(FilterChain.class);
+
+		this.filter.doFilter(request, response, filterChain);
+
+		verify(filterChain).doFilter(eq(request), any());
+		assertThat(request.isAsyncStarted()).isFalse();
+		assertThat(this.filter.getQueuedRequestCount()).isEqualTo(0);
+	}
+
+	@Test
+	public void doFilterWhenEndpointRequestFailsThenInternalServerError() throws Exception {
+		MockHttpServletRequest request = createRequest(DEFAULT_TOKEN_ENDPOINT_URI);
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		FilterChain filterChain = mock(FilterChain.class);
+		doThrow(new IllegalStateException()).when(filterChain).doFilter(any(), any());
+
+		this.filter.doFilter(request, response, filterChain);
+		this.tasks.get(0).run();
+
+		assertThat(response.getStatus()).isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR.value());
+		assertThat(request.isAsyncStarted()).isFalse();
+	}
+
+	private static MockHttpServletRequest createRequest(String requestUri) {
+		MockHttpServletRequest request = new MockHttpServletRequest("POST", requestUri);
+		request.setServletPath(requestUri);
+		request.setAsyncSupported(true);
+		return request;
+	}
+
+}
@@ -15,6 +15,7 @@
  */
 package org.springframework.security.oauth2.server.authorization.web;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -33,6 +34,9 @@ import com.nimbusds.jose.proc.SecurityContext;
 import org.junit.Before;
 import org.junit.Test;
 
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.mock.web.MockHttpServletResponse;
@@ -77,6 +81,13 @@ public class NimbusJwkSetEndpointFilterTests {
 				.hasMessage("jwkSetEndpointUri cannot be empty");
 	}
 
+	@Test
+	public void setCacheControlWhenNullThenThrowIllegalArgumentException() {
+		assertThatThrownBy(() -> this.filter.setCacheControl(null))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("cacheControl cannot be null");
+	}
+
 	@Test
 	public void doFilterWhenNotJwkSetRequestThenNotProcessed() throws Exception {
 		String requestUri = "/path";
@@ -158,4 +169,53 @@ public class NimbusJwkSetEndpointFilterTests {
 		JWKSet jwkSet = JWKSet.parse(response.getContentAsString());
 		assertThat(jwkSet.getKeys()).isEmpty();
 	}
+
+	@Test
+	public void doFilterWhenJwkSetRequestThenETagAndCacheControlHeaders() throws Exception {
+		this.jwkList.add(TestJwks.DEFAULT_RSA_JWK);
+		this.filter.setCacheControl(CacheControl.maxAge(Duration.ofMinutes(5)));
+
+		MockHttpServletResponse response = doJwkSetRequest(null);
+
+		assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+		assertThat(response.getHeader(HttpHeaders.ETAG)).startsWith("\"");
+		assertThat(response.getHeader(HttpHeaders.CACHE_CONTROL)).isEqualTo("max-age=300");
+	}
+
+	@Test
+	public void doFilterWhenIfNoneMatchETagThenNotModified() throws Exception {
+		this.jwkList.add(TestJwks.DEFAULT_RSA_JWK);
+		String eTag = doJwkSetRequest(null).getHeader(HttpHeaders.ETAG);
+
+		MockHttpServletResponse response = doJwkSetRequest(eTag);
+
+		assertThat(response.getStatus()).isEqualTo(HttpStatus.NOT_MODIFIED.value());
+		assertThat(response.getContentAsByteArray()).isEmpty();
+	}
+
+	@Test
+	public void doFilterWhenJwkSetChangedThenETagChanged() throws Exception {
+		this.jwkList.add(TestJwks.DEFAULT_RSA_JWK);
+		String eTag = doJwkSetRequest(null).getHeader(HttpHeaders.ETAG);
+		this.jwkList.add(TestJwks.DEFAULT_EC_JWK);
+
+		MockHttpServletResponse response = doJwkSetRequest(eTag);
+
+		assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+		assertThat(response.getHeader(HttpHeaders.ETAG)).isNotEqualTo(eTag);
+		JWKSet jwkSet = JWKSet.parse(response.getContentAsString());
+		assertThat(jwkSet.getKeys()).hasSize(2);
+	}
+
+	private MockHttpServletResponse doJwkSetRequest(String ifNoneMatch) throws Exception {
+		String requestUri = DEFAULT_JWK_SET_ENDPOINT_URI;
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", requestUri);
+		request.setServletPath(requestUri);
+		if (ifNoneMatch != null) {
+			request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+		}
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		this.filter.doFilter(request, response, mock(FilterChain.class));
+		return response;
+	}
 }
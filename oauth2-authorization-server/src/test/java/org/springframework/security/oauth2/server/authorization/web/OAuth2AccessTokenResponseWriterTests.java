@@ -0,0 +1,138 @@
+/*
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.security.oauth2.server.authorization.web;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.core.OAuth2RefreshToken;
+import org.springframework.security.oauth2.core.endpoint.OAuth2ParameterNames;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+/**
+ * Tests for {@link OAuth2AccessTokenResponseWriter}.
+ */
+public class OAuth2AccessTokenResponseWriterTests {
+	private final OAuth2AccessTokenResponseWriter accessTokenResponseWriter = new OAuth2AccessTokenResponseWriter();
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void writeWhenAllParametersThenWritten() throws Exception {
+		Instant issuedAt = Instant.now();
+		OAuth2AccessToken accessToken = new OAuth2AccessToken(OAuth2AccessToken.TokenType.BEARER,
+				"access-token", issuedAt, issuedAt.plusSeconds(300), new HashSet<>(Arrays.asList("scope1", "scope2")));
+		OAuth2RefreshToken refreshToken = new OAuth2RefreshToken("refresh-token", issuedAt);
+		Map<String, Object> additionalParameters = new HashMap<>();
+		additionalParameters.put("id_token", "id-token");
+		additionalParameters.put("custom-parameter", Collections.singletonMap("name", "value"));
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+		this.accessTokenResponseWriter.write(accessToken, refreshToken, additionalParameters, outputStream);
+
+		Map<String, Object> parameters = new ObjectMapper().readValue(outputStream.toByteArray(), Map.class);
+		assertThat(parameters).containsOnly(
+				entry(OAuth2ParameterNames.ACCESS_TOKEN, "access-token"),
+				entry(OAuth2ParameterNames.TOKEN_TYPE, OAuth2AccessToken.TokenType.BEARER.getValue()),
+				entry(OAuth2ParameterNames.EXPIRES_IN, 300),
+				entry(OAuth2ParameterNames.SCOPE, String.join(" ", accessToken.getScopes())),
+				entry(OAuth2ParameterNames.REFRESH_TOKEN, "refresh-token"),
+				entry("id_token", "id-token"),
+				entry("custom-parameter", Collections.singletonMap("name", "value")));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void writeWhenOnlyAccessTokenThenOptionalParametersNotWritten() throws Exception {
+		OAuth2AccessToken accessToken = new OAuth2AccessToken(OAuth2AccessToken.TokenType.BEARER,
+				"access-token", null, null);
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+		this.accessTokenResponseWriter.write(accessToken, null, null, outputStream);
+
+		Map<String, Object> parameters = new ObjectMapper().readValue(outputStream.toByteArray(), Map.class);
+		assertThat(parameters).containsOnly(
+				entry(OAuth2ParameterNames.ACCESS_TOKEN, "access-token"),
+				entry(OAuth2ParameterNames.TOKEN_TYPE, OAuth2AccessToken.TokenType.BEARER.getValue()));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void writeWhenInstantAdditionalParameterThenWritten() throws Exception {
+		Instant issuedAt = Instant.now();
+		OAuth2AccessToken accessToken = new OAuth2AccessToken(OAuth2AccessToken.TokenType.BEARER,
+				"access-token", issuedAt, issuedAt.plusSeconds(300));
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+		this.accessTokenResponseWriter.write(accessToken, null,
+				Collections.singletonMap("custom-instant", issuedAt), outputStream);
+
+		Map<String, Object> parameters = new ObjectMapper().readValue(outputStream.toByteArray(), Map.class);
+		assertThat(parameters.get("custom-instant")).isInstanceOf(Number.class);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void writeWhenCollectionAdditionalParametersThenWrittenWithoutTypeInformation() throws Exception {
+		Instant issuedAt = Instant.now();
+		OAuth2AccessToken accessToken = new OAuth2AccessToken(OAuth2AccessToken.TokenType.BEARER,
+				"access-token", issuedAt, issuedAt.plusSeconds(300));
+		Map<String, Object> customClaims = new HashMap<>();
+		customClaims.put("name", "value");
+		customClaims.put("roles", new HashSet<>(Collections.singletonList("admin")));
+		Map<String, Object> additionalParameters = new HashMap<>();
+		additionalParameters.put("custom-set", new HashSet<>(Arrays.asList("value1", "value2")));
+		additionalParameters.put("custom-map", customClaims);
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+		this.accessTokenResponseWriter.write(accessToken, null, additionalParameters, outputStream);
+
+		String json = new String(outputStream.toByteArray(), StandardCharsets.UTF_8);
+		assertThat(json).doesNotContain("java.util");
+		Map<String, Object> parameters = new ObjectMapper().readValue(json, Map.class);
+		assertThat((List<String>) parameters.get("custom-set")).containsExactlyInAnyOrder("value1", "value2");
+		assertThat((Map<String, Object>) parameters.get("custom-map")).containsOnly(
+				entry("name", "value"),
+				entry("roles", Collections.singletonList("admin")));
+	}
+
+	@Test
+	public void writeWhenHttpServletResponseThenContentTypeJson() throws Exception {
+		Instant issuedAt = Instant.now();
+		OAuth2AccessToken accessToken = new OAuth2AccessToken(OAuth2AccessToken.TokenType.BEARER,
+				"access-token", issuedAt, issuedAt.plusSeconds(300));
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		this.accessTokenResponseWriter.write(accessToken, null, null, response);
+
+		assertThat(response.getContentType()).isEqualTo("application/json;charset=UTF-8");
+		assertThat(response.getContentAsString()).contains("\"access_token\":\"access-token\"");
+	}
+
+}
@@ -0,0 +1,222 @@
+/*
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.security.oauth2.server.authorization.web;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import javax.servlet.FilterChain;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.core.ClientAuthenticationMethod;
+import org.springframework.security.oauth2.core.OAuth2Error;
+import org.springframework.security.oauth2.core.OAuth2ErrorCodes;
+import org.springframework.security.oauth2.core.OAuth2TokenIntrospection;
+import org.springframework.security.oauth2.core.OAuth2TokenIntrospectionClaimNames;
+import org.springframework.security.oauth2.core.endpoint.OAuth2ParameterNames;
+import org.springframework.security.oauth2.core.http.converter.OAuth2ErrorHttpMessageConverter;
+import org.springframework.security.oauth2.server.authorization.authentication.OAuth2BatchTokenIntrospectionAuthenticationToken;
+import org.springframework.security.oauth2.server.authorization.authentication.OAuth2ClientAuthenticationToken;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+import org.springframework.security.oauth2.server.authorization.client.TestRegisteredClients;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for {@link OAuth2BatchTokenIntrospectionEndpointFilter}.
+ */
+public class OAuth2BatchTokenIntrospectionEndpointFilterTests {
+	private static final String BATCH_TOKEN_INTROSPECTION_ENDPOINT_URI = "/oauth2/introspect/batch";
+	private AuthenticationManager authenticationManager;
+	private OAuth2BatchTokenIntrospectionEndpointFilter filter;
+	private final HttpMessageConverter<OAuth2Error> errorHttpResponseConverter =
+			new OAuth2ErrorHttpMessageConverter();
+
+	@Before
+	public void setUp() {
+		this.authenticationManager = mock(AuthenticationManager.class);
+		this.filter = new OAuth2BatchTokenIntrospectionEndpointFilter(
+				this.authenticationManager, BATCH_TOKEN_INTROSPECTION_ENDPOINT_URI);
+	}
+
+	@After
+	public void cleanup() {
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	public void constructorWhenAuthenticationManagerNullThenThrowIllegalArgumentException() {
+		assertThatThrownBy(() -> new OAuth2BatchTokenIntrospectionEndpointFilter(null, BATCH_TOKEN_INTROSPECTION_ENDPOINT_URI))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("authenticationManager cannot be null");
+	}
+
+	@Test
+	public void constructorWhenBatchTokenIntrospectionEndpointUriNullThenThrowIllegalArgumentException() {
+		assertThatThrownBy(() -> new OAuth2BatchTokenIntrospectionEndpointFilter(this.authenticationManager, null))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("batchTokenIntrospectionEndpointUri cannot be empty");
+	}
+
+	@Test
+	public void setMaxBatchSizeWhenNotPositiveThenThrowIllegalArgumentException() {
+		assertThatThrownBy(() -> this.filter.setMaxBatchSize(0))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("maxBatchSize must be greater than 0");
+	}
+
+	@Test
+	public void doFilterWhenNotBatchTokenIntrospectionRequestThenNotProcessed() throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("POST", "/path");
+		request.setServletPath("/path");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		FilterChain filterChain = mock(FilterChain.class);
+
+		this.filter.doFilter(request, response, filterChain);
+
+		verify(filterChain).doFilter(any(HttpServletRequest.class), any(HttpServletResponse.class));
+	}
+
+	@Test
+	public void doFilterWhenBatchTokenIntrospectionRequestMissingTokenThenInvalidRequestError() throws Exception {
+		MockHttpServletRequest request = createBatchTokenIntrospectionRequest();
+
+		doFilterWhenBatchTokenIntrospectionRequestInvalidParameterThenError(
+				OAuth2ParameterNames.TOKEN, OAuth2ErrorCodes.INVALID_REQUEST, request);
+	}
+
+	@Test
+	public void doFilterWhenBatchTokenIntrospectionRequestExceedsMaxBatchSizeThenInvalidRequestError() throws Exception {
+		this.filter.setMaxBatchSize(2);
+		RegisteredClient registeredClient = TestRegisteredClients.registeredClient().build();
+		SecurityContext securityContext = SecurityContextHolder.createEmptyContext();
+		securityContext.setAuthentication(new OAuth2ClientAuthenticationToken(
+				registeredClient, ClientAuthenticationMethod.CLIENT_SECRET_BASIC, registeredClient.getClientSecret()));
+		SecurityContextHolder.setContext(securityContext);
+		MockHttpServletRequest request = createBatchTokenIntrospectionRequest("token1", "token2", "token3");
+
+		doFilterWhenBatchTokenIntrospectionRequestInvalidParameterThenError(
+				OAuth2ParameterNames.TOKEN, OAuth2ErrorCodes.INVALID_REQUEST, request);
+		verifyNoInteractions(this.authenticationManager);
+	}
+
+	@Test
+	public void doFilterWhenBatchTokenIntrospectionRequestValidThenSuccessResponse() throws Exception {
+		RegisteredClient registeredClient = TestRegisteredClients.registeredClient().build();
+		Authentication clientPrincipal = new OAuth2ClientAuthenticationToken(
+				registeredClient, ClientAuthenticationMethod.CLIENT_SECRET_BASIC, registeredClient.getClientSecret());
+		Instant issuedAt = Instant.now();
+		OAuth2TokenIntrospection activeTokenClaims = OAuth2TokenIntrospection.builder(true)
+				.clientId("authorized-client-id")
+				.issuedAt(issuedAt)
+				.expiresAt(issuedAt.plus(Duration.ofHours(1)))
+				.build();
+		List<String> tokens = Arrays.asList("token1", "token2");
+		OAuth2BatchTokenIntrospectionAuthenticationToken batchTokenIntrospectionAuthenticationResult =
+				new OAuth2BatchTokenIntrospectionAuthenticationToken(tokens, clientPrincipal,
+						Arrays.asList(activeTokenClaims, OAuth2TokenIntrospection.builder().build()));
+
+		when(this.authenticationManager.authenticate(any())).thenReturn(batchTokenIntrospectionAuthenticationResult);
+
+		SecurityContext securityContext = SecurityContextHolder.createEmptyContext();
+		securityContext.setAuthentication(clientPrincipal);
+		SecurityContextHolder.setContext(securityContext);
+
+		MockHttpServletRequest request = createBatchTokenIntrospectionRequest("token1", "token2");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		FilterChain filterChain = mock(FilterChain.class);
+
+		this.filter.doFilter(request, response, filterChain);
+
+		ArgumentCaptor<OAuth2BatchTokenIntrospectionAuthenticationToken> batchTokenIntrospectionAuthentication =
+				ArgumentCaptor.forClass(OAuth2BatchTokenIntrospectionAuthenticationToken.class);
+
+		verifyNoInteractions(filterChain);
+		verify(this.authenticationManager).authenticate(batchTokenIntrospectionAuthentication.capture());
+		assertThat(batchTokenIntrospectionAuthentication.getValue().getTokens()).isEqualTo(tokens);
+		assertThat(batchTokenIntrospectionAuthentication.getValue().getPrincipal()).isEqualTo(clientPrincipal);
+
+		assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+		assertThat(response.getContentType()).startsWith(MediaType.APPLICATION_JSON_VALUE);
+		List<Map<String, Object>> tokenIntrospectionResponses = new ObjectMapper().readValue(
+				response.getContentAsByteArray(), new TypeReference<List<Map<String, Object>>>() {});
+		assertThat(tokenIntrospectionResponses).hasSize(2);
+		assertThat(tokenIntrospectionResponses.get(0))
+				.containsEntry(OAuth2TokenIntrospectionClaimNames.ACTIVE, true)
+				.containsEntry(OAuth2TokenIntrospectionClaimNames.CLIENT_ID, "authorized-client-id");
+		assertThat(((Number) tokenIntrospectionResponses.get(0).get(OAuth2TokenIntrospectionClaimNames.IAT)).longValue())
+				.isEqualTo(issuedAt.getEpochSecond());
+		assertThat(tokenIntrospectionResponses.get(1))
+				.containsOnlyKeys(OAuth2TokenIntrospectionClaimNames.ACTIVE)
+				.containsEntry(OAuth2TokenIntrospectionClaimNames.ACTIVE, false);
+	}
+
+	private void doFilterWhenBatchTokenIntrospectionRequestInvalidParameterThenError(String parameterName, String errorCode,
+			MockHttpServletRequest request) throws Exception {
+
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		FilterChain filterChain = mock(FilterChain.class);
+
+		this.filter.doFilter(request, response, filterChain);
+
+		verifyNoInteractions(filterChain);
+
+		assertThat(response.getStatus()).isEqualTo(HttpStatus.BAD_REQUEST.value());
+		MockClientHttpResponse httpResponse = new MockClientHttpResponse(
+				response.getContentAsByteArray(), HttpStatus.valueOf(response.getStatus()));
+		OAuth2Error error = this.errorHttpResponseConverter.read(OAuth2Error.class, httpResponse);
+		assertThat(error.getErrorCode()).isEqualTo(errorCode);
+		assertThat(error.getDescription()).isEqualTo("OAuth 2.0 Token Introspection Parameter: " + parameterName);
+	}
+
+	private static MockHttpServletRequest createBatchTokenIntrospectionRequest(String... tokens) {
+		String requestUri = BATCH_TOKEN_INTROSPECTION_ENDPOINT_URI;
+		MockHttpServletRequest request = new MockHttpServletRequest("POST", requestUri);
+		request.setServletPath(requestUri);
+		for (String token : tokens) {
+			request.addParameter(OAuth2ParameterNames.TOKEN, token);
+		}
+		return request;
+	}
+
+}
@@ -29,6 +29,7 @@ import org.junit.Before;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.converter.HttpMessageConverter;
 import org.springframework.mock.http.client.MockClientHttpResponse;
@@ -366,6 +367,53 @@ public class OAuth2TokenIntrospectionEndpointFilterTests {
 		assertThat(error.getDescription()).isEqualTo("OAuth 2.0 Token Introspection Parameter: " + parameterName);
 	}
 
+	@Test
+	public void doFilterWhenCacheControlMaxAgeAndActiveTokenThenCacheControlMaxAge() throws Exception {
+		this.filter.setCacheControlMaxAge(Duration.ofMinutes(1));
+		OAuth2TokenIntrospection tokenClaims = OAuth2TokenIntrospection.builder(true)
+				.expiresAt(Instant.now().plus(Duration.ofHours(1)))
+				.build();
+
+		MockHttpServletResponse response = doFilterWithTokenClaims(tokenClaims);
+
+		assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+		assertThat(response.getHeader(HttpHeaders.CACHE_CONTROL)).isEqualTo("max-age=60, private");
+	}
+
+	@Test
+	public void doFilterWhenCacheControlMaxAgeAndInactiveTokenThenCacheControlNoStore() throws Exception {
+		this.filter.setCacheControlMaxAge(Duration.ofMinutes(1));
+		OAuth2TokenIntrospection tokenClaims = OAuth2TokenIntrospection.builder().build();
+
+		MockHttpServletResponse response = doFilterWithTokenClaims(tokenClaims);
+
+		assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+		assertThat(response.getHeader(HttpHeaders.CACHE_CONTROL)).isEqualTo("no-store");
+	}
+
+	private MockHttpServletResponse doFilterWithTokenClaims(OAuth2TokenIntrospection tokenClaims) throws Exception {
+		RegisteredClient registeredClient = TestRegisteredClients.registeredClient().build();
+		Authentication clientPrincipal = new OAuth2ClientAuthenticationToken(
+				registeredClient, ClientAuthenticationMethod.CLIENT_SECRET_BASIC, registeredClient.getClientSecret());
+		OAuth2TokenIntrospectionAuthenticationToken tokenIntrospectionAuthenticationResult =
+				new OAuth2TokenIntrospectionAuthenticationToken("token", clientPrincipal, tokenClaims);
+		when(this.authenticationManager.authenticate(any())).thenReturn(tokenIntrospectionAuthenticationResult);
+
+		SecurityContext securityContext = SecurityContextHolder.createEmptyContext();
+		securityContext.setAuthentication(clientPrincipal);
+		SecurityContextHolder.setContext(securityContext);
+
+		MockHttpServletRequest request = createTokenIntrospectionRequest(
+				"token", OAuth2TokenType.ACCESS_TOKEN.getValue());
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		FilterChain filterChain = mock(FilterChain.class);
+
+		this.filter.doFilter(request, response, filterChain);
+
+		verifyNoInteractions(filterChain);
+		return response;
+	}
+
 	private OAuth2Error readError(MockHttpServletResponse response) throws Exception {
 		MockClientHttpResponse httpResponse = new MockClientHttpResponse(
 				response.getContentAsByteArray(), HttpStatus.valueOf(response.getStatus()));
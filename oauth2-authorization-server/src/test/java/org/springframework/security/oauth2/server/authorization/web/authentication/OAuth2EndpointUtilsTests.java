@@ -0,0 +1,78 @@
+/*
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.security.oauth2.server.authorization.web.authentication;
+
+import java.util.Map;
+
+import org.junit.Test;
+
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.endpoint.OAuth2ParameterNames;
+import org.springframework.util.MultiValueMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
+
+/**
+ * Tests for {@link OAuth2EndpointUtils}.
+ */
+public class OAuth2EndpointUtilsTests {
+
+	@Test
+	public void getParametersWhenCalledTwiceThenParsedOnce() {
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		request.addParameter(OAuth2ParameterNames.SCOPE, "scope1", "scope2");
+		request.addParameter(OAuth2ParameterNames.CLIENT_ID, "client-1");
+
+		MultiValueMap<String, String> parameters = OAuth2EndpointUtils.getParameters(request);
+
+		assertThat(parameters.get(OAuth2ParameterNames.SCOPE)).containsExactly("scope1", "scope2");
+		assertThat(parameters.getFirst(OAuth2ParameterNames.CLIENT_ID)).isEqualTo("client-1");
+		assertThat(OAuth2EndpointUtils.getParameters(request)).isSameAs(parameters);
+	}
+
+	@Test
+	public void getParametersWhenModifiedThenThrowUnsupportedOperationException() {
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		request.addParameter(OAuth2ParameterNames.CLIENT_ID, "client-1");
+
+		MultiValueMap<String, String> parameters = OAuth2EndpointUtils.getParameters(request);
+
+		assertThatThrownBy(() -> parameters.remove(OAuth2ParameterNames.CLIENT_ID))
+				.isInstanceOf(UnsupportedOperationException.class);
+		assertThatThrownBy(() -> parameters.get(OAuth2ParameterNames.CLIENT_ID).add("client-2"))
+				.isInstanceOf(UnsupportedOperationException.class);
+	}
+
+	@Test
+	public void getParametersIfMatchesAuthorizationCodeGrantRequestWhenExclusionsThenExcluded() {
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		request.addParameter(OAuth2ParameterNames.GRANT_TYPE, AuthorizationGrantType.AUTHORIZATION_CODE.getValue());
+		request.addParameter(OAuth2ParameterNames.CODE, "code");
+		request.addParameter(OAuth2ParameterNames.CLIENT_ID, "client-1");
+
+		Map<String, Object> parameters = OAuth2EndpointUtils.getParametersIfMatchesAuthorizationCodeGrantRequest(
+				request, OAuth2ParameterNames.CLIENT_ID);
+
+		assertThat(parameters).containsOnly(
+				entry(OAuth2ParameterNames.GRANT_TYPE, AuthorizationGrantType.AUTHORIZATION_CODE.getValue()),
+				entry(OAuth2ParameterNames.CODE, "code"));
+		assertThat(OAuth2EndpointUtils.getParameters(request)).containsKey(OAuth2ParameterNames.CLIENT_ID);
+	}
+
+}